@@ -0,0 +1,247 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A range of bytes, [startOffset, endOffset), of an uncompressed data file. A data file can be
+ * partitioned into byte ranges that are aligned to record boundaries (see
+ * {@link #partition(File, long, int, String)}) so that each range can be read independently, and
+ * concurrently, by its own record reader (see {@link LineFileRecordReader#setByteRange(ByteRange)}).
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class ByteRange {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final long startOffset;
+	private final long endOffset;
+
+	/**
+	 * @param startOffset
+	 *            the offset of the first byte of the range
+	 * @param endOffset
+	 *            the offset following the last byte of the range
+	 */
+	public ByteRange(long startOffset, long endOffset) {
+		if (startOffset < 0 || endOffset < startOffset) {
+			throw new IllegalArgumentException(String.format("Invalid byte range: [%d, %d)", startOffset, endOffset));
+		}
+		this.startOffset = startOffset;
+		this.endOffset = endOffset;
+	}
+
+	public long getStartOffset() {
+		return startOffset;
+	}
+
+	public long getEndOffset() {
+		return endOffset;
+	}
+
+	public long getLength() {
+		return endOffset - startOffset;
+	}
+
+	/**
+	 * Partitions the specified data file, from the start offset to the end of the file, into (at
+	 * most) the specified number of byte ranges of approximately equal length. Each range begins at
+	 * the first line of a record: if the record separator is null every line is assumed to be a
+	 * record, otherwise ranges begin at the line that follows a line starting with the record
+	 * separator, e.g. the "//" line that terminates each entry of a UniProt or EMBL .dat file. The
+	 * record separator is matched against the raw bytes of the file so it must be an ASCII string
+	 * and the file encoding must be ASCII-compatible.
+	 * <p>
+	 * Fewer ranges than requested are returned if the file does not contain enough record
+	 * boundaries, and an empty list is returned if the start offset is at (or beyond) the end of
+	 * the file.
+	 * 
+	 * @param dataFile
+	 *            an uncompressed data file
+	 * @param startOffset
+	 *            the offset of the first record, i.e. following any file header
+	 * @param partitionCount
+	 * @param recordSeparator
+	 *            the prefix of the line that terminates each record, or null if each line is a
+	 *            record
+	 * @return the byte ranges, in file order; together they cover the file from the start offset
+	 *         to the end of the file
+	 * @throws IOException
+	 */
+	public static List<ByteRange> partition(File dataFile, long startOffset, int partitionCount,
+			String recordSeparator) throws IOException {
+		if (partitionCount < 1) {
+			throw new IllegalArgumentException("The partition count must be > 0 but was: " + partitionCount);
+		}
+		long fileLength = dataFile.length();
+		if (startOffset >= fileLength) {
+			return Collections.emptyList();
+		}
+		List<ByteRange> ranges = new ArrayList<ByteRange>(partitionCount);
+		long rangeStart = startOffset;
+		for (int i = 1; i < partitionCount; i++) {
+			long target = startOffset + i * ((fileLength - startOffset) / partitionCount);
+			if (target <= rangeStart) {
+				continue;
+			}
+			long boundary = findRecordBoundary(dataFile, target, recordSeparator);
+			if (boundary >= fileLength) {
+				break;
+			}
+			if (boundary > rangeStart) {
+				ranges.add(new ByteRange(rangeStart, boundary));
+				rangeStart = boundary;
+			}
+		}
+		ranges.add(new ByteRange(rangeStart, fileLength));
+		return ranges;
+	}
+
+	/**
+	 * @param dataFile
+	 * @param offset
+	 * @param recordSeparator
+	 * @return the offset of the first record that starts at or after the specified offset (or of
+	 *         the following record if the offset falls within a record separator line), or the
+	 *         length of the file if there is no such record
+	 * @throws IOException
+	 */
+	private static long findRecordBoundary(File dataFile, long offset, String recordSeparator) throws IOException {
+		InputStream stream = new BufferedInputStream(new FileInputStream(dataFile), BUFFER_SIZE);
+		try {
+			/*
+			 * the search starts at the byte preceding the offset so that an offset at the start of a
+			 * line is recognized as such
+			 */
+			long position = offset - 1;
+			skipFully(stream, position);
+			position += skipLine(stream);
+			if (recordSeparator == null) {
+				return position;
+			}
+			byte[] separator = recordSeparator.getBytes("US-ASCII");
+			while (true) {
+				long lineLength = skipLine(stream, separator);
+				if (lineLength == 0) {
+					return position;
+				}
+				position += Math.abs(lineLength);
+				if (lineLength < 0) {
+					/* the line started with the record separator */
+					return position;
+				}
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * @return the number of bytes up to and including the next line feed, or up to the end of the
+	 *         stream
+	 */
+	private static long skipLine(InputStream stream) throws IOException {
+		return Math.abs(skipLine(stream, null));
+	}
+
+	/**
+	 * @param stream
+	 * @param prefix
+	 * @return the number of bytes up to and including the next line feed, or up to the end of the
+	 *         stream; the number is negated if the line starts with the specified prefix
+	 */
+	private static long skipLine(InputStream stream, byte[] prefix) throws IOException {
+		long length = 0;
+		boolean prefixMatches = prefix != null;
+		int b;
+		while ((b = stream.read()) != -1) {
+			if (prefixMatches && length < prefix.length && b != prefix[(int) length]) {
+				prefixMatches = false;
+			}
+			length++;
+			if (b == '\n') {
+				break;
+			}
+		}
+		prefixMatches = prefixMatches && length >= prefix.length;
+		return (prefixMatches) ? -length : length;
+	}
+
+	private static void skipFully(InputStream stream, long byteCount) throws IOException {
+		long remaining = byteCount;
+		while (remaining > 0) {
+			long skipped = stream.skip(remaining);
+			if (skipped <= 0) {
+				if (stream.read() == -1) {
+					return;
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ByteRange)) {
+			return false;
+		}
+		ByteRange other = (ByteRange) obj;
+		return startOffset == other.startOffset && endOffset == other.endOffset;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (int) (startOffset ^ (startOffset >>> 32)) + (int) (endOffset ^ (endOffset >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "[" + startOffset + ", " + endOffset + ")";
+	}
+
+}
@@ -0,0 +1,250 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * A reusable cursor over the delimited columns of a line (or of a region of a line, e.g. a single
+ * column that contains pipe-delimited sub-fields). Resetting the cursor records the column
+ * boundaries only; a String is created for a column only when it is requested via
+ * {@link #getColumn(int)}, so columns that are ignored, or only compared (see
+ * {@link #columnEquals(int, String)}), by a parser are never copied. This avoids the String[] and
+ * per-token String allocations of {@link String#split(String)}.
+ * <p>
+ * Sub-fields of a column are iterated by resetting a second cursor over the column, e.g.:
+ * 
+ * <pre>
+ * DelimitedColumnCursor columns = new DelimitedColumnCursor('\t', true).reset(line.getText());
+ * DelimitedColumnCursor synonyms = columns.subFields(4, new DelimitedColumnCursor('|', false));
+ * for (int i = 0; i &lt; synonyms.getColumnCount(); i++) {
+ * 	synonymSet.add(synonyms.getColumn(i));
+ * }
+ * </pre>
+ * 
+ * This class is not thread-safe.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class DelimitedColumnCursor {
+
+	private final char delimiter;
+	private final boolean keepTrailingEmptyColumns;
+
+	private String text;
+	/**
+	 * column i spans [columnStarts[i], columnEnds[i]) of the text
+	 */
+	private int[] columnStarts = new int[16];
+	private int[] columnEnds = new int[16];
+	private int columnCount = 0;
+
+	/**
+	 * @param delimiter
+	 *            the column delimiter, e.g. a tab or a pipe
+	 * @param keepTrailingEmptyColumns
+	 *            if true, the columns are equivalent to those returned by
+	 *            <code>text.split(delimiter, -1)</code>; if false, trailing empty columns are
+	 *            discarded as by <code>text.split(delimiter)</code>
+	 */
+	public DelimitedColumnCursor(char delimiter, boolean keepTrailingEmptyColumns) {
+		this.delimiter = delimiter;
+		this.keepTrailingEmptyColumns = keepTrailingEmptyColumns;
+	}
+
+	/**
+	 * @param text
+	 * @return this cursor, positioned over the columns of the specified text
+	 */
+	public DelimitedColumnCursor reset(String text) {
+		return reset(text, 0, text.length());
+	}
+
+	/**
+	 * @param text
+	 * @param start
+	 *            the index of the first character of the region to tokenize
+	 * @param end
+	 *            the index following the last character of the region to tokenize
+	 * @return this cursor, positioned over the columns of the specified region of the text
+	 */
+	public DelimitedColumnCursor reset(String text, int start, int end) {
+		this.text = text;
+		columnCount = 0;
+		int columnStart = start;
+		int index;
+		while ((index = text.indexOf(delimiter, columnStart)) >= 0 && index < end) {
+			addColumn(columnStart, index);
+			columnStart = index + 1;
+		}
+		addColumn(columnStart, end);
+		if (!keepTrailingEmptyColumns && columnCount > 1) {
+			/* String.split() returns the input if it does not contain the delimiter */
+			while (columnCount > 0 && columnStarts[columnCount - 1] == columnEnds[columnCount - 1]) {
+				columnCount--;
+			}
+		}
+		return this;
+	}
+
+	private void addColumn(int start, int end) {
+		if (columnCount == columnStarts.length) {
+			columnStarts = Arrays.copyOf(columnStarts, columnCount * 2);
+			columnEnds = Arrays.copyOf(columnEnds, columnCount * 2);
+		}
+		columnStarts[columnCount] = start;
+		columnEnds[columnCount] = end;
+		columnCount++;
+	}
+
+	/**
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return columnCount;
+	}
+
+	/**
+	 * @param column
+	 * @return the value of the specified column
+	 * @throws IndexOutOfBoundsException
+	 *             if the column does not exist
+	 */
+	public String getColumn(int column) {
+		checkColumn(column);
+		return text.substring(columnStarts[column], columnEnds[column]);
+	}
+
+	/**
+	 * @param column
+	 * @param value
+	 * @return true if the value of the specified column equals the specified value. No String is
+	 *         created for the column.
+	 */
+	public boolean columnEquals(int column, String value) {
+		checkColumn(column);
+		int length = columnEnds[column] - columnStarts[column];
+		return length == value.length() && text.regionMatches(columnStarts[column], value, 0, length);
+	}
+
+	/**
+	 * @param column
+	 * @param value
+	 * @return true if the value of the specified column, ignoring leading and trailing whitespace
+	 *         as {@link String#trim()} does, equals the specified value. No String is created for
+	 *         the column.
+	 */
+	public boolean trimmedColumnEquals(int column, String value) {
+		checkColumn(column);
+		int start = columnStarts[column];
+		int end = columnEnds[column];
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end - start == value.length() && text.regionMatches(start, value, 0, end - start);
+	}
+
+	/**
+	 * @param column
+	 * @param prefix
+	 * @return true if the value of the specified column starts with the specified prefix. No String
+	 *         is created for the column.
+	 */
+	public boolean columnStartsWith(int column, String prefix) {
+		checkColumn(column);
+		return columnEnds[column] - columnStarts[column] >= prefix.length()
+				&& text.regionMatches(columnStarts[column], prefix, 0, prefix.length());
+	}
+
+	/**
+	 * @param column
+	 * @param prefix
+	 * @return the value of the specified column without the specified prefix. Only the remainder
+	 *         of the column is copied to a String.
+	 * @throws IllegalArgumentException
+	 *             if the column does not start with the prefix
+	 */
+	public String getColumnWithoutPrefix(int column, String prefix) {
+		if (!columnStartsWith(column, prefix)) {
+			throw new IllegalArgumentException("Cannot remove prefix. Column " + column + " (" + getColumn(column)
+					+ ") does not start with prefix (" + prefix + ").");
+		}
+		return text.substring(columnStarts[column] + prefix.length(), columnEnds[column]);
+	}
+
+	/**
+	 * @param column
+	 * @param suffix
+	 * @return true if the value of the specified column ends with the specified suffix. No String
+	 *         is created for the column.
+	 */
+	public boolean columnEndsWith(int column, String suffix) {
+		checkColumn(column);
+		return columnEnds[column] - columnStarts[column] >= suffix.length()
+				&& text.regionMatches(columnEnds[column] - suffix.length(), suffix, 0, suffix.length());
+	}
+
+	/**
+	 * @param column
+	 * @return true if the specified column is empty
+	 */
+	public boolean isColumnEmpty(int column) {
+		checkColumn(column);
+		return columnStarts[column] == columnEnds[column];
+	}
+
+	/**
+	 * @param column
+	 * @param subFieldCursor
+	 *            the cursor to reset over the specified column, typically constructed with a
+	 *            different delimiter, e.g. a pipe
+	 * @return the sub-field cursor, positioned over the sub-fields of the specified column
+	 */
+	public DelimitedColumnCursor subFields(int column, DelimitedColumnCursor subFieldCursor) {
+		checkColumn(column);
+		return subFieldCursor.reset(text, columnStarts[column], columnEnds[column]);
+	}
+
+	private void checkColumn(int column) {
+		if (column < 0 || column >= columnCount) {
+			throw new IndexOutOfBoundsException("Column " + column + " requested but there are " + columnCount
+					+ " columns.");
+		}
+	}
+
+}
@@ -33,9 +33,13 @@ package edu.ucdenver.ccp.datasource.fileparsers;
  * #L%
  */
 
+import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import org.apache.log4j.Logger;
 
@@ -55,10 +59,25 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 
 	private StreamLineReader reader;
 	protected Line line;
-	
-	
-	
-	
+
+	/**
+	 * the data file being read, if this reader was constructed with a reference to a file
+	 */
+	private File dataFile;
+	private CharacterEncoding encoding;
+	private String skipLinePrefix;
+
+	/**
+	 * the offset into the data file of the first byte read by the current line reader; line byte
+	 * offsets are relative to this offset after a call to {@link #seek(long)}
+	 */
+	private long readerStartOffset = 0;
+	/**
+	 * lines starting at or beyond this offset into the data file are not read, see
+	 * {@link #setByteRange(ByteRange)}
+	 */
+	private long byteRangeEndOffset = Long.MAX_VALUE;
+
 	/**
 	 * @param stream
 	 * @param encoding
@@ -68,6 +87,8 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 	public LineFileRecordReader(InputStream stream, CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
 		super(stream, encoding, skipLinePrefix);
+		this.encoding = encoding;
+		this.skipLinePrefix = skipLinePrefix;
 		setReader(new StreamLineReader(stream, encoding, skipLinePrefix));
 		initialize();
 	}
@@ -83,6 +104,9 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 	 */
 	public LineFileRecordReader(File dataFile, CharacterEncoding encoding, String skipLinePrefix) throws IOException {
 		super(dataFile, encoding, skipLinePrefix);
+		this.dataFile = dataFile;
+		this.encoding = encoding;
+		this.skipLinePrefix = skipLinePrefix;
 		setReader(new StreamLineReader(dataFile, encoding, skipLinePrefix));
 		initialize();
 	}
@@ -105,6 +129,8 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 	public LineFileRecordReader(File workDirectory, CharacterEncoding encoding, String skipLinePrefix, String ftpUsername,
 			String ftpPassword, boolean clean) throws IOException {
 		super(workDirectory, encoding, skipLinePrefix, ftpUsername, ftpPassword, clean);
+		this.encoding = encoding;
+		this.skipLinePrefix = skipLinePrefix;
 		setReader(initializeLineReaderFromDownload(encoding, skipLinePrefix));
 		initialize();
 	}
@@ -132,10 +158,15 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 	 * Read next line
 	 * 
 	 * @return the next line of text from this file, or null if end of file is encountered before
-	 *         even one byte is read.
+	 *         even one byte is read, or if the line starts beyond the end of the byte range of this
+	 *         reader (see {@link #setByteRange(ByteRange)}).
 	 */
 	protected Line readLine() throws IOException {
-		return reader.readLine();
+		Line nextLine = reader.readLine();
+		if (nextLine != null && readerStartOffset + nextLine.getByteOffset() >= byteRangeEndOffset) {
+			return null;
+		}
+		return nextLine;
 	}
 	
 	protected void advanceReader() throws IOException {
@@ -146,6 +177,180 @@ public abstract class LineFileRecordReader<T extends FileRecord> extends FileRec
 	protected void setReader(StreamLineReader reader) {
 		this.reader = reader;
 	}
+
+	/**
+	 * @return the file being read by this reader, or null if the file is unknown, e.g. if the reader
+	 *         was constructed using an {@link InputStream}. Subclasses that download their data file
+	 *         should override this method to return the downloaded file so that they can support
+	 *         {@link #seek(long)}.
+	 */
+	public File getDataFile() {
+		return dataFile;
+	}
+
+	/**
+	 * @return true if {@link #seek(long)} is supported by this reader. By default seeking is not
+	 *         supported. Subclasses that can re-establish their state at an arbitrary line (see
+	 *         {@link #initializeAfterSeek()}) override this method.
+	 */
+	public boolean isSeekable() {
+		return false;
+	}
+
+	/**
+	 * Repositions this reader so that the next record returned is the record that starts at the
+	 * specified byte offset, as reported by {@link FileRecord#getByteOffset()} by a reader of the
+	 * same file that was not repositioned. The data file is re-opened and the bytes prior to the
+	 * offset are skipped without being parsed. Gzipped files must be decompressed up to the offset,
+	 * however the line splitting and record parsing costs are avoided. The file header is not
+	 * re-read. Note that byte offsets and line numbers reported by records read after a call to
+	 * this method are relative to the specified offset.
+	 * 
+	 * @param byteOffset
+	 *            the offset into the (uncompressed) data file of the first line of a record
+	 * @throws IOException
+	 * @throws UnsupportedOperationException
+	 *             if this reader is not seekable, see {@link #isSeekable()}
+	 */
+	public void seek(long byteOffset) throws IOException {
+		if (!isSeekable() || getDataFile() == null) {
+			throw new UnsupportedOperationException(String.format("Seeking is not supported by %s.", getClass()
+					.getName()));
+		}
+		InputStream stream = openDataFileStream(getDataFile());
+		try {
+			skipFully(stream, byteOffset);
+		} catch (IOException e) {
+			stream.close();
+			throw e;
+		}
+		if (reader != null) {
+			reader.close();
+		}
+		logger.info(String.format("Repositioned reader at byte offset %d of file: %s", byteOffset, getDataFile()
+				.getAbsolutePath()));
+		readerStartOffset = byteOffset;
+		setReader(new StreamLineReader(stream, encoding, skipLinePrefix));
+		initializeAfterSeek();
+	}
+
+	/**
+	 * @return true if the data file of this reader can be partitioned into byte ranges that are
+	 *         read by separate readers, see {@link #getByteRanges(int)}. This requires a seekable
+	 *         reader of an uncompressed data file.
+	 */
+	public boolean isSplittable() {
+		return isSeekable() && getDataFile() != null && !getDataFile().getName().endsWith(".gz");
+	}
+
+	/**
+	 * @return the prefix of the line that terminates each record, e.g. "//" for the UniProt and EMBL
+	 *         .dat formats, or null if each line starts a record. This is used to align byte ranges
+	 *         to record boundaries, see {@link #getByteRanges(int)}. Multi-line readers that are
+	 *         seekable must override this method.
+	 */
+	protected String getRecordSeparator() {
+		return null;
+	}
+
+	/**
+	 * Partitions the data file of this reader into (at most) the specified number of byte ranges
+	 * that are aligned to record boundaries. The first range starts at the first record returned by
+	 * this reader so the file header, and for readers that filter records, the records that precede
+	 * the first record of interest, are excluded. Each range can then be read by a separate reader
+	 * of the same file, configured identically to this one, see {@link #setByteRange(ByteRange)}.
+	 * <p>
+	 * The first record is consumed in order to determine its offset, so this reader should not be
+	 * used to read records after calling this method.
+	 * 
+	 * @param partitionCount
+	 * @return the byte ranges, in file order, or an empty list if there are no records
+	 * @throws IOException
+	 * @throws UnsupportedOperationException
+	 *             if this reader is not splittable, see {@link #isSplittable()}
+	 */
+	public List<ByteRange> getByteRanges(int partitionCount) throws IOException {
+		if (!isSplittable()) {
+			throw new UnsupportedOperationException(String.format("Splitting the data file is not supported by %s.",
+					getClass().getName()));
+		}
+		long firstRecordOffset = getDataFile().length();
+		while (hasNext()) {
+			T record = next();
+			if (record != null) {
+				firstRecordOffset = readerStartOffset + record.getByteOffset();
+				break;
+			}
+		}
+		return ByteRange.partition(getDataFile(), firstRecordOffset, partitionCount, getRecordSeparator());
+	}
+
+	/**
+	 * Restricts this reader to the records that start within the specified byte range of its data
+	 * file. The reader is repositioned at the start of the range, which must be the first line of a
+	 * record (see {@link #getByteRanges(int)}), and lines at or beyond the end of the range are not
+	 * read. The restriction also applies if the reader is subsequently repositioned by
+	 * {@link #seek(long)}.
+	 * 
+	 * @param byteRange
+	 * @throws IOException
+	 * @throws UnsupportedOperationException
+	 *             if this reader is not splittable, see {@link #isSplittable()}
+	 */
+	public void setByteRange(ByteRange byteRange) throws IOException {
+		if (!isSplittable()) {
+			throw new UnsupportedOperationException(String.format("Splitting the data file is not supported by %s.",
+					getClass().getName()));
+		}
+		byteRangeEndOffset = byteRange.getEndOffset();
+		seek(byteRange.getStartOffset());
+	}
+
+	/**
+	 * Called after the reader has been repositioned by {@link #seek(long)}. Subclasses that support
+	 * seeking must override this method to prime their record state, i.e. as {@link #initialize()}
+	 * would, minus the processing of the file header.
+	 * 
+	 * @throws IOException
+	 */
+	protected void initializeAfterSeek() throws IOException {
+		// optionally override to provide functionality
+	}
+
+	/**
+	 * @param file
+	 * @return an {@link InputStream} over the uncompressed contents of the specified file
+	 * @throws IOException
+	 */
+	private static InputStream openDataFileStream(File file) throws IOException {
+		InputStream stream = new FileInputStream(file);
+		if (file.getName().endsWith(".gz")) {
+			return new GZIPInputStream(stream);
+		}
+		return stream;
+	}
+
+	/**
+	 * @param stream
+	 * @param byteCount
+	 * @throws IOException
+	 * @throws EOFException
+	 *             if the stream ends before byteCount bytes have been skipped
+	 */
+	private static void skipFully(InputStream stream, long byteCount) throws IOException {
+		long remaining = byteCount;
+		while (remaining > 0) {
+			long skipped = stream.skip(remaining);
+			if (skipped <= 0) {
+				if (stream.read() == -1) {
+					throw new EOFException(String.format("Unable to skip %d bytes, the stream ended after %d bytes.",
+							byteCount, byteCount - remaining));
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
 	
 	/**
 	 * 
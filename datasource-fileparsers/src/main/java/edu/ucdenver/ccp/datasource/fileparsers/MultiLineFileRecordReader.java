@@ -37,6 +37,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -73,6 +74,15 @@ public abstract class MultiLineFileRecordReader<T extends FileRecord> extends Li
 		buffer = compileMultiLineBuffer();
 	}
 
+	/**
+	 * Subclasses that support seeking must first prime their line state as they do in
+	 * {@link #initialize()} before calling this method
+	 */
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		buffer = compileMultiLineBuffer();
+	}
+
 	@Override
 	public boolean hasNext() {
 		return buffer != null;
@@ -98,6 +108,13 @@ public abstract class MultiLineFileRecordReader<T extends FileRecord> extends Li
 
 	protected abstract T parseRecordFromMultipleLines(MultiLineBuffer multiLineBuffer);
 
+	/**
+	 * Holds the lines of a single multi-line record. Parsers can walk the lines directly, either by
+	 * index or via a {@link LineCursor}, and can look up lines by their line code, i.e. the
+	 * two-letter prefix (ID, AC, DE, FT, ...) used by the EMBL, UniProt and TRANSFAC flat file
+	 * formats. This avoids concatenating the lines (see {@link #toString()}) only to read them
+	 * again one at a time.
+	 */
 	public static class MultiLineBuffer {
 		private List<Line> lines;
 
@@ -109,6 +126,62 @@ public abstract class MultiLineFileRecordReader<T extends FileRecord> extends Li
 			lines.add(line);
 		}
 
+		/**
+		 * @return the lines in the buffer
+		 */
+		public List<Line> getLines() {
+			return Collections.unmodifiableList(lines);
+		}
+
+		/**
+		 * @return the number of lines in the buffer
+		 */
+		public int getLineCount() {
+			return lines.size();
+		}
+
+		/**
+		 * @param index
+		 * @return the text of the line at the specified index
+		 */
+		public String getLineText(int index) {
+			return lines.get(index).getText();
+		}
+
+		/**
+		 * @param index
+		 * @param lineCode
+		 *            e.g. "AC" or "DR"
+		 * @return true if the line at the specified index begins with the specified line code
+		 */
+		public boolean hasLineCode(int index, String lineCode) {
+			return lines.get(index).getText().startsWith(lineCode);
+		}
+
+		/**
+		 * @param lineCode
+		 *            e.g. "AC" or "DR"
+		 * @param fromIndex
+		 *            the index of the line from which to start searching
+		 * @return the index of the first line at or after fromIndex that begins with the specified
+		 *         line code, or -1 if there is no such line
+		 */
+		public int indexOfLineCode(String lineCode, int fromIndex) {
+			for (int i = Math.max(0, fromIndex); i < lines.size(); i++) {
+				if (hasLineCode(i, lineCode)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * @return a new {@link LineCursor} positioned before the first line in the buffer
+		 */
+		public LineCursor cursor() {
+			return new LineCursor(this);
+		}
+
 		public long getByteOffset() {
 			if (lines.size() > 0)
 				return lines.get(0).getByteOffset();
@@ -125,4 +198,71 @@ public abstract class MultiLineFileRecordReader<T extends FileRecord> extends Li
 		}
 	}
 
+	/**
+	 * A forward cursor over the lines of a {@link MultiLineBuffer} that can be used in place of a
+	 * {@link java.io.BufferedReader} wrapped around the buffer's text. The cursor position can be
+	 * saved and restored, e.g. to look ahead at a block of continuation lines and then return to
+	 * the line following the first line of the block.
+	 */
+	public static class LineCursor {
+		private final MultiLineBuffer buffer;
+		/**
+		 * the index of the line that will be returned by the next call to {@link #nextLine()}
+		 */
+		private int position = 0;
+
+		private LineCursor(MultiLineBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		/**
+		 * @return the text of the next line, or null if all lines have been read
+		 */
+		public String nextLine() {
+			if (position < buffer.getLineCount()) {
+				return buffer.getLineText(position++);
+			}
+			return null;
+		}
+
+		/**
+		 * @return the text of the next line without advancing the cursor, or null if all lines
+		 *         have been read
+		 */
+		public String peekLine() {
+			if (position < buffer.getLineCount()) {
+				return buffer.getLineText(position);
+			}
+			return null;
+		}
+
+		/**
+		 * @param lineCode
+		 * @return true if there is a next line and it begins with the specified line code
+		 */
+		public boolean nextLineHasCode(String lineCode) {
+			return position < buffer.getLineCount() && buffer.hasLineCode(position, lineCode);
+		}
+
+		/**
+		 * @return the index of the line that will be returned by the next call to
+		 *         {@link #nextLine()}
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * @param position
+		 *            a position previously returned by {@link #getPosition()}
+		 */
+		public void setPosition(int position) {
+			if (position < 0 || position > buffer.getLineCount()) {
+				throw new IndexOutOfBoundsException("Invalid line cursor position: " + position
+						+ " (buffer contains " + buffer.getLineCount() + " lines)");
+			}
+			this.position = position;
+		}
+	}
+
 }
@@ -0,0 +1,333 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.digest.DigestUtil;
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.file.FileUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
+import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
+
+/**
+ * A sparse index mapping record ordinals to the byte offsets of the records in a data file. A
+ * checkpoint is stored for every N-th record returned by a {@link RecordReader}, where N is the
+ * checkpoint interval. In combination with {@link LineFileRecordReader#seek(long)} the index allows
+ * a reader to be positioned at (or near) an arbitrary record without parsing the records that
+ * precede it. Record ordinals count the non-null records returned by the reader, so an index is
+ * only valid for readers configured identically (e.g. with the same taxa of interest) to the
+ * reader that was used to build it.
+ * <p>
+ * The index is persisted as a small text file that also stores the length and last-modified time
+ * of the data file so that stale indexes can be detected, see {@link #load(File, File, List)}.
+ * Readers that filter records using other files, e.g. the id-list files of a taxon-aware reader,
+ * return different records if those files change, so a digest of the names, lengths and
+ * last-modified times of these input files is stored as well.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class RecordOffsetIndex {
+
+	private static final Logger logger = Logger.getLogger(RecordOffsetIndex.class);
+
+	private static final String DATA_FILE_LENGTH = "#data-file-length";
+	private static final String DATA_FILE_LAST_MODIFIED = "#data-file-last-modified";
+	private static final String CHECKPOINT_INTERVAL = "#checkpoint-interval";
+	private static final String INPUT_FILE_DIGEST = "#input-file-digest";
+
+	private final long dataFileLength;
+	private final long dataFileLastModified;
+	private final long checkpointInterval;
+	private final String inputFileDigest;
+	/**
+	 * sorted record ordinals; recordOrdinals[i] is the ordinal of the record starting at
+	 * byteOffsets[i]
+	 */
+	private final long[] recordOrdinals;
+	private final long[] byteOffsets;
+
+	private RecordOffsetIndex(long dataFileLength, long dataFileLastModified, long checkpointInterval,
+			String inputFileDigest, long[] recordOrdinals, long[] byteOffsets) {
+		this.dataFileLength = dataFileLength;
+		this.dataFileLastModified = dataFileLastModified;
+		this.checkpointInterval = checkpointInterval;
+		this.inputFileDigest = inputFileDigest;
+		this.recordOrdinals = recordOrdinals;
+		this.byteOffsets = byteOffsets;
+	}
+
+	/**
+	 * Builds an index for a reader that does not depend on any input files other than its data
+	 * file, see {@link #build(RecordReader, File, long, List)}
+	 */
+	public static RecordOffsetIndex build(RecordReader<? extends FileRecord> recordReader, File dataFile,
+			long checkpointInterval) {
+		return build(recordReader, dataFile, checkpointInterval, Collections.<File> emptyList());
+	}
+
+	/**
+	 * Builds an index by iterating over all remaining records of the specified reader. The reader
+	 * should be positioned at the beginning of the data file.
+	 * 
+	 * @param recordReader
+	 * @param dataFile
+	 *            the file being read by the record reader
+	 * @param checkpointInterval
+	 *            a checkpoint is stored for every checkpointInterval-th record
+	 * @param inputFiles
+	 *            the files, other than the data file, that determine which records the reader
+	 *            returns, e.g. the id-list files used to filter records by taxon
+	 * @return the index
+	 */
+	public static RecordOffsetIndex build(RecordReader<? extends FileRecord> recordReader, File dataFile,
+			long checkpointInterval, List<File> inputFiles) {
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException("The checkpoint interval must be > 0 but was: " + checkpointInterval);
+		}
+		long[] ordinals = new long[16];
+		long[] offsets = new long[16];
+		int checkpointCount = 0;
+		long recordCount = 0;
+		while (recordReader.hasNext()) {
+			FileRecord record = recordReader.next();
+			if (record != null) {
+				if (recordCount % checkpointInterval == 0) {
+					if (checkpointCount == ordinals.length) {
+						ordinals = Arrays.copyOf(ordinals, checkpointCount * 2);
+						offsets = Arrays.copyOf(offsets, checkpointCount * 2);
+					}
+					ordinals[checkpointCount] = recordCount;
+					offsets[checkpointCount] = record.getByteOffset();
+					checkpointCount++;
+				}
+				if (recordCount % 1000000 == 0) {
+					logger.info("RECORD OFFSET INDEX PROGRESS: " + recordCount);
+				}
+				recordCount++;
+			}
+		}
+		logger.info("Indexed " + recordCount + " records using " + checkpointCount + " checkpoints for file: "
+				+ dataFile.getAbsolutePath());
+		return new RecordOffsetIndex(dataFile.length(), dataFile.lastModified(), checkpointInterval,
+				getInputFileDigest(inputFiles), Arrays.copyOf(ordinals, checkpointCount), Arrays.copyOf(offsets,
+						checkpointCount));
+	}
+
+	/**
+	 * @param inputFiles
+	 * @return a digest of the names, lengths and last-modified times of the specified files
+	 */
+	private static String getInputFileDigest(List<File> inputFiles) {
+		List<String> fileDescriptions = new ArrayList<String>();
+		for (File file : inputFiles) {
+			fileDescriptions.add(file.getName() + "\t" + file.length() + "\t" + file.lastModified());
+		}
+		Collections.sort(fileDescriptions);
+		return DigestUtil.getBase64Sha1Digest(CollectionsUtil.createDelimitedString(fileDescriptions, "\n"));
+	}
+
+	/**
+	 * @param recordOrdinal
+	 * @return the checkpoint with the largest record ordinal that is less than or equal to the
+	 *         specified record ordinal, or null if there is no such checkpoint
+	 */
+	public Checkpoint getCheckpoint(long recordOrdinal) {
+		int index = Arrays.binarySearch(recordOrdinals, recordOrdinal);
+		if (index < 0) {
+			/* binarySearch returns (-(insertion point) - 1) if the ordinal is not present */
+			index = -index - 2;
+		}
+		if (index < 0) {
+			return null;
+		}
+		return new Checkpoint(recordOrdinals[index], byteOffsets[index]);
+	}
+
+	public long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public int getCheckpointCount() {
+		return recordOrdinals.length;
+	}
+
+	/**
+	 * Writes the index to the specified file. The index is first written to a temporary file in the
+	 * same directory which is then renamed so that a partially written index is never observed by
+	 * {@link #load(File, File, List)}.
+	 * 
+	 * @param indexFile
+	 * @throws IOException
+	 */
+	public void save(File indexFile) throws IOException {
+		File directory = indexFile.getAbsoluteFile().getParentFile();
+		if (!directory.exists()) {
+			FileUtil.mkdir(directory);
+		}
+		File tmpFile = File.createTempFile(indexFile.getName(), ".tmp", directory);
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(tmpFile, CharacterEncoding.UTF_8,
+				WriteMode.OVERWRITE, FileSuffixEnforcement.OFF);
+		try {
+			writer.write(DATA_FILE_LENGTH + "\t" + dataFileLength + "\n");
+			writer.write(DATA_FILE_LAST_MODIFIED + "\t" + dataFileLastModified + "\n");
+			writer.write(CHECKPOINT_INTERVAL + "\t" + checkpointInterval + "\n");
+			writer.write(INPUT_FILE_DIGEST + "\t" + inputFileDigest + "\n");
+			for (int i = 0; i < recordOrdinals.length; i++) {
+				writer.write(recordOrdinals[i] + "\t" + byteOffsets[i] + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		if (!tmpFile.renameTo(indexFile)) {
+			/* the rename can fail on some platforms if the destination exists */
+			if (!indexFile.delete() || !tmpFile.renameTo(indexFile)) {
+				throw new IOException("Unable to rename " + tmpFile.getAbsolutePath() + " to "
+						+ indexFile.getAbsolutePath());
+			}
+		}
+	}
+
+	/**
+	 * Loads an index for a reader that does not depend on any input files other than its data
+	 * file, see {@link #load(File, File, List)}
+	 */
+	public static RecordOffsetIndex load(File indexFile, File dataFile) throws IOException {
+		return load(indexFile, dataFile, Collections.<File> emptyList());
+	}
+
+	/**
+	 * @param indexFile
+	 * @param dataFile
+	 *            the data file that the index is expected to describe
+	 * @param inputFiles
+	 *            the other files that the reader depends on, see
+	 *            {@link #build(RecordReader, File, long, List)}
+	 * @return the index stored in the specified file, or null if the index file does not exist or
+	 *         if it was built for a different version of the data file or of the input files (as
+	 *         judged by the file lengths and last-modified times)
+	 * @throws IOException
+	 */
+	public static RecordOffsetIndex load(File indexFile, File dataFile, List<File> inputFiles) throws IOException {
+		if (!indexFile.exists()) {
+			return null;
+		}
+		long length = -1;
+		long lastModified = -1;
+		long interval = -1;
+		String digest = null;
+		long[] ordinals = new long[16];
+		long[] offsets = new long[16];
+		int checkpointCount = 0;
+		BufferedReader reader = FileReaderUtil.initBufferedReader(indexFile, CharacterEncoding.UTF_8);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int tabIndex = line.indexOf('\t');
+				if (tabIndex < 0) {
+					throw new IllegalStateException("Invalid line in record offset index file ("
+							+ indexFile.getAbsolutePath() + "): " + line);
+				}
+				String key = line.substring(0, tabIndex);
+				if (key.equals(INPUT_FILE_DIGEST)) {
+					digest = line.substring(tabIndex + 1);
+					continue;
+				}
+				long value = Long.parseLong(line.substring(tabIndex + 1));
+				if (key.equals(DATA_FILE_LENGTH)) {
+					length = value;
+				} else if (key.equals(DATA_FILE_LAST_MODIFIED)) {
+					lastModified = value;
+				} else if (key.equals(CHECKPOINT_INTERVAL)) {
+					interval = value;
+				} else {
+					if (checkpointCount == ordinals.length) {
+						ordinals = Arrays.copyOf(ordinals, checkpointCount * 2);
+						offsets = Arrays.copyOf(offsets, checkpointCount * 2);
+					}
+					ordinals[checkpointCount] = Long.parseLong(key);
+					offsets[checkpointCount] = value;
+					checkpointCount++;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		if (length != dataFile.length() || lastModified != dataFile.lastModified()
+				|| !getInputFileDigest(inputFiles).equals(digest)) {
+			logger.info("Ignoring stale record offset index file: " + indexFile.getAbsolutePath());
+			return null;
+		}
+		return new RecordOffsetIndex(length, lastModified, interval, digest, Arrays.copyOf(ordinals,
+				checkpointCount), Arrays.copyOf(offsets, checkpointCount));
+	}
+
+	/**
+	 * The location of a record in a data file
+	 */
+	public static class Checkpoint {
+		private final long recordOrdinal;
+		private final long byteOffset;
+
+		public Checkpoint(long recordOrdinal, long byteOffset) {
+			this.recordOrdinal = recordOrdinal;
+			this.byteOffset = byteOffset;
+		}
+
+		/**
+		 * @return the number of records that precede the record at this checkpoint
+		 */
+		public long getRecordOrdinal() {
+			return recordOrdinal;
+		}
+
+		public long getByteOffset() {
+			return byteOffset;
+		}
+	}
+
+}
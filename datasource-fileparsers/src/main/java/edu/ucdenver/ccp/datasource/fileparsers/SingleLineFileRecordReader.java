@@ -36,13 +36,35 @@ package edu.ucdenver.ccp.datasource.fileparsers;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.reader.Line;
 
 public abstract class SingleLineFileRecordReader<T extends SingleLineFileRecord> extends LineFileRecordReader<T> {
 
+	public static final int DEFAULT_PARSE_BATCH_SIZE = 1024;
+
+	/**
+	 * batches of fewer lines are parsed by a single fork-join task
+	 */
+	private static final int PARSE_TASK_LINE_COUNT = 64;
+
+	/**
+	 * if not null, records are parsed in parallel, see
+	 * {@link #setParallelParsing(ForkJoinPool, int)}
+	 */
+	private ForkJoinPool parsePool = null;
+	private int parseBatchSize;
+	private int maxPendingBatchCount;
+	private final LinkedList<ParseBatch> pendingBatches = new LinkedList<ParseBatch>();
+	private ParseBatch parsedBatch = null;
+	private int parsedBatchPosition = 0;
+	private boolean recordLinesExhausted = false;
+
 	public SingleLineFileRecordReader(InputStream stream, CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
 		super(stream, encoding, skipLinePrefix);
@@ -78,8 +100,63 @@ public abstract class SingleLineFileRecordReader<T extends SingleLineFileRecord>
 		line = readLine();
 	}
 
+	/**
+	 * Each record is contained on a single line, so after a seek the reader only needs to read the
+	 * line at the new position. Seeking is not enabled by default though: subclasses that keep no
+	 * state across lines, other than the current line, override {@link #isSeekable()} to enable it.
+	 */
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		line = readLine();
+	}
+
+	/**
+	 * Records that were read ahead by the parallel parse stage are discarded
+	 */
+	@Override
+	public void seek(long byteOffset) throws IOException {
+		discardParsedBatches();
+		super.seek(byteOffset);
+	}
+
+	/**
+	 * Enables parallel parsing of the records. Lines are read in batches by the thread that calls
+	 * {@link #hasNext()} and {@link #next()} and the batches are parsed using the specified
+	 * fork-join pool, while the following batches are read. Records are returned in the order in
+	 * which they appear in the file and carry the line numbers and byte offsets of their lines as
+	 * they do when parsed sequentially.
+	 * <p>
+	 * This is only suitable for subclasses whose {@link #parseRecordFromLine(Line)} implementation
+	 * is stateless, i.e. it can be called concurrently for different lines. This method must be
+	 * called before the first record is requested.
+	 * 
+	 * @param pool
+	 *            used to parse the lines; it is not shut down by this reader
+	 * @param batchSize
+	 *            the number of lines per batch, e.g. {@link #DEFAULT_PARSE_BATCH_SIZE}
+	 */
+	public void setParallelParsing(ForkJoinPool pool, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The parse batch size must be > 0 but was: " + batchSize);
+		}
+		this.parsePool = pool;
+		this.parseBatchSize = batchSize;
+		this.maxPendingBatchCount = 2 * pool.getParallelism();
+	}
+
+	/**
+	 * @return true if records are parsed in parallel, see
+	 *         {@link #setParallelParsing(ForkJoinPool, int)}
+	 */
+	public boolean isParsingInParallel() {
+		return parsePool != null;
+	}
+
 	@Override
 	public boolean hasNext() {
+		if (isParsingInParallel()) {
+			return hasNextParsedRecord();
+		}
 		return line != null;
 	}
 
@@ -94,6 +171,10 @@ public abstract class SingleLineFileRecordReader<T extends SingleLineFileRecord>
 		if (!hasNext())
 			throw new NoSuchElementException();
 
+		if (isParsingInParallel()) {
+			return parsedBatch.getRecord(parsedBatchPosition++);
+		}
+
 		T recordToReturn = parseRecordFromLine(line);
 
 		try {
@@ -106,4 +187,150 @@ public abstract class SingleLineFileRecordReader<T extends SingleLineFileRecord>
 	}
 
 	protected abstract T parseRecordFromLine(Line line);
+
+	/**
+	 * Used by the parallel parse stage to obtain the line of each record in turn. Subclasses that
+	 * skip lines, or that manage the current line differently, override this method.
+	 * 
+	 * @return the line of the next record, or null if there are no more records
+	 * @throws IOException
+	 */
+	protected Line nextRecordLine() throws IOException {
+		Line recordLine = line;
+		if (recordLine != null) {
+			line = readLine();
+		}
+		return recordLine;
+	}
+
+	/**
+	 * Allows subclasses that parse lines while selecting them (see {@link #nextRecordLine()}) to
+	 * hand the parsed record to the parallel parse stage so that the line is not parsed twice.
+	 * 
+	 * @param recordLine
+	 *            the line most recently returned by {@link #nextRecordLine()}
+	 * @return the record already parsed from the specified line, or null if it has not been
+	 *         parsed
+	 */
+	protected T getParsedRecord(@SuppressWarnings("unused") Line recordLine) {
+		return null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		discardParsedBatches();
+		super.close();
+	}
+
+	private boolean hasNextParsedRecord() {
+		while (parsedBatch == null || parsedBatchPosition == parsedBatch.size()) {
+			try {
+				submitParseBatches();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			if (pendingBatches.isEmpty()) {
+				parsedBatch = null;
+				return false;
+			}
+			parsedBatch = pendingBatches.removeFirst();
+			parsedBatch.task.join();
+			parsedBatchPosition = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads batches of record lines and submits them to the parse pool until the maximum number of
+	 * pending batches is reached or the lines are exhausted
+	 */
+	private void submitParseBatches() throws IOException {
+		while (!recordLinesExhausted && pendingBatches.size() < maxPendingBatchCount) {
+			Line[] lines = new Line[parseBatchSize];
+			Object[] records = new Object[parseBatchSize];
+			int lineCount = 0;
+			Line recordLine;
+			while (lineCount < parseBatchSize && (recordLine = nextRecordLine()) != null) {
+				lines[lineCount] = recordLine;
+				records[lineCount] = getParsedRecord(recordLine);
+				lineCount++;
+			}
+			if (lineCount < parseBatchSize) {
+				recordLinesExhausted = true;
+			}
+			if (lineCount > 0) {
+				ParseBatch batch = new ParseBatch(lines, records, lineCount);
+				parsePool.execute(batch.task);
+				pendingBatches.add(batch);
+			}
+		}
+	}
+
+	private void discardParsedBatches() {
+		for (ParseBatch batch : pendingBatches) {
+			batch.task.cancel(false);
+		}
+		pendingBatches.clear();
+		parsedBatch = null;
+		parsedBatchPosition = 0;
+		recordLinesExhausted = false;
+	}
+
+	/**
+	 * A batch of lines and the records parsed from them
+	 */
+	private class ParseBatch {
+		private final Line[] lines;
+		private final Object[] records;
+		private final int size;
+		private final ParseTask task;
+
+		public ParseBatch(Line[] lines, Object[] records, int size) {
+			this.lines = lines;
+			this.records = records;
+			this.size = size;
+			this.task = new ParseTask(this, 0, size);
+		}
+
+		public int size() {
+			return size;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T getRecord(int index) {
+			return (T) records[index];
+		}
+	}
+
+	/**
+	 * Parses the lines in the range [start, end) of a batch, splitting the range among the threads
+	 * of the parse pool
+	 */
+	private class ParseTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final ParseBatch batch;
+		private final int start;
+		private final int end;
+
+		public ParseTask(ParseBatch batch, int start, int end) {
+			this.batch = batch;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= PARSE_TASK_LINE_COUNT) {
+				for (int i = start; i < end; i++) {
+					if (batch.records[i] == null) {
+						batch.records[i] = parseRecordFromLine(batch.lines[i]);
+					}
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ParseTask(batch, start, middle), new ParseTask(batch, middle, end));
+			}
+		}
+	}
 }
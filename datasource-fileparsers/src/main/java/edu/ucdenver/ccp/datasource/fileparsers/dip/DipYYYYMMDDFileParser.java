@@ -111,7 +111,7 @@ public class DipYYYYMMDDFileParser extends TaxonAwareSingleLineFileRecordReader<
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		DipYYYYMMDDFileData record = parseRecordFromLine(line);
+		DipYYYYMMDDFileData record = getRecord(line);
 		// should probably return both tax id's here
 		return record.getInteractor_A().getNcbiTaxonomyId().getTaxonomyId();
 	}
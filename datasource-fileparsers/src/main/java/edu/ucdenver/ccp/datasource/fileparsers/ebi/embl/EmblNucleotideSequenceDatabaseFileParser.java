@@ -36,7 +36,6 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.embl;
  * #L%
  */
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
@@ -45,6 +44,7 @@ import java.util.Set;
 
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.embl.EmblID;
 import edu.ucdenver.ccp.datasource.identifiers.mgi.MgiGeneID;
@@ -106,10 +106,10 @@ public class EmblNucleotideSequenceDatabaseFileParser extends
 	 * (non-Javadoc)
 	 * 
 	 * @see edu.ucdenver.ccp.fileparsers.ebi.embl.EmblNucleotideSequenceDatabaseFileParserBase#
-	 * parseFeatureTable(java.lang.String, java.io.BufferedReader)
+	 * parseFeatureTable(java.lang.String, LineCursor)
 	 */
 	@Override
-	protected Collection parseFeatureTable(String line, BufferedReader br) throws IOException {
+	protected Collection parseFeatureTable(String line, LineCursor lines) {
 		throw new UnsupportedOperationException("This feature has not been implemented, as parsing of generic EMBL files has not been used.");
 	}
 
@@ -118,7 +118,7 @@ public class EmblNucleotideSequenceDatabaseFileParser extends
 			InsdcProjectId projectId, Set dates, String description, Set keyWords, String organismSpeciesName,
 			String organismClassification, String organelle, Set referenceCitations, Set databaseCrossReferences,
 			String comments, Set sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs, int numTs,
-			int numOthers, String sequence, String constructedSeqInfo, Set assemblyInfo, long byteOffset) {
+			int numOthers, PackedSequence sequence, String constructedSeqInfo, Set assemblyInfo, long byteOffset) {
 		return new EmblSequenceDatabaseFileData(idLineContents.getPrimaryAccessionNumber(),
 				idLineContents.getSequenceVersionNumber(), idLineContents.getSequenceTopology(),
 				idLineContents.getMoleculeType(), idLineContents.getDataClass(), idLineContents.getTaxonomicDivision(),
@@ -98,7 +98,7 @@ public class EmblSequenceDatabaseFileData extends EmblSequenceDatabaseFileDataBa
 			Set<EmblReferenceCitation> referenceCitations, //String proteinExistenceEvidence,
 			Set<DataSourceIdentifier<?>> databaseCrossReferences, String comments,
 			Set<SequenceFeature> sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs, int numTs,
-			int numOthers, String sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
+			int numOthers, PackedSequence sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
 			long byteOffset) {
 		super(primaryAccessionNumber, sequenceVersionNumber, sequenceTopology, moleculeType, dataClass,
 				taxonomicDivision, sequenceLengthInBasePairs, accessionNumbers, projectId, dates, description,
@@ -502,7 +502,7 @@ public abstract class EmblSequenceDatabaseFileDataBase<T extends DataSourceIdent
 	@RecordField(comment = SQ_LINE_COMMENT)
 	private final int numOthers;
 	@RecordField(comment = SQ_LINE_COMMENT)
-	private final String sequence;
+	private final PackedSequence sequence;
 	@RecordField(comment = CO_LINE_COMMENT)
 	private final String constructedSeqInfo;
 	@RecordField(comment = AS_LINE_COMMENT)
@@ -549,7 +549,7 @@ public abstract class EmblSequenceDatabaseFileDataBase<T extends DataSourceIdent
 			Set<EmblReferenceCitation> referenceCitations, // String proteinExistenceEvidence,
 			Set<DataSourceIdentifier<?>> databaseCrossReferences, String comments,
 			Set<? extends SequenceFeature> sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs,
-			int numTs, int numOthers, String sequence, String constructedSeqInfo,
+			int numTs, int numOthers, PackedSequence sequence, String constructedSeqInfo,
 			Set<EmblAssemblyInformation> assemblyInfo, long byteOffset) {
 		super(byteOffset);
 		this.primaryAccessionNumber = primaryAccessionNumber;
@@ -583,4 +583,19 @@ public abstract class EmblSequenceDatabaseFileDataBase<T extends DataSourceIdent
 		this.assemblyInfo = assemblyInfo;
 	}
 
+	/**
+	 * @return the sequence, or null if the sequence was not parsed (see
+	 *         {@link EmblSequenceDatabaseFileParserBase.SequenceMode#SKIP})
+	 */
+	public String getSequence() {
+		return (sequence == null) ? null : sequence.toString();
+	}
+
+	/**
+	 * @return the sequence without decoding it, or null if the sequence was not parsed
+	 */
+	public PackedSequence getPackedSequence() {
+		return sequence;
+	}
+
 }
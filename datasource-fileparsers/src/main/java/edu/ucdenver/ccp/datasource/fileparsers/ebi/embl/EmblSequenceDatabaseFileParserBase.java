@@ -51,10 +51,8 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.embl;
  * #L%
  */
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -71,6 +69,7 @@ import org.apache.log4j.Logger;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.string.StringUtil;
 import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.NucleotideAccessionResolver;
 import edu.ucdenver.ccp.datasource.identifiers.other.AgricolaId;
@@ -207,6 +206,24 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 		CO
 	}
 
+	/**
+	 * Determines what is done with the sequence data lines of each entry
+	 */
+	public enum SequenceMode {
+		/**
+		 * the sequence is stored in each record as a {@link PackedSequence}
+		 */
+		STORE,
+		/**
+		 * the sequence data lines are skipped and the sequence of each record is null; for
+		 * consumers that do not use the sequence, as the sequence of large entries can take more
+		 * memory than the rest of the record
+		 */
+		SKIP
+	}
+
+	private SequenceMode sequenceMode = SequenceMode.STORE;
+
 	public EmblSequenceDatabaseFileParserBase(File file, CharacterEncoding encoding) throws IOException {
 		super(file, encoding, null);
 	}
@@ -231,6 +248,39 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 		super.initialize();
 	}
 
+	/**
+	 * Each record ends with a {@link #RECORD_SEPARATOR} line, so the reader can be repositioned at
+	 * the line that follows it if its data file is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
+	}
+
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		line = readLine();
+		super.initializeAfterSeek();
+	}
+
+	/**
+	 * @param sequenceMode
+	 *            determines whether the sequences of subsequent records are stored or skipped;
+	 *            sequences are stored by default
+	 */
+	public void setSequenceMode(SequenceMode sequenceMode) {
+		this.sequenceMode = sequenceMode;
+	}
+
+	public SequenceMode getSequenceMode() {
+		return sequenceMode;
+	}
+
+	@Override
+	protected String getRecordSeparator() {
+		return RECORD_SEPARATOR;
+	}
+
 	@Override
 	protected MultiLineBuffer compileMultiLineBuffer() throws IOException {
 		if (line == null) {
@@ -247,15 +297,11 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 
 	@Override
 	protected T parseRecordFromMultipleLines(MultiLineBuffer multiLineBuffer) {
-		try {
-			return parseEmblNucelotideSequenceDatabaseRecord(multiLineBuffer);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		return parseEmblNucelotideSequenceDatabaseRecord(multiLineBuffer);
 	}
 
-	private T parseEmblNucelotideSequenceDatabaseRecord(MultiLineBuffer multiLineBuffer) throws IOException {
-		BufferedReader br = new BufferedReader(new StringReader(multiLineBuffer.toString()));
+	private T parseEmblNucelotideSequenceDatabaseRecord(MultiLineBuffer multiLineBuffer) {
+		LineCursor lines = multiLineBuffer.cursor();
 		String line;
 
 		E idLineContents = null;
@@ -272,11 +318,11 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 		Set<DataSourceIdentifier<?>> databaseCrossReferences = new HashSet<DataSourceIdentifier<?>>();
 		String comments = null;
 		SqLineContents sqLineContents = null;
-		String sequence = null;
+		PackedSequence.Builder sequenceBuilder = null;
 		String constructedSeqInfo = null;
 		Set<EmblAssemblyInformation> assemblyInfo = new HashSet<EmblAssemblyInformation>();
 		Set<SequenceFeature> sequenceFeatures = new HashSet<SequenceFeature>();
-		while ((line = br.readLine()) != null) {
+		while ((line = lines.nextLine()) != null) {
 			String prefix = line.substring(0, 2);
 			LinePrefix lp = (prefix.trim().isEmpty()) ? LinePrefix.BLANK : LinePrefix.valueOf(prefix);
 			switch (lp) {
@@ -317,7 +363,7 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 				organelle = line.substring(2).trim();
 				break;
 			case RN:
-				referenceCitations.add(parseReferenceCitation(line, br));
+				referenceCitations.add(parseReferenceCitation(line, lines));
 				break;
 			case RC:
 				throw new IllegalStateException(
@@ -354,19 +400,20 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 			case FH:
 				continue; // header line, contains no data
 			case FT:
-				sequenceFeatures.addAll(parseFeatureTable(line, br));
+				sequenceFeatures.addAll(parseFeatureTable(line, lines));
 				break;
 			case SQ:
 				sqLineContents = parseSqLine(line);
 				break;
 			case BLANK:
-				String seqLine = line.substring(2).trim();
-				seqLine = StringUtil.removeSuffixRegex(seqLine, "\\d+").trim().replaceAll("\\s", "");
-				if (sequence == null) {
-					sequence = seqLine;
-				} else {
-					sequence += seqLine;
+				if (sequenceMode == SequenceMode.SKIP) {
+					break;
+				}
+				if (sequenceBuilder == null) {
+					sequenceBuilder = (sqLineContents == null) ? new PackedSequence.Builder()
+							: new PackedSequence.Builder(sqLineContents.getSequenceLength());
 				}
+				appendSequenceLine(line, sequenceBuilder);
 				break;
 			case CO:
 				String trimmedCoLine = line.substring(2).trim();
@@ -395,11 +442,52 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 				projectId, dates, description, keyWords, organismSpeciesName, organismClassification, organelle,
 				referenceCitations, databaseCrossReferences, comments, sequenceFeatures,
 				sqLineContents.getSequenceLength(), sqLineContents.getNumAs(), sqLineContents.getNumCs(),
-				sqLineContents.getNumGs(), sqLineContents.getNumTs(), sqLineContents.getNumOthers(), sequence,
-				constructedSeqInfo, assemblyInfo, multiLineBuffer.getByteOffset());
+				sqLineContents.getNumGs(), sqLineContents.getNumTs(), sqLineContents.getNumOthers(),
+				(sequenceBuilder == null) ? null : sequenceBuilder.build(), constructedSeqInfo, assemblyInfo,
+				multiLineBuffer.getByteOffset());
 
 	}
 
+	/**
+	 * Appends the residues of a sequence data line, e.g.
+	 * {@code "     tttgaattaa aagtcttttt ttattttttt aaaaaaaaaa       1859"}, to the sequence being
+	 * built: the residue count at the end of the line and all whitespace are left out. The line is
+	 * scanned once, rather than trimmed and matched against regular expressions, as the sequence
+	 * of a large entry spans hundreds of thousands of lines.
+	 * 
+	 * @param line
+	 * @param sequenceBuilder
+	 */
+	static void appendSequenceLine(String line, PackedSequence.Builder sequenceBuilder) {
+		int start = 2;
+		int end = line.length();
+		while (start < end && line.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && line.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		while (end > start && line.charAt(end - 1) >= '0' && line.charAt(end - 1) <= '9') {
+			end--;
+		}
+		while (end > start && line.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		for (int i = start; i < end; i++) {
+			char c = line.charAt(i);
+			if (!isRegexWhitespace(c)) {
+				sequenceBuilder.append(c);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the character matches the regular expression {@code \s}
+	 */
+	private static boolean isRegexWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
 	/**
 	 * @param line
 	 * @param comments
@@ -449,11 +537,13 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 
 	/**
 	 * @param line
-	 * @param br
+	 *            the first FT line of the feature table
+	 * @param lines
+	 *            positioned after the first FT line; the remaining lines of the feature table are
+	 *            to be consumed
 	 * @return
-	 * @throws IOException 
 	 */
-	protected abstract Collection<? extends SequenceFeature> parseFeatureTable(String line, BufferedReader br) throws IOException;
+	protected abstract Collection<? extends SequenceFeature> parseFeatureTable(String line, LineCursor lines);
 
 	/**
 	 * @param idLineContents 
@@ -488,7 +578,7 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 			Set<EmblReferenceCitation> referenceCitations, //String proteinExistenceEvidence,
 			Set<DataSourceIdentifier<?>> databaseCrossReferences, String comments,
 			Set<? extends SequenceFeature> sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs, int numTs,
-			int numOthers, String sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
+			int numOthers, PackedSequence sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
 			long byteOffset);
 
 	/**
@@ -539,11 +629,10 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 
 	/**
 	 * @param line
-	 * @param br
+	 * @param lines
 	 * @return
-	 * @throws IOException
 	 */
-	private EmblReferenceCitation parseReferenceCitation(String rnLine, BufferedReader br) throws IOException {
+	private EmblReferenceCitation parseReferenceCitation(String rnLine, LineCursor lines) {
 		int referenceNumber = Integer.parseInt(StringUtil.removeSuffix(
 				StringUtil.removePrefix(rnLine.substring(2).trim(), "["), "]"));
 		String referenceComment = null;
@@ -555,7 +644,7 @@ public abstract class EmblSequenceDatabaseFileParserBase<T extends EmblSequenceD
 		String referenceLocation = null;
 		boolean endReference = false;
 		while (!endReference) {
-			String line = br.readLine();
+			String line = lines.nextLine();
 			if (line == null) {
 				throw new IllegalStateException("File ended unexpectedly mid-reference.");
 			}
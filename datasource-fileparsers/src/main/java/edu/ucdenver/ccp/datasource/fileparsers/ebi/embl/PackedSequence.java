@@ -0,0 +1,323 @@
+package edu.ucdenver.ccp.datasource.fileparsers.ebi.embl;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * An immutable biological sequence stored with as few bits per residue as its alphabet allows:
+ * sequences of at most 4 distinct residues, e.g. nucleotide sequences, are stored with 2 bits per
+ * residue, those of at most 16 distinct residues, e.g. nucleotide sequences that use IUPAC
+ * ambiguity codes, with 4 bits per residue, and those of at most 256 distinct residues, e.g.
+ * protein sequences, with 8 bits per residue. The sequence is only decoded into a {@link String}
+ * when {@link #toString()} is called, so records of multi-megabase entries take a fraction of the
+ * memory taken by a UTF-16 {@link String}.
+ * <p>
+ * {@link #toString()} returns the sequence, so sequences are serialized as the {@link String}
+ * they replace.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ */
+public final class PackedSequence implements CharSequence {
+
+	/**
+	 * the maximum number of distinct residues that can be packed
+	 */
+	private static final int MAX_ALPHABET_SIZE = 256;
+
+	/**
+	 * the residues, indexed by code
+	 */
+	private final char[] alphabet;
+	/**
+	 * the residue codes, packed with {@link #bitsPerResidue} bits per residue starting from the
+	 * lowest order bits of each byte
+	 */
+	private final byte[] codes;
+	private final int bitsPerResidue;
+	private final int length;
+
+	private PackedSequence(char[] alphabet, byte[] codes, int bitsPerResidue, int length) {
+		this.alphabet = alphabet;
+		this.codes = codes;
+		this.bitsPerResidue = bitsPerResidue;
+		this.length = length;
+	}
+
+	/**
+	 * @param sequence
+	 * @return the packed sequence, or null if the specified sequence is null
+	 */
+	public static PackedSequence valueOf(CharSequence sequence) {
+		if (sequence == null) {
+			return null;
+		}
+		return new Builder(sequence.length()).append(sequence).build();
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+		}
+		return alphabet[getCode(index)];
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+		}
+		return decode(start, end);
+	}
+
+	/**
+	 * @return the number of bits used to store each residue: 2, 4 or 8, or 16 if the sequence has
+	 *         more than 256 distinct residues
+	 */
+	public int getBitsPerResidue() {
+		return bitsPerResidue;
+	}
+
+	/**
+	 * @return the decoded sequence
+	 */
+	@Override
+	public String toString() {
+		return decode(0, length);
+	}
+
+	/**
+	 * Residues are coded in the order in which they first occur, so two sequences are equal if and
+	 * only if their alphabets and codes are equal
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PackedSequence)) {
+			return false;
+		}
+		PackedSequence other = (PackedSequence) obj;
+		return length == other.length && bitsPerResidue == other.bitsPerResidue
+				&& Arrays.equals(alphabet, other.alphabet) && Arrays.equals(codes, other.codes);
+	}
+
+	/**
+	 * @return the hash code of the decoded sequence, see {@link String#hashCode()}
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < length; i++) {
+			hash = 31 * hash + alphabet[getCode(i)];
+		}
+		return hash;
+	}
+
+	private int getCode(int index) {
+		if (bitsPerResidue == 16) {
+			return (codes[2 * index] & 0xFF) | ((codes[2 * index + 1] & 0xFF) << 8);
+		}
+		long bitIndex = (long) index * bitsPerResidue;
+		return (codes[(int) (bitIndex >>> 3)] >>> (bitIndex & 7)) & ((1 << bitsPerResidue) - 1);
+	}
+
+	private String decode(int start, int end) {
+		char[] chars = new char[end - start];
+		for (int i = start; i < end; i++) {
+			chars[i - start] = alphabet[getCode(i)];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Builds a {@link PackedSequence} in time linear in its length. Residues are stored with 8 bits
+	 * per residue while the sequence is built and are packed when {@link #build()} is called.
+	 */
+	public static final class Builder {
+
+		/**
+		 * the code of each ASCII residue plus one, 0 if the residue has not been observed
+		 */
+		private final short[] asciiCodes = new short[128];
+		private char[] alphabet = new char[4];
+		private int alphabetSize = 0;
+		private byte[] codes;
+		private int length = 0;
+		/**
+		 * the sequence, once it contains more than {@link PackedSequence#MAX_ALPHABET_SIZE}
+		 * distinct residues
+		 */
+		private StringBuilder unpackedSequence = null;
+
+		public Builder() {
+			this(16);
+		}
+
+		/**
+		 * @param expectedLength
+		 *            the expected length of the sequence, e.g. as given by the header of an entry
+		 */
+		public Builder(int expectedLength) {
+			this.codes = new byte[Math.max(expectedLength, 16)];
+		}
+
+		/**
+		 * @param residue
+		 * @return this builder
+		 */
+		public Builder append(char residue) {
+			if (unpackedSequence != null) {
+				unpackedSequence.append(residue);
+				return this;
+			}
+			int code = getCode(residue);
+			if (code < 0) {
+				unpackedSequence = new StringBuilder(Math.max(codes.length, length + 16));
+				decodeTo(unpackedSequence);
+				codes = null;
+				unpackedSequence.append(residue);
+				return this;
+			}
+			if (length == codes.length) {
+				codes = Arrays.copyOf(codes, codes.length + (codes.length >> 1) + 16);
+			}
+			codes[length++] = (byte) code;
+			return this;
+		}
+
+		/**
+		 * @param residues
+		 * @return this builder
+		 */
+		public Builder append(CharSequence residues) {
+			for (int i = 0; i < residues.length(); i++) {
+				append(residues.charAt(i));
+			}
+			return this;
+		}
+
+		/**
+		 * @return the number of residues appended so far
+		 */
+		public int length() {
+			return (unpackedSequence == null) ? length : unpackedSequence.length();
+		}
+
+		/**
+		 * @return the packed sequence; if more than 256 distinct residues were appended then they
+		 *         are stored with 16 bits per residue
+		 */
+		public PackedSequence build() {
+			if (unpackedSequence != null) {
+				return buildUnpacked(unpackedSequence);
+			}
+			char[] packedAlphabet = Arrays.copyOf(alphabet, alphabetSize);
+			int bitsPerResidue = (alphabetSize <= 4) ? 2 : (alphabetSize <= 16) ? 4 : 8;
+			if (bitsPerResidue == 8) {
+				return new PackedSequence(packedAlphabet, Arrays.copyOf(codes, length), 8, length);
+			}
+			int residuesPerByte = 8 / bitsPerResidue;
+			byte[] packedCodes = new byte[(length + residuesPerByte - 1) / residuesPerByte];
+			for (int i = 0; i < length; i++) {
+				packedCodes[i / residuesPerByte] |= codes[i] << ((i % residuesPerByte) * bitsPerResidue);
+			}
+			return new PackedSequence(packedAlphabet, packedCodes, bitsPerResidue, length);
+		}
+
+		/**
+		 * @return the code of the specified residue, assigning one if the residue has not been
+		 *         observed, or -1 if the alphabet is full
+		 */
+		private int getCode(char residue) {
+			if (residue < 128 && asciiCodes[residue] != 0) {
+				return asciiCodes[residue] - 1;
+			}
+			for (int code = 0; code < alphabetSize; code++) {
+				if (alphabet[code] == residue) {
+					return code;
+				}
+			}
+			if (alphabetSize == MAX_ALPHABET_SIZE) {
+				return -1;
+			}
+			if (alphabetSize == alphabet.length) {
+				alphabet = Arrays.copyOf(alphabet, alphabet.length * 2);
+			}
+			alphabet[alphabetSize] = residue;
+			if (residue < 128) {
+				asciiCodes[residue] = (short) (alphabetSize + 1);
+			}
+			return alphabetSize++;
+		}
+
+		private void decodeTo(StringBuilder sb) {
+			for (int i = 0; i < length; i++) {
+				sb.append(alphabet[codes[i] & 0xFF]);
+			}
+		}
+
+		/**
+		 * Sequences with more distinct residues than can be packed are stored as 16-bit codes
+		 * into an alphabet of all of their residues
+		 */
+		private static PackedSequence buildUnpacked(CharSequence sequence) {
+			char[] chars = sequence.toString().toCharArray();
+			char[] sortedAlphabet = chars.clone();
+			Arrays.sort(sortedAlphabet);
+			int alphabetSize = 0;
+			for (int i = 0; i < sortedAlphabet.length; i++) {
+				if (i == 0 || sortedAlphabet[i] != sortedAlphabet[i - 1]) {
+					sortedAlphabet[alphabetSize++] = sortedAlphabet[i];
+				}
+			}
+			char[] unpackedAlphabet = Arrays.copyOf(sortedAlphabet, alphabetSize);
+			byte[] unpackedCodes = new byte[chars.length * 2];
+			for (int i = 0; i < chars.length; i++) {
+				int code = Arrays.binarySearch(unpackedAlphabet, chars[i]);
+				unpackedCodes[2 * i] = (byte) code;
+				unpackedCodes[2 * i + 1] = (byte) (code >>> 8);
+			}
+			return new PackedSequence(unpackedAlphabet, unpackedCodes, 16, chars.length);
+		}
+	}
+
+}
@@ -36,8 +36,6 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.goa;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
 import java.util.zip.GZIPInputStream;
 
@@ -45,15 +43,16 @@ import org.apache.log4j.Logger;
 
 import edu.ucdenver.ccp.common.download.FtpDownload;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
-import edu.ucdenver.ccp.common.file.FileReaderUtil;
 import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.common.ftp.FTPUtil.FileType;
 import edu.ucdenver.ccp.common.string.RegExPatterns;
 import edu.ucdenver.ccp.common.string.StringConstants;
 import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.DelimitedColumnCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.download.FtpHost;
 import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdListFileFactory;
+import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdSet;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
@@ -80,7 +79,11 @@ public class GpAssociationGoaUniprotFileParser extends
 
 	private static final Logger logger = Logger.getLogger(GpAssociationGoaUniprotFileParser.class);
 
-	private final Set<DataSourceIdentifier<?>> taxonSpecificIds;
+	/**
+	 * the taxon-specific UniProt and IntAct identifiers, or null if none were loaded
+	 */
+	private final IdSet uniprotIdsForTaxon;
+	private final IdSet intactIdsForTaxon;
 
 	/* @formatter:off */
 	private static final String HEADER =
@@ -135,40 +138,42 @@ public class GpAssociationGoaUniprotFileParser extends
 	public GpAssociationGoaUniprotFileParser(File inputFile, CharacterEncoding encoding, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(inputFile, encoding, COMMENT_INDICATOR, taxonIds);
-		taxonSpecificIds = loadTaxonSpecificIds(idListDirectory, taxonIds);
+		uniprotIdsForTaxon = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
+		intactIdsForTaxon = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.IREFWEB, taxonIds);
 		if (!isLineOfInterest(line)) {
 			advanceToNextLineWithTaxonOfInterest();
 		}
 	}
 
-	private Set<DataSourceIdentifier<?>> loadTaxonSpecificIds(File idListDirectory, Set<NcbiTaxonomyID> taxonIds)
-			throws IOException {
-		Set<UniProtID> uniprotIdsForTaxon = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT,
-				taxonIds, UniProtID.class);
-		Set<IntActID> intactIdsForTaxon = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.IREFWEB,
-				taxonIds, IntActID.class);
-		Set<DataSourceIdentifier<?>> ids = new HashSet<DataSourceIdentifier<?>>();
-		if (uniprotIdsForTaxon != null) {
-			ids.addAll(uniprotIdsForTaxon);
-		}
-		if (intactIdsForTaxon != null) {
-		ids.addAll(intactIdsForTaxon);
-		}
-		if (ids.isEmpty()) {
-			return null;
-		}
-		return ids;
-	}
-
 	public GpAssociationGoaUniprotFileParser(File workDirectory, boolean clean, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(workDirectory, ENCODING, COMMENT_INDICATOR, null, null, clean, taxonIds);
-		taxonSpecificIds = loadTaxonSpecificIds(idListDirectory, taxonIds);
+		uniprotIdsForTaxon = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
+		intactIdsForTaxon = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.IREFWEB, taxonIds);
 		if (!isLineOfInterest(line)) {
 			advanceToNextLineWithTaxonOfInterest();
 		}
 	}
 
+	/**
+	 * @return the downloaded data file if this reader was constructed using the download
+	 *         constructor, otherwise the file specified at construction
+	 */
+	@Override
+	public File getDataFile() {
+		return (goaDataFile != null) ? goaDataFile : super.getDataFile();
+	}
+
+	/**
+	 * The file header is only read when the reader is initialized and each annotation line is
+	 * parsed on its own, so the reader can be repositioned at any annotation line if its data file
+	 * is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
+	}
+
 	@Override
 	protected StreamLineReader initializeLineReaderFromDownload(CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
@@ -216,62 +221,63 @@ public class GpAssociationGoaUniprotFileParser extends
 	}
 
 	public static GpAssociationGoaUniprotFileData parseGpAssociationGoaUniprotFileDataFromLine(Line line) {
-		String[] columns = FileReaderUtil.getColumnsFromLine(line.getText(), DELIMITER_REGEX);
-		if (columns.length < FILE_COLUMN_COUNT) {
+		DelimitedColumnCursor columns = new DelimitedColumnCursor('\t', true).reset(line.getText());
+		if (columns.getColumnCount() < FILE_COLUMN_COUNT) {
 			String message = String.format(
 					"Unable to initialize a new GpAssociationGoaUniprotFileData object. Expected %d columns in the input "
-							+ "String[] but there were %d columns. Columns= %s LINE=%s", FILE_COLUMN_COUNT,
-					columns.length, Arrays.toString(columns), line.getText());
+							+ "line but there were %d columns. LINE=%s", FILE_COLUMN_COUNT,
+					columns.getColumnCount(), line.getText());
 			Logger.getLogger(GpAssociationGoaUniprotFileParser.class).warn(message);
 			return null;
 		}
-		return initializeNewGpAssociationGoaUniprotFileData(columns, line.getByteOffset(), line.getLineNumber());
+		return initializeNewGpAssociationGoaUniprotFileData(columns, line.getText(), line.getByteOffset(),
+				line.getLineNumber());
 	}
 
-	private static GpAssociationGoaUniprotFileData initializeNewGpAssociationGoaUniprotFileData(String[] columns,
-			long byteOffset, long lineNumber) {
-		String database = new String(columns[0]);
-		String databaseObjectIDStr = columns[1];
+	private static GpAssociationGoaUniprotFileData initializeNewGpAssociationGoaUniprotFileData(
+			DelimitedColumnCursor columns, String lineText, long byteOffset, long lineNumber) {
+		String database = columns.getColumn(0);
+		String databaseObjectIDStr = columns.getColumn(1);
 
 		DataSourceIdentifier<?> databaseObjectID = createDatabaseObjectID(database, databaseObjectIDStr);
 
 		if (databaseObjectID == null) {
-			logger.warn("Skipping record (" + lineNumber + ") due to null database ID: " + Arrays.toString(columns));
+			logger.warn("Skipping record (" + lineNumber + ") due to null database ID: " + lineText);
 			return null;
 		}
 
 		String qualifier = null;
-		if (!columns[2].isEmpty()) {
-			qualifier = columns[2];
+		if (!columns.isColumnEmpty(2)) {
+			qualifier = columns.getColumn(2);
 		}
-		GeneOntologyID goID = new GeneOntologyID(columns[3]);
-		DataSourceIdentifier<?> dbReference = createDbReferenceIdentifier(columns[4]);
+		GeneOntologyID goID = new GeneOntologyID(columns.getColumn(3));
+		String dbReferenceStr = columns.getColumn(4);
+		DataSourceIdentifier<?> dbReference = createDbReferenceIdentifier(dbReferenceStr);
 
 		if (dbReference == null) {
 			Logger.getLogger(GpAssociationGoaUniprotFileParser.class).error(
-					"Invalid Db reference value " + columns[4] + ". Skipping record " + Arrays.toString(columns));
+					"Invalid Db reference value " + dbReferenceStr + ". Skipping record " + lineText);
 			return null;
 		}
 
-		String evidenceCode = columns[5];
+		String evidenceCode = columns.getColumn(5);
 		String with = null;
-		if (!columns[6].isEmpty()) {
-			with = columns[6];
+		if (!columns.isColumnEmpty(6)) {
+			with = columns.getColumn(6);
 		}
-		String taxonomyIDStr = columns[7];
 		NcbiTaxonomyID extraTaxonID = null;
-		if (!taxonomyIDStr.isEmpty()) {
-			extraTaxonID = new NcbiTaxonomyID(taxonomyIDStr);
+		if (!columns.isColumnEmpty(7)) {
+			extraTaxonID = new NcbiTaxonomyID(columns.getColumn(7));
 		}
-		String date = columns[8];
-		String assignedBy = columns[9];
+		String date = columns.getColumn(8);
+		String assignedBy = columns.getColumn(9);
 		String annotationExtension = null;
-		if (columns.length > 10 && !columns[10].isEmpty()) {
-			annotationExtension = columns[10];
+		if (columns.getColumnCount() > 10 && !columns.isColumnEmpty(10)) {
+			annotationExtension = columns.getColumn(10);
 		}
 		String annotationProperties = null;
-		if (columns.length > 11 && !columns[11].isEmpty()) {
-			annotationProperties = columns[11];
+		if (columns.getColumnCount() > 11 && !columns.isColumnEmpty(11)) {
+			annotationProperties = columns.getColumn(11);
 		}
 		return new GpAssociationGoaUniprotFileData(database, databaseObjectID, qualifier, goID, dbReference,
 				evidenceCode, with, extraTaxonID, date, assignedBy, annotationExtension, annotationProperties,
@@ -332,58 +338,61 @@ public class GpAssociationGoaUniprotFileParser extends
 		// database));
 	}
 
+	/**
+	 * The taxon is determined by checking whether the database object ID is one of the taxon
+	 * specific IDs of interest. The ID is created from the first two columns of the line so that
+	 * the full record is only parsed (see {@link #getRecord(Line)}) for lines of interest.
+	 */
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		if (line != null) {
-			GpAssociationGoaUniprotFileData record = parseRecordFromLine(line);
-			if (record != null) {
-				DataSourceIdentifier<?> databaseObjectID = record.getDatabaseObjectID();
-				if (databaseObjectID instanceof UniProtID) {
-					UniProtID uniprotId = (UniProtID) databaseObjectID;
-					if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty() && taxonSpecificIds.contains(uniprotId)) {
-						/*
-						 * here we have matched the record uniprot id as one of
-						 * the ids of interest. We don't know exactly what taxon
-						 * it is however so we just return one (arbitrarily) of
-						 * the taxon ids of interest. this will ensure this
-						 * record is returned.
-						 */
-						return taxonsOfInterest.iterator().next();
-					}
-				} else if (databaseObjectID instanceof UniProtIsoformID) {
-					UniProtIsoformID isoformId = (UniProtIsoformID) databaseObjectID;
-					String uniprotIdStr = StringUtil.removeSuffixRegex(isoformId.getDataElement(), "-\\d+");
-					if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty()
-							&& taxonSpecificIds.contains(new UniProtID(uniprotIdStr))) {
-						/*
-						 * here we have matched the record uniprot id as one of
-						 * the ids of interest. We don't know exactly what taxon
-						 * it is however so we just return one (arbitrarily) of
-						 * the taxon ids of interest. this will ensure this
-						 * record is returned.
-						 */
-						return taxonsOfInterest.iterator().next();
-					}
-				} else if (databaseObjectID instanceof IntActID) {
-					IntActID intactId = (IntActID) databaseObjectID;
-					if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty() && taxonSpecificIds.contains(intactId)) {
-						/*
-						 * here we have matched the record intact id as one of
-						 * the ids of interest. We don't know exactly what taxon
-						 * it is however so we just return one (arbitrarily) of
-						 * the taxon ids of interest. this will ensure this
-						 * record is returned.
-						 */
-						return taxonsOfInterest.iterator().next();
-					}
-				}
-
-				else {
-					logger.warn("Unhandled non-UniProt id in GO data while trying to create a species specific subset: "
-							+ databaseObjectID.getDataSource() + " -- " + databaseObjectID);
+		if (line != null && hasTaxonSpecificIds()) {
+			String lineText = line.getText();
+			String database = getTabColumn(lineText, 0);
+			String databaseObjectIDStr = getTabColumn(lineText, 1);
+			if (databaseObjectIDStr != null) {
+				if (isTaxonSpecificId(database, databaseObjectIDStr) && getRecord(line) != null) {
+					/*
+					 * here we have matched the record id as one of the ids of
+					 * interest. We don't know exactly what taxon it is however
+					 * so we just return one (arbitrarily) of the taxon ids of
+					 * interest. this will ensure this record is returned.
+					 */
+					return taxonsOfInterest.iterator().next();
 				}
 			}
 		}
 		return new NcbiTaxonomyID(0);
 	}
+
+	private boolean hasTaxonSpecificIds() {
+		return (uniprotIdsForTaxon != null && uniprotIdsForTaxon.size() > 0)
+				|| (intactIdsForTaxon != null && intactIdsForTaxon.size() > 0);
+	}
+
+	/**
+	 * The raw database object ID is looked up so that no identifier is created for lines that are
+	 * not of interest. Lines of interest are validated when their record is parsed.
+	 * 
+	 * @param database
+	 * @param databaseObjectIDStr
+	 * @return true if the database object ID (or the UniProt ID of an isoform or protein chain ID)
+	 *         is one of the taxon specific IDs of interest
+	 */
+	private boolean isTaxonSpecificId(String database, String databaseObjectIDStr) {
+		if (database.equals("UniProtKB")) {
+			String uniprotIdStr = databaseObjectIDStr;
+			if (uniprotIdStr.contains("-")) {
+				uniprotIdStr = StringUtil.removeSuffixRegex(uniprotIdStr, "-\\d+");
+			} else if (uniprotIdStr.contains(":PRO_")) {
+				uniprotIdStr = uniprotIdStr.substring(0, uniprotIdStr.indexOf(":"));
+			}
+			/* UniProt IDs are upper-cased when they are validated */
+			return uniprotIdsForTaxon != null && uniprotIdsForTaxon.contains(uniprotIdStr.toUpperCase());
+		} else if (database.equals("IntAct")) {
+			return intactIdsForTaxon != null && intactIdsForTaxon.contains(databaseObjectIDStr.trim());
+		}
+		logger.warn("Unhandled non-UniProt id in GO data while trying to create a species specific subset: "
+				+ database + " -- " + databaseObjectIDStr);
+		return false;
+	}
 }
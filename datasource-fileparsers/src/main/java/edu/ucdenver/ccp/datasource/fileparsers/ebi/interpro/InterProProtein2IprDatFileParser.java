@@ -63,6 +63,7 @@ import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.common.ftp.FTPUtil.FileType;
 import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdListFileFactory;
+import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdSet;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
@@ -81,7 +82,7 @@ public class InterProProtein2IprDatFileParser extends
 	public static final String FTP_PATH = "pub/databases/interpro";
 	public static final String FTP_FILE_NAME = "protein2ipr.dat.gz";
 	public static final CharacterEncoding ENCODING = CharacterEncoding.US_ASCII;
-	private final Set<UniProtID> taxonSpecificIds;
+	private final IdSet taxonSpecificIds;
 
 	@FtpDownload(server = FTP_SERVER, path = FTP_PATH, filename = FTP_FILE_NAME, filetype = FileType.BINARY)
 	private File interProProtein2IprDatFile;
@@ -99,15 +100,31 @@ public class InterProProtein2IprDatFileParser extends
 	public InterProProtein2IprDatFileParser(File file, CharacterEncoding encoding, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(file, encoding, null, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
 	}
 
 	public InterProProtein2IprDatFileParser(File workDirectory, boolean clean, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(workDirectory, ENCODING, null, null, null, clean, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
+	}
+
+	/**
+	 * @return the downloaded data file if this reader was constructed using the download
+	 *         constructor, otherwise the file specified at construction
+	 */
+	@Override
+	public File getDataFile() {
+		return (interProProtein2IprDatFile != null) ? interProProtein2IprDatFile : super.getDataFile();
+	}
+
+	/**
+	 * Each protein2ipr line is parsed on its own, so the reader can be repositioned at any line if
+	 * its data file is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
 	}
 
 	@Override
@@ -124,8 +141,9 @@ public class InterProProtein2IprDatFileParser extends
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		InterProProtein2IprDatFileData record = parseRecordFromLine(line);
-		if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty() && taxonSpecificIds.contains(record.getUniProtID())) {
+		InterProProtein2IprDatFileData record = getRecord(line);
+		if (taxonSpecificIds != null && taxonSpecificIds.size() > 0 && record.getUniProtID() != null
+				&& taxonSpecificIds.contains(record.getUniProtID().getDataElement())) {
 			// here we have matched the record uniprot id as one of the ids of interest. We don't
 			// know exactly what taxon it is however so we just return one (arbitrarily) of the
 			// taxon ids of interest. this will ensure this record is returned.
@@ -51,24 +51,24 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot;
  * #L%
  */
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.log4j.Logger;
 
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.UniProtFileRecord.DbReference;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.UniProtFileRecord.Organism;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareMultiLineFileRecordReader;
-import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtEntryName;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtIsoformID;
@@ -84,6 +84,13 @@ public class SparseUniProtDatFileRecordReader extends TaxonAwareMultiLineFileRec
 
 	private static final Logger logger = Logger.getLogger(SparseUniProtDatFileRecordReader.class);
 
+	private static final Pattern OX_LINE_TAXON_PATTERN = Pattern.compile("NCBI_TaxID=(\\d+)[^\\d]");
+
+	/**
+	 * the file specified at construction; this reader wraps the file in a (possibly gzipped) stream
+	 */
+	private File uniprotDatFile;
+
 //	public SparseUniProtDatFileRecordReader(File file, CharacterEncoding encoding) throws IOException {
 //		super((file.getName().endsWith(".gz")) ? new GZIPInputStream(new FileInputStream(file)) : new FileInputStream(
 //				file), encoding, null, null);
@@ -93,6 +100,7 @@ public class SparseUniProtDatFileRecordReader extends TaxonAwareMultiLineFileRec
 			throws IOException {
 		super((file.getName().endsWith(".gz")) ? new GZIPInputStream(new FileInputStream(file)) : new FileInputStream(
 				file), encoding, null, taxonIds);
+		this.uniprotDatFile = file;
 	}
 
 	/**
@@ -120,6 +128,31 @@ public class SparseUniProtDatFileRecordReader extends TaxonAwareMultiLineFileRec
 		super.initialize();
 	}
 
+	@Override
+	public File getDataFile() {
+		return (uniprotDatFile != null) ? uniprotDatFile : super.getDataFile();
+	}
+
+	/**
+	 * Each record ends with a "//" line, so the reader can be repositioned at the line that follows
+	 * it if its data file is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
+	}
+
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		line = readLine();
+		super.initializeAfterSeek();
+	}
+
+	@Override
+	protected String getRecordSeparator() {
+		return "//";
+	}
+
 	@Override
 	protected MultiLineBuffer compileMultiLineBuffer() throws IOException {
 		if (line == null)
@@ -135,89 +168,84 @@ public class SparseUniProtDatFileRecordReader extends TaxonAwareMultiLineFileRec
 
 	@Override
 	protected SparseUniProtFileRecord parseRecordFromMultipleLines(MultiLineBuffer multiLineBuffer) {
-		try {
-			BufferedReader br = new BufferedReader(new StringReader(multiLineBuffer.toString()));
-			String line;
-			UniProtEntryName uniprotEntryName = null;
-			List<UniProtID> uniprotIDs = new ArrayList<UniProtID>();
-			Organism organism = null;
-			List<Organism> organismHosts = new ArrayList<Organism>();
-			String canonicalGeneSymbol = null;
-			Set<String> fullGeneNames = new HashSet<String>();
-			Set<String> synonyms = new HashSet<String>();
-			List<UniProtIsoformID> isoformIds = new ArrayList<UniProtIsoformID>();
-
-			boolean hasGoAnnotation = false;
-			while ((line = br.readLine()) != null) {
-				// if (line.startsWith("//")) {
-				// break;
-				// } else
-				if (line.startsWith("ID")) {
-					uniprotEntryName = UniProtDatFileUtil.parseIDLine(line);
-				} else if (line.startsWith("AC")) {
-					uniprotIDs.addAll(UniProtDatFileUtil.parseACLine(line));
-				} else if (line.startsWith("OX")) {
-					organism = UniProtDatFileUtil.parseOXLine(line);
-				} else if (line.startsWith("OH")) {
-					Organism o = UniProtDatFileUtil.parseOXLine(line);
-					if (o != null) {
-						organismHosts.add(o);
-					}
-				} else if (line.startsWith("DE")) {
-					String fullName = UniProtDatFileUtil.parseDELine(line, br);
-					if (fullName != null) {
-						fullGeneNames.add(fullName);
-					}
-				} else if (line.startsWith("CC")) {
-					isoformIds.addAll(UniProtDatFileUtil.parseCCLine(line, br));
-				} else if (line.startsWith("DR")) {
-					if (line.substring(3).trim().startsWith("GO;")) {
-						hasGoAnnotation = true;
-					}
+		LineCursor lines = multiLineBuffer.cursor();
+		String line;
+		UniProtEntryName uniprotEntryName = null;
+		List<UniProtID> uniprotIDs = new ArrayList<UniProtID>();
+		Organism organism = null;
+		List<Organism> organismHosts = new ArrayList<Organism>();
+		String canonicalGeneSymbol = null;
+		Set<String> fullGeneNames = new HashSet<String>();
+		Set<String> synonyms = new HashSet<String>();
+		List<UniProtIsoformID> isoformIds = new ArrayList<UniProtIsoformID>();
+
+		boolean hasGoAnnotation = false;
+		while ((line = lines.nextLine()) != null) {
+			// if (line.startsWith("//")) {
+			// break;
+			// } else
+			if (line.startsWith("ID")) {
+				uniprotEntryName = UniProtDatFileUtil.parseIDLine(line);
+			} else if (line.startsWith("AC")) {
+				uniprotIDs.addAll(UniProtDatFileUtil.parseACLine(line));
+			} else if (line.startsWith("OX")) {
+				organism = UniProtDatFileUtil.parseOXLine(line);
+			} else if (line.startsWith("OH")) {
+				Organism o = UniProtDatFileUtil.parseOXLine(line);
+				if (o != null) {
+					organismHosts.add(o);
 				}
-
-				if (line.startsWith("GN")) {
-					List<String> geneNameAndSynonyms = UniProtDatFileUtil.parseGNLineForNameAndSynonyms(line, br);
-					if (geneNameAndSynonyms.size() > 0) {
-						canonicalGeneSymbol = geneNameAndSynonyms.get(0);
-						synonyms.addAll(geneNameAndSynonyms.subList(1, geneNameAndSynonyms.size()));
-					}
+			} else if (line.startsWith("DE")) {
+				String fullName = UniProtDatFileUtil.parseDELine(line, lines);
+				if (fullName != null) {
+					fullGeneNames.add(fullName);
+				}
+			} else if (line.startsWith("CC")) {
+				isoformIds.addAll(UniProtDatFileUtil.parseCCLine(line, lines));
+			} else if (line.startsWith("DR")) {
+				if (line.substring(3).trim().startsWith("GO;")) {
+					hasGoAnnotation = true;
 				}
 			}
 
-			if (organism != null && uniprotIDs.size() > 0) {
-				UniProtID primaryUniprotID = uniprotIDs.get(0);
-				uniprotIDs.remove(0);
-				List<String> allNames = new ArrayList<String>();
-				allNames.add(canonicalGeneSymbol);
-				allNames.addAll(fullGeneNames);
-				allNames.addAll(synonyms);
-				// sparse representation won't contain x-refs
-				List<DbReference> dbReferences = new ArrayList<DbReference>();
-
-				return new SparseUniProtFileRecord(primaryUniprotID, uniprotIDs, allNames, organism, organismHosts,
-						dbReferences, multiLineBuffer.getByteOffset());
+			if (line.startsWith("GN")) {
+				List<String> geneNameAndSynonyms = UniProtDatFileUtil.parseGNLineForNameAndSynonyms(line, lines);
+				if (geneNameAndSynonyms.size() > 0) {
+					canonicalGeneSymbol = geneNameAndSynonyms.get(0);
+					synonyms.addAll(geneNameAndSynonyms.subList(1, geneNameAndSynonyms.size()));
+				}
 			}
+		}
 
-			logger.warn("Could not create UniProtDatFileData. Missing either ncbiTaxonomyID or uniprotID(s): "
-					+ uniprotIDs.toString());
-			return null;
-
-		} catch (IOException ioe) {
-			throw new RuntimeException(ioe);
+		if (organism != null && uniprotIDs.size() > 0) {
+			UniProtID primaryUniprotID = uniprotIDs.get(0);
+			uniprotIDs.remove(0);
+			List<String> allNames = new ArrayList<String>();
+			allNames.add(canonicalGeneSymbol);
+			allNames.addAll(fullGeneNames);
+			allNames.addAll(synonyms);
+			// sparse representation won't contain x-refs
+			List<DbReference> dbReferences = new ArrayList<DbReference>();
+
+			return new SparseUniProtFileRecord(primaryUniprotID, uniprotIDs, allNames, organism, organismHosts,
+					dbReferences, multiLineBuffer.getByteOffset());
 		}
+
+		logger.warn("Could not create UniProtDatFileData. Missing either ncbiTaxonomyID or uniprotID(s): "
+				+ uniprotIDs.toString());
+		return null;
 	}
 
 	@Override
 	protected NcbiTaxonomyID getRecordTaxon(MultiLineBuffer buffer) {
-		SparseUniProtFileRecord record = parseRecordFromMultipleLines(buffer);
-		for (DbReference dbRef : record.getOrganism().getDbReference()) {
-			DataSourceIdentifier<?> id = dbRef.getId();
-			if (id instanceof NcbiTaxonomyID) {
-				return (NcbiTaxonomyID) id;
+		/* the taxon is taken from the OX line, e.g. OX   NCBI_TaxID=9606; */
+		for (int i = buffer.indexOfLineCode("OX", 0); i >= 0; i = buffer.indexOfLineCode("OX", i + 1)) {
+			Matcher m = OX_LINE_TAXON_PATTERN.matcher(buffer.getLineText(i));
+			if (m.find()) {
+				return new NcbiTaxonomyID(Integer.parseInt(m.group(1)));
 			}
 		}
-		logger.warn("Unable to determine taxon id for record: " + record.getPrimaryAccession());
+		logger.warn("Unable to determine taxon id for record starting at byte offset: " + buffer.getByteOffset());
 		return new NcbiTaxonomyID(0);
 	}
 
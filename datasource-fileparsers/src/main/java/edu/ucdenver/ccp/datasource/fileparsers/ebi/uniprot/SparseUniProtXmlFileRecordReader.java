@@ -90,6 +90,14 @@ public class SparseUniProtXmlFileRecordReader extends XmlFileRecordReader<Sparse
 		return null;
 	}
 
+	/**
+	 * Entries are filtered by the taxon(s) of their organism prior to being unmarshalled
+	 */
+	@Override
+	protected String[] getTaxonElementPath() {
+		return UniProtXmlFileRecordReader.ORGANISM_TAXON_ELEMENT_PATH;
+	}
+
 	@Override
 	protected boolean hasTaxonOfInterest(SparseUniProtFileRecord record) {
 		if (getTaxonsOfInterest() == null || getTaxonsOfInterest().isEmpty()) {
@@ -36,8 +36,6 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot;
  * #L%
  */
 
-import java.io.BufferedReader;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
@@ -50,6 +48,7 @@ import org.apache.log4j.Logger;
 import org.uniprot.DbReferenceType;
 import org.uniprot.OrganismType;
 
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.UniProtFileRecord.Organism;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtEntryName;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
@@ -65,10 +64,10 @@ public class UniProtDatFileUtil {
 
 	/**
 	 * @param line
-	 * @param br
+	 * @param lines
 	 * @return
 	 */
-	public static Collection<UniProtIsoformID> parseCCLine(String line, BufferedReader br) {
+	public static Collection<UniProtIsoformID> parseCCLine(String line, LineCursor lines) {
 		Collection<UniProtIsoformID> isoFormIDs = new ArrayList<UniProtIsoformID>();
 		if (line.contains("IsoId=")) {
 			Pattern p = Pattern.compile("[A-Z].*?-\\d+");
@@ -87,18 +86,19 @@ public class UniProtDatFileUtil {
 	 * Returns the canonical gene symbol if there is one, null otherwise
 	 * 
 	 * @param line
-	 * @param br
+	 * @param lines
+	 *            positioned after the specified line; the GN lines that follow it are consumed, as
+	 *            is the first line after them
 	 * @return
-	 * @throws IOException
 	 */
-	public static List<String> parseGNLineForNameAndSynonyms(String line, BufferedReader br) throws IOException {
+	public static List<String> parseGNLineForNameAndSynonyms(String line, LineCursor lines) {
 		String canonicalName = null;
 		Set<String> synonyms = new HashSet<String>();
 
 		canonicalName = lookForGeneNameOnLine(line);
 		synonyms.addAll(lookForGeneSynonymsOnLine(line));
 
-		while ((line = br.readLine()) != null && line.startsWith("GN")) {
+		while ((line = lines.nextLine()) != null && line.startsWith("GN")) {
 			if (canonicalName == null) {
 				canonicalName = lookForGeneNameOnLine(line);
 			}
@@ -139,28 +139,25 @@ public class UniProtDatFileUtil {
 	 * Returns the full gene name if there is one, null otherwise
 	 * 
 	 * @param line
-	 * @param br
+	 * @param lines
+	 *            positioned after the specified line; subsequent DE lines that do not contain the
+	 *            full name are consumed
 	 * @return
-	 * @throws IOException
 	 */
-	public static String parseDELine(String line, BufferedReader br) throws IOException {
+	public static String parseDELine(String line, LineCursor lines) {
 		Pattern p = Pattern.compile("Name:\\s+Full=(.*?);");
 		Matcher m = p.matcher(line);
 		if (m.find()) {
 			return m.group(1);
 		}
 
-		br.mark(1024);
-		// while ((line = br.readLine()).startsWith("DE")) {
-		while ((line = br.readLine()) != null && line.startsWith("DE")) {
-			m = p.matcher(line);
+		while (lines.nextLineHasCode("DE")) {
+			m = p.matcher(lines.peekLine());
 			if (m.find()) {
-				br.reset();
 				return m.group(1);
 			}
-			br.mark(1024);
+			lines.nextLine();
 		}
-		br.reset();
 
 		return null;
 	}
@@ -78,6 +78,7 @@ import edu.ucdenver.ccp.common.string.StringUtil;
 import edu.ucdenver.ccp.datasource.fileparsers.FileRecord;
 import edu.ucdenver.ccp.datasource.fileparsers.Record;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordField;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.PackedSequence;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ProbableErrorDataSourceIdentifier;
@@ -1645,7 +1646,7 @@ public class UniProtFileRecord extends FileRecord {
 	public static class Sequence {
 
 		@RecordField
-		private final String value;
+		private final PackedSequence value;
 		@RecordField
 		private final int length;
 		@RecordField
@@ -1662,7 +1663,7 @@ public class UniProtFileRecord extends FileRecord {
 		private final String fragment;
 
 		public Sequence(SequenceType xmlType) {
-			this.value = xmlType.getValue();
+			this.value = PackedSequence.valueOf(xmlType.getValue());
 			this.length = xmlType.getLength();
 			this.mass = xmlType.getMass();
 			this.checksum = xmlType.getChecksum();
@@ -1671,6 +1672,13 @@ public class UniProtFileRecord extends FileRecord {
 			this.precursor = xmlType.isPrecursor();
 			this.fragment = xmlType.getFragment();
 		}
+
+		/**
+		 * @return the sequence
+		 */
+		public String getValue() {
+			return (value == null) ? null : value.toString();
+		}
 	}
 
 	@Getter
@@ -85,6 +85,24 @@ public class UniProtIDMappingFileRecordReader extends TaxonAwareSingleLineFileRe
 		super(workDirectory, ENCODING, null, null, null, clean, taxonIds);
 	}
 
+	/**
+	 * @return the downloaded data file if this reader was constructed using the download
+	 *         constructor, otherwise the file specified at construction
+	 */
+	@Override
+	public File getDataFile() {
+		return (idMappingSelectedTabFile != null) ? idMappingSelectedTabFile : super.getDataFile();
+	}
+
+	/**
+	 * Each mapping line is parsed on its own, so the reader can be repositioned at any line if its
+	 * data file is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
+	}
+
 	@Override
 	protected StreamLineReader initializeLineReaderFromDownload(CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
@@ -99,7 +117,7 @@ public class UniProtIDMappingFileRecordReader extends TaxonAwareSingleLineFileRe
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		UniProtIDMappingFileData record = parseRecordFromLine(line);
+		UniProtIDMappingFileData record = getRecord(line);
 		return record.getTaxonomyID();
 	}
 
@@ -56,6 +56,12 @@ public class UniProtXmlFileRecordReader extends XmlFileRecordReader<UniProtFileR
 
 	private static final Logger logger = Logger.getLogger(UniProtXmlFileRecordReader.class);
 
+	/**
+	 * The taxon of an entry is stored in the dbReference element(s) of its organism element.
+	 * dbReference elements of organismHost elements are not on this path.
+	 */
+	static final String[] ORGANISM_TAXON_ELEMENT_PATH = new String[] { "organism", "dbReference" };
+
 	// public UniProtXmlFileRecordReader(File workDirectory, boolean clean)
 	// throws IOException {
 	// super(workDirectory, clean);
@@ -90,6 +96,14 @@ public class UniProtXmlFileRecordReader extends XmlFileRecordReader<UniProtFileR
 		return null;
 	}
 
+	/**
+	 * Entries are filtered by the taxon(s) of their organism prior to being unmarshalled
+	 */
+	@Override
+	protected String[] getTaxonElementPath() {
+		return ORGANISM_TAXON_ELEMENT_PATH;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
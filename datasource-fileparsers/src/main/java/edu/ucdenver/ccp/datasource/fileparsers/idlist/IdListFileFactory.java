@@ -40,20 +40,32 @@ import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 
 import edu.ucdenver.ccp.common.collections.CollectionsUtil;
 import edu.ucdenver.ccp.common.digest.DigestUtil;
+import edu.ucdenver.ccp.common.download.DownloadUtil;
+import edu.ucdenver.ccp.common.download.FtpDownload;
+import edu.ucdenver.ccp.common.download.HttpDownload;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileReaderUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil;
-import edu.ucdenver.ccp.common.reflection.ConstructorUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordReader;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.SparseTremblDatFileRecordReader;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.SparseUniProtFileRecord;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.SwissProtXmlFileRecordReader;
@@ -82,23 +94,73 @@ public class IdListFileFactory {
 
 	private static final Logger logger = Logger.getLogger(IdListFileFactory.class);
 
+	/**
+	 * the suffix of the file, stored alongside each id-list file, that contains a digest of the
+	 * source files the id-list file was created from, see {@link #getSourceFileDigest(List)}
+	 */
+	private static final String SOURCE_DIGEST_FILE_SUFFIX = ".sources";
+
+	/**
+	 * Consider {@link #getIdSetFromFile(File, DataSource, Set)}, which does not create an
+	 * identifier object per line, when the identifiers are only used for look-ups.
+	 * 
+	 * @return the identifiers of the id-list file for the specified data source and taxons, or
+	 *         null if no taxons are specified
+	 */
 	public static <T> Set<T> getIdListFromFile(File idListDirectory, DataSource ds, Set<NcbiTaxonomyID> taxonIds,
 			Class<T> cls) throws IOException {
 		if (taxonIds == null || taxonIds.isEmpty()) {
 			return null;
 		}
+		Constructor<T> constructor;
+		try {
+			constructor = cls.getConstructor(String.class);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException("Identifier class does not have a String constructor: "
+					+ cls.getName(), e);
+		}
 		Set<T> taxonSpecificIds = new HashSet<T>();
 		File idListFile = getIdListFile(idListDirectory, ds, taxonIds);
 		String line;
 		BufferedReader reader = FileReaderUtil.initBufferedReader(idListFile, CharacterEncoding.UTF_8);
-		while ((line = reader.readLine()) != null) {
-			Object obj = ConstructorUtil.invokeConstructor(cls.getName(), line);
-			taxonSpecificIds.add((T) obj);
+		try {
+			while ((line = reader.readLine()) != null) {
+				taxonSpecificIds.add(constructor.newInstance(line));
+			}
+		} catch (InstantiationException e) {
+			throw new IllegalStateException(e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		} catch (InvocationTargetException e) {
+			throw new IllegalArgumentException("Invalid identifier in id-list file: " + idListFile, e.getCause());
+		} finally {
+			reader.close();
 		}
 		logger.info("Loaded " + taxonSpecificIds.size() + " taxon-specific id's for taxons: " + taxonIds.toString());
 		return taxonSpecificIds;
 	}
 
+	/**
+	 * Loads the identifiers of an id-list file into a compact {@link IdSet}: an {@link IntIdSet}
+	 * for Entrez Gene identifiers, otherwise a {@link SortedIdSet}, which memory-maps the id-list
+	 * file if it is sorted.
+	 * 
+	 * @return the identifiers of the id-list file for the specified data source and taxons, or
+	 *         null if no taxons are specified
+	 * @throws IOException
+	 */
+	public static IdSet getIdSetFromFile(File idListDirectory, DataSource ds, Set<NcbiTaxonomyID> taxonIds)
+			throws IOException {
+		if (taxonIds == null || taxonIds.isEmpty()) {
+			return null;
+		}
+		File idListFile = getIdListFile(idListDirectory, ds, taxonIds);
+		IdSet taxonSpecificIds = (ds == DataSource.EG) ? IntIdSet.load(idListFile) : SortedIdSet.load(idListFile);
+		logger.info("Loaded " + taxonSpecificIds.size() + " taxon-specific " + ds.name() + " id's for taxons: "
+				+ taxonIds.toString());
+		return taxonSpecificIds;
+	}
+
 	public static File getIdListFile(File idListDirectory, DataSource ds, Set<NcbiTaxonomyID> taxonIds) {
 		if (taxonIds == null || taxonIds.isEmpty()) {
 			return null;
@@ -111,6 +173,64 @@ public class IdListFileFactory {
 		return new File(idListDirectory, filename);
 	}
 
+	/**
+	 * Creates the id-list files for the specified data sources concurrently, one thread per data
+	 * source, see {@link #createIdListFile(DataSource, Set, File, boolean, File)}
+	 * 
+	 * @return the id-list files, in the order of the specified data sources
+	 * @throws IOException
+	 */
+	public static List<File> createIdListFiles(Collection<DataSource> dataSources, final Set<NcbiTaxonomyID> taxonIds,
+			final File baseSourceFileDirectory, final boolean cleanSourceFiles, final File outputDirectory)
+			throws IOException {
+		List<File> idListFiles = new ArrayList<File>();
+		if (dataSources.isEmpty()) {
+			return idListFiles;
+		}
+		ExecutorService threadPool = Executors.newFixedThreadPool(dataSources.size());
+		try {
+			List<Future<File>> futures = new ArrayList<Future<File>>();
+			for (final DataSource ds : dataSources) {
+				futures.add(threadPool.submit(new Callable<File>() {
+					@Override
+					public File call() throws IOException {
+						return createIdListFile(ds, taxonIds, baseSourceFileDirectory, cleanSourceFiles,
+								outputDirectory);
+					}
+				}));
+			}
+			for (Future<File> future : futures) {
+				try {
+					idListFiles.add(future.get());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while creating ID list files.", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IllegalStateException("Error while creating ID list files.", e.getCause());
+				}
+			}
+		} finally {
+			threadPool.shutdownNow();
+		}
+		return idListFiles;
+	}
+
+	/**
+	 * Creates the id-list file for the specified data source and taxons. The identifiers are
+	 * written sorted and without duplicates so that the file can be memory-mapped by
+	 * {@link SortedIdSet}. They are sorted externally (see {@link SortedIdFileWriter}), so only a
+	 * bounded number of identifiers is held on the heap.
+	 * <p>
+	 * An existing id-list file is reused unless the source files are to be cleaned or the data
+	 * files read by the record readers have changed since the id-list file was created. The
+	 * id-list file name is derived from the taxons (see {@link #getIdListFile(File, DataSource, Set)})
+	 * and a digest of the data files is stored alongside it once the id-list file is complete.
+	 * Other files in the source file directory, e.g. those downloaded by other sources that share
+	 * the directory, do not affect the digest.
+	 */
 	public static File createIdListFile(DataSource ds, Set<NcbiTaxonomyID> taxonIds, File baseSourceFileDirectory,
 			boolean cleanSourceFiles, File outputDirectory) throws IOException {
 		if (taxonIds == null || taxonIds.isEmpty()) {
@@ -118,121 +238,229 @@ public class IdListFileFactory {
 		}
 		File sourceFileDirectory = new File(baseSourceFileDirectory, ds.name().toLowerCase());
 		File outputFile = getIdListFile(outputDirectory, ds, taxonIds);
-		/* Only create it if it doesn't exist or if cleanSourceFiles == true */
-		if (cleanSourceFiles || !outputFile.exists()) {
-			logger.info("Creating ID list file: " + outputFile);
-			BufferedWriter writer = FileWriterUtil.initBufferedWriter(outputFile);
-			try {
-				switch (ds) {
-				case EG:
-					EntrezGeneInfoFileParser eg_rr = new EntrezGeneInfoFileParser(sourceFileDirectory,
-							cleanSourceFiles, taxonIds);
-					int count = 0;
-					while (eg_rr.hasNext()) {
-						if (count++ % 100000 == 0) {
-							logger.info("(EG) Id list generation progress: " + (count - 1));
-						}
-						EntrezGeneInfoFileData record = eg_rr.next();
-						writer.write(record.getGeneID().getDataElement() + "\n");
-					}
-					break;
-				case UNIPROT:
-					SwissProtXmlFileRecordReader sp_rr = new SwissProtXmlFileRecordReader(sourceFileDirectory,
-							cleanSourceFiles, taxonIds);
-					count = 0;
-					while (sp_rr.hasNext()) {
-						if (count++ % 100000 == 0) {
-							logger.info("(UNIPROT SP) Id list generation progress: " + (count - 1));
-						}
-						UniProtFileRecord record = sp_rr.next();
-						Set<UniProtID> accessions = new HashSet<UniProtID>(record.getAccession());
-						accessions.add(record.getPrimaryAccession()); // adding
-																		// just
-																		// to
-																		// make
-																		// sure
-																		// it's
-																		// in
-																		// there
-						for (UniProtID id : accessions) {
-							writer.write(id.getDataElement() + "\n");
-						}
-					}
+		File sourceDigestFile = new File(outputFile.getPath() + SOURCE_DIGEST_FILE_SUFFIX);
+		/* the record readers download their data files if necessary */
+		List<RecordReader<?>> recordReaders = initRecordReaders(ds, sourceFileDirectory, cleanSourceFiles, taxonIds);
+		try {
+			String sourceFileDigest = getSourceFileDigest(recordReaders);
+			/* Only create it if cleanSourceFiles == true or if it is missing or stale */
+			if (cleanSourceFiles || !outputFile.exists()
+					|| !sourceFileDigest.equals(readSourceFileDigest(sourceDigestFile))) {
+				logger.info("Creating ID list file: " + outputFile);
+				/*
+				 * the id-list file is written in place, so the digest of the previous build is removed
+				 * first; if this build fails, the partially written file is never accepted as up to date
+				 */
+				if (sourceDigestFile.exists() && !sourceDigestFile.delete()) {
+					throw new IOException("Unable to delete source digest file: "
+							+ sourceDigestFile.getAbsolutePath());
+				}
+				SortedIdFileWriter writer = new SortedIdFileWriter(outputFile, SortedIdFileWriter.DEFAULT_CHUNK_SIZE);
+				for (RecordReader<?> recordReader : recordReaders) {
+					addIds(ds, recordReader, writer);
+				}
+				writer.close();
+				writeSourceFileDigest(sourceFileDigest, sourceDigestFile);
+			} else {
+				logger.info("ID List file already exists: " + outputFile);
+			}
+		} finally {
+			for (RecordReader<?> recordReader : recordReaders) {
+				recordReader.close();
+			}
+		}
+		return outputFile;
+	}
 
-					SparseTremblDatFileRecordReader trembl_rr = new SparseTremblDatFileRecordReader(
-							sourceFileDirectory, CharacterEncoding.UTF_8, cleanSourceFiles, taxonIds);
-					count = 0;
-					while (trembl_rr.hasNext()) {
-						if (count++ % 100000 == 0) {
-							logger.info("(UNIPROT TREMBL) Id list generation progress: " + (count - 1));
-						}
-						SparseUniProtFileRecord record = trembl_rr.next();
-						Set<UniProtID> accessions = new HashSet<UniProtID>(record.getAccession());
-						accessions.add(record.getPrimaryAccession()); // adding
-																		// just
-																		// to
-																		// make
-																		// sure
-																		// it's
-																		// in
-																		// there
-						for (UniProtID id : accessions) {
-							writer.write(id.getDataElement() + "\n");
-						}
+	/**
+	 * @return the record readers of the data files from which the identifiers of the specified data
+	 *         source are collected
+	 */
+	private static List<RecordReader<?>> initRecordReaders(DataSource ds, File sourceFileDirectory,
+			boolean cleanSourceFiles, Set<NcbiTaxonomyID> taxonIds) throws IOException {
+		List<RecordReader<?>> recordReaders = new ArrayList<RecordReader<?>>();
+		switch (ds) {
+		case EG:
+			recordReaders.add(new EntrezGeneInfoFileParser(sourceFileDirectory, cleanSourceFiles, taxonIds));
+			break;
+		case UNIPROT:
+			recordReaders.add(new SwissProtXmlFileRecordReader(sourceFileDirectory, cleanSourceFiles, taxonIds));
+			recordReaders.add(new SparseTremblDatFileRecordReader(sourceFileDirectory, CharacterEncoding.UTF_8,
+					cleanSourceFiles, taxonIds));
+			break;
+		case IREFWEB:
+			/*
+			 * The switch here uses IREFWEB however we are really just
+			 * cataloging IntAct IDs b/c they are used by GOA. IREFEW
+			 * web needs to be used so that the sourceFileDirectory is
+			 * correctely populated.
+			 */
+			recordReaders.add(new IRefWebPsiMitab2_6FileParser(sourceFileDirectory, cleanSourceFiles, taxonIds));
+			break;
+		default:
+			throw new IllegalArgumentException("The IdListFileFactory does not yet handle the identifiers for "
+					+ ds.name());
+		}
+		return recordReaders;
+	}
+
+	/**
+	 * Adds the identifiers of the records of the specified record reader to the writer
+	 */
+	private static void addIds(DataSource ds, RecordReader<?> recordReader, SortedIdFileWriter writer)
+			throws IOException {
+		if (recordReader instanceof EntrezGeneInfoFileParser) {
+			EntrezGeneInfoFileParser eg_rr = (EntrezGeneInfoFileParser) recordReader;
+			int count = 0;
+			while (eg_rr.hasNext()) {
+				if (count++ % 100000 == 0) {
+					logger.info("(EG) Id list generation progress: " + (count - 1));
+				}
+				EntrezGeneInfoFileData record = eg_rr.next();
+				writer.add(record.getGeneID().getDataElement().toString());
+			}
+		} else if (recordReader instanceof SwissProtXmlFileRecordReader) {
+			SwissProtXmlFileRecordReader sp_rr = (SwissProtXmlFileRecordReader) recordReader;
+			int count = 0;
+			while (sp_rr.hasNext()) {
+				if (count++ % 100000 == 0) {
+					logger.info("(UNIPROT SP) Id list generation progress: " + (count - 1));
+				}
+				UniProtFileRecord record = sp_rr.next();
+				Set<UniProtID> accessions = new HashSet<UniProtID>(record.getAccession());
+				accessions.add(record.getPrimaryAccession()); // adding
+																// just
+																// to
+																// make
+																// sure
+																// it's
+																// in
+																// there
+				for (UniProtID id : accessions) {
+					writer.add(id.getDataElement());
+				}
+			}
+		} else if (recordReader instanceof SparseTremblDatFileRecordReader) {
+			SparseTremblDatFileRecordReader trembl_rr = (SparseTremblDatFileRecordReader) recordReader;
+			int count = 0;
+			while (trembl_rr.hasNext()) {
+				if (count++ % 100000 == 0) {
+					logger.info("(UNIPROT TREMBL) Id list generation progress: " + (count - 1));
+				}
+				SparseUniProtFileRecord record = trembl_rr.next();
+				Set<UniProtID> accessions = new HashSet<UniProtID>(record.getAccession());
+				accessions.add(record.getPrimaryAccession()); // adding
+																// just
+																// to
+																// make
+																// sure
+																// it's
+																// in
+																// there
+				for (UniProtID id : accessions) {
+					writer.add(id.getDataElement());
+				}
+			}
+		} else if (recordReader instanceof IRefWebPsiMitab2_6FileParser) {
+			IRefWebPsiMitab2_6FileParser irefweb_rr = (IRefWebPsiMitab2_6FileParser) recordReader;
+			int count = 0;
+			while (irefweb_rr.hasNext()) {
+				if (count++ % 100000 == 0) {
+					logger.info("(INTACT via IREFWEB) Id list generation progress: " + (count - 1));
+				}
+				IRefWebPsiMitab2_6FileData record = irefweb_rr.next();
+				NcbiTaxonomyID ncbiTaxonomyIdA = null;
+				NcbiTaxonomyID ncbiTaxonomyIdB = null;
+				if (record.getInteractorA() != null && record.getInteractorA().getNcbiTaxonomyId() != null) {
+					ncbiTaxonomyIdA = record.getInteractorA().getNcbiTaxonomyId().getTaxonomyId();
+				}
+				if (record.getInteractorB() != null && record.getInteractorB().getNcbiTaxonomyId() != null) {
+					ncbiTaxonomyIdB = record.getInteractorB().getNcbiTaxonomyId().getTaxonomyId();
+				}
+				// if the interactors have the same taxon id we then
+				// look for an intact identifier in the sourcedb field
+				// we assign the common taxon ID to the IntAct id in the
+				// sourcedb field
+				if (ncbiTaxonomyIdA != null && ncbiTaxonomyIdB != null && ncbiTaxonomyIdA.equals(ncbiTaxonomyIdB)) {
+					IntActID intactId = getIntActID(record.getInteraction().getInteractionDbIds());
+					if (intactId != null) {
+						writer.add(intactId.getDataElement());
 					}
+				}
+			}
+		} else {
+			throw new IllegalArgumentException("The IdListFileFactory does not yet handle the identifiers for "
+					+ ds.name() + " read by: " + recordReader.getClass().getName());
+		}
+	}
 
-					break;
-				case IREFWEB:
-					/*
-					 * The switch here uses IREFWEB however we are really just
-					 * cataloging IntAct IDs b/c they are used by GOA. IREFEW
-					 * web needs to be used so that the sourceFileDirectory is
-					 * correctely populated.
-					 */
-					IRefWebPsiMitab2_6FileParser irefweb_rr = new IRefWebPsiMitab2_6FileParser(sourceFileDirectory,
-							cleanSourceFiles, taxonIds);
-					count = 0;
-					Set<String> alreadyWritten = new HashSet<String>();
-					while (irefweb_rr.hasNext()) {
-						if (count++ % 100000 == 0) {
-							logger.info("(INTACT via IREFWEB) Id list generation progress: " + (count - 1));
-						}
-						IRefWebPsiMitab2_6FileData record = irefweb_rr.next();
-						NcbiTaxonomyID ncbiTaxonomyIdA = null;
-						NcbiTaxonomyID ncbiTaxonomyIdB = null;
-						if (record.getInteractorA() != null && record.getInteractorA().getNcbiTaxonomyId() != null) {
-							ncbiTaxonomyIdA = record.getInteractorA().getNcbiTaxonomyId().getTaxonomyId();
-						}
-						if (record.getInteractorB() != null && record.getInteractorB().getNcbiTaxonomyId() != null) {
-							ncbiTaxonomyIdB = record.getInteractorB().getNcbiTaxonomyId().getTaxonomyId();
-						}
-						// if the interactors have the same taxon id we then
-						// look for an intact identifier in the sourcedb field
-						// we assign the common taxon ID to the IntAct id in the
-						// sourcedb field
-						if (ncbiTaxonomyIdA != null && ncbiTaxonomyIdB != null
-								&& ncbiTaxonomyIdA.equals(ncbiTaxonomyIdB)) {
-							IntActID intactId = getIntActID(record.getInteraction().getInteractionDbIds());
-							if (intactId != null) {
-								if (!alreadyWritten.contains(intactId.getDataElement())) {
-									writer.write(intactId.getDataElement() + "\n");
-									alreadyWritten.add(intactId.getDataElement());
-								}
-							}
+	/**
+	 * @param recordReaders
+	 * @return a digest of the names, lengths and last-modified times of the data files downloaded
+	 *         by the specified record readers, see {@link #getDownloadedFiles(Object)}
+	 */
+	private static String getSourceFileDigest(List<RecordReader<?>> recordReaders) {
+		List<String> fileDescriptions = new ArrayList<String>();
+		for (RecordReader<?> recordReader : recordReaders) {
+			for (File file : getDownloadedFiles(recordReader)) {
+				fileDescriptions.add(recordReader.getClass().getName() + "\t" + file.getName() + "\t"
+						+ file.length() + "\t" + file.lastModified());
+			}
+		}
+		Collections.sort(fileDescriptions);
+		return DigestUtil.getBase64Sha1Digest(CollectionsUtil.createDelimitedString(fileDescriptions, "\n"));
+	}
+
+	/**
+	 * @param recordReader
+	 * @return the files, populated by {@link DownloadUtil}, of the fields of the specified record
+	 *         reader (or of its superclasses) that are annotated with {@link FtpDownload} or
+	 *         {@link HttpDownload}
+	 */
+	private static List<File> getDownloadedFiles(Object recordReader) {
+		List<File> files = new ArrayList<File>();
+		for (Class<?> cls = recordReader.getClass(); cls != null; cls = cls.getSuperclass()) {
+			for (Field field : cls.getDeclaredFields()) {
+				if (File.class.equals(field.getType())
+						&& (field.isAnnotationPresent(FtpDownload.class) || field
+								.isAnnotationPresent(HttpDownload.class))) {
+					field.setAccessible(true);
+					try {
+						File file = (File) field.get(recordReader);
+						if (file != null) {
+							files.add(file);
 						}
+					} catch (IllegalAccessException e) {
+						throw new IllegalStateException(e);
 					}
-					break;
-				default:
-					throw new IllegalArgumentException("The IdListFileFactory does not yet handle the identifiers for "
-							+ ds.name());
 				}
-			} finally {
-				writer.close();
 			}
-		} else {
-			logger.info("ID List file already exists: " + outputFile);
 		}
-		return outputFile;
+		return files;
+	}
+
+	/**
+	 * @return the digest stored in the specified file, or null if the file does not exist
+	 */
+	private static String readSourceFileDigest(File sourceDigestFile) throws IOException {
+		if (!sourceDigestFile.exists()) {
+			return null;
+		}
+		BufferedReader reader = FileReaderUtil.initBufferedReader(sourceDigestFile, CharacterEncoding.UTF_8);
+		try {
+			return reader.readLine();
+		} finally {
+			reader.close();
+		}
+	}
+
+	private static void writeSourceFileDigest(String digest, File sourceDigestFile) throws IOException {
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(sourceDigestFile);
+		try {
+			writer.write(digest + "\n");
+		} finally {
+			writer.close();
+		}
 	}
 
 	private static IntActID getIntActID(Set<DataSourceIdentifier<?>> interactionDbIds) {
@@ -0,0 +1,154 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+
+/**
+ * An {@link IdSet} of non-negative integer identifiers, e.g. Entrez Gene identifiers, that are
+ * stored as a sorted int[] and looked up by binary search.
+ * <p>
+ * Instances are immutable and can be queried concurrently.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class IntIdSet implements IdSet {
+
+	private final int[] ids;
+
+	private IntIdSet(int[] sortedUniqueIds) {
+		this.ids = sortedUniqueIds;
+	}
+
+	/**
+	 * @param idListFile
+	 *            a file containing one integer identifier per line
+	 * @return a set of the identifiers in the specified file
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 *             if a line is not an integer identifier
+	 */
+	public static IntIdSet load(File idListFile) throws IOException {
+		int[] ids = new int[1024];
+		int count = 0;
+		BufferedReader reader = FileReaderUtil.initBufferedReader(idListFile, CharacterEncoding.UTF_8);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int id = parseId(line);
+				if (id < 0) {
+					throw new IllegalArgumentException("Invalid integer identifier in id-list file " + idListFile
+							+ ": " + line);
+				}
+				if (count == ids.length) {
+					ids = Arrays.copyOf(ids, count * 2);
+				}
+				ids[count++] = id;
+			}
+		} finally {
+			reader.close();
+		}
+		return create(ids, count);
+	}
+
+	/**
+	 * @param ids
+	 * @param count
+	 *            the number of identifiers in the array
+	 * @return a set of the first count identifiers of the specified array, which is not modified
+	 */
+	public static IntIdSet create(int[] ids, int count) {
+		int[] sortedIds = Arrays.copyOf(ids, count);
+		Arrays.sort(sortedIds);
+		int size = 0;
+		for (int i = 0; i < count; i++) {
+			if (size == 0 || sortedIds[size - 1] != sortedIds[i]) {
+				sortedIds[size++] = sortedIds[i];
+			}
+		}
+		return new IntIdSet((size == count) ? sortedIds : Arrays.copyOf(sortedIds, size));
+	}
+
+	/**
+	 * @param id
+	 * @return the value of the specified identifier, or -1 if it is not a non-negative integer
+	 */
+	private static int parseId(CharSequence id) {
+		if (id.length() == 0) {
+			return -1;
+		}
+		long value = 0;
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
+		}
+		return (int) value;
+	}
+
+	/**
+	 * @param id
+	 * @return true if the set contains the specified identifier
+	 */
+	public boolean contains(int id) {
+		return Arrays.binarySearch(ids, id) >= 0;
+	}
+
+	/**
+	 * The identifier text is parsed without creating an Integer
+	 */
+	@Override
+	public boolean contains(CharSequence id) {
+		int value = parseId(id);
+		return value >= 0 && contains(value);
+	}
+
+	@Override
+	public int size() {
+		return ids.length;
+	}
+
+}
@@ -0,0 +1,214 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+
+/**
+ * Writes identifiers, added in any order and possibly with duplicates, to an id-list file in which
+ * they are sorted and free of duplicates, i.e. in the format that {@link SortedIdSet} memory-maps.
+ * At most a chunk of identifiers is held on the heap: each full chunk is sorted and written to a
+ * temporary run file, and the runs are merged into the id-list file by {@link #close()} (an
+ * external merge sort). Identifiers are compared as Strings, which orders ASCII identifiers as
+ * {@link SortedIdSet} does.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+final class SortedIdFileWriter {
+
+	/**
+	 * the default number of identifiers per chunk; a chunk of UniProt accessions takes ~30MB
+	 */
+	static final int DEFAULT_CHUNK_SIZE = 500000;
+
+	private final File outputFile;
+	private final int chunkSize;
+	private final List<String> chunk = new ArrayList<String>();
+	private final List<File> runFiles = new ArrayList<File>();
+
+	/**
+	 * @param outputFile
+	 *            the id-list file; temporary run files are created in the same directory
+	 * @param chunkSize
+	 *            the maximum number of identifiers held on the heap
+	 */
+	SortedIdFileWriter(File outputFile, int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be > 0 but was: " + chunkSize);
+		}
+		this.outputFile = outputFile;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param id
+	 * @throws IOException
+	 */
+	void add(String id) throws IOException {
+		chunk.add(id);
+		if (chunk.size() == chunkSize) {
+			File runFile = File.createTempFile(outputFile.getName(), ".run", outputFile.getAbsoluteFile()
+					.getParentFile());
+			runFiles.add(runFile);
+			writeChunk(runFile);
+		}
+	}
+
+	/**
+	 * Writes the id-list file and deletes the run files
+	 * 
+	 * @throws IOException
+	 */
+	void close() throws IOException {
+		try {
+			if (runFiles.isEmpty()) {
+				writeChunk(outputFile);
+			} else {
+				if (!chunk.isEmpty()) {
+					File runFile = File.createTempFile(outputFile.getName(), ".run", outputFile.getAbsoluteFile()
+							.getParentFile());
+					runFiles.add(runFile);
+					writeChunk(runFile);
+				}
+				mergeRuns();
+			}
+		} finally {
+			for (File runFile : runFiles) {
+				runFile.delete();
+			}
+			runFiles.clear();
+		}
+	}
+
+	/**
+	 * Sorts the chunk and writes its distinct identifiers to the specified file
+	 */
+	private void writeChunk(File file) throws IOException {
+		Collections.sort(chunk);
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(file);
+		try {
+			String previousId = null;
+			for (String id : chunk) {
+				if (!id.equals(previousId)) {
+					writer.write(id + "\n");
+					previousId = id;
+				}
+			}
+		} finally {
+			writer.close();
+		}
+		chunk.clear();
+	}
+
+	/**
+	 * Merges the sorted run files into the id-list file, dropping identifiers that occur in more
+	 * than one run
+	 */
+	private void mergeRuns() throws IOException {
+		PriorityQueue<Run> runs = new PriorityQueue<Run>();
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(outputFile);
+		try {
+			for (File runFile : runFiles) {
+				Run run = new Run(FileReaderUtil.initBufferedReader(runFile, CharacterEncoding.UTF_8));
+				if (run.advance()) {
+					runs.add(run);
+				} else {
+					run.close();
+				}
+			}
+			String previousId = null;
+			while (!runs.isEmpty()) {
+				Run run = runs.poll();
+				if (!run.id.equals(previousId)) {
+					writer.write(run.id + "\n");
+					previousId = run.id;
+				}
+				if (run.advance()) {
+					runs.add(run);
+				} else {
+					run.close();
+				}
+			}
+		} finally {
+			for (Run run : runs) {
+				run.close();
+			}
+			writer.close();
+		}
+	}
+
+	/**
+	 * A sorted run file, ordered by its current identifier
+	 */
+	private static final class Run implements Comparable<Run> {
+		private final BufferedReader reader;
+		private String id;
+
+		Run(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		/**
+		 * @return true if the run has another identifier
+		 */
+		boolean advance() throws IOException {
+			id = reader.readLine();
+			return id != null;
+		}
+
+		void close() throws IOException {
+			reader.close();
+		}
+
+		@Override
+		public int compareTo(Run other) {
+			return id.compareTo(other.id);
+		}
+	}
+
+}
@@ -0,0 +1,249 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+
+/**
+ * An {@link IdSet} of ASCII identifiers (e.g. UniProt accessions or IntAct identifiers) that are
+ * stored as sorted, line-feed terminated bytes, i.e. in the format of a sorted id-list file, plus
+ * the offset of each identifier. Identifiers are looked up by binary search. If the id-list file
+ * is sorted and free of duplicates (as written by {@link IdListFileFactory}), it is memory-mapped
+ * and no identifier is copied onto the heap; otherwise its identifiers are sorted and packed into
+ * a byte array.
+ * <p>
+ * Instances are immutable and can be queried concurrently.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class SortedIdSet implements IdSet {
+
+	private static final byte LINE_FEED = '\n';
+
+	/**
+	 * the sorted identifiers, each terminated by a line feed (or by the end of the buffer)
+	 */
+	private final ByteBuffer ids;
+	/**
+	 * the offset of the first byte of each identifier
+	 */
+	private final int[] idStarts;
+	private final int size;
+
+	private SortedIdSet(ByteBuffer ids, int[] idStarts, int size) {
+		this.ids = ids;
+		this.idStarts = idStarts;
+		this.size = size;
+	}
+
+	/**
+	 * @param idListFile
+	 *            a file containing one identifier per line
+	 * @return a set of the identifiers in the specified file
+	 * @throws IOException
+	 */
+	public static SortedIdSet load(File idListFile) throws IOException {
+		if (idListFile.length() <= Integer.MAX_VALUE) {
+			RandomAccessFile file = new RandomAccessFile(idListFile, "r");
+			try {
+				ByteBuffer mappedIds = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+				SortedIdSet idSet = indexSortedIds(mappedIds);
+				if (idSet != null) {
+					return idSet;
+				}
+			} finally {
+				/* the mapping remains valid once the file is closed */
+				file.close();
+			}
+		}
+		List<String> idList = new ArrayList<String>();
+		BufferedReader reader = FileReaderUtil.initBufferedReader(idListFile, CharacterEncoding.UTF_8);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				idList.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return create(idList);
+	}
+
+	/**
+	 * @param idList
+	 *            ASCII identifiers, in any order and possibly with duplicates
+	 * @return a set of the specified identifiers
+	 */
+	public static SortedIdSet create(List<String> idList) {
+		List<String> sortedIds = new ArrayList<String>(idList);
+		/* String order equals byte order for ASCII identifiers */
+		Collections.sort(sortedIds);
+		int byteCount = 0;
+		for (String id : sortedIds) {
+			byteCount += id.length() + 1;
+		}
+		byte[] bytes = new byte[byteCount];
+		int[] idStarts = new int[sortedIds.size()];
+		int size = 0;
+		int offset = 0;
+		String previousId = null;
+		for (String id : sortedIds) {
+			if (id.equals(previousId)) {
+				continue;
+			}
+			idStarts[size++] = offset;
+			for (int i = 0; i < id.length(); i++) {
+				char c = id.charAt(i);
+				if (c > 127) {
+					throw new IllegalArgumentException("Identifiers must be ASCII: " + id);
+				}
+				bytes[offset++] = (byte) c;
+			}
+			bytes[offset++] = LINE_FEED;
+			previousId = id;
+		}
+		return new SortedIdSet(ByteBuffer.wrap(bytes), idStarts, size);
+	}
+
+	/**
+	 * @param buffer
+	 * @return a set backed by the specified buffer, or null if the buffer does not contain sorted,
+	 *         unique, ASCII identifiers
+	 */
+	private static SortedIdSet indexSortedIds(ByteBuffer buffer) {
+		int limit = buffer.limit();
+		int[] idStarts = new int[1024];
+		int size = 0;
+		int previousStart = -1;
+		int start = 0;
+		while (start < limit) {
+			int end = start;
+			while (end < limit && buffer.get(end) != LINE_FEED) {
+				if (buffer.get(end) < 0) {
+					/* not ASCII */
+					return null;
+				}
+				end++;
+			}
+			if (previousStart >= 0 && compare(buffer, previousStart, buffer, start) >= 0) {
+				return null;
+			}
+			if (size == idStarts.length) {
+				int[] expandedIdStarts = new int[size * 2];
+				System.arraycopy(idStarts, 0, expandedIdStarts, 0, size);
+				idStarts = expandedIdStarts;
+			}
+			idStarts[size++] = start;
+			previousStart = start;
+			start = end + 1;
+		}
+		return new SortedIdSet(buffer, idStarts, size);
+	}
+
+	/**
+	 * Compares two line-feed terminated identifiers
+	 */
+	private static int compare(ByteBuffer buffer1, int start1, ByteBuffer buffer2, int start2) {
+		int index1 = start1;
+		int index2 = start2;
+		while (true) {
+			int b1 = (index1 < buffer1.limit()) ? buffer1.get(index1) : LINE_FEED;
+			int b2 = (index2 < buffer2.limit()) ? buffer2.get(index2) : LINE_FEED;
+			if (b1 == LINE_FEED || b2 == LINE_FEED) {
+				return (b1 == b2) ? 0 : (b1 == LINE_FEED) ? -1 : 1;
+			}
+			if (b1 != b2) {
+				return b1 - b2;
+			}
+			index1++;
+			index2++;
+		}
+	}
+
+	/**
+	 * @return the result of comparing the identifier starting at the specified offset with the
+	 *         specified identifier
+	 */
+	private int compare(int idStart, CharSequence id) {
+		int limit = ids.limit();
+		int index = idStart;
+		for (int i = 0; i < id.length(); i++, index++) {
+			if (index == limit || ids.get(index) == LINE_FEED) {
+				return -1;
+			}
+			int b = ids.get(index);
+			int c = id.charAt(i);
+			if (b != c) {
+				return b - c;
+			}
+		}
+		return (index == limit || ids.get(index) == LINE_FEED) ? 0 : 1;
+	}
+
+	@Override
+	public boolean contains(CharSequence id) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = compare(idStarts[middle], id);
+			if (comparison < 0) {
+				low = middle + 1;
+			} else if (comparison > 0) {
+				high = middle - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
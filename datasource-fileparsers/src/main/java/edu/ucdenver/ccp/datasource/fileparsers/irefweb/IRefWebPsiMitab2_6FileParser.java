@@ -62,13 +62,15 @@ import edu.ucdenver.ccp.common.download.HttpDownload;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
-import edu.ucdenver.ccp.common.string.RegExPatterns;
 import edu.ucdenver.ccp.common.string.StringConstants;
 import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.DelimitedColumnCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.obo.MiOntologyIdTermPair;
 import edu.ucdenver.ccp.datasource.fileparsers.obo.NcbiTaxonomyIdTermPair;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
+import edu.ucdenver.ccp.datasource.identifiers.IdPrefix;
+import edu.ucdenver.ccp.datasource.identifiers.IdPrefixTrie;
 import edu.ucdenver.ccp.datasource.identifiers.NucleotideAccessionResolver;
 import edu.ucdenver.ccp.datasource.identifiers.ProbableErrorDataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ProteinAccessionResolver;
@@ -132,6 +134,12 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 
 	private static final Logger logger = Logger.getLogger(IRefWebPsiMitab2_6FileParser.class);
 
+	/**
+	 * the indexes of the taxa and taxb columns
+	 */
+	private static final int TAXON_A_COLUMN = 9;
+	private static final int TAXON_B_COLUMN = 10;
+
 	private static final String HEADER = "#uidA\tuidB\taltA\taltB\taliasA\taliasB\tmethod\tauthor\tpmids\ttaxa\ttaxb\tinteractionType\tsourcedb\tinteractionIdentifier\tconfidence\texpansion\tbiological_role_A\tbiological_role_B\texperimental_role_A\texperimental_role_B\tinteractor_type_A\tinteractor_type_B\txrefs_A\txrefs_B\txrefs_Interaction\tAnnotations_A\tAnnotations_B\tAnnotations_Interaction\tHost_organism_taxid\tparameters_Interaction\tCreation_date\tUpdate_date\tChecksum_A\tChecksum_B\tChecksum_Interaction\tNegative\tOriginalReferenceA\tOriginalReferenceB\tFinalReferenceA\tFinalReferenceB\tMappingScoreA\tMappingScoreB\tirogida\tirogidb\tirigid\tcrogida\tcrogidb\tcrigid\ticrogida\ticrogidb\ticrigid\timex_id\tedgetype\tnumParticipants";
 
 	public static final CharacterEncoding ENCODING = CharacterEncoding.US_ASCII;
@@ -160,19 +168,35 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		IRefWebPsiMitab2_6FileData record = parseRecordFromLine(line);
+		/*
+		 * the interactor taxons are extracted from the taxa and taxb columns directly to avoid
+		 * parsing the full record
+		 */
 		// should probably return both here
-		IRefWebInteractor interactorA = record.getInteractorA();
-		if (interactorA.getNcbiTaxonomyId() != null) {
-			return interactorA.getNcbiTaxonomyId().getTaxonomyId();
+		String lineText = line.getText();
+		IRefWebInteractorOrganism organismA = getInteractorOrganism(getTabColumn(lineText, TAXON_A_COLUMN));
+		if (organismA != null) {
+			return organismA.getTaxonomyId();
 		}
-		IRefWebInteractor interactorB = record.getInteractorB();
-		if (interactorB.getNcbiTaxonomyId() != null) {
-			return interactorB.getNcbiTaxonomyId().getTaxonomyId();
+		IRefWebInteractorOrganism organismB = getInteractorOrganism(getTabColumn(lineText, TAXON_B_COLUMN));
+		if (organismB != null) {
+			return organismB.getTaxonomyId();
 		}
 		return null;
 	}
 
+	/**
+	 * @param taxIdStr
+	 * @return the interactor organism as it would be parsed by
+	 *         {@link #getInteractor(DelimitedColumnCursor, DelimitedColumnCursor, int)}
+	 */
+	private static IRefWebInteractorOrganism getInteractorOrganism(String taxIdStr) {
+		if (taxIdStr == null || taxIdStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+			return null;
+		}
+		return NcbiTaxonomyIdTermPair.parseString(IRefWebInteractorOrganism.class, taxIdStr);
+	}
+
 	@Override
 	protected StreamLineReader initializeLineReaderFromDownload(CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
@@ -199,301 +223,381 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	 */
 	@Override
 	public IRefWebPsiMitab2_6FileData parseRecordFromLine(Line line) {
-		String[] toks = line.getText().split("\\t", -1);
-		if (toks.length == 54) {
-			IRefWebInteractor interactorA = getInteractor(toks[0], toks[2], toks[4], toks[9], toks[16], toks[18],
-					toks[20], toks[22], toks[25], toks[32], toks[36], toks[38], toks[40], toks[42], toks[45], toks[48]);
-			IRefWebInteractor interactorB = getInteractor(toks[1], toks[3], toks[5], toks[10], toks[17], toks[19],
-					toks[21], toks[23], toks[26], toks[33], toks[37], toks[39], toks[41], toks[43], toks[46], toks[49]);
-			IRefWebInteraction interaction = getInteraction(toks[6], toks[7], toks[8], toks[11], toks[13], toks[14],
-					toks[15], toks[24], toks[27], toks[28], toks[29], toks[34], toks[35], toks[44], toks[47], toks[50],
-					toks[51], toks[52], toks[53]);
+		DelimitedColumnCursor toks = new DelimitedColumnCursor('\t', true).reset(line.getText());
+		if (toks.getColumnCount() == 54) {
+			DelimitedColumnCursor subFields = new DelimitedColumnCursor('|', false);
+			IRefWebInteractor interactorA = getInteractor(toks, subFields, 0);
+			IRefWebInteractor interactorB = getInteractor(toks, subFields, 1);
+			IRefWebInteraction interaction = getInteraction(toks, subFields);
 			IRefWebInteractionSourceDatabase sourceDb = MiOntologyIdTermPair.parseString(
-					IRefWebInteractionSourceDatabase.class, toks[12]);
-			String creationDate = toks[30];
-			String updateDate = toks[31];
+					IRefWebInteractionSourceDatabase.class, toks.getColumn(12));
+			String creationDate = toks.getColumn(30);
+			String updateDate = toks.getColumn(31);
 
 			return new IRefWebPsiMitab2_6FileData(sourceDb, creationDate, updateDate, interactorA, interactorB,
 					interaction, line.getByteOffset(), line.getLineNumber());
 		}
-		String errorMessage = "Unexpected number of tokens (" + toks.length + " != 54) on line: " + line;
+		String errorMessage = "Unexpected number of tokens (" + toks.getColumnCount() + " != 54) on line: " + line;
 		throw new IllegalArgumentException("IRefWeb file format appears to have changed: " + errorMessage);
 	}
 
 	/**
-	 * @return
+	 * @param toks
+	 * @param column
+	 * @return true if the specified column holds the MITAB null value, i.e. a hyphen
 	 */
-	private IRefWebInteraction getInteraction(String detectionMethodStr, String authorStr, String pmidsStr,
-			String interactionTypeStr, String interactionIdStr, String confidenceStr, String expansionStr,
-			String interactionXrefsStr, String interactionAnnotationsStr, String hostOrgTaxonomyIdStr,
-			String interactionParametersStr, String interactionChecksumStr, String negativeStr, String irigidStr,
-			String crigidStr, String icrigidStr, String imexIdStr, String edgeTypeStr, String numParticipantsStr) {
+	private static boolean isNullColumn(DelimitedColumnCursor toks, int column) {
+		return toks.trimmedColumnEquals(column, StringConstants.HYPHEN_MINUS);
+	}
 
-		if (!interactionXrefsStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+	/**
+	 * @param toks
+	 *            the columns of the line
+	 * @param subFields
+	 *            the cursor used to iterate over the pipe-delimited sub-fields of a column
+	 * @return
+	 */
+	private IRefWebInteraction getInteraction(DelimitedColumnCursor toks, DelimitedColumnCursor subFields) {
+		if (!isNullColumn(toks, 24)) {
 			throw new IllegalArgumentException("Observed a value in the xrefs_interaction column. "
 					+ "This column has always been empty. Code changes likely required.");
 		}
-		if (!interactionAnnotationsStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+		if (!isNullColumn(toks, 27)) {
 			throw new IllegalArgumentException("Observed a value in the annotations_interaction column. "
 					+ "This column has always been empty. Code changes likely required.");
 		}
-		if (!interactionParametersStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+		if (!isNullColumn(toks, 29)) {
 			throw new IllegalArgumentException("Observed a value in the parameters_interaction column. "
 					+ "This column has always been empty. Code changes likely required.");
 		}
 
 		IRefWebInteractionDetectionMethod detectionMethod = null;
-		if (!detectionMethodStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+		if (!isNullColumn(toks, 6)) {
 			detectionMethod = MiOntologyIdTermPair.parseString(IRefWebInteractionDetectionMethod.class,
-					detectionMethodStr);
+					toks.getColumn(6));
 		}
-		String author = (authorStr.trim().equals(StringConstants.HYPHEN_MINUS)) ? null : authorStr;
-		Set<DataSourceIdentifier<?>> pmids = parsePmidsStr(pmidsStr);
+		String author = (isNullColumn(toks, 7)) ? null : toks.getColumn(7);
+		Set<DataSourceIdentifier<?>> pmids = parsePmids(toks, 8, subFields);
 		IRefWebInteractionType interactionType = null;
-		if (!interactionTypeStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
-			interactionType = MiOntologyIdTermPair.parseString(IRefWebInteractionType.class, interactionTypeStr);
+		if (!isNullColumn(toks, 11)) {
+			interactionType = MiOntologyIdTermPair.parseString(IRefWebInteractionType.class, toks.getColumn(11));
 		}
-		Set<DataSourceIdentifier<?>> interactionDbIds = resolveInteractionDbIds(interactionIdStr);
-		Set<String> confidence = parseConfidenceStr(confidenceStr);
-		String expansion = expansionStr;
+		Set<DataSourceIdentifier<?>> interactionDbIds = resolveInteractionDbIds(toks.subFields(13, subFields));
+		Set<String> confidence = parseConfidence(toks, 14, subFields);
+		String expansion = toks.getColumn(15);
 		String xrefsInteraction = null;
 		String annotationsInteraction = null;
 		IRefWebHostOrganism hostOrgTaxonomyId = null;
-		if (!hostOrgTaxonomyIdStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
-			hostOrgTaxonomyId = NcbiTaxonomyIdTermPair.parseString(IRefWebHostOrganism.class, hostOrgTaxonomyIdStr);
+		if (!isNullColumn(toks, 28)) {
+			hostOrgTaxonomyId = NcbiTaxonomyIdTermPair.parseString(IRefWebHostOrganism.class, toks.getColumn(28));
 		}
 		String parametersInteraction = null;
-		RigId checksumInteraction = new RigId(StringUtil.removePrefix(interactionChecksumStr, "rigid:"));
-		boolean negative = Boolean.parseBoolean(negativeStr);
-		IrigId irigid = new IrigId(irigidStr);
-		CrigId crigid = new CrigId(crigidStr);
-		IcrigId icrigid = new IcrigId(icrigidStr);
-		ImexId imexId = (imexIdStr.trim().equals(StringConstants.HYPHEN_MINUS)) ? null : new ImexId(imexIdStr);
-		String edgeType = edgeTypeStr;
-		int numParticipants = Integer.parseInt(numParticipantsStr);
+		RigId checksumInteraction = new RigId(toks.getColumnWithoutPrefix(34, "rigid:"));
+		boolean negative = Boolean.parseBoolean(toks.getColumn(35));
+		IrigId irigid = new IrigId(toks.getColumn(44));
+		CrigId crigid = new CrigId(toks.getColumn(47));
+		IcrigId icrigid = new IcrigId(toks.getColumn(50));
+		ImexId imexId = (isNullColumn(toks, 51)) ? null : new ImexId(toks.getColumn(51));
+		String edgeType = toks.getColumn(52);
+		int numParticipants = Integer.parseInt(toks.getColumn(53));
 		return new IRefWebInteraction(detectionMethod, author, pmids, interactionType, interactionDbIds, confidence,
 				expansion, xrefsInteraction, annotationsInteraction, hostOrgTaxonomyId, parametersInteraction,
 				checksumInteraction, negative, irigid, crigid, icrigid, imexId, edgeType, numParticipants);
 	}
 
 	/**
-	 * @param interactionIdStr
+	 * @param idCursor
+	 *            positioned over the pipe-delimited interaction identifiers
 	 * @return
 	 */
-	private Set<DataSourceIdentifier<?>> resolveInteractionDbIds(String interactionIdStr) {
+	private Set<DataSourceIdentifier<?>> resolveInteractionDbIds(DelimitedColumnCursor idCursor) {
 		Set<DataSourceIdentifier<?>> ids = new HashSet<DataSourceIdentifier<?>>();
-		for (String id : interactionIdStr.split(RegExPatterns.PIPE)) {
+		for (int i = 0; i < idCursor.getColumnCount(); i++) {
 			try {
-				if (id.startsWith("edgetype:") || id.endsWith(":-")) {
+				if (idCursor.columnStartsWith(i, "edgetype:") || idCursor.columnEndsWith(i, ":-")) {
 					// do nothing - this is a redundant storage of edge type or
 					// a null identifier
-				} else if (id.startsWith("BIND_Translation:")) {
-					ids.add(new BindTranslationId(StringUtil.removePrefix(id, "BIND_Translation:")));
-				} else if (id.startsWith("irigid:")) {
-					ids.add(new IrigId(StringUtil.removePrefix(id, "irigid:")));
-				} else if (id.startsWith("rigid:")) {
-					ids.add(new RigId(StringUtil.removePrefix(id, "rigid:")));
-				} else if (id.startsWith("grid:")) {
-					ids.add(new BioGridID(StringUtil.removePrefix(id, "grid:")));
-				} else if (id.startsWith("bind:")) {
-					ids.add(new BindInteractionID(StringUtil.removePrefix(id, "bind:")));
-				} else if (id.startsWith("MPACT:")) {
-					ids.add(new MpactId(StringUtil.removePrefix(id, "MPACT:")));
-				} else if (id.startsWith("mint:")) {
-					ids.add(new MintID(StringUtil.removePrefix(id, "mint:")));
-				} else if (id.startsWith("intact:")) {
-					ids.add(new IntActID(StringUtil.removePrefix(id, "intact:")));
-				} else if (id.startsWith("dip:")) {
-					ids.add(new DipInteractionID(StringUtil.removePrefix(id, "dip:")));
-				} else if (id.startsWith("ophid:")) {
-					ids.add(new OphidId(StringUtil.removePrefix(id, "ophid:")));
-				} else if (id.startsWith("InnateDB:")) {
-					String idbId = StringUtil.removePrefix(id, "InnateDB:");
+				} else if (idCursor.columnStartsWith(i, "BIND_Translation:")) {
+					ids.add(new BindTranslationId(idCursor.getColumnWithoutPrefix(i, "BIND_Translation:")));
+				} else if (idCursor.columnStartsWith(i, "irigid:")) {
+					ids.add(new IrigId(idCursor.getColumnWithoutPrefix(i, "irigid:")));
+				} else if (idCursor.columnStartsWith(i, "rigid:")) {
+					ids.add(new RigId(idCursor.getColumnWithoutPrefix(i, "rigid:")));
+				} else if (idCursor.columnStartsWith(i, "grid:")) {
+					ids.add(new BioGridID(idCursor.getColumnWithoutPrefix(i, "grid:")));
+				} else if (idCursor.columnStartsWith(i, "bind:")) {
+					ids.add(new BindInteractionID(idCursor.getColumnWithoutPrefix(i, "bind:")));
+				} else if (idCursor.columnStartsWith(i, "MPACT:")) {
+					ids.add(new MpactId(idCursor.getColumnWithoutPrefix(i, "MPACT:")));
+				} else if (idCursor.columnStartsWith(i, "mint:")) {
+					ids.add(new MintID(idCursor.getColumnWithoutPrefix(i, "mint:")));
+				} else if (idCursor.columnStartsWith(i, "intact:")) {
+					ids.add(new IntActID(idCursor.getColumnWithoutPrefix(i, "intact:")));
+				} else if (idCursor.columnStartsWith(i, "dip:")) {
+					ids.add(new DipInteractionID(idCursor.getColumnWithoutPrefix(i, "dip:")));
+				} else if (idCursor.columnStartsWith(i, "ophid:")) {
+					ids.add(new OphidId(idCursor.getColumnWithoutPrefix(i, "ophid:")));
+				} else if (idCursor.columnStartsWith(i, "InnateDB:")) {
+					String idbId = idCursor.getColumnWithoutPrefix(i, "InnateDB:");
 					if (idbId.startsWith("IDB-")) {
 						idbId = StringUtil.removePrefix(idbId, "IDB-");
 					}
 					ids.add(new InnateDbId(idbId));
-				} else if (id.startsWith("innatedb:")) {
-					String idbId = StringUtil.removePrefix(id, "innatedb:");
+				} else if (idCursor.columnStartsWith(i, "innatedb:")) {
+					String idbId = idCursor.getColumnWithoutPrefix(i, "innatedb:");
 					if (idbId.startsWith("IDB-")) {
 						idbId = StringUtil.removePrefix(idbId, "IDB-");
 					}
 					ids.add(new InnateDbId(idbId));
-				} else if (id.startsWith("CORUM:")) {
-					ids.add(new CorumId(StringUtil.removePrefix(id, "CORUM:")));
-				} else if (id.startsWith("mpilit:")) {
-					ids.add(new MpiDbId(StringUtil.removePrefix(id, "mpilit:")));
-				} else if (id.startsWith("mpiimex:")) {
-					ids.add(new MpiDbId(StringUtil.removePrefix(id, "mpiimex:")));
-				} else if (id.startsWith("MatrixDB:")) {
-					ids.add(new MatrixDbId(StringUtil.removePrefix(id, "MatrixDB:")));
-				} else if (id.startsWith("biogrid:")) {
-					ids.add(new BioGridID(StringUtil.removePrefix(id, "biogrid:")));
-				} else if (id.startsWith("pubmed:")) {
-					ids.add(new PubMedID(StringUtil.removePrefix(id, "pubmed:")));
-				} else if (id.startsWith("HPRD")) {
-					ids.add(new HprdID(StringUtil.removePrefix(id, "HPRD:")));
+				} else if (idCursor.columnStartsWith(i, "CORUM:")) {
+					ids.add(new CorumId(idCursor.getColumnWithoutPrefix(i, "CORUM:")));
+				} else if (idCursor.columnStartsWith(i, "mpilit:")) {
+					ids.add(new MpiDbId(idCursor.getColumnWithoutPrefix(i, "mpilit:")));
+				} else if (idCursor.columnStartsWith(i, "mpiimex:")) {
+					ids.add(new MpiDbId(idCursor.getColumnWithoutPrefix(i, "mpiimex:")));
+				} else if (idCursor.columnStartsWith(i, "MatrixDB:")) {
+					ids.add(new MatrixDbId(idCursor.getColumnWithoutPrefix(i, "MatrixDB:")));
+				} else if (idCursor.columnStartsWith(i, "biogrid:")) {
+					ids.add(new BioGridID(idCursor.getColumnWithoutPrefix(i, "biogrid:")));
+				} else if (idCursor.columnStartsWith(i, "pubmed:")) {
+					ids.add(new PubMedID(idCursor.getColumnWithoutPrefix(i, "pubmed:")));
+				} else if (idCursor.columnStartsWith(i, "HPRD")) {
+					ids.add(new HprdID(StringUtil.removePrefix(idCursor.getColumn(i), "HPRD:")));
 				} else {
-					ids.add(new UnknownDataSourceIdentifier(id));
+					ids.add(new UnknownDataSourceIdentifier(idCursor.getColumn(i)));
 				}
 			} catch (IllegalArgumentException e) {
-				ids.add(new ProbableErrorDataSourceIdentifier(id, null, e.getMessage()));
+				ids.add(new ProbableErrorDataSourceIdentifier(idCursor.getColumn(i), null, e.getMessage()));
 			}
 		}
 		return ids;
 	}
 
-	private Set<DataSourceIdentifier<?>> resolveInteractorIds(String interactorIdStr) {
+	/**
+	 * @param idCursor
+	 *            positioned over the pipe-delimited interactor identifiers
+	 * @return
+	 */
+	private Set<DataSourceIdentifier<?>> resolveInteractorIds(DelimitedColumnCursor idCursor) {
 		Set<DataSourceIdentifier<?>> ids = new HashSet<DataSourceIdentifier<?>>();
-		for (String id : interactorIdStr.split(RegExPatterns.PIPE)) {
-			ids.add(resolveInteractorId(id));
+		for (int i = 0; i < idCursor.getColumnCount(); i++) {
+			ids.add(resolveInteractorId(idCursor.getColumn(i)));
 		}
 		return ids;
 	}
 
 	/**
-	 * @param ids
-	 * @param id
+	 * the prefixes of the interactor identifiers, in matching order
+	 */
+	private enum InteractorIdPrefix implements IdPrefix {
+		XX("xx:"),
+		OTHER("other:"),
+		UNIPROTKB("uniprotkb:"),
+		UNIPROT("uniprot:"),
+		SWISS_PROT("Swiss-Prot:"),
+		UNIPROT_SWISS_PROT("uniprot/swiss-prot:"),
+		UNIPROTKB_TREMBL("UniProtKB/TrEMBL:"),
+		SP("SP:"),
+		UNIPROT_KNOWLEDGE_BASE("uniprot knowledge base"),
+		TREMBL("TREMBL"),
+		ENTREZGENE_LOCUSLINK("entrezgene/locuslink:"),
+		ENTREZ_GENE_LOCUSLINK("entrez gene/locuslink:"),
+		HPRD("HPRD:"),
+		CORUM("CORUM:"),
+		CROGID("crogid:"),
+		ICROGID("icrogid:"),
+		REFSEQ_LOWER_CASE("refseq:"),
+		REFSEQ("RefSeq:"),
+		ROGID("rogid:"),
+		IROGID("irogid:"),
+		PDB("PDB:"),
+		COMPLEX("complex:"),
+		CYGD("cygd:"),
+		PRF("prf:"),
+		MPILIT("mpilit:"),
+		MPIIMEX("mpiimex:"),
+		PIR_LOWER_CASE("pir:"),
+		PIR("PIR:"),
+		MINT("mint:"),
+		DIP("dip:"),
+		CAMJEDB("camjedb:"),
+		RCSB_PDB("rcsb pdb:"),
+		GI("gi:"),
+		GENBANK_PROTEIN_GI("genbank_protein_gi:"),
+		INTACT("intact:"),
+		IPI("ipi:"),
+		ENSEMBL("Ensembl:"),
+		MATRIXDB("MatrixDB:"),
+		SGD("SGD:"),
+		TIGR("TIGR:"),
+		AFCS("afcs:"),
+		PUBMED("pubmed:"),
+		UNIPARC("uniparc:"),
+		FLYBASE("FlyBase:"),
+		KEGG("KEGG:"),
+		INNATEDB("InnateDB:"),
+		EMB("emb:"),
+		DBJ("dbj:"),
+		DDBJ_EMBL_GENBANK("ddbj/embl/genbank:"),
+		GENBANK("GenBank:"),
+		GENBANK_INDENTIFIER("genbank indentifier:"),
+		GB("GB:"),
+		GB_LOWER_CASE("gb:"),
+		TPG("tpg:"),
+		PDB_LOWER_CASE("pdb:"),
+		FLYBASE_LOWER_CASE("flybase:"),
+		SGD_LOWER_CASE("sgd:"),
+		ENTREZGENE("entrezgene:");
+
+		private final String prefix;
+
+		private InteractorIdPrefix(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public String getPrefix() {
+			return prefix;
+		}
+
+		@Override
+		public boolean isCaseSensitive() {
+			return true;
+		}
+
+		@Override
+		public boolean accepts(String idStr) {
+			return true;
+		}
+	}
+
+	private static final IdPrefixTrie<InteractorIdPrefix> INTERACTOR_ID_PREFIXES = new IdPrefixTrie<InteractorIdPrefix>(
+			InteractorIdPrefix.values());
+
+	/**
+	 * @param idStr
+	 * @return the interactor identifier, or null if the identifier string is empty
 	 */
-	private DataSourceIdentifier<?> resolveInteractorId(String idStr) {
+	static DataSourceIdentifier<?> resolveInteractorId(String idStr) {
 		if (idStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
 			return null;
 		}
-		if (idStr.startsWith("xx:")) {
-			return new UnknownDataSourceIdentifier(idStr);
-		}
-		if (idStr.startsWith("other:")) {
+		InteractorIdPrefix prefix = INTERACTOR_ID_PREFIXES.getPrefix(idStr);
+		if (prefix == InteractorIdPrefix.XX || prefix == InteractorIdPrefix.OTHER) {
 			return new UnknownDataSourceIdentifier(idStr);
 		}
 		if (idStr.equals("null")) {
 			return null;
 		}
+		if (prefix == null) {
+			return new UnknownDataSourceIdentifier(idStr);
+		}
+		String id = idStr.substring(prefix.getPrefix().length());
 		try {
-			if (idStr.startsWith("uniprotkb:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "uniprotkb:"));
-			} else if (idStr.startsWith("uniprot:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "uniprot:"));
-			} else if (idStr.startsWith("Swiss-Prot:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "Swiss-Prot:"));
-			} else if (idStr.startsWith("uniprot/swiss-prot:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "uniprot/swiss-prot:"));
-			} else if (idStr.startsWith("UniProtKB/TrEMBL:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "UniProtKB/TrEMBL:"));
-			} else if (idStr.startsWith("SP:")) {
-				return getUniprotId(StringUtil.removePrefix(idStr, "SP:"));
-			} else if (idStr.startsWith("uniprot knowledge base")) {
+			switch (prefix) {
+			case UNIPROTKB:
+			case UNIPROT:
+			case SWISS_PROT:
+			case UNIPROT_SWISS_PROT:
+			case UNIPROTKB_TREMBL:
+			case SP:
+				return getUniprotId(id);
+			case UNIPROT_KNOWLEDGE_BASE:
 				return getUniprotId(StringUtil.removePrefix(idStr, "uniprot knowledge base:"));
-			} else if (idStr.startsWith("TREMBL")) {
+			case TREMBL:
 				return getUniprotId(StringUtil.removePrefix(idStr, "TREMBL:"));
-			} else if (idStr.startsWith("entrezgene/locuslink:")) {
-				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrezgene/locuslink:"));
-			} else if (idStr.startsWith("entrez gene/locuslink:")) {
-				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrez gene/locuslink:"));
-			} else if (idStr.startsWith("HPRD:")) {
-				return new HprdID(StringUtil.removePrefix(idStr, "HPRD:"));
-			} else if (idStr.startsWith("CORUM:")) {
-				return new CorumId(StringUtil.removePrefix(idStr, "CORUM:"));
-			} else if (idStr.startsWith("crogid:")) {
-				return new CrogId(StringUtil.removePrefix(idStr, "crogid:"));
-			} else if (idStr.startsWith("icrogid:")) {
-				return new IcrogId(StringUtil.removePrefix(idStr, "icrogid:"));
-			} else if (idStr.startsWith("refseq:")) {
-				return getRefseqAccession(StringUtil.removePrefix(idStr, "refseq:").toUpperCase(), idStr);
-			} else if (idStr.startsWith("RefSeq:")) {
-				return getRefseqAccession(StringUtil.removePrefix(idStr, "RefSeq:").toUpperCase(), idStr);
-			} else if (idStr.startsWith("rogid:")) {
-				return new RogId(StringUtil.removePrefix(idStr, "rogid:"));
-			} else if (idStr.startsWith("irogid:")) {
-				return new IrogId(StringUtil.removePrefix(idStr, "irogid:"));
-			} else if (idStr.startsWith("PDB:")) {
-				return new PdbID(StringUtil.removePrefix(idStr, "PDB:"));
-			} else if (idStr.startsWith("complex:")) {
-				return new RogId(StringUtil.removePrefix(idStr, "complex:"));
-			} else if (idStr.startsWith("cygd:")) {
-				return new CygdId(StringUtil.removePrefix(idStr, "cygd:"));
-			} else if (idStr.startsWith("prf:")) {
-				return new PrfId(StringUtil.removePrefix(idStr, "prf:"));
-			} else if (idStr.startsWith("mpilit:")) {
-				return new MpiDbId(StringUtil.removePrefix(idStr, "mpilit:"));
-			} else if (idStr.startsWith("mpiimex:")) {
-				return new MpiDbId(StringUtil.removePrefix(idStr, "mpiimex:"));
-			} else if (idStr.startsWith("pir:")) {
-				return new PirID(StringUtil.removePrefix(idStr, "pir:"));
-			} else if (idStr.startsWith("PIR:")) {
-				return new PirID(StringUtil.removePrefix(idStr, "PIR:"));
-			} else if (idStr.startsWith("mint:")) {
-				return new MintID(StringUtil.removePrefix(idStr, "mint:"));
-			} else if (idStr.startsWith("dip:")) {
-				return new DipInteractorID(StringUtil.removePrefix(idStr, "dip:"));
-			} else if (idStr.startsWith("camjedb:")) {
-				return new CamjeDbId(StringUtil.removePrefix(idStr, "camjedb:"));
-			} else if (idStr.startsWith("rcsb pdb:")) {
-				return new PdbID(StringUtil.removePrefix(idStr, "rcsb pdb:"));
-			} else if (idStr.startsWith("gi:")) {
-				return new GiNumberID(StringUtil.removePrefix(idStr, "gi:"));
-			} else if (idStr.startsWith("genbank_protein_gi:")) {
-				return new GiNumberID(StringUtil.removePrefix(idStr, "genbank_protein_gi:"));
-			} else if (idStr.startsWith("intact:")) {
-				return new IntActID(StringUtil.removePrefix(idStr, "intact:"));
-			} else if (idStr.startsWith("ipi:")) {
-				return new IpiID(StringUtil.removePrefix(idStr, "ipi:"));
-			} else if (idStr.startsWith("Ensembl:")) {
-				return new EnsemblGeneID(StringUtil.removePrefix(idStr, "Ensembl:"));
-			} else if (idStr.startsWith("MatrixDB:")) {
-				return new MatrixDbId(StringUtil.removePrefix(idStr, "MatrixDB:"));
-			} else if (idStr.startsWith("SGD:")) {
-				return new SgdID(StringUtil.removePrefix(idStr, "SGD:"));
-			} else if (idStr.startsWith("TIGR:")) {
-				return new TigrFamsID(StringUtil.removePrefix(idStr, "TIGR:"));
-			} else if (idStr.startsWith("afcs:")) {
-				return new AfcsId(StringUtil.removePrefix(idStr, "afcs:"));
-			} else if (idStr.startsWith("pubmed:")) {
-				return new PubMedID(StringUtil.removePrefix(idStr, "pubmed:"));
-			} else if (idStr.startsWith("uniparc:")) {
-				return new UniParcID(StringUtil.removePrefix(idStr, "uniparc:"));
-			} else if (idStr.startsWith("FlyBase:")) {
-				return new FlyBaseID(StringUtil.removePrefix(idStr, "FlyBase:"));
-			} else if (idStr.startsWith("KEGG:")) {
-				return new KeggGeneID(StringUtil.removePrefix(idStr, "KEGG:"));
-			} else if (idStr.startsWith("InnateDB:")) {
-				return new InnateDbId(StringUtil.removePrefix(idStr, "InnateDB:"));
-			} else if (idStr.startsWith("emb:")) {
-				return ProteinAccessionResolver.resolveProteinAccession(StringUtil.removePrefix(idStr, "emb:"), idStr);
-			} else if (idStr.startsWith("dbj:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "dbj:"), idStr);
-			} else if (idStr.startsWith("ddbj/embl/genbank:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "ddbj/embl/genbank:"), idStr);
-			} else if (idStr.startsWith("GenBank:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "GenBank:"), idStr);
-			} else if (idStr.startsWith("genbank indentifier:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "genbank indentifier:"), idStr);
-			} else if (idStr.startsWith("GB:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "GB:"), idStr);
-			} else if (idStr.startsWith("gb:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "gb:"), idStr);
-			} else if (idStr.startsWith("tpg:")) {
-				return getGenbankAccession(StringUtil.removePrefix(idStr, "tpg:"), idStr);
-			} else if (idStr.startsWith("pdb:")) {
-				return new PdbID(StringUtil.removePrefix(idStr, "pdb:"));
-			} else if (idStr.startsWith("flybase:")) {
-				return new FlyBaseID(StringUtil.removePrefix(idStr, "flybase:"));
-			} else if (idStr.startsWith("sgd:")) {
-				return new FlyBaseID(StringUtil.removePrefix(idStr, "sgd:"));
-			} else if (idStr.startsWith("entrezgene:")) {
-				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrezgene:"));
+			case ENTREZGENE_LOCUSLINK:
+			case ENTREZ_GENE_LOCUSLINK:
+			case ENTREZGENE:
+				return new EntrezGeneID(id);
+			case HPRD:
+				return new HprdID(id);
+			case CORUM:
+				return new CorumId(id);
+			case CROGID:
+				return new CrogId(id);
+			case ICROGID:
+				return new IcrogId(id);
+			case REFSEQ_LOWER_CASE:
+			case REFSEQ:
+				return getRefseqAccession(id.toUpperCase(), idStr);
+			case ROGID:
+			case COMPLEX:
+				return new RogId(id);
+			case IROGID:
+				return new IrogId(id);
+			case PDB:
+			case RCSB_PDB:
+			case PDB_LOWER_CASE:
+				return new PdbID(id);
+			case CYGD:
+				return new CygdId(id);
+			case PRF:
+				return new PrfId(id);
+			case MPILIT:
+			case MPIIMEX:
+				return new MpiDbId(id);
+			case PIR_LOWER_CASE:
+			case PIR:
+				return new PirID(id);
+			case MINT:
+				return new MintID(id);
+			case DIP:
+				return new DipInteractorID(id);
+			case CAMJEDB:
+				return new CamjeDbId(id);
+			case GI:
+			case GENBANK_PROTEIN_GI:
+				return new GiNumberID(id);
+			case INTACT:
+				return new IntActID(id);
+			case IPI:
+				return new IpiID(id);
+			case ENSEMBL:
+				return new EnsemblGeneID(id);
+			case MATRIXDB:
+				return new MatrixDbId(id);
+			case SGD:
+				return new SgdID(id);
+			case TIGR:
+				return new TigrFamsID(id);
+			case AFCS:
+				return new AfcsId(id);
+			case PUBMED:
+				return new PubMedID(id);
+			case UNIPARC:
+				return new UniParcID(id);
+			case FLYBASE:
+			case FLYBASE_LOWER_CASE:
+			case SGD_LOWER_CASE:
+				return new FlyBaseID(id);
+			case KEGG:
+				return new KeggGeneID(id);
+			case INNATEDB:
+				return new InnateDbId(id);
+			case EMB:
+				return ProteinAccessionResolver.resolveProteinAccession(id, idStr);
+			case DBJ:
+			case DDBJ_EMBL_GENBANK:
+			case GENBANK:
+			case GENBANK_INDENTIFIER:
+			case GB:
+			case GB_LOWER_CASE:
+			case TPG:
+				return getGenbankAccession(id, idStr);
+			default:
+				throw new IllegalStateException("Unhandled interactor ID prefix: " + prefix.name());
 			}
 		} catch (IllegalArgumentException e) {
 			return new ProbableErrorDataSourceIdentifier(idStr, null, e.getMessage());
 		}
-
-		return new UnknownDataSourceIdentifier(idStr);
 	}
 
 	/**
 	 * @param removePrefix
 	 * @return
 	 */
-	private DataSourceIdentifier<?> getUniprotId(String idStr) {
+	private static DataSourceIdentifier<?> getUniprotId(String idStr) {
 		try {
 			if (idStr.contains(StringConstants.HYPHEN_MINUS)) {
 				return new UniProtIsoformID(idStr);
@@ -506,7 +610,7 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 		}
 	}
 
-	private DataSourceIdentifier<?> getRefseqAccession(String acc, String accWithPrefix) {
+	private static DataSourceIdentifier<?> getRefseqAccession(String acc, String accWithPrefix) {
 		try {
 			return new RefSeqID(acc);
 		} catch (IllegalArgumentException e) {
@@ -518,7 +622,7 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	 * @param removePrefix
 	 * @return
 	 */
-	private DataSourceIdentifier<?> getGenbankAccession(String acc, String accWithPrefix) {
+	private static DataSourceIdentifier<?> getGenbankAccession(String acc, String accWithPrefix) {
 		DataSourceIdentifier<String> nucAccId = NucleotideAccessionResolver.resolveNucleotideAccession(acc,
 				accWithPrefix);
 		if (ProbableErrorDataSourceIdentifier.class.isInstance(nucAccId)) {
@@ -529,88 +633,103 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	}
 
 	/**
-	 * @param pmidsStr
+	 * @param toks
+	 * @param column
+	 *            the pmids column
+	 * @param subFields
 	 * @return
 	 */
-	private Set<DataSourceIdentifier<?>> parsePmidsStr(String pmidsStr) {
-		if (pmidsStr.trim().equals(StringConstants.HYPHEN_MINUS) || pmidsStr.trim().equals("pubmed:0")) {
+	private Set<DataSourceIdentifier<?>> parsePmids(DelimitedColumnCursor toks, int column,
+			DelimitedColumnCursor subFields) {
+		if (isNullColumn(toks, column) || toks.trimmedColumnEquals(column, "pubmed:0")) {
 			return null;
 		}
-		String[] toks = pmidsStr.split(RegExPatterns.PIPE);
+		toks.subFields(column, subFields);
 		Set<DataSourceIdentifier<?>> pmids = new HashSet<DataSourceIdentifier<?>>();
-		for (String tok : toks) {
+		for (int i = 0; i < subFields.getColumnCount(); i++) {
 			try {
-				pmids.add(new PubMedID(StringUtil.removePrefix(tok, "pubmed:")));
+				pmids.add(new PubMedID(subFields.getColumnWithoutPrefix(i, "pubmed:")));
 			} catch (IllegalArgumentException e) {
-				pmids.add(new ProbableErrorDataSourceIdentifier(tok, null, e.getMessage()));
+				pmids.add(new ProbableErrorDataSourceIdentifier(subFields.getColumn(i), null, e.getMessage()));
 			}
 		}
 		return pmids;
 	}
 
 	/**
-	 * @param confidenceStr
+	 * @param toks
+	 * @param column
+	 *            the confidence column
+	 * @param subFields
 	 * @return
 	 */
-	private Set<String> parseConfidenceStr(String confidenceStr) {
-		if (confidenceStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+	private Set<String> parseConfidence(DelimitedColumnCursor toks, int column, DelimitedColumnCursor subFields) {
+		if (isNullColumn(toks, column)) {
 			return null;
 		}
-		String[] toks = confidenceStr.split(RegExPatterns.PIPE);
+		toks.subFields(column, subFields);
 		Set<String> confidences = new HashSet<String>();
-		for (String tok : toks) {
-			confidences.add(tok);
+		for (int i = 0; i < subFields.getColumnCount(); i++) {
+			confidences.add(subFields.getColumn(i));
 		}
 		return confidences;
 	}
 
 	/**
+	 * @param toks
+	 *            the columns of the line
+	 * @param subFields
+	 *            the cursor used to iterate over the pipe-delimited sub-fields of a column
+	 * @param interactorColumnOffset
+	 *            0 for interactor A, 1 for interactor B; each column of interactor B follows the
+	 *            corresponding column of interactor A
 	 * @return
 	 */
-	private IRefWebInteractor getInteractor(String uniqueIdStr, String altIdStr, String aliasStr, String taxIdStr,
-			String biologicalRoleStr, String experimentalRoleStr, String interactorTypeStr, String dbXrefsStr,
-			String annotationsStr, String checksumStr, String originalReferenceStr, String finalReferenceStr,
-			String mappingScoreStr, String irogidStr, String crogidStr, String icrogidStr) {
-
-		if (!dbXrefsStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+	private IRefWebInteractor getInteractor(DelimitedColumnCursor toks, DelimitedColumnCursor subFields,
+			int interactorColumnOffset) {
+		int b = interactorColumnOffset;
+		if (!isNullColumn(toks, 22 + b)) {
 			throw new IllegalArgumentException("Observed a value in the xrefs_A or xrefs_B column. "
 					+ "This column has always been empty. Code changes likely required.");
 		}
-		if (!annotationsStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+		if (!isNullColumn(toks, 25 + b)) {
 			throw new IllegalArgumentException("Observed a value in the Annotations_A or Annotations_B column. "
 					+ "This column has always been empty. Code changes likely required.");
 		}
 
-		DataSourceIdentifier<?> uniqueId = resolveInteractorId(uniqueIdStr);
-		Set<DataSourceIdentifier<?>> alternateIds = resolveInteractorIds(altIdStr);
-		Set<DataSourceIdentifier<?>> aliasIds = resolveAliasIds(aliasStr);
-		Set<String> aliasSymbols = resolveAliasSymbols(aliasStr);
+		DataSourceIdentifier<?> uniqueId = resolveInteractorId(toks.getColumn(0 + b));
+		Set<DataSourceIdentifier<?>> alternateIds = resolveInteractorIds(toks.subFields(2 + b, subFields));
+		toks.subFields(4 + b, subFields);
+		Set<DataSourceIdentifier<?>> aliasIds = resolveAliasIds(subFields);
+		Set<String> aliasSymbols = resolveAliasSymbols(subFields);
 		IRefWebInteractorOrganism ncbiTaxonomyId = null;
-		if (!taxIdStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
-			ncbiTaxonomyId = NcbiTaxonomyIdTermPair.parseString(IRefWebInteractorOrganism.class, taxIdStr);
+		if (!isNullColumn(toks, 9 + b)) {
+			ncbiTaxonomyId = NcbiTaxonomyIdTermPair.parseString(IRefWebInteractorOrganism.class,
+					toks.getColumn(9 + b));
 		}
 		Set<DataSourceIdentifier<?>> dbXReferenceIds = null;
 		IRefWebInteractorBiologicalRole biologicalRole = null;
-		if (!biologicalRoleStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
-			biologicalRole = MiOntologyIdTermPair.parseString(IRefWebInteractorBiologicalRole.class, biologicalRoleStr);
+		if (!isNullColumn(toks, 16 + b)) {
+			biologicalRole = MiOntologyIdTermPair.parseString(IRefWebInteractorBiologicalRole.class,
+					toks.getColumn(16 + b));
 		}
 		IRefWebInteractorExperimentalRole experimentalRole = null;
-		if (!experimentalRoleStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+		if (!isNullColumn(toks, 18 + b)) {
 			experimentalRole = MiOntologyIdTermPair.parseString(IRefWebInteractorExperimentalRole.class,
-					experimentalRoleStr);
+					toks.getColumn(18 + b));
 		}
 		IRefWebInteractorType interactorType = null;
-		if (!interactorTypeStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
-			interactorType = MiOntologyIdTermPair.parseString(IRefWebInteractorType.class, interactorTypeStr);
+		if (!isNullColumn(toks, 20 + b)) {
+			interactorType = MiOntologyIdTermPair.parseString(IRefWebInteractorType.class, toks.getColumn(20 + b));
 		}
 		String annotations = null;
-		RogId checksum = new RogId(StringUtil.removePrefix(checksumStr, "rogid:"));
-		DataSourceIdentifier<?> originalReference = resolveInteractorId(originalReferenceStr);
-		DataSourceIdentifier<?> finalReference = resolveInteractorId(finalReferenceStr);
-		String mappingScore = mappingScoreStr;
-		IrogId irogid = new IrogId(irogidStr);
-		CrogId crogid = new CrogId(crogidStr);
-		IcrogId icrogid = new IcrogId(icrogidStr);
+		RogId checksum = new RogId(toks.getColumnWithoutPrefix(32 + b, "rogid:"));
+		DataSourceIdentifier<?> originalReference = resolveInteractorId(toks.getColumn(36 + b));
+		DataSourceIdentifier<?> finalReference = resolveInteractorId(toks.getColumn(38 + b));
+		String mappingScore = toks.getColumn(40 + b);
+		IrogId irogid = new IrogId(toks.getColumn(42 + b));
+		CrogId crogid = new CrogId(toks.getColumn(45 + b));
+		IcrogId icrogid = new IcrogId(toks.getColumn(48 + b));
 
 		return new IRefWebInteractor(uniqueId, alternateIds, aliasSymbols, aliasIds, ncbiTaxonomyId, dbXReferenceIds,
 				biologicalRole, experimentalRole, interactorType, annotations, checksum, originalReference,
@@ -618,15 +737,15 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	}
 
 	/**
-	 * @param aliasStr
+	 * @param aliasCursor
+	 *            positioned over the pipe-delimited aliases
 	 * @return
 	 */
-	private Set<String> resolveAliasSymbols(String aliasStr) {
+	private Set<String> resolveAliasSymbols(DelimitedColumnCursor aliasCursor) {
 		Set<String> aliases = new HashSet<String>();
-		for (String alias : aliasStr.split(RegExPatterns.PIPE)) {
-			String aliasSymbol = alias;// resolveAliasSymbol(alias);
-			if (aliasSymbol != null && !aliasSymbol.equals("-")) {
-				aliases.add(aliasSymbol);
+		for (int i = 0; i < aliasCursor.getColumnCount(); i++) {
+			if (!aliasCursor.columnEquals(i, StringConstants.HYPHEN_MINUS)) {
+				aliases.add(aliasCursor.getColumn(i));
 			}
 		}
 		return aliases;
@@ -644,15 +763,17 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	// return aliasStr;
 	// }
 
+
 	/**
-	 * @param aliasStr
+	 * @param aliasCursor
+	 *            positioned over the pipe-delimited aliases
 	 * @return
 	 */
-	private Set<DataSourceIdentifier<?>> resolveAliasIds(String aliasStr) {
+	private Set<DataSourceIdentifier<?>> resolveAliasIds(DelimitedColumnCursor aliasCursor) {
 		Set<DataSourceIdentifier<?>> ids = new HashSet<DataSourceIdentifier<?>>();
-		for (String alias : aliasStr.split(RegExPatterns.PIPE)) {
-			if (!alias.equals(StringConstants.HYPHEN_MINUS)) {
-				DataSourceIdentifier<?> id = resolveAliasId(alias);
+		for (int i = 0; i < aliasCursor.getColumnCount(); i++) {
+			if (!aliasCursor.columnEquals(i, StringConstants.HYPHEN_MINUS)) {
+				DataSourceIdentifier<?> id = resolveAliasId(aliasCursor, i);
 				if (id != null) {
 					ids.add(id);
 				}
@@ -662,28 +783,30 @@ public class IRefWebPsiMitab2_6FileParser extends TaxonAwareSingleLineFileRecord
 	}
 
 	/**
-	 * @param id
+	 * @param aliasCursor
+	 * @param i
+	 *            the index of the alias
 	 * @return
 	 */
-	private DataSourceIdentifier<?> resolveAliasId(String aliasStr) {
-		if (aliasStr.startsWith("uniprotkb:")) {
-			return new UniProtEntryName(StringUtil.removePrefix(aliasStr, "uniprotkb:"));
-		} else if (aliasStr.startsWith("entrezgene/locuslink:")) {
+	private DataSourceIdentifier<?> resolveAliasId(DelimitedColumnCursor aliasCursor, int i) {
+		if (aliasCursor.columnStartsWith(i, "uniprotkb:")) {
+			return new UniProtEntryName(aliasCursor.getColumnWithoutPrefix(i, "uniprotkb:"));
+		} else if (aliasCursor.columnStartsWith(i, "entrezgene/locuslink:")) {
 			// ignore, it is a gene symbol and is handled by
 			// resolveAliasSymbols()
 			return null;
-		} else if (aliasStr.startsWith("crogid:")) {
-			return new CrogId(StringUtil.removePrefix(aliasStr, "crogid:"));
-		} else if (aliasStr.startsWith("icrogid:")) {
-			return new IcrogId(StringUtil.removePrefix(aliasStr, "icrogid:"));
-		} else if (aliasStr.startsWith("rogid:")) {
-			return new RogId(StringUtil.removePrefix(aliasStr, "rogid:"));
-		} else if (aliasStr.startsWith("refseq:")) {
-			return getRefseqAccession(StringUtil.removePrefix(aliasStr, "refseq:"), aliasStr);
-		} else if (aliasStr.startsWith("hgnc:")) {
-			return new HgncGeneSymbolID(StringUtil.removePrefix(aliasStr, "hgnc:"));
-		}
-		return new UnknownDataSourceIdentifier(aliasStr);
+		} else if (aliasCursor.columnStartsWith(i, "crogid:")) {
+			return new CrogId(aliasCursor.getColumnWithoutPrefix(i, "crogid:"));
+		} else if (aliasCursor.columnStartsWith(i, "icrogid:")) {
+			return new IcrogId(aliasCursor.getColumnWithoutPrefix(i, "icrogid:"));
+		} else if (aliasCursor.columnStartsWith(i, "rogid:")) {
+			return new RogId(aliasCursor.getColumnWithoutPrefix(i, "rogid:"));
+		} else if (aliasCursor.columnStartsWith(i, "refseq:")) {
+			return getRefseqAccession(aliasCursor.getColumnWithoutPrefix(i, "refseq:"), aliasCursor.getColumn(i));
+		} else if (aliasCursor.columnStartsWith(i, "hgnc:")) {
+			return new HgncGeneSymbolID(aliasCursor.getColumnWithoutPrefix(i, "hgnc:"));
+		}
+		return new UnknownDataSourceIdentifier(aliasCursor.getColumn(i));
 	}
 
 }
@@ -41,19 +41,29 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.zip.GZIPInputStream;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
 import javax.xml.stream.EventFilter;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
 import javax.xml.stream.events.StartElement;
 import javax.xml.stream.events.XMLEvent;
 
@@ -69,6 +79,19 @@ import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
  */
 public abstract class XmlFileRecordReader<T extends FileRecord> extends FileRecordReader<T> {
 
+	public static final int DEFAULT_UNMARSHAL_BATCH_SIZE = 64;
+
+	/**
+	 * JAXBContexts are thread-safe and expensive to create so a single context is shared by all
+	 * readers of an entry class, see {@link #getJaxbContext(Class)}
+	 */
+	private static final ConcurrentMap<Class<?>, JAXBContext> JAXB_CONTEXTS = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+	/**
+	 * batches of fewer entries are unmarshalled by a single fork-join task
+	 */
+	private static final int UNMARSHAL_TASK_ENTRY_COUNT = 4;
+
 	private XMLEventReader xmlfer;
 	private XMLEventReader xmler;
 	private InputStream is;
@@ -80,6 +103,28 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 	private final Set<NcbiTaxonomyID> taxonsOfInterest;
 	private final Class<?> entryClass;
 
+	/**
+	 * the element path used to pre-filter entries by taxon, or null if entries are not pre-filtered,
+	 * see {@link #getTaxonElementPath()}
+	 */
+	private String[] taxonElementPath;
+
+	/**
+	 * if not null, entries are unmarshalled in parallel, see
+	 * {@link #setParallelUnmarshalling(ForkJoinPool, int)}
+	 */
+	private ForkJoinPool unmarshalPool = null;
+	private int unmarshalBatchSize;
+	private int maxPendingBatchCount;
+	/**
+	 * Unmarshallers are not thread-safe so each thread of the unmarshal pool uses its own
+	 */
+	private ThreadLocal<Unmarshaller> poolUnmarshallers;
+	private final LinkedList<UnmarshalBatch> pendingBatches = new LinkedList<UnmarshalBatch>();
+	private UnmarshalBatch unmarshalledBatch = null;
+	private int unmarshalledBatchPosition = 0;
+	private boolean entriesExhausted = false;
+
 	// public XmlFileRecordReader(File workDirectory, boolean clean) throws
 	// IOException {
 	// this(workDirectory, clean, null);
@@ -142,7 +187,7 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 	 */
 	private void initialize(InputStream is) throws FileNotFoundException, XMLStreamException, JAXBException {
 		this.is = is;
-		ctx = JAXBContext.newInstance(entryClass);
+		ctx = getJaxbContext(entryClass);
 		um = ctx.createUnmarshaller();
 		XMLInputFactory xmlif = XMLInputFactory.newInstance();
 		xmler = xmlif.createXMLEventReader(is);
@@ -156,9 +201,75 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 		// the case of uniprot
 		// xml
 		StartElement e = (StartElement) xmlfer.nextEvent();
+		if (taxonsOfInterest != null && !taxonsOfInterest.isEmpty()) {
+			taxonElementPath = getTaxonElementPath();
+		}
 		advanceToRecordWithTaxonOfInterest();
 	}
 
+	/**
+	 * @param entryClass
+	 * @return the JAXBContext for the specified entry class, which is created when it is first
+	 *         requested and shared thereafter
+	 * @throws JAXBException
+	 */
+	protected static JAXBContext getJaxbContext(Class<?> entryClass) throws JAXBException {
+		JAXBContext context = JAXB_CONTEXTS.get(entryClass);
+		if (context == null) {
+			context = JAXBContext.newInstance(entryClass);
+			JAXBContext existingContext = JAXB_CONTEXTS.putIfAbsent(entryClass, context);
+			if (existingContext != null) {
+				context = existingContext;
+			}
+		}
+		return context;
+	}
+
+	/**
+	 * Enables parallel unmarshalling of the entries. The events of each entry are read, in
+	 * batches, by the thread that calls {@link #hasNext()} and {@link #next()} and the batches are
+	 * unmarshalled using the specified fork-join pool, while the following batches are read.
+	 * Records are returned in the order in which they appear in the file. Entries are pre-filtered
+	 * by taxon (see {@link #getTaxonElementPath()}) on the reading thread, i.e. only entries that
+	 * may be of interest are handed to the pool.
+	 * <p>
+	 * This is only suitable for subclasses whose {@link #initializeNewRecord(Object)} and
+	 * {@link #hasTaxonOfInterest(FileRecord)} implementations are stateless, i.e. they can be called
+	 * concurrently for different entries. The first record of interest is unmarshalled when the
+	 * reader is constructed; this method must be called before any other record is requested.
+	 * 
+	 * @param pool
+	 *            used to unmarshal the entries; it is not shut down by this reader
+	 * @param batchSize
+	 *            the number of entries per batch, e.g. {@link #DEFAULT_UNMARSHAL_BATCH_SIZE}
+	 */
+	public void setParallelUnmarshalling(ForkJoinPool pool, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The unmarshal batch size must be > 0 but was: " + batchSize);
+		}
+		this.unmarshalPool = pool;
+		this.unmarshalBatchSize = batchSize;
+		this.maxPendingBatchCount = 2 * pool.getParallelism();
+		this.poolUnmarshallers = new ThreadLocal<Unmarshaller>() {
+			@Override
+			protected Unmarshaller initialValue() {
+				try {
+					return ctx.createUnmarshaller();
+				} catch (JAXBException e) {
+					throw new RuntimeException(e);
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return true if entries are unmarshalled in parallel, see
+	 *         {@link #setParallelUnmarshalling(ForkJoinPool, int)}
+	 */
+	public boolean isUnmarshallingInParallel() {
+		return unmarshalPool != null;
+	}
+
 	private void advanceToRecordWithTaxonOfInterest() {
 		if (hasNext()) {
 			while (nextRecord != null && !hasTaxonOfInterest(nextRecord)) {
@@ -174,6 +285,43 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 	 */
 	protected abstract boolean hasTaxonOfInterest(T record);
 
+	/**
+	 * Subclasses can enable filtering of entries by taxon before the entries are unmarshalled by
+	 * returning the names of the elements that lead from an entry element to the element(s) that
+	 * hold the taxon of the entry, e.g. {"organism", "dbReference"} for UniProt XML. When taxons of
+	 * interest have been specified, the events of each entry are buffered until the first element of
+	 * the path has ended. If none of the taxons found at the path (see {@link #getTaxon(StartElement)})
+	 * is of interest, the remainder of the entry is skipped without being unmarshalled. Otherwise
+	 * the entry is unmarshalled from the buffered events and tested by
+	 * {@link #hasTaxonOfInterest(FileRecord)} as usual. Entries without taxon elements are always
+	 * unmarshalled.
+	 * 
+	 * @return null by default, i.e. every entry is unmarshalled before it is tested by
+	 *         {@link #hasTaxonOfInterest(FileRecord)}
+	 */
+	protected String[] getTaxonElementPath() {
+		return null;
+	}
+
+	/**
+	 * @param taxonElement
+	 *            an element found at the taxon element path of an entry, see
+	 *            {@link #getTaxonElementPath()}
+	 * @return the taxon identified by the id attribute of the element, or null if the element does
+	 *         not identify a taxon. Override if the taxon is stored differently.
+	 */
+	protected NcbiTaxonomyID getTaxon(StartElement taxonElement) {
+		Attribute id = taxonElement.getAttributeByName(new QName("id"));
+		if (id == null) {
+			return null;
+		}
+		try {
+			return new NcbiTaxonomyID(id.getValue());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
 	protected Set<NcbiTaxonomyID> getTaxonsOfInterest() {
 		if (taxonsOfInterest == null) {
 			return null;
@@ -188,6 +336,7 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 	 */
 	@Override
 	public void close() throws IOException {
+		discardUnmarshalledBatches();
 		is.close();
 	}
 
@@ -199,9 +348,21 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 	@Override
 	public boolean hasNext() {
 		if (nextRecord == null) {
+			if (isUnmarshallingInParallel()) {
+				nextRecord = nextUnmarshalledRecord();
+				return nextRecord != null;
+			}
 			try {
 				while (xmlfer.peek() != null) {
-					JAXBElement<?> unmarshalledElement = um.unmarshal(xmler,entryClass);
+					XMLEventReader entryReader = xmler;
+					if (taxonElementPath != null) {
+						List<XMLEvent> events = bufferEntryWithTaxonOfInterest();
+						if (events == null) {
+							continue;
+						}
+						entryReader = new BufferedEventReader(events, xmler);
+					}
+					JAXBElement<?> unmarshalledElement = um.unmarshal(entryReader, entryClass);
 					Object o = unmarshalledElement.getValue();
 					if (entryClass.isInstance(o)) {
 						nextRecord = initializeNewRecord(entryClass.cast(o));
@@ -222,6 +383,342 @@ public abstract class XmlFileRecordReader<T extends FileRecord> extends FileReco
 
 	}
 
+	/**
+	 * Reads the events of the next entry up to the end of the first element of the taxon element
+	 * path, or to the end of the entry if the path is not found. If a taxon of interest, or no
+	 * taxon, was found, the entry is to be unmarshalled. Otherwise the remainder of the entry is
+	 * skipped.
+	 * 
+	 * @return the buffered events of the entry, which are to be followed by its remaining events,
+	 *         or null if the entry was skipped
+	 * @throws XMLStreamException
+	 */
+	private List<XMLEvent> bufferEntryWithTaxonOfInterest() throws XMLStreamException {
+		List<XMLEvent> events = new ArrayList<XMLEvent>();
+		/* the depth of the current element; the entry element is at depth 0 */
+		int depth = -1;
+		/* the number of leading taxon element path elements that enclose the current element */
+		int pathDepth = 0;
+		boolean taxonFound = false;
+		while (xmler.hasNext()) {
+			XMLEvent event = xmler.nextEvent();
+			events.add(event);
+			if (event.isStartElement()) {
+				depth++;
+				if (depth > 0 && pathDepth == depth - 1 && pathDepth < taxonElementPath.length
+						&& event.asStartElement().getName().getLocalPart().equals(taxonElementPath[pathDepth])) {
+					pathDepth++;
+					if (pathDepth == taxonElementPath.length) {
+						NcbiTaxonomyID taxon = getTaxon(event.asStartElement());
+						if (taxon != null) {
+							if (taxonsOfInterest.contains(taxon)) {
+								return events;
+							}
+							taxonFound = true;
+						}
+					}
+				}
+			} else if (event.isEndElement()) {
+				if (pathDepth == depth && pathDepth > 0) {
+					pathDepth--;
+					if (pathDepth == 0 && taxonFound) {
+						/* the elements enclosing the ended element are still open */
+						skipElements(depth);
+						return null;
+					}
+				}
+				depth--;
+				if (depth < 0) {
+					break;
+				}
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * @return all events of the next entry, or null if the entry was skipped because it is not of
+	 *         a taxon of interest, see {@link #bufferEntryWithTaxonOfInterest()}
+	 * @throws XMLStreamException
+	 */
+	private List<XMLEvent> readEntryEvents() throws XMLStreamException {
+		List<XMLEvent> events;
+		if (taxonElementPath != null) {
+			events = bufferEntryWithTaxonOfInterest();
+			if (events == null) {
+				return null;
+			}
+		} else {
+			events = new ArrayList<XMLEvent>();
+		}
+		int openElementCount = 0;
+		for (XMLEvent event : events) {
+			if (event.isStartElement()) {
+				openElementCount++;
+			} else if (event.isEndElement()) {
+				openElementCount--;
+			}
+		}
+		while ((events.isEmpty() || openElementCount > 0) && xmler.hasNext()) {
+			XMLEvent event = xmler.nextEvent();
+			events.add(event);
+			if (event.isStartElement()) {
+				openElementCount++;
+			} else if (event.isEndElement()) {
+				openElementCount--;
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * @return the next record of interest unmarshalled by the parallel unmarshal stage, or null if
+	 *         there are no more records
+	 */
+	private T nextUnmarshalledRecord() {
+		while (true) {
+			while (unmarshalledBatch == null || unmarshalledBatchPosition == unmarshalledBatch.size()) {
+				try {
+					submitUnmarshalBatches();
+				} catch (XMLStreamException e) {
+					throw new RuntimeException(e);
+				}
+				if (pendingBatches.isEmpty()) {
+					unmarshalledBatch = null;
+					return null;
+				}
+				unmarshalledBatch = pendingBatches.removeFirst();
+				unmarshalledBatch.task.join();
+				unmarshalledBatchPosition = 0;
+			}
+			T record = unmarshalledBatch.getRecord(unmarshalledBatchPosition++);
+			if (record != null) {
+				return record;
+			}
+		}
+	}
+
+	/**
+	 * Reads batches of entries and submits them to the unmarshal pool until the maximum number of
+	 * pending batches is reached or the entries are exhausted
+	 */
+	private void submitUnmarshalBatches() throws XMLStreamException {
+		while (!entriesExhausted && pendingBatches.size() < maxPendingBatchCount) {
+			List<List<XMLEvent>> entries = new ArrayList<List<XMLEvent>>(unmarshalBatchSize);
+			while (entries.size() < unmarshalBatchSize && xmlfer.peek() != null) {
+				List<XMLEvent> events = readEntryEvents();
+				if (events != null) {
+					entries.add(events);
+				}
+			}
+			if (entries.size() < unmarshalBatchSize) {
+				entriesExhausted = true;
+			}
+			if (!entries.isEmpty()) {
+				UnmarshalBatch batch = new UnmarshalBatch(entries);
+				unmarshalPool.execute(batch.task);
+				pendingBatches.add(batch);
+			}
+		}
+	}
+
+	private void discardUnmarshalledBatches() {
+		for (UnmarshalBatch batch : pendingBatches) {
+			batch.task.cancel(false);
+		}
+		pendingBatches.clear();
+		unmarshalledBatch = null;
+		unmarshalledBatchPosition = 0;
+	}
+
+	/**
+	 * @param events
+	 *            the events of an entry
+	 * @param unmarshaller
+	 * @return the record of the entry, or null if the entry is not of a taxon of interest
+	 * @throws JAXBException
+	 */
+	private T unmarshalEntry(List<XMLEvent> events, Unmarshaller unmarshaller) throws JAXBException {
+		Object o = unmarshaller.unmarshal(new BufferedEventReader(events, null), entryClass).getValue();
+		if (entryClass.isInstance(o)) {
+			T record = initializeNewRecord(entryClass.cast(o));
+			if (record != null && hasTaxonOfInterest(record)) {
+				return record;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A batch of entries and the records unmarshalled from them
+	 */
+	private class UnmarshalBatch {
+		private final List<List<XMLEvent>> entries;
+		private final Object[] records;
+		private final UnmarshalTask task;
+
+		public UnmarshalBatch(List<List<XMLEvent>> entries) {
+			this.entries = entries;
+			this.records = new Object[entries.size()];
+			this.task = new UnmarshalTask(this, 0, entries.size());
+		}
+
+		public int size() {
+			return records.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		public T getRecord(int index) {
+			return (T) records[index];
+		}
+	}
+
+	/**
+	 * Unmarshals the entries in the range [start, end) of a batch, splitting the range among the
+	 * threads of the unmarshal pool
+	 */
+	private class UnmarshalTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final UnmarshalBatch batch;
+		private final int start;
+		private final int end;
+
+		public UnmarshalTask(UnmarshalBatch batch, int start, int end) {
+			this.batch = batch;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= UNMARSHAL_TASK_ENTRY_COUNT) {
+				Unmarshaller unmarshaller = poolUnmarshallers.get();
+				for (int i = start; i < end; i++) {
+					try {
+						batch.records[i] = unmarshalEntry(batch.entries.get(i), unmarshaller);
+					} catch (JAXBException e) {
+						throw new RuntimeException(e);
+					}
+					/* the events are no longer needed */
+					batch.entries.set(i, null);
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new UnmarshalTask(batch, start, middle), new UnmarshalTask(batch, middle, end));
+			}
+		}
+	}
+
+	/**
+	 * Consumes events until the specified number of open elements have ended
+	 * 
+	 * @param openElementCount
+	 * @throws XMLStreamException
+	 */
+	private void skipElements(int openElementCount) throws XMLStreamException {
+		while (openElementCount > 0 && xmler.hasNext()) {
+			XMLEvent event = xmler.nextEvent();
+			if (event.isStartElement()) {
+				openElementCount++;
+			} else if (event.isEndElement()) {
+				openElementCount--;
+			}
+		}
+	}
+
+	/**
+	 * Replays a list of buffered events before continuing with the events of another reader, if
+	 * any. The other reader is not closed by this reader.
+	 */
+	private static class BufferedEventReader implements XMLEventReader {
+		private final List<XMLEvent> events;
+		private final XMLEventReader reader;
+		private int index = 0;
+
+		public BufferedEventReader(List<XMLEvent> events, XMLEventReader reader) {
+			this.events = events;
+			this.reader = reader;
+		}
+
+		@Override
+		public XMLEvent nextEvent() throws XMLStreamException {
+			if (index < events.size()) {
+				return events.get(index++);
+			}
+			if (reader == null) {
+				throw new NoSuchElementException();
+			}
+			return reader.nextEvent();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < events.size() || (reader != null && reader.hasNext());
+		}
+
+		@Override
+		public XMLEvent peek() throws XMLStreamException {
+			if (index < events.size()) {
+				return events.get(index);
+			}
+			return (reader == null) ? null : reader.peek();
+		}
+
+		@Override
+		public String getElementText() throws XMLStreamException {
+			StringBuilder text = new StringBuilder();
+			XMLEvent event;
+			while (!(event = nextEvent()).isEndElement()) {
+				if (event.isCharacters()) {
+					text.append(event.asCharacters().getData());
+				} else if (event.isStartElement()) {
+					throw new XMLStreamException("Element text contains a start element.", event.getLocation());
+				}
+			}
+			return text.toString();
+		}
+
+		@Override
+		public XMLEvent nextTag() throws XMLStreamException {
+			XMLEvent event;
+			while ((event = nextEvent()).getEventType() != XMLStreamConstants.START_ELEMENT
+					&& event.getEventType() != XMLStreamConstants.END_ELEMENT) {
+				if (event.isCharacters() && !event.asCharacters().isWhiteSpace()) {
+					throw new XMLStreamException("Expected a start or end element.", event.getLocation());
+				}
+			}
+			return event;
+		}
+
+		@Override
+		public Object getProperty(String name) {
+			if (reader == null) {
+				throw new IllegalArgumentException("Unsupported property: " + name);
+			}
+			return reader.getProperty(name);
+		}
+
+		@Override
+		public void close() {
+			// the underlying reader is closed by the record reader
+		}
+
+		@Override
+		public Object next() {
+			try {
+				return nextEvent();
+			} catch (XMLStreamException e) {
+				throw new NoSuchElementException(e.getMessage());
+			}
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
 	/**
 	 * @param entryXmlClassInstance
 	 *            an instance of the class that is the "entry" into the XML, i.e. the thing you
@@ -41,6 +41,7 @@ import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblAssemblyInformation;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblDate;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblReferenceCitation;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblSequenceDatabaseFileDataBase;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.PackedSequence;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.SequenceFeature;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
@@ -94,7 +95,7 @@ public class MirBaseMiRnaDatFileData extends EmblSequenceDatabaseFileDataBase<Mi
 			//String proteinExistenceEvidence, 
 			Set<DataSourceIdentifier<?>> databaseCrossReferences, String comments,
 			Set<? extends SequenceFeature> sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs, int numTs,
-			int numOthers, String sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
+			int numOthers, PackedSequence sequence, String constructedSeqInfo, Set<EmblAssemblyInformation> assemblyInfo,
 			long byteOffset) {
 		super(primaryAccessionNumber, sequenceVersionNumber, sequenceTopology, moleculeType, dataClass, taxonomicDivision,
 				sequenceLengthInBasePairs, accessionNumbers, projectId, dates, description, keyWords, organismSpeciesName,
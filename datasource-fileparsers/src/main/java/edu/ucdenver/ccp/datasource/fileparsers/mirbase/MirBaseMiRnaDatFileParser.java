@@ -33,7 +33,6 @@ package edu.ucdenver.ccp.datasource.fileparsers.mirbase;
  * #L%
  */
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -53,10 +52,12 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.common.ftp.FTPUtil.FileType;
 import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblAssemblyInformation;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblDate;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblReferenceCitation;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblSequenceDatabaseFileParserBase;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.PackedSequence;
 import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.SequenceFeature;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.hgnc.HgncID;
@@ -93,6 +94,15 @@ public class MirBaseMiRnaDatFileParser extends
 		super(workDirectory, ENCODING, clean);
 	}
 
+	/**
+	 * @return the downloaded data file if this reader was constructed using the download
+	 *         constructor, otherwise the file specified at construction
+	 */
+	@Override
+	public File getDataFile() {
+		return (miRnaDatFile != null) ? miRnaDatFile : super.getDataFile();
+	}
+
 	@Override
 	protected StreamLineReader initializeLineReaderFromDownload(CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
@@ -109,7 +119,7 @@ public class MirBaseMiRnaDatFileParser extends
 			Set<EmblReferenceCitation> referenceCitations, // String proteinExistenceEvidence,
 			Set<DataSourceIdentifier<?>> databaseCrossReferences, String comments,
 			Set<? extends SequenceFeature> sequenceFeatures, int sequenceLength, int numAs, int numCs, int numGs,
-			int numTs, int numOthers, String sequence, String constructedSeqInfo,
+			int numTs, int numOthers, PackedSequence sequence, String constructedSeqInfo,
 			Set<EmblAssemblyInformation> assemblyInfo, long byteOffset) {
 		return new MirBaseMiRnaDatFileData(idLineContents.getPrimaryAccessionNumber(),
 				idLineContents.getSequenceVersionNumber(), idLineContents.getSequenceTopology(),
@@ -227,13 +237,13 @@ public class MirBaseMiRnaDatFileParser extends
 	}
 
 	@Override
-	protected Collection<? extends SequenceFeature> parseFeatureTable(String line, BufferedReader br)
-			throws IOException {
+	protected Collection<? extends SequenceFeature> parseFeatureTable(String line, LineCursor lines) {
 		Collection<SequenceFeature> features = new HashSet<SequenceFeature>();
 		List<String> sequenceFeatureLines = new ArrayList<String>();
 		sequenceFeatureLines.add(line);
 		String featureKey = getFeatureKey(line);
-		while ((line = br.readLine()).startsWith("FT")) {
+		while (lines.nextLineHasCode("FT")) {
+			line = lines.nextLine();
 			if (!lineHasKey(line)) {
 				sequenceFeatureLines.add(line);
 			} else {
@@ -244,7 +254,8 @@ public class MirBaseMiRnaDatFileParser extends
 			}
 		}
 		addSequenceFeature(features, sequenceFeatureLines, featureKey);
-		if (!line.startsWith("XX")) {
+		line = lines.nextLine();
+		if (line == null || !line.startsWith("XX")) {
 			throw new IllegalStateException("Observed record missing XX between FT's and SQ line");
 		}
 		return features;
@@ -108,8 +108,8 @@ public class EntrezGene2RefseqFileParser extends TaxonAwareSingleLineFileRecordR
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		EntrezGene2RefseqFileData record = parseRecordFromLine(line);
-		return record.getTaxonID();
+		/* the taxon is the first column */
+		return new NcbiTaxonomyID(getTabColumn(line.getText(), 0));
 	}
 
 	
@@ -49,6 +49,7 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.common.ftp.FTPUtil.FileType;
+import edu.ucdenver.ccp.datasource.fileparsers.DelimitedColumnCursor;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdResolver;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
@@ -118,8 +119,8 @@ public class EntrezGeneInfoFileParser extends TaxonAwareSingleLineFileRecordRead
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		EntrezGeneInfoFileData record = parseGeneInfoLine(line);
-		return record.getTaxonID();
+		/* the taxon is the first column */
+		return new NcbiTaxonomyID(getTabColumn(line.getText(), 0));
 	}
 
 	/*
@@ -137,76 +138,50 @@ public class EntrezGeneInfoFileParser extends TaxonAwareSingleLineFileRecordRead
 	public static EntrezGeneInfoFileData parseGeneInfoLine(Line line) {
 		String lineText = line.getText();
 		// if (!lineText.startsWith(COMMENT_INDICATOR)) {
-		String[] toks = lineText.split("\\t");
-		if (toks.length != 15) {
-			logger.error("Unexpected number of tokens (" + toks.length + ") on line:"
+		DelimitedColumnCursor toks = new DelimitedColumnCursor('\t', false).reset(lineText);
+		if (toks.getColumnCount() != 15) {
+			logger.error("Unexpected number of tokens (" + toks.getColumnCount() + ") on line:"
 					+ lineText.replaceAll("\\t", " [TAB] "));
 		}
 
-		NcbiTaxonomyID taxonID = new NcbiTaxonomyID(toks[0]);
-		EntrezGeneID geneID = new EntrezGeneID(toks[1]);
-		String symbol = null;
-		if (!toks[2].equals("-")) {
-			symbol = new String(toks[2]);
-		}
-		String locusTag = toks[3];
-		if (locusTag.equals("-")) {
-			locusTag = null;
-		}
+		NcbiTaxonomyID taxonID = new NcbiTaxonomyID(toks.getColumn(0));
+		EntrezGeneID geneID = new EntrezGeneID(toks.getColumn(1));
+		String symbol = getColumnValue(toks, 2);
+		String locusTag = getColumnValue(toks, 3);
+		DelimitedColumnCursor subFields = new DelimitedColumnCursor('|', false);
 		Set<String> synonyms = new HashSet<String>();
-		if (!toks[4].equals("-")) {
-			for (String syn : toks[4].split("\\|"))
-				synonyms.add(new String(syn));
+		if (!toks.columnEquals(4, "-")) {
+			toks.subFields(4, subFields);
+			for (int i = 0; i < subFields.getColumnCount(); i++)
+				synonyms.add(subFields.getColumn(i));
 		}
 		Set<DataSourceIdentifier<?>> dbXrefs = new HashSet<DataSourceIdentifier<?>>();
-		if (!toks[5].equals("-")) {
-			for (String id : toks[5].split("\\|")) {
-				DataSourceIdentifier<?> resolveGeneID = DataSourceIdResolver.resolveId(id);
+		if (!toks.columnEquals(5, "-")) {
+			toks.subFields(5, subFields);
+			for (int i = 0; i < subFields.getColumnCount(); i++) {
+				DataSourceIdentifier<?> resolveGeneID = DataSourceIdResolver.resolveId(subFields.getColumn(i));
 				if (resolveGeneID != null) {
 					dbXrefs.add(resolveGeneID);
 				}
 			}
 		}
 		String chromosome = null;
-		if (!toks[6].equals("-") && !toks[6].equals("Unknown")) {
-			chromosome = new String(toks[6]);
-		}
-		String mapLocation = toks[7];
-		if (mapLocation.equals("-")) {
-			mapLocation = null;
-		}
-		String description = toks[8];
-		if (description.equals("-")) {
-			description = null;
-		}
-		String typeOfGene = toks[9];
-		if (typeOfGene.equals("-")) {
-			typeOfGene = null;
-		}
-		String symbolFromNomenclatureAuthority = null;
-		if (!toks[10].equals("-")) {
-			symbolFromNomenclatureAuthority = new String(toks[10]);
-		}
-		String fullNameFromNomenclatureAuthority = null;
-		if (!toks[11].equals("-")) {
-			fullNameFromNomenclatureAuthority = new String(toks[11]);
+		if (!toks.columnEquals(6, "-") && !toks.columnEquals(6, "Unknown")) {
+			chromosome = toks.getColumn(6);
 		}
-		String nomenclatureStatus = toks[12];
-		if (nomenclatureStatus.equals("-")) {
-			nomenclatureStatus = null;
-		}
-		Set<String> otherDesignations;
-		if (toks[13].equals("-")) {
-			otherDesignations = new HashSet<String>();
-		} else {
-			otherDesignations = new HashSet<String>();
-			for (String other : toks[13].split("\\|"))
-				otherDesignations.add(new String(other));
-		}
-		String modificationDate = toks[14];
-		if (modificationDate.equals("-")) {
-			modificationDate = null;
+		String mapLocation = getColumnValue(toks, 7);
+		String description = getColumnValue(toks, 8);
+		String typeOfGene = getColumnValue(toks, 9);
+		String symbolFromNomenclatureAuthority = getColumnValue(toks, 10);
+		String fullNameFromNomenclatureAuthority = getColumnValue(toks, 11);
+		String nomenclatureStatus = getColumnValue(toks, 12);
+		Set<String> otherDesignations = new HashSet<String>();
+		if (!toks.columnEquals(13, "-")) {
+			toks.subFields(13, subFields);
+			for (int i = 0; i < subFields.getColumnCount(); i++)
+				otherDesignations.add(subFields.getColumn(i));
 		}
+		String modificationDate = getColumnValue(toks, 14);
 		return new EntrezGeneInfoFileData(taxonID, geneID, symbol, locusTag, synonyms, dbXrefs, chromosome,
 				mapLocation, description, typeOfGene, symbolFromNomenclatureAuthority,
 				fullNameFromNomenclatureAuthority, nomenclatureStatus, otherDesignations, modificationDate,
@@ -218,6 +193,16 @@ public class EntrezGeneInfoFileParser extends TaxonAwareSingleLineFileRecordRead
 		// return null;
 	}
 
+	/**
+	 * @param toks
+	 * @param column
+	 * @return the value of the specified column, or null if the value is a hyphen (used to indicate
+	 *         a missing value in the gene_info file)
+	 */
+	private static String getColumnValue(DelimitedColumnCursor toks, int column) {
+		return (toks.columnEquals(column, "-")) ? null : toks.getColumn(column);
+	}
+
 	// /**
 	// * Returns a map from the gene symbol (3rd column in gene_info file) to the entrez gene id.
 	// *
@@ -46,9 +46,9 @@ import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.common.ftp.FTPUtil.FileType;
 import edu.ucdenver.ccp.datasource.fileparsers.download.FtpHost;
 import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdListFileFactory;
+import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdSet;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
-import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
 import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
 
 /**
@@ -65,7 +65,7 @@ public class EntrezGeneRefSeqUniprotKbCollabFileParser extends
 	public static final String FTP_FILE_NAME = "gene_refseq_uniprotkb_collab.gz";
 	public static final CharacterEncoding ENCODING = CharacterEncoding.US_ASCII;
 
-	private final Set<UniProtID> taxonSpecificIds;
+	private final IdSet taxonSpecificIds;
 
 	@FtpDownload(server = FtpHost.ENTREZGENE_HOST, path = FtpHost.ENTREZGENE_PATH, filename = FTP_FILE_NAME, filetype = FileType.BINARY)
 	private File geneRefseqUniprotKbCollabFile;
@@ -84,15 +84,13 @@ public class EntrezGeneRefSeqUniprotKbCollabFileParser extends
 	public EntrezGeneRefSeqUniprotKbCollabFileParser(File gene2PubmedFile, CharacterEncoding encoding,
 			File idListDirectory, Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(gene2PubmedFile, encoding, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
 	}
 
 	public EntrezGeneRefSeqUniprotKbCollabFileParser(File workDirectory, boolean clean, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(workDirectory, ENCODING, null, null, null, clean, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
 	}
 
 	@Override
@@ -119,8 +117,9 @@ public class EntrezGeneRefSeqUniprotKbCollabFileParser extends
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		EntrezGeneRefSeqUniprotKbCollabFileData record = parseRecordFromLine(line);
-		if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty() && taxonSpecificIds.contains(record.getUniprotId())) {
+		EntrezGeneRefSeqUniprotKbCollabFileData record = getRecord(line);
+		if (taxonSpecificIds != null && taxonSpecificIds.size() > 0 && record.getUniprotId() != null
+				&& taxonSpecificIds.contains(record.getUniprotId().getDataElement())) {
 			// here we have matched the record uniprot id as one of the ids of interest. We don't
 			// know exactly what taxon it is however so we just return one (arbitrarily) of the
 			// taxon ids of interest. this will ensure this record is returned.
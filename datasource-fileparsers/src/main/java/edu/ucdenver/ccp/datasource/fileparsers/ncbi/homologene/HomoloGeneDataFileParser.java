@@ -93,8 +93,8 @@ public class HomoloGeneDataFileParser extends TaxonAwareSingleLineFileRecordRead
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		HomoloGeneDataFileData record = parseRecordFromLine(line);
-		return record.getTaxonomyID();
+		/* the taxon is the second column */
+		return new NcbiTaxonomyID(getTabColumn(line.getText(), 1));
 	}
 
 	@Override
@@ -82,6 +82,24 @@ public class RefSeqReleaseCatalogFileParser extends TaxonAwareSingleLineFileReco
 		super(workDirectory, ENCODING, null, null, null, clean, taxonIds);
 	}
 
+	/**
+	 * @return the downloaded data file if this reader was constructed using the download
+	 *         constructor, otherwise the file specified at construction
+	 */
+	@Override
+	public File getDataFile() {
+		return (refseqReleaseCatalogFile != null) ? refseqReleaseCatalogFile : super.getDataFile();
+	}
+
+	/**
+	 * Each catalog line is parsed on its own and the taxon is read from its first column, so the
+	 * reader can be repositioned at any line if its data file is known.
+	 */
+	@Override
+	public boolean isSeekable() {
+		return getDataFile() != null;
+	}
+
 	@Override
 	protected StreamLineReader initializeLineReaderFromDownload(CharacterEncoding encoding, String skipLinePrefix)
 			throws IOException {
@@ -96,8 +114,8 @@ public class RefSeqReleaseCatalogFileParser extends TaxonAwareSingleLineFileReco
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		RefSeqReleaseCatalogFileData record = parseRecordFromLine(line);
-		return record.getTaxId();
+		/* the taxon is the first column */
+		return new NcbiTaxonomyID(getTabColumn(line.getText(), 0));
 	}
 
 }
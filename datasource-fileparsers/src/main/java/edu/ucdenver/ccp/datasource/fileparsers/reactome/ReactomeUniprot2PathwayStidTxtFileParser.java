@@ -49,9 +49,9 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineReader;
 import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdListFileFactory;
+import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdSet;
 import edu.ucdenver.ccp.datasource.fileparsers.taxonaware.TaxonAwareSingleLineFileRecordReader;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
-import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
 import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
 import edu.ucdenver.ccp.datasource.identifiers.reactome.ReactomeReactionID;
 
@@ -67,7 +67,7 @@ public class ReactomeUniprot2PathwayStidTxtFileParser extends
 
 	public static final CharacterEncoding ENCODING = CharacterEncoding.UTF_8;
 
-	private final Set<UniProtID> taxonSpecificIds;
+	private final IdSet taxonSpecificIds;
 
 	@HttpDownload(url = "http://www.reactome.org/download/current/UniProt2Reactome.txt")
 	private File uniprot2pathwaysStidTxtFile;
@@ -87,8 +87,7 @@ public class ReactomeUniprot2PathwayStidTxtFileParser extends
 	public ReactomeUniprot2PathwayStidTxtFileParser(File file, CharacterEncoding encoding, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(file, encoding, null, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
 		logger.info("Loaded " + ((taxonIds == null) ? "0" : taxonSpecificIds.size())
 				+ " taxon specific ids for taxon(s): " + ((taxonIds == null) ? "none specified" : taxonIds.toString()));
 	}
@@ -96,8 +95,7 @@ public class ReactomeUniprot2PathwayStidTxtFileParser extends
 	public ReactomeUniprot2PathwayStidTxtFileParser(File workDirectory, boolean clean, File idListDirectory,
 			Set<NcbiTaxonomyID> taxonIds) throws IOException {
 		super(workDirectory, ENCODING, null, null, null, clean, taxonIds);
-		taxonSpecificIds = IdListFileFactory.getIdListFromFile(idListDirectory, DataSource.UNIPROT, taxonIds,
-				UniProtID.class);
+		taxonSpecificIds = IdListFileFactory.getIdSetFromFile(idListDirectory, DataSource.UNIPROT, taxonIds);
 		logger.info("Loaded " + ((taxonIds == null) ? "0" : taxonSpecificIds.size())
 				+ " taxon specific ids for taxon(s): " + ((taxonIds == null) ? "none specified" : taxonIds.toString()));
 	}
@@ -110,11 +108,12 @@ public class ReactomeUniprot2PathwayStidTxtFileParser extends
 
 	@Override
 	protected NcbiTaxonomyID getLineTaxon(Line line) {
-		ReactomeUniprot2PathwayStidTxtFileData record = parseRecordFromLine(line);
+		ReactomeUniprot2PathwayStidTxtFileData record = getRecord(line);
 		if (record == null) {
 			return null;
 		}
-		if (taxonSpecificIds != null && !taxonSpecificIds.isEmpty() && taxonSpecificIds.contains(record.getUniprotID())) {
+		if (taxonSpecificIds != null && taxonSpecificIds.size() > 0 && record.getUniprotID() != null
+				&& taxonSpecificIds.contains(record.getUniprotID().getDataElement())) {
 			// here we have matched the record uniprot id as one of the ids of
 			// interest. We don't
 			// know exactly what taxon it is however so we just return one
@@ -0,0 +1,231 @@
+package edu.ucdenver.ccp.datasource.fileparsers.snomed;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * A map from SNOMED CT identifiers (SCTIDs) to int values, e.g. term ordinals or effective times,
+ * that stores its keys and values in primitive arrays (open addressing with linear probing) so
+ * that the hundreds of thousands of identifiers of a release can be indexed without a String and
+ * an Integer per identifier.
+ * <p>
+ * SCTIDs are positive integers of at most 18 digits, so they are stored as longs.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+final class SctIdMap {
+
+	private static final long EMPTY_KEY = -1;
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int size = 0;
+
+	/**
+	 * @param expectedSize
+	 *            the expected number of identifiers
+	 */
+	SctIdMap(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2L && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * @param sctId
+	 * @param defaultValue
+	 * @return the value of the specified identifier, or the default value if the identifier is not
+	 *         in the map
+	 */
+	int get(long sctId, int defaultValue) {
+		if (sctId < 0) {
+			return defaultValue;
+		}
+		int slot = findSlot(sctId);
+		return (keys[slot] == sctId) ? values[slot] : defaultValue;
+	}
+
+	boolean containsKey(long sctId) {
+		return sctId >= 0 && keys[findSlot(sctId)] == sctId;
+	}
+
+	/**
+	 * @param sctId
+	 * @param value
+	 * @throws IllegalArgumentException
+	 *             if the identifier is negative
+	 */
+	void put(long sctId, int value) {
+		if (sctId < 0) {
+			throw new IllegalArgumentException("Invalid SNOMED CT identifier: " + sctId);
+		}
+		int slot = findSlot(sctId);
+		if (keys[slot] == sctId) {
+			values[slot] = value;
+			return;
+		}
+		keys[slot] = sctId;
+		values[slot] = value;
+		if (++size * 4L > keys.length * 3L) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * @param sctId
+	 * @return true if the identifier was in the map
+	 */
+	boolean remove(long sctId) {
+		if (sctId < 0) {
+			return false;
+		}
+		int gap = findSlot(sctId);
+		if (keys[gap] != sctId) {
+			return false;
+		}
+		/* move the entries that follow the removed one back so that probing does not stop early */
+		for (int slot = (gap + 1) & mask; keys[slot] != EMPTY_KEY; slot = (slot + 1) & mask) {
+			int home = hash(keys[slot]);
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		keys[gap] = EMPTY_KEY;
+		size--;
+		return true;
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param sctId
+	 *            the identifier text, e.g. a column of an RF2 file
+	 * @return the value of the identifier, or -1 if it is not an SCTID, i.e. not a positive integer
+	 *         of at most 18 digits
+	 */
+	static long parseSctId(CharSequence sctId) {
+		return parseSctId(sctId, 0, sctId.length());
+	}
+
+	/**
+	 * @param text
+	 * @param start
+	 * @param end
+	 * @return the value of the identifier in the specified range of the text, or -1 if it is not an
+	 *         SCTID, see {@link #parseSctId(CharSequence)}
+	 */
+	static long parseSctId(CharSequence text, int start, int end) {
+		if (end <= start || end - start > 18 || text.charAt(start) == '0') {
+			return -1;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * @param bytes
+	 *            e.g. a line of an RF2 file, which is UTF-8 encoded
+	 * @param start
+	 * @param end
+	 * @return the value of the identifier in the specified range of bytes, or -1 if it is not an
+	 *         SCTID, see {@link #parseSctId(CharSequence)}
+	 */
+	static long parseSctId(byte[] bytes, int start, int end) {
+		if (end <= start || end - start > 18 || bytes[start] == '0') {
+			return -1;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			byte b = bytes[i];
+			if (b < '0' || b > '9') {
+				return -1;
+			}
+			value = value * 10 + (b - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * @return the slot of the identifier, or the empty slot at which it would be inserted
+	 */
+	private int findSlot(long sctId) {
+		int slot = hash(sctId);
+		while (keys[slot] != sctId && keys[slot] != EMPTY_KEY) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private int hash(long sctId) {
+		long h = sctId * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY_KEY);
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != EMPTY_KEY) {
+				int slot = findSlot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+}
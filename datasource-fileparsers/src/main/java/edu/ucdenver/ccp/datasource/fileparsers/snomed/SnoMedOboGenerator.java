@@ -36,9 +36,11 @@ package edu.ucdenver.ccp.datasource.fileparsers.snomed;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
 import lombok.Data;
@@ -51,7 +53,6 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileWriterUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
-import edu.ucdenver.ccp.common.string.StringUtil;
 import edu.ucdenver.ccp.datasource.fileparsers.snomed.SnomedRf2DescriptionFileRecord.DescriptionType;
 
 /**
@@ -64,45 +65,45 @@ public class SnoMedOboGenerator {
 
 	private static final Logger logger = Logger.getLogger(SnoMedOboGenerator.class);
 
+	/**
+	 * the SCTID of the is_a relationship type
+	 */
+	private static final String IS_A_TYPE_ID = "116680003";
+
 	public static void generateObo(File snomedConceptFile, File snomedDescriptionFile, File snomedRelationFile,
 			File outputOboFile, Set<String> rootNodesToInclude) throws IOException {
-		Map<String, Term> conceptIdToTermMap = new HashMap<String, Term>();
-		initConceptTerms(conceptIdToTermMap, snomedConceptFile);
-		addNamesAndSynonymsToTerms(conceptIdToTermMap, snomedDescriptionFile);
-		addRelationsBetweenTerms(conceptIdToTermMap, snomedRelationFile);
-		outputTermsToFile(conceptIdToTermMap, outputOboFile, rootNodesToInclude);
+		TermIndex termIndex = initConceptTerms(snomedConceptFile);
+		addNamesAndSynonymsToTerms(termIndex, snomedDescriptionFile);
+		addRelationsBetweenTerms(termIndex, snomedRelationFile);
+		outputTermsToFile(termIndex, outputOboFile, rootNodesToInclude);
 	}
 
 	/**
-	 * @param conceptIdToTermMap
+	 * @param termIndex
 	 * @param snomedRelationFile
 	 * @throws IOException
 	 */
-	private static void addRelationsBetweenTerms(Map<String, Term> conceptIdToTermMap, File snomedRelationFile)
-			throws IOException {
+	private static void addRelationsBetweenTerms(TermIndex termIndex, File snomedRelationFile) throws IOException {
 		for (SnomedRf2RelationshipFileRecordReader rr = new SnomedRf2RelationshipFileRecordReader(snomedRelationFile); rr
 				.hasNext();) {
 			SnomedRf2RelationshipFileRecord record = rr.next();
 
-			String sourceConceptId = record.getSourceConceptId();
-			String destinationConceptId = record.getDestinationConceptId();
-			String relationshipTypeId = record.getTypeId();
-
-			if (record.isActive() && conceptIdToTermMap.containsKey(sourceConceptId)
-					&& conceptIdToTermMap.containsKey(destinationConceptId)) {
-				if (relationshipTypeId.equals("116680003")) { // then it's an is_a
-					conceptIdToTermMap.get(sourceConceptId).addParent(conceptIdToTermMap.get(destinationConceptId));
+			if (record.isActive() && IS_A_TYPE_ID.equals(record.getTypeId())) {
+				int sourceOrdinal = termIndex.getOrdinal(record.getSourceConceptId());
+				int destinationOrdinal = termIndex.getOrdinal(record.getDestinationConceptId());
+				if (sourceOrdinal >= 0 && destinationOrdinal >= 0) {
+					termIndex.addParent(sourceOrdinal, destinationOrdinal);
 				}
 			}
 		}
 	}
 
 	/**
-	 * @param conceptIdToTermMap
+	 * @param termIndex
 	 * @param snomedDescriptionFile
 	 * @throws IOException
 	 */
-	private static void addNamesAndSynonymsToTerms(Map<String, Term> conceptIdToTermMap, File snomedDescriptionFile)
+	private static void addNamesAndSynonymsToTerms(TermIndex termIndex, File snomedDescriptionFile)
 			throws IOException {
 		for (SnomedRf2DescriptionFileRecordReader rr = new SnomedRf2DescriptionFileRecordReader(snomedDescriptionFile); rr
 				.hasNext();) {
@@ -113,28 +114,29 @@ public class SnoMedOboGenerator {
 			String termDescription = record.getTerm();
 
 			if (record.isActive()) {
-				if (conceptIdToTermMap.containsKey(conceptId)) {
+				Term term = termIndex.getTerm(conceptId);
+				if (term != null) {
 					if (type.equals(DescriptionType.FULLY_SPECIFIED_NAME)) {
-						conceptIdToTermMap.get(conceptId).setName(termDescription);
+						term.setName(termDescription);
 					} else if (type.equals(DescriptionType.SYNONYM)) {
-						conceptIdToTermMap.get(conceptId).addSynonym(termDescription);
+						term.addSynonym(termDescription);
 					} else {
 						throw new IllegalStateException("Code does not handle description of type: " + type.name());
 					}
 				} else {
-					logger.warn("Description: Concept identifier not present in conceptIdToTermMap: " + conceptId);
+					logger.warn("Description: Concept identifier not present in the concept file: " + conceptId);
 				}
 			}
 		}
 	}
 
 	/**
-	 * @param conceptIdToTermMap
 	 * @param snomedConceptFile
+	 * @return the index of the active concepts
 	 * @throws IOException
 	 */
-	private static void initConceptTerms(Map<String, Term> conceptIdToTermMap, File snomedConceptFile)
-			throws IOException {
+	private static TermIndex initConceptTerms(File snomedConceptFile) throws IOException {
+		TermIndex termIndex = new TermIndex();
 		for (SnomedRf2ConceptFileRecordReader rr = new SnomedRf2ConceptFileRecordReader(snomedConceptFile); rr
 				.hasNext();) {
 			SnomedRf2ConceptFileRecord record = rr.next();
@@ -142,9 +144,10 @@ public class SnoMedOboGenerator {
 			String conceptId = record.getConceptId();
 			String effectiveTime = record.getEffectiveTime();
 			boolean isActive = record.isActive();
+			Term t = termIndex.getTerm(conceptId);
 			if (isActive) {
-				if (!conceptIdToTermMap.containsKey(conceptId)) {
-					conceptIdToTermMap.put(conceptId, new Term("SNOMED:" + conceptId, effectiveTime));
+				if (t == null) {
+					termIndex.addTerm(conceptId, new Term("SNOMED:" + conceptId, effectiveTime));
 				} else {
 					logger.warn("Duplicate concept id detected: " + conceptId);
 				}
@@ -152,34 +155,35 @@ public class SnoMedOboGenerator {
 				// if the concept id is not active and the effective date is after the effective
 				// date for a term already in the hash with the same concept id, then we need to
 				// remove the term already in the hash b/c it was inactivated
-				if (conceptIdToTermMap.containsKey(conceptId)) {
-					Term t = conceptIdToTermMap.get(conceptId);
-					if (t.hasEffectiveDateEqualToOrBefore(record.getEffectiveTime())) {
-						conceptIdToTermMap.remove(conceptId);
-					}
+				if (t != null && t.hasEffectiveDateEqualToOrBefore(record.getEffectiveTime())) {
+					termIndex.removeTerm(conceptId);
 				}
 			}
 		}
-
+		return termIndex;
 	}
 
 	/**
-	 * @param conceptIdToTermMap
+	 * @param termIndex
 	 * @param outputOboFile
+	 * @param rootNodesToInclude
+	 *            the concept identifiers of the roots of the hierarchies to output; if null all
+	 *            terms are output
 	 * @throws IOException
 	 */
-	private static void outputTermsToFile(Map<String, Term> conceptIdToTermMap, File outputOboFile,
-			Set<String> rootNodesToInclude) throws IOException {
+	private static void outputTermsToFile(TermIndex termIndex, File outputOboFile, Set<String> rootNodesToInclude)
+			throws IOException {
+		BitSet termsToInclude = (rootNodesToInclude == null) ? null : termIndex
+				.getRootsAndDescendants(rootNodesToInclude);
 		BufferedWriter writer = FileWriterUtil.initBufferedWriter(outputOboFile, CharacterEncoding.UTF_8,
 				WriteMode.OVERWRITE, FileSuffixEnforcement.OFF);
-		// System.out.println("Sample Term ID: " +
-		// conceptIdToTermMap.entrySet().iterator().next().getKey());
 		try {
-			for (Term term : conceptIdToTermMap.values()) {
-				// System.out.println("Term ID: " + term);
-				System.out.println(isChildOfRootNode(term, rootNodesToInclude, conceptIdToTermMap));
-				if (rootNodesToInclude == null || isChildOfRootNode(term, rootNodesToInclude, conceptIdToTermMap)
-						|| term.getId().equals("SNOMED:138875005")) {
+			for (int ordinal = 0; ordinal < termIndex.getOrdinalCount(); ordinal++) {
+				Term term = termIndex.getTerm(ordinal);
+				if (term == null) {
+					continue;
+				}
+				if (termsToInclude == null || termsToInclude.get(ordinal) || term.getId().equals("SNOMED:138875005")) {
 					writer.write(term.toOboString());
 				}
 			}
@@ -190,27 +194,120 @@ public class SnoMedOboGenerator {
 	}
 
 	/**
-	 * @param id
-	 * @param rootNodesToInclude
-	 * @param conceptIdToTermMap
-	 * @return
+	 * The active concepts, numbered in the order in which they were added, with their concept
+	 * identifiers indexed in an {@link SctIdMap}, and the is_a relations between them. Whether a
+	 * concept is a descendant of a root is computed for all concepts in a single traversal of the
+	 * hierarchy (see {@link #getRootsAndDescendants(Set)}); the SNOMED CT hierarchy is a
+	 * polyhierarchy, so walking up the parents of each concept in turn visits the same ancestors
+	 * over and over.
 	 */
-	private static boolean isChildOfRootNode(Term term, Set<String> rootNodesToInclude,
-			Map<String, Term> conceptIdToTermMap) {
-		String id = StringUtil.removePrefix(term.getId(), "SNOMED:");
-		if (rootNodesToInclude.contains(id)) {
-			System.out.println("is root node!!!! " + id);
-			return true;
+	private static final class TermIndex {
+
+		private final SctIdMap conceptIdToOrdinal = new SctIdMap(1 << 16);
+		/**
+		 * the terms indexed by ordinal; null for terms that have been removed
+		 */
+		private final List<Term> terms = new ArrayList<Term>();
+		/**
+		 * the is_a relations, as pairs of child and parent ordinals
+		 */
+		private int[] childOrdinals = new int[1024];
+		private int[] parentOrdinals = new int[1024];
+		private int relationCount = 0;
+
+		/**
+		 * @param conceptId
+		 * @return the ordinal of the term of the specified concept, or -1 if there is none
+		 */
+		private int getOrdinal(String conceptId) {
+			return conceptIdToOrdinal.get(SctIdMap.parseSctId(conceptId), -1);
 		}
-		if (term.getParentTerms() != null) {
-			for (Term parentTerm : term.getParentTerms()) {
-				if (isChildOfRootNode(parentTerm, rootNodesToInclude, conceptIdToTermMap)) {
-					return true;
-				}
+
+		private Term getTerm(String conceptId) {
+			int ordinal = getOrdinal(conceptId);
+			return (ordinal < 0) ? null : terms.get(ordinal);
+		}
+
+		private Term getTerm(int ordinal) {
+			return terms.get(ordinal);
+		}
+
+		private int getOrdinalCount() {
+			return terms.size();
+		}
+
+		/**
+		 * @throws IllegalArgumentException
+		 *             if the concept identifier is not an SCTID
+		 */
+		private void addTerm(String conceptId, Term term) {
+			long sctId = SctIdMap.parseSctId(conceptId);
+			if (sctId < 0) {
+				throw new IllegalArgumentException("Invalid SNOMED CT concept identifier: " + conceptId);
+			}
+			conceptIdToOrdinal.put(sctId, terms.size());
+			terms.add(term);
+		}
+
+		private void removeTerm(String conceptId) {
+			long sctId = SctIdMap.parseSctId(conceptId);
+			terms.set(conceptIdToOrdinal.get(sctId, -1), null);
+			conceptIdToOrdinal.remove(sctId);
+		}
+
+		private void addParent(int childOrdinal, int parentOrdinal) {
+			terms.get(childOrdinal).addParent(terms.get(parentOrdinal));
+			if (relationCount == childOrdinals.length) {
+				childOrdinals = Arrays.copyOf(childOrdinals, relationCount * 2);
+				parentOrdinals = Arrays.copyOf(parentOrdinals, relationCount * 2);
 			}
+			childOrdinals[relationCount] = childOrdinal;
+			parentOrdinals[relationCount] = parentOrdinal;
+			relationCount++;
 		}
 
-		return false;
+		/**
+		 * @param rootConceptIds
+		 * @return the ordinals of the terms of the specified root concepts and of all of their
+		 *         descendants, found by a breadth-first traversal that visits each term once
+		 */
+		private BitSet getRootsAndDescendants(Set<String> rootConceptIds) {
+			/* the children of each term, stored contiguously by parent ordinal */
+			int ordinalCount = terms.size();
+			int[] childrenStart = new int[ordinalCount + 1];
+			for (int i = 0; i < relationCount; i++) {
+				childrenStart[parentOrdinals[i] + 1]++;
+			}
+			for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+				childrenStart[ordinal + 1] += childrenStart[ordinal];
+			}
+			int[] children = new int[relationCount];
+			int[] nextChild = Arrays.copyOf(childrenStart, ordinalCount);
+			for (int i = 0; i < relationCount; i++) {
+				children[nextChild[parentOrdinals[i]]++] = childOrdinals[i];
+			}
+
+			BitSet visited = new BitSet(ordinalCount);
+			int[] queue = new int[ordinalCount];
+			int queueEnd = 0;
+			for (String rootConceptId : rootConceptIds) {
+				int ordinal = getOrdinal(rootConceptId);
+				if (ordinal >= 0 && !visited.get(ordinal)) {
+					visited.set(ordinal);
+					queue[queueEnd++] = ordinal;
+				}
+			}
+			for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+				int parentOrdinal = queue[queueStart];
+				for (int i = childrenStart[parentOrdinal]; i < childrenStart[parentOrdinal + 1]; i++) {
+					if (!visited.get(children[i])) {
+						visited.set(children[i]);
+						queue[queueEnd++] = children[i];
+					}
+				}
+			}
+			return visited;
+		}
 	}
 
 	@Data
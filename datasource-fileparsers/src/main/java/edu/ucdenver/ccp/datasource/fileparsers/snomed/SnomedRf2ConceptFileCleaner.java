@@ -33,196 +33,400 @@ package edu.ucdenver.ccp.datasource.fileparsers.snomed;
  * #L%
  */
 
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.BasicConfigurator;
-
-import edu.ucdenver.ccp.common.file.CharacterEncoding;
-import edu.ucdenver.ccp.common.file.FileWriterUtil;
-import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
-import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
-import edu.ucdenver.ccp.common.file.reader.Line;
-import edu.ucdenver.ccp.common.file.reader.StreamLineIterator;
-import edu.ucdenver.ccp.common.string.RegExPatterns;
+import org.apache.log4j.Logger;
 
 /**
  * Removes concepts that have been inactivated
+ * <p>
+ * Each RF2 file is read twice. The first pass records, for each identifier, the latest effective
+ * time at which it was active and the latest effective time at which it was inactive. The second
+ * pass writes the lines of the identifiers that are active in the release, i.e. whose latest
+ * active effective time is not older than their latest inactive effective time, that have the
+ * latest active effective time. Identifiers and effective times are stored as primitives (see
+ * {@link SctIdMap}), and lines are read as bytes and written as they are read, so that neither
+ * pass creates a String per line.
  * 
  * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
  * 
  */
 public class SnomedRf2ConceptFileCleaner {
 
-	public static void cleanConceptFile(File inputFile, File outputFile) throws IOException {
-		System.out.println("Cleaning concept file...");
-		Map<String, String> idToActiveDate = new HashMap<String, String>();
-		Map<String, String> idToInActiveDate = new HashMap<String, String>();
-
-		for (SnomedRf2ConceptFileRecordReader rr = new SnomedRf2ConceptFileRecordReader(inputFile); rr.hasNext();) {
-			SnomedRf2ConceptFileRecord record = rr.next();
-			String lineId = record.getConceptId();
-			boolean isActive = record.isActive();
-			String effectiveTime = record.getEffectiveTime();
+	private static final Logger logger = Logger.getLogger(SnomedRf2ConceptFileCleaner.class);
 
-			updateActiveHashes(idToActiveDate, idToInActiveDate, lineId, isActive, effectiveTime);
-		}
-
-		generateCleanFile(inputFile, outputFile, idToActiveDate, idToInActiveDate);
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final int BUFFER_SIZE = 1 << 16;
+	/**
+	 * effective times are yyyymmdd dates, so a map value of -1 means that there is no time
+	 */
+	private static final int NO_TIME = -1;
+	/**
+	 * a rough estimate of the number of bytes of an RF2 file per distinct identifier, used to presize
+	 * the identifier maps (which grow as needed)
+	 */
+	private static final int BYTES_PER_ID = 256;
 
+	public static void cleanConceptFile(File inputFile, File outputFile) throws IOException {
+		logger.info("Cleaning concept file...");
+		cleanFile(inputFile, outputFile, SnomedRf2ConceptFileRecordReader.HEADER, 5);
 	}
 
 	public static void cleanDescriptionFile(File inputFile, File outputFile) throws IOException {
-		System.out.println("Cleaning description file...");
-		Map<String, String> idToActiveDate = new HashMap<String, String>();
-		Map<String, String> idToInActiveDate = new HashMap<String, String>();
-
-		for (SnomedRf2DescriptionFileRecordReader rr = new SnomedRf2DescriptionFileRecordReader(inputFile); rr
-				.hasNext();) {
-			SnomedRf2DescriptionFileRecord record = rr.next();
-			String lineId = record.getDescriptionId();
-			boolean isActive = record.isActive();
-			String effectiveTime = record.getEffectiveTime();
-
-			updateActiveHashes(idToActiveDate, idToInActiveDate, lineId, isActive, effectiveTime);
-		}
-
-		generateCleanFile(inputFile, outputFile, idToActiveDate, idToInActiveDate);
-
+		logger.info("Cleaning description file...");
+		cleanFile(inputFile, outputFile, SnomedRf2DescriptionFileRecordReader.HEADER, 9);
 	}
 
 	public static void cleanRelationshipFile(File inputFile, File outputFile) throws IOException {
-		System.out.println("Cleaning relationship file...");
-		Map<String, String> idToActiveDate = new HashMap<String, String>();
-		Map<String, String> idToInActiveDate = new HashMap<String, String>();
-
-		for (SnomedRf2RelationshipFileRecordReader rr = new SnomedRf2RelationshipFileRecordReader(inputFile); rr
-				.hasNext();) {
-			SnomedRf2RelationshipFileRecord record = rr.next();
-			String lineId = record.getRelationshipId();
-			boolean isActive = record.isActive();
-			String effectiveTime = record.getEffectiveTime();
-
-			updateActiveHashes(idToActiveDate, idToInActiveDate, lineId, isActive, effectiveTime);
-			
-		}
-
-//		for (Entry<String, String> entry : idToActiveDate.entrySet()) {
-//			System.out.println("ACTIVE: " + entry.getKey() + " -- " + entry.getValue());
-//		}
-//		
-//		for (Entry<String, String> entry : idToInActiveDate.entrySet()) {
-//			System.out.println("INACTIVE: " + entry.getKey() + " -- " + entry.getValue());
-//		}
-		
-		generateCleanFile(inputFile, outputFile, idToActiveDate, idToInActiveDate);
+		logger.info("Cleaning relationship file...");
+		cleanFile(inputFile, outputFile, SnomedRf2RelationshipFileRecordReader.HEADER, 10);
 	}
 
 	/**
-	 * @param idToActiveDate
-	 * @param idToInActiveDate
-	 * @param lineId
-	 * @param isActive
-	 * @param lineTime
+	 * Cleans the concept, description and relationship files concurrently
+	 * 
+	 * @param conceptFile
+	 * @param cleanedConceptFile
+	 * @param descriptionFile
+	 * @param cleanedDescriptionFile
+	 * @param relationshipFile
+	 * @param cleanedRelationshipFile
+	 * @throws IOException
 	 */
-	private static void updateActiveHashes(Map<String, String> idToActiveDate, Map<String, String> idToInActiveDate,
-			String lineId, boolean isActive, String lineTime) {
-		
-//		System.out.println("Updating hashes: " + lineId + " isActive: " +isActive + " time: " + lineTime);
-		
-		if (isActive) {
-			if (idToActiveDate.containsKey(lineId)) {
-				String activeTime = idToActiveDate.get(lineId);
-				if (timeIsEqualToOrGreaterThan(lineTime, activeTime)) {
-					idToActiveDate.remove(lineId);
-					idToActiveDate.put(lineId, lineTime);
-				}
-			} else {
-				idToActiveDate.put(lineId, lineTime);
+	public static void cleanFiles(final File conceptFile, final File cleanedConceptFile, final File descriptionFile,
+			final File cleanedDescriptionFile, final File relationshipFile, final File cleanedRelationshipFile)
+			throws IOException {
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		tasks.add(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				cleanConceptFile(conceptFile, cleanedConceptFile);
+				return null;
+			}
+		});
+		tasks.add(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				cleanDescriptionFile(descriptionFile, cleanedDescriptionFile);
+				return null;
 			}
-		} else {
-			if (idToInActiveDate.containsKey(lineId)) {
-//				System.out.println("Updating inactive for " + lineId);
-				String storedInactiveTime = idToInActiveDate.get(lineId);
-				if (timeIsEqualToOrGreaterThan(lineTime, storedInactiveTime)) {
-					idToInActiveDate.remove(lineId);
-					idToInActiveDate.put(lineId, lineTime);
+		});
+		tasks.add(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				cleanRelationshipFile(relationshipFile, cleanedRelationshipFile);
+				return null;
+			}
+		});
+		ExecutorService threadPool = Executors.newFixedThreadPool(tasks.size());
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (Callable<Void> task : tasks) {
+				futures.add(threadPool.submit(task));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while cleaning SNOMED RF2 files.", e);
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof IOException) {
+						throw (IOException) e.getCause();
+					}
+					throw new IllegalStateException("Error while cleaning SNOMED RF2 files.", e.getCause());
 				}
-			} else {
-				idToInActiveDate.put(lineId, lineTime);
 			}
+		} finally {
+			threadPool.shutdownNow();
 		}
-		
-		
-		
 	}
 
 	/**
 	 * @param inputFile
 	 * @param outputFile
-	 * @param idToActiveDate
-	 * @param idToInActiveDate
-	 * @throws FileNotFoundException
+	 * @param expectedHeader
+	 *            the header of the RF2 file, see e.g.
+	 *            {@link SnomedRf2ConceptFileRecordReader#HEADER}
+	 * @param columnCount
+	 *            the number of columns of the RF2 file; lines with a different number of columns
+	 *            are ignored, as they are by the record readers
 	 * @throws IOException
 	 */
-	private static void generateCleanFile(File inputFile, File outputFile, Map<String, String> idToActiveDate,
-			Map<String, String> idToInActiveDate) throws FileNotFoundException, IOException {
-		BufferedWriter writer = FileWriterUtil.initBufferedWriter(outputFile, CharacterEncoding.UTF_8,
-				WriteMode.OVERWRITE, FileSuffixEnforcement.OFF);
+	private static void cleanFile(File inputFile, File outputFile, String expectedHeader, int columnCount)
+			throws IOException {
+		int expectedSize = (int) Math.min(inputFile.length() / BYTES_PER_ID, Integer.MAX_VALUE / 4);
+		SctIdMap idToActiveTime = new SctIdMap(expectedSize);
+		SctIdMap idToInactiveTime = new SctIdMap(expectedSize / 8);
+		recordEffectiveTimes(inputFile, expectedHeader, columnCount, idToActiveTime, idToInactiveTime);
+		generateCleanFile(inputFile, outputFile, columnCount, idToActiveTime, idToInactiveTime);
+	}
 
+	/**
+	 * Records the latest active and the latest inactive effective time of each identifier
+	 */
+	private static void recordEffectiveTimes(File inputFile, String expectedHeader, int columnCount,
+			SctIdMap idToActiveTime, SctIdMap idToInactiveTime) throws IOException {
+		Rf2LineReader reader = new Rf2LineReader(new FileInputStream(inputFile));
 		try {
-			for (StreamLineIterator iter = new StreamLineIterator(inputFile, CharacterEncoding.UTF_8); iter.hasNext();) {
-				Line line = iter.next();
-				String lineText = line.getText();
-				if (line.getLineNumber() == 0) {
-					writer.write(lineText);
-					writer.newLine();
+			validateFileHeader(reader, expectedHeader, inputFile);
+			int ignoredLineCount = 0;
+			while (reader.readLine()) {
+				byte[] line = reader.getLine();
+				int length = reader.getLength();
+				if (countTabs(line, length) != columnCount - 1) {
+					ignoredLineCount++;
 					continue;
 				}
-				String lineId = line.getText().split(RegExPatterns.TAB)[0];
-				String lineTime = line.getText().split(RegExPatterns.TAB)[1];
-
-				String activeTime = idToActiveDate.get(lineId);
-				String inactiveTime = idToInActiveDate.get(lineId);
+				int idEnd = indexOfTab(line, 0, length);
+				int timeEnd = indexOfTab(line, idEnd + 1, length);
+				int activeEnd = indexOfTab(line, timeEnd + 1, length);
+				long id = parseId(line, idEnd, reader, inputFile);
+				int time = parseEffectiveTime(line, idEnd + 1, timeEnd, reader, inputFile);
+				boolean isActive = activeEnd - timeEnd == 2 && line[timeEnd + 1] == '1';
+				SctIdMap idToTime = (isActive) ? idToActiveTime : idToInactiveTime;
+				if (time > idToTime.get(id, NO_TIME)) {
+					idToTime.put(id, time);
+				}
+			}
+			if (ignoredLineCount > 0) {
+				logger.warn("Ignored " + ignoredLineCount + " lines with an unexpected number of columns (expected "
+						+ columnCount + ") in file: " + inputFile.getAbsolutePath());
+			}
+		} finally {
+			reader.close();
+		}
+	}
 
-				if (activeTime == null) {
-					System.out.println("Null active time: " + lineId);
+	/**
+	 * Writes the header, and the lines of active identifiers that have the latest active effective
+	 * time, to the output file. Only the identifier and effective time of each line are parsed; the
+	 * line itself is copied from the input file.
+	 */
+	private static void generateCleanFile(File inputFile, File outputFile, int columnCount,
+			SctIdMap idToActiveTime, SctIdMap idToInactiveTime) throws IOException {
+		byte[] lineSeparator = System.getProperty("line.separator").getBytes(UTF_8);
+		Rf2LineReader reader = new Rf2LineReader(new FileInputStream(inputFile));
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile), BUFFER_SIZE);
+		try {
+			if (reader.readLine()) {
+				out.write(reader.getLine(), 0, reader.getLength());
+				out.write(lineSeparator);
+			}
+			int inactiveOnlyLineCount = 0;
+			while (reader.readLine()) {
+				byte[] line = reader.getLine();
+				int length = reader.getLength();
+				if (countTabs(line, length) != columnCount - 1) {
 					continue;
 				}
-
-//				System.out.println("lineId: " + lineId + " lineTime: " + lineTime + " activeTime: " + activeTime
-//						+ " inactiveTime: " + inactiveTime);
-
-				boolean printLine = false;
-				if (inactiveTime == null && timeIsEqualToOrGreaterThan(lineTime, activeTime)) {
-					printLine = true;
-				} else if (inactiveTime != null && timeIsEqualToOrGreaterThan(activeTime, inactiveTime)
-						&& timeIsEqualToOrGreaterThan(lineTime, activeTime)) {
-					printLine = true;
+				int idEnd = indexOfTab(line, 0, length);
+				int timeEnd = indexOfTab(line, idEnd + 1, length);
+				long id = parseId(line, idEnd, reader, inputFile);
+				int time = parseEffectiveTime(line, idEnd + 1, timeEnd, reader, inputFile);
+				int activeTime = idToActiveTime.get(id, NO_TIME);
+				if (activeTime == NO_TIME) {
+					inactiveOnlyLineCount++;
+					continue;
 				}
-
-				if (printLine) {
-					writer.write(lineText);
-					writer.newLine();
+				if (time >= activeTime && activeTime >= idToInactiveTime.get(id, NO_TIME)) {
+					out.write(line, 0, length);
+					out.write(lineSeparator);
 				}
 			}
+			if (inactiveOnlyLineCount > 0) {
+				logger.info("Removed " + inactiveOnlyLineCount
+						+ " lines of identifiers that were never active from file: " + inputFile.getAbsolutePath());
+			}
 		} finally {
-			writer.close();
+			try {
+				reader.close();
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	private static void validateFileHeader(Rf2LineReader reader, String expectedHeader, File inputFile)
+			throws IOException {
+		String header = (reader.readLine()) ? new String(reader.getLine(), 0, reader.getLength(), UTF_8) : null;
+		if (!expectedHeader.equals(header)) {
+			throw new IllegalStateException("File header inconsistency! Code changes likely required. Expected: "
+					+ expectedHeader + " but was: " + header + " in file: " + inputFile.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * @return the SCTID that ends at the specified index of the line
+	 */
+	private static long parseId(byte[] line, int end, Rf2LineReader reader, File inputFile) {
+		long id = SctIdMap.parseSctId(line, 0, end);
+		if (id < 0) {
+			throw new IllegalArgumentException("Invalid SNOMED CT identifier on line " + reader.getLineNumber()
+					+ " of file: " + inputFile.getAbsolutePath());
+		}
+		return id;
+	}
+
+	/**
+	 * @return the yyyymmdd effective time in the specified range of the line, as an int
+	 */
+	private static int parseEffectiveTime(byte[] line, int start, int end, Rf2LineReader reader, File inputFile) {
+		if (end - start != 8) {
+			throw new IllegalArgumentException("Invalid effective time on line " + reader.getLineNumber()
+					+ " of file: " + inputFile.getAbsolutePath());
 		}
+		int time = 0;
+		for (int i = start; i < end; i++) {
+			if (line[i] < '0' || line[i] > '9') {
+				throw new IllegalArgumentException("Invalid effective time on line " + reader.getLineNumber()
+						+ " of file: " + inputFile.getAbsolutePath());
+			}
+			time = time * 10 + (line[i] - '0');
+		}
+		return time;
+	}
+
+	/**
+	 * @return the index of the first tab in the specified range of the line, or the end of the
+	 *         range if there is none
+	 */
+	private static int indexOfTab(byte[] line, int start, int end) {
+		int index = start;
+		while (index < end && line[index] != '\t') {
+			index++;
+		}
+		return index;
+	}
+
+	private static int countTabs(byte[] line, int length) {
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			if (line[i] == '\t') {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	public static boolean timeIsEqualToOrGreaterThan(String time1, String time2) {
-//		System.out.println("Testing t1: " + time1 + " >= t2:" + time2);
 		Integer t1 = Integer.parseInt(time1);
 		Integer t2 = Integer.parseInt(time2);
 
 		return t1 >= t2;
 	}
 
+	/**
+	 * Reads the lines of an RF2 file as bytes, without decoding them. Lines are terminated, as by
+	 * {@link java.io.BufferedReader#readLine()}, by a line feed, a carriage return, or a carriage
+	 * return followed by a line feed. This class is not thread-safe.
+	 */
+	private static final class Rf2LineReader {
+
+		private final InputStream stream;
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+		private int position = 0;
+		private int limit = 0;
+		private boolean skipLineFeed = false;
+
+		private byte[] line = new byte[256];
+		private int length = 0;
+		private long lineNumber = -1;
+
+		Rf2LineReader(InputStream stream) {
+			this.stream = stream;
+		}
+
+		/**
+		 * @return true if a line was read, false if the end of the stream was reached
+		 * @throws IOException
+		 */
+		boolean readLine() throws IOException {
+			length = 0;
+			boolean read = false;
+			while (true) {
+				if (position == limit) {
+					limit = stream.read(buffer, 0, buffer.length);
+					position = 0;
+					if (limit <= 0) {
+						limit = 0;
+						if (read) {
+							lineNumber++;
+						}
+						return read;
+					}
+				}
+				if (skipLineFeed) {
+					skipLineFeed = false;
+					if (buffer[position] == '\n') {
+						position++;
+						continue;
+					}
+				}
+				read = true;
+				int start = position;
+				while (position < limit && buffer[position] != '\n' && buffer[position] != '\r') {
+					position++;
+				}
+				append(start, position);
+				if (position < limit) {
+					skipLineFeed = buffer[position] == '\r';
+					position++;
+					lineNumber++;
+					return true;
+				}
+			}
+		}
+
+		private void append(int start, int end) {
+			int count = end - start;
+			if (length + count > line.length) {
+				line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+			}
+			System.arraycopy(buffer, start, line, length, count);
+			length += count;
+		}
+
+		/**
+		 * @return the bytes of the line that was last read, excluding its terminator; only the
+		 *         first {@link #getLength()} bytes belong to the line
+		 */
+		byte[] getLine() {
+			return line;
+		}
+
+		int getLength() {
+			return length;
+		}
+
+		/**
+		 * @return the (zero-based) number of the line that was last read
+		 */
+		long getLineNumber() {
+			return lineNumber;
+		}
+
+		void close() throws IOException {
+			stream.close();
+		}
+	}
+
 	public static void main(String[] args) {
 		BasicConfigurator.configure();
 		File snomedDirectory = new File(
@@ -235,9 +439,8 @@ public class SnomedRf2ConceptFileCleaner {
 		File cleanedSnomedRelationshipFile = new File(snomedRelationshipFile.getAbsolutePath() + ".activeOnly");
 
 		try {
-			cleanConceptFile(snomedConceptFile, cleanedSnomedConceptFile);
-			cleanDescriptionFile(snomedDescriptionFile, cleanedSnomedDescriptionFile);
-			cleanRelationshipFile(snomedRelationshipFile, cleanedSnomedRelationshipFile);
+			cleanFiles(snomedConceptFile, cleanedSnomedConceptFile, snomedDescriptionFile,
+					cleanedSnomedDescriptionFile, snomedRelationshipFile, cleanedSnomedRelationshipFile);
 		} catch (IOException e) {
 			e.printStackTrace();
 			System.exit(-1);
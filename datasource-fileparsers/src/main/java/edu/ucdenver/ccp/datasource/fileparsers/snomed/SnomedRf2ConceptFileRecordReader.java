@@ -46,7 +46,7 @@ import edu.ucdenver.ccp.datasource.fileparsers.SingleLineFileRecordReader;
 public class SnomedRf2ConceptFileRecordReader extends SingleLineFileRecordReader<SnomedRf2ConceptFileRecord> {
 
 	private static final Logger logger = Logger.getLogger(SnomedRf2ConceptFileRecordReader.class);
-	private static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tdefinitionStatusId";
+	static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tdefinitionStatusId";
 
 	public static final CharacterEncoding ENCODING = CharacterEncoding.UTF_8;
 	public static final String SKIP_LINE_PREFIX = null;
@@ -47,7 +47,7 @@ import edu.ucdenver.ccp.datasource.fileparsers.snomed.SnomedRf2DescriptionFileRe
 public class SnomedRf2DescriptionFileRecordReader extends SingleLineFileRecordReader<SnomedRf2DescriptionFileRecord> {
 
 	private static final Logger logger = Logger.getLogger(SnomedRf2DescriptionFileRecordReader.class);
-	private static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tconceptId\tlanguageCode\ttypeId\tterm\tcaseSignificanceId";
+	static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tconceptId\tlanguageCode\ttypeId\tterm\tcaseSignificanceId";
 
 	public static final CharacterEncoding ENCODING = CharacterEncoding.UTF_8;
 	public static final String SKIP_LINE_PREFIX = null;
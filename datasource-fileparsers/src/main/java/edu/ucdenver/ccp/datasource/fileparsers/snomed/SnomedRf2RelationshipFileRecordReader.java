@@ -46,7 +46,7 @@ import edu.ucdenver.ccp.datasource.fileparsers.SingleLineFileRecordReader;
 public class SnomedRf2RelationshipFileRecordReader extends SingleLineFileRecordReader<SnomedRf2RelationshipFileRecord> {
 
 	private static final Logger logger = Logger.getLogger(SnomedRf2RelationshipFileRecordReader.class);
-	private static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tsourceId\tdestinationId\trelationshipGroup\ttypeId\tcharacteristicTypeId\tmodifierId";
+	static final String HEADER = "id\teffectiveTime\tactive\tmoduleId\tsourceId\tdestinationId\trelationshipGroup\ttypeId\tcharacteristicTypeId\tmodifierId";
 
 	public static final CharacterEncoding ENCODING = CharacterEncoding.UTF_8;
 	public static final String SKIP_LINE_PREFIX = null;
@@ -48,6 +48,12 @@ public abstract class TaxonAwareMultiLineFileRecordReader<T extends FileRecord>
 
 	protected final Set<NcbiTaxonomyID> taxonsOfInterest;
 
+	/**
+	 * the most recent buffer parsed by {@link #getRecord(MultiLineBuffer)} and the resulting record
+	 */
+	private MultiLineBuffer parsedBuffer = null;
+	private T parsedRecord = null;
+
 	public TaxonAwareMultiLineFileRecordReader(File dataFile, CharacterEncoding encoding, String skipLinePrefix,
 			Set<NcbiTaxonomyID> taxonsOfInterest) throws IOException {
 		super(dataFile, encoding, skipLinePrefix);
@@ -70,8 +76,33 @@ public abstract class TaxonAwareMultiLineFileRecordReader<T extends FileRecord>
 		initializeToFirstRecordWithTaxonOfInterest();
 	}
 
+	/**
+	 * This method is called for every record in the file when taxons of interest have been
+	 * specified, so implementations should extract the taxon directly from the relevant line(s) of
+	 * the buffer (e.g. the OX line of a UniProt record) instead of parsing the full record.
+	 * Implementations that require the parsed record should obtain it by calling
+	 * {@link #getRecord(MultiLineBuffer)} so that the record is not parsed a second time when it is
+	 * returned by {@link #next()}.
+	 * 
+	 * @param multiLineBuffer
+	 * @return the taxon associated with the record
+	 */
 	protected abstract NcbiTaxonomyID getRecordTaxon(MultiLineBuffer multiLineBuffer);
 
+	/**
+	 * @param multiLineBuffer
+	 * @return the record parsed from the specified buffer. The most recently parsed buffer is
+	 *         remembered so that a buffer examined by {@link #getRecordTaxon(MultiLineBuffer)} is
+	 *         only parsed once.
+	 */
+	protected T getRecord(MultiLineBuffer multiLineBuffer) {
+		if (multiLineBuffer != parsedBuffer) {
+			parsedRecord = parseRecordFromMultipleLines(multiLineBuffer);
+			parsedBuffer = multiLineBuffer;
+		}
+		return parsedRecord;
+	}
+
 	/**
 	 * @param line
 	 * @return true if no taxons of interest have been specified (null or empty), or if the line is
@@ -92,12 +123,20 @@ public abstract class TaxonAwareMultiLineFileRecordReader<T extends FileRecord>
 		}
 	}
 
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		super.initializeAfterSeek();
+		initializeToFirstRecordWithTaxonOfInterest();
+	}
+
 	@Override
 	public T next() {
 		if (!hasNext())
 			throw new NoSuchElementException();
 
-		T record = parseRecordFromMultipleLines(buffer);
+		T record = getRecord(buffer);
+		parsedBuffer = null;
+		parsedRecord = null;
 
 		try {
 			while (((buffer = compileMultiLineBuffer()) != null) && !isRecordOfInterest(buffer)) {
@@ -54,6 +54,12 @@ public abstract class TaxonAwareSingleLineFileRecordReader<T extends SingleLineF
 
 	protected final Set<NcbiTaxonomyID> taxonsOfInterest;
 
+	/**
+	 * the most recent line parsed by {@link #getRecord(Line)} and the resulting record
+	 */
+	private Line parsedLine = null;
+	private T parsedRecord = null;
+
 	public TaxonAwareSingleLineFileRecordReader(InputStream stream, CharacterEncoding encoding, String skipLinePrefix,
 			Set<NcbiTaxonomyID> taxonsOfInterest) throws IOException {
 		super(stream, encoding, skipLinePrefix);
@@ -97,6 +103,15 @@ public abstract class TaxonAwareSingleLineFileRecordReader<T extends SingleLineF
 		// initializeToFirstLineWithTaxonOfInterest();
 	}
 
+	/**
+	 * Leaves the line unset so that the next call to {@link #hasNext()} advances to the first line
+	 * with a taxon of interest
+	 */
+	@Override
+	protected void initializeAfterSeek() throws IOException {
+		line = null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -110,8 +125,51 @@ public abstract class TaxonAwareSingleLineFileRecordReader<T extends SingleLineF
 		return null;
 	}
 
+	/**
+	 * This method is called for every line in the file when taxons of interest have been specified,
+	 * so implementations should extract the taxon directly from the line text (e.g. the taxon is
+	 * the first tab-delimited column, see {@link #getTabColumn(String, int)}) instead of parsing
+	 * the full record. Implementations that require the parsed record should obtain it by calling
+	 * {@link #getRecord(Line)} so that the line is not parsed a second time when the record is
+	 * returned by {@link #next()}.
+	 * 
+	 * @param line
+	 * @return the taxon associated with the line
+	 */
 	protected abstract NcbiTaxonomyID getLineTaxon(Line line);
 
+	/**
+	 * @param line
+	 * @return the record parsed from the specified line. The most recently parsed line is
+	 *         remembered so that a line examined by {@link #getLineTaxon(Line)} is only parsed once.
+	 */
+	protected T getRecord(Line line) {
+		if (line != parsedLine) {
+			parsedRecord = parseRecordFromLine(line);
+			parsedLine = line;
+		}
+		return parsedRecord;
+	}
+
+	/**
+	 * @param lineText
+	 * @param columnIndex
+	 * @return the specified tab-delimited column of the line (equivalent to
+	 *         <code>lineText.split("\\t", -1)[columnIndex]</code>) without splitting the rest of the
+	 *         line, or null if the line has fewer columns
+	 */
+	protected static String getTabColumn(String lineText, int columnIndex) {
+		int start = 0;
+		for (int i = 0; i < columnIndex; i++) {
+			start = lineText.indexOf('\t', start) + 1;
+			if (start == 0) {
+				return null;
+			}
+		}
+		int end = lineText.indexOf('\t', start);
+		return lineText.substring(start, (end < 0) ? lineText.length() : end);
+	}
+
 	/**
 	 * @param line
 	 * @return true if no taxons of interest have been specified (null or empty), or if the line is
@@ -138,23 +196,56 @@ public abstract class TaxonAwareSingleLineFileRecordReader<T extends SingleLineF
 
 	@Override
 	public boolean hasNext() {
+		if (isParsingInParallel()) {
+			return super.hasNext();
+		}
 		try {
-			if (line == null) {
-				advanceToNextLineWithTaxonOfInterest();
-			}
-			return line != null;
+			return hasNextLineOfInterest();
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	private boolean hasNextLineOfInterest() throws IOException {
+		if (line == null) {
+			advanceToNextLineWithTaxonOfInterest();
+		}
+		return line != null;
+	}
+
+	/**
+	 * When parsing in parallel, the lines of interest are selected by the reading thread and only
+	 * those lines are handed to the parse stage. The current line is cleared rather than advanced
+	 * so that a record parsed by {@link #getLineTaxon(Line)} remains available from
+	 * {@link #getParsedRecord(Line)}.
+	 */
+	@Override
+	protected Line nextRecordLine() throws IOException {
+		if (!hasNextLineOfInterest()) {
+			return null;
+		}
+		Line recordLine = line;
+		line = null;
+		return recordLine;
+	}
+
+	@Override
+	protected T getParsedRecord(Line recordLine) {
+		return (recordLine == parsedLine) ? parsedRecord : null;
+	}
+
 	@Override
 	public T next() {
+		if (isParsingInParallel()) {
+			return super.next();
+		}
 		if (!hasNext()) {
 			throw new NoSuchElementException();
 		}
 
-		T recordToReturn = parseRecordFromLine(line);
+		T recordToReturn = getRecord(line);
+		parsedLine = null;
+		parsedRecord = null;
 
 		try {
 			while (((line = readLine()) != null) && !isLineOfInterest(line)) {
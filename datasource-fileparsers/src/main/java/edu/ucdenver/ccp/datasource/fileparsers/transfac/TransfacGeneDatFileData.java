@@ -33,15 +33,11 @@ package edu.ucdenver.ccp.datasource.fileparsers.transfac;
  * #L%
  */
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecord;
@@ -137,67 +133,60 @@ public class TransfacGeneDatFileData extends MultiLineFileRecord {
 		Set<TransfacFactorID> bindingFactorIDs = new HashSet<TransfacFactorID>();
 		Set<EmblID> emblIDs = new HashSet<EmblID>();
 
-		String line;
-		BufferedReader br = new BufferedReader(new StringReader(transfacDataRecordBuffer.toString()));
-		try {
-			while ((line = br.readLine()) != null) {
-				if (line.startsWith(ACCESSION_TAG)) {
-					transfacGeneID = new TransfacGeneID(getLineValue(line));
-				} else if (line.startsWith(DATABASE_REFERENCE_TAG)) {
-					String databaseRef = getLineValue(line);
-					if (databaseRef != null) {
-						if (databaseRef.startsWith(DATABASE_REFERENCE_ENTREZ_GENE_TAG)) {
-							Pattern p = Pattern.compile(DATABASE_REFERENCE_ENTREZ_GENE_TAG + "\\s+(\\d+)");
-							Matcher m = p.matcher(line);
-							if (m.find()) {
-								entrezGeneID = new EntrezGeneID(m.group(1));
-							} else {
-								logger.error("Unable to extract Entrez Gene ID from line: " + line);
-							}
-						} else if (databaseRef.startsWith(DATABASE_REFERENCE_MGI_TAG)) {
-							Pattern p = Pattern.compile(DATABASE_REFERENCE_MGI_TAG + "\\s+(\\d+)");
-							Matcher m = p.matcher(line);
-							if (m.find()) {
-								mgiGeneID = new MgiGeneID("MGI:" + m.group(1));
-							} else {
-								logger.error("Unable to extract MGI ID from line: " + line);
-							}
-						} else if (databaseRef.startsWith(DATABASE_REFERENCE_EMBL_TAG)) {
-							Pattern p = Pattern.compile(DATABASE_REFERENCE_EMBL_TAG + "\\s+([^;\\.]+)[;\\.]");
-							Matcher m = p.matcher(line);
-							if (m.find()) {
-								emblIDs.add(new EmblID(m.group(1)));
-							} else {
-								logger.error("Unable to extract EMBL ID from line: " + line);
-							}
+		for (int i = 0; i < transfacDataRecordBuffer.getLineCount(); i++) {
+			String line = transfacDataRecordBuffer.getLineText(i);
+			if (line.startsWith(ACCESSION_TAG)) {
+				transfacGeneID = new TransfacGeneID(getLineValue(line));
+			} else if (line.startsWith(DATABASE_REFERENCE_TAG)) {
+				String databaseRef = getLineValue(line);
+				if (databaseRef != null) {
+					if (databaseRef.startsWith(DATABASE_REFERENCE_ENTREZ_GENE_TAG)) {
+						Pattern p = Pattern.compile(DATABASE_REFERENCE_ENTREZ_GENE_TAG + "\\s+(\\d+)");
+						Matcher m = p.matcher(line);
+						if (m.find()) {
+							entrezGeneID = new EntrezGeneID(m.group(1));
+						} else {
+							logger.error("Unable to extract Entrez Gene ID from line: " + line);
+						}
+					} else if (databaseRef.startsWith(DATABASE_REFERENCE_MGI_TAG)) {
+						Pattern p = Pattern.compile(DATABASE_REFERENCE_MGI_TAG + "\\s+(\\d+)");
+						Matcher m = p.matcher(line);
+						if (m.find()) {
+							mgiGeneID = new MgiGeneID("MGI:" + m.group(1));
+						} else {
+							logger.error("Unable to extract MGI ID from line: " + line);
+						}
+					} else if (databaseRef.startsWith(DATABASE_REFERENCE_EMBL_TAG)) {
+						Pattern p = Pattern.compile(DATABASE_REFERENCE_EMBL_TAG + "\\s+([^;\\.]+)[;\\.]");
+						Matcher m = p.matcher(line);
+						if (m.find()) {
+							emblIDs.add(new EmblID(m.group(1)));
+						} else {
+							logger.error("Unable to extract EMBL ID from line: " + line);
 						}
-					} else {
-						logger.warn("Null database ref on line: " + line);
-					}
-				} else if (line.startsWith(BINDING_SITE_TAG)) {
-					Pattern p = Pattern.compile("<(T\\d+)>");
-					Matcher m = p.matcher(line);
-					while (m.find()) {
-						bindingFactorIDs.add(new TransfacFactorID(m.group(1)));
-					}
-				} else if (line.startsWith(ENCODED_FACTOR_TAG)) {
-					Pattern p = Pattern.compile("(T\\d+);");
-					Matcher m = p.matcher(line);
-					if (m.find()) {
-						encodedFactorIDs.add(new TransfacFactorID(m.group(1)));
-					} else {
-						logger.warn("Unable to find encoded transcription factor id on line: " + line);
 					}
+				} else {
+					logger.warn("Null database ref on line: " + line);
+				}
+			} else if (line.startsWith(BINDING_SITE_TAG)) {
+				Pattern p = Pattern.compile("<(T\\d+)>");
+				Matcher m = p.matcher(line);
+				while (m.find()) {
+					bindingFactorIDs.add(new TransfacFactorID(m.group(1)));
+				}
+			} else if (line.startsWith(ENCODED_FACTOR_TAG)) {
+				Pattern p = Pattern.compile("(T\\d+);");
+				Matcher m = p.matcher(line);
+				if (m.find()) {
+					encodedFactorIDs.add(new TransfacFactorID(m.group(1)));
+				} else {
+					logger.warn("Unable to find encoded transcription factor id on line: " + line);
 				}
 			}
-
-			return new TransfacGeneDatFileData(transfacGeneID, encodedFactorIDs, entrezGeneID, mgiGeneID, emblIDs,
-					bindingFactorIDs, transfacDataRecordBuffer.getByteOffset());
-		} catch (IOException ioe) {
-			throw new RuntimeException(ioe);
-		} finally {
-			IOUtils.closeQuietly(br);
 		}
+
+		return new TransfacGeneDatFileData(transfacGeneID, encodedFactorIDs, entrezGeneID, mgiGeneID, emblIDs,
+				bindingFactorIDs, transfacDataRecordBuffer.getByteOffset());
 	}
 
 	/**
@@ -33,15 +33,11 @@ package edu.ucdenver.ccp.datasource.fileparsers.transfac;
  * #L%
  */
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecord;
@@ -86,29 +82,22 @@ public class TransfacMatrixDatFileData extends MultiLineFileRecord {
 		TransfacMatrixID internalMatrixAccessionID = null;
 		Set<TransfacFactorID> linkedBindingFactorIDs = new HashSet<TransfacFactorID>();
 
-		String line;
-		BufferedReader br = new BufferedReader(new StringReader(transfacDataRecordBuffer.toString()));
-		try {
-			while ((line = br.readLine()) != null) {
-				if (line.startsWith(ACCESSION_TAG)) {
-					internalMatrixAccessionID = new TransfacMatrixID(getLineValue(line));
-				} else if (line.startsWith(LINKED_BINDING_FACTOR_TAG)) {
-					Pattern p = Pattern.compile("(T\\d+)");
-					Matcher m = p.matcher(line);
-					while (m.find()) {
-						linkedBindingFactorIDs.add(new TransfacFactorID(m.group(1)));
-					}
+		for (int i = 0; i < transfacDataRecordBuffer.getLineCount(); i++) {
+			String line = transfacDataRecordBuffer.getLineText(i);
+			if (line.startsWith(ACCESSION_TAG)) {
+				internalMatrixAccessionID = new TransfacMatrixID(getLineValue(line));
+			} else if (line.startsWith(LINKED_BINDING_FACTOR_TAG)) {
+				Pattern p = Pattern.compile("(T\\d+)");
+				Matcher m = p.matcher(line);
+				while (m.find()) {
+					linkedBindingFactorIDs.add(new TransfacFactorID(m.group(1)));
 				}
 			}
-
-			transfacMatrixFileData = new TransfacMatrixDatFileData(internalMatrixAccessionID, linkedBindingFactorIDs,
-					transfacDataRecordBuffer.getByteOffset());
-			return transfacMatrixFileData;
-		} catch (IOException ioe) {
-			throw new RuntimeException(ioe);
-		} finally {
-			IOUtils.closeQuietly(br);
 		}
+
+		transfacMatrixFileData = new TransfacMatrixDatFileData(internalMatrixAccessionID, linkedBindingFactorIDs,
+				transfacDataRecordBuffer.getByteOffset());
+		return transfacMatrixFileData;
 	}
 
 	/**
@@ -0,0 +1,92 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class ByteRangeTest extends DefaultTestCase {
+
+	@Test
+	public void testPartition_Lines() throws IOException {
+		/* each line is 10 bytes long including the line terminator */
+		File file = createFile("line-0000", "line-0001", "line-0002", "line-0003", "line-0004", "line-0005");
+		assertEquals(Arrays.asList(new ByteRange(0, 20), new ByteRange(20, 40), new ByteRange(40, 60)),
+				ByteRange.partition(file, 0, 3, null));
+		/* boundaries that fall mid-line are moved to the start of the following line */
+		assertEquals(Arrays.asList(new ByteRange(0, 20), new ByteRange(20, 30), new ByteRange(30, 50),
+				new ByteRange(50, 60)), ByteRange.partition(file, 0, 4, null));
+		assertEquals(Arrays.asList(new ByteRange(10, 40), new ByteRange(40, 60)), ByteRange.partition(file, 10, 2,
+				null));
+		assertEquals(Arrays.asList(new ByteRange(0, 60)), ByteRange.partition(file, 0, 1, null));
+	}
+
+	@Test
+	public void testPartition_MoreRangesThanLines() throws IOException {
+		File file = createFile("line-0000", "line-0001");
+		assertEquals(Arrays.asList(new ByteRange(0, 10), new ByteRange(10, 20)), ByteRange.partition(file, 0, 8, null));
+		assertTrue(ByteRange.partition(file, 20, 2, null).isEmpty());
+	}
+
+	@Test
+	public void testPartition_RecordSeparator() throws IOException {
+		File file = createFile("ID   A", "AC   A;", "//", "ID   B", "AC   B;", "DE   /", "//", "ID   C", "//");
+		List<ByteRange> ranges = ByteRange.partition(file, 0, 4, "//");
+		/* records start at offsets 0, 18 and 43 */
+		assertEquals(Arrays.asList(new ByteRange(0, 18), new ByteRange(18, 43), new ByteRange(43, 53)), ranges);
+	}
+
+	private File createFile(String... lines) throws IOException {
+		File file = folder.newFile("byte-range.txt");
+		FileWriterUtil.printLines(CollectionsUtil.createList(lines), file, CharacterEncoding.US_ASCII);
+		return file;
+	}
+
+}
@@ -0,0 +1,219 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class DelimitedColumnCursorTest {
+
+	private static final String[] SAMPLE_LINES = new String[] { "", "a", "\t", "a\tb", "a\t\tb", "\ta", "a\t",
+			"a\t\t", "\t\t", "a\tb\t\t\tc\t\t", "9606\t1\tA1BG\t-\tA1B|ABG|GAB|HYST2477\tMIM:138670|HGNC:5" };
+
+	@Test
+	public void testMatchesSplitWithTrailingEmptyColumns() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('\t', true);
+		for (String line : SAMPLE_LINES) {
+			assertArrayEquals("line: " + line, line.split("\\t", -1), toArray(cursor.reset(line)));
+		}
+	}
+
+	@Test
+	public void testMatchesSplitWithoutTrailingEmptyColumns() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('\t', false);
+		for (String line : SAMPLE_LINES) {
+			assertArrayEquals("line: " + line, line.split("\\t"), toArray(cursor.reset(line)));
+		}
+	}
+
+	@Test
+	public void testManyColumns() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append(i).append('\t');
+		}
+		String line = sb.toString();
+		assertArrayEquals(line.split("\\t", -1), toArray(new DelimitedColumnCursor('\t', true).reset(line)));
+		assertArrayEquals(line.split("\\t"), toArray(new DelimitedColumnCursor('\t', false).reset(line)));
+	}
+
+	@Test
+	public void testSubFields() {
+		String line = "9606\t1\tA1BG\t-\tA1B|ABG||GAB|\tMIM:138670\t";
+		DelimitedColumnCursor columns = new DelimitedColumnCursor('\t', true).reset(line);
+		DelimitedColumnCursor subFields = new DelimitedColumnCursor('|', false);
+		assertArrayEquals("A1B|ABG||GAB|".split("\\|"), toArray(columns.subFields(4, subFields)));
+		assertArrayEquals(new String[] { "MIM:138670" }, toArray(columns.subFields(5, subFields)));
+		assertArrayEquals(new String[] { "" }, toArray(columns.subFields(6, subFields)));
+		/* the sub-field cursor does not affect the column cursor */
+		assertEquals(7, columns.getColumnCount());
+		assertEquals("A1BG", columns.getColumn(2));
+	}
+
+	@Test
+	public void testColumnComparisons() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('\t', true).reset("UniProtKB\tP12345\t\t-");
+		assertTrue(cursor.columnEquals(0, "UniProtKB"));
+		assertFalse(cursor.columnEquals(0, "UniProt"));
+		assertFalse(cursor.columnEquals(1, "P123456"));
+		assertTrue(cursor.columnStartsWith(0, "UniProt"));
+		assertFalse(cursor.columnStartsWith(1, "P123456"));
+		assertTrue(cursor.isColumnEmpty(2));
+		assertFalse(cursor.isColumnEmpty(3));
+		assertTrue(cursor.columnEquals(3, "-"));
+		assertTrue(cursor.columnEndsWith(1, "345"));
+		assertFalse(cursor.columnEndsWith(1, "0P12345"));
+		assertTrue(cursor.columnEndsWith(2, ""));
+	}
+
+	@Test
+	public void testTrimmedColumnEquals() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('\t', true).reset(" - \t-\t \t- x");
+		assertTrue(cursor.trimmedColumnEquals(0, "-"));
+		assertTrue(cursor.trimmedColumnEquals(1, "-"));
+		assertFalse(cursor.trimmedColumnEquals(2, "-"));
+		assertTrue(cursor.trimmedColumnEquals(2, ""));
+		assertFalse(cursor.trimmedColumnEquals(3, "-"));
+	}
+
+	@Test
+	public void testGetColumnWithoutPrefix() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('|', false).reset("rogid:abc|rogid:|irogid:1");
+		assertEquals("abc", cursor.getColumnWithoutPrefix(0, "rogid:"));
+		assertEquals("", cursor.getColumnWithoutPrefix(1, "rogid:"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGetColumnWithoutPrefix_MissingPrefix() {
+		DelimitedColumnCursor cursor = new DelimitedColumnCursor('|', false).reset("rogid:abc|rogid:|irogid:1");
+		cursor.getColumnWithoutPrefix(2, "rogid:");
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testMissingColumn() {
+		new DelimitedColumnCursor('\t', true).reset("a\tb").getColumn(2);
+	}
+
+	/**
+	 * Compares the number of bytes allocated when tokenizing the sample gene_info and MITAB files
+	 * (and the pipe-delimited sub-fields of their columns) using {@link String#split(String)} and
+	 * using the {@link DelimitedColumnCursor}, materializing only the columns used by the parsers.
+	 * The repository does not use JMH, so this benchmark is run as an (ignored) unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkAllocatedBytes() throws Exception {
+		List<String> lines = new ArrayList<String>();
+		lines.addAll(readResource("ncbi/gene/EntrezGene_gene_info"));
+		lines.addAll(readResource("irefweb/IRefWeb_10090.mitab.MMDDYYYY.txt"));
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		int iterations = 20000;
+		for (int round = 0; round < 5; round++) {
+			long sink = 0;
+			long start = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < iterations; i++) {
+				for (String line : lines) {
+					String[] toks = line.split("\\t", -1);
+					for (int column = 0; column < toks.length; column += 2) {
+						for (String subField : toks[column].split("\\|")) {
+							sink += subField.length();
+						}
+					}
+				}
+			}
+			long splitBytes = threadBean.getThreadAllocatedBytes(threadId) - start;
+
+			DelimitedColumnCursor columns = new DelimitedColumnCursor('\t', true);
+			DelimitedColumnCursor subFields = new DelimitedColumnCursor('|', false);
+			start = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < iterations; i++) {
+				for (String line : lines) {
+					columns.reset(line);
+					for (int column = 0; column < columns.getColumnCount(); column += 2) {
+						columns.subFields(column, subFields);
+						for (int j = 0; j < subFields.getColumnCount(); j++) {
+							sink -= subFields.getColumn(j).length();
+						}
+					}
+				}
+			}
+			long cursorBytes = threadBean.getThreadAllocatedBytes(threadId) - start;
+			assertEquals(0, sink);
+			System.out.println(String.format("split: %,d bytes/line  DelimitedColumnCursor: %,d bytes/line",
+					splitBytes / (iterations * lines.size()), cursorBytes / (iterations * lines.size())));
+		}
+	}
+
+	private static String[] toArray(DelimitedColumnCursor cursor) {
+		String[] columns = new String[cursor.getColumnCount()];
+		for (int i = 0; i < columns.length; i++) {
+			columns[i] = cursor.getColumn(i);
+		}
+		return columns;
+	}
+
+	private List<String> readResource(String resourceName) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream(resourceName),
+				"UTF-8"));
+		try {
+			List<String> lines = new ArrayList<String>();
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+			return lines;
+		} finally {
+			reader.close();
+		}
+	}
+
+}
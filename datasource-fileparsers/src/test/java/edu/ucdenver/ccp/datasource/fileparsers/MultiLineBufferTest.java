@@ -0,0 +1,130 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.reader.Line;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.MultiLineBuffer;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.UniProtDatFileUtil;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class MultiLineBufferTest {
+
+	private static final List<String> SAMPLE_RECORD = Arrays.asList(
+			"ID   001R_FRG3G              Reviewed;         256 AA.",
+			"AC   Q6GZX4;",
+			"DE   RecName: Short=Uncharacterized protein;",
+			"DE   AltName: Full=Putative transcription factor 001R;",
+			"GN   ORFNames=FV3-001R;",
+			"OS   Frog virus 3 (isolate Goorha) (FV-3).",
+			"OX   NCBI_TaxID=654924;",
+			"DR   GO; GO:0046782; P:regulation of viral transcription; IEA:InterPro.");
+
+	@Test
+	public void testLineCodes() {
+		MultiLineBuffer buffer = createBuffer(SAMPLE_RECORD);
+		assertEquals(8, buffer.getLineCount());
+		assertEquals(SAMPLE_RECORD.get(1), buffer.getLineText(1));
+		assertTrue(buffer.hasLineCode(2, "DE"));
+		assertFalse(buffer.hasLineCode(2, "AC"));
+		assertEquals(2, buffer.indexOfLineCode("DE", 0));
+		assertEquals(3, buffer.indexOfLineCode("DE", 3));
+		assertEquals(-1, buffer.indexOfLineCode("DE", 4));
+		assertEquals(-1, buffer.indexOfLineCode("CC", 0));
+	}
+
+	@Test
+	public void testCursor() {
+		MultiLineBuffer buffer = createBuffer(SAMPLE_RECORD);
+		LineCursor lines = buffer.cursor();
+		assertTrue(lines.nextLineHasCode("ID"));
+		assertEquals(SAMPLE_RECORD.get(0), lines.peekLine());
+		assertEquals(SAMPLE_RECORD.get(0), lines.nextLine());
+		int position = lines.getPosition();
+		assertEquals(SAMPLE_RECORD.get(1), lines.nextLine());
+		assertEquals(SAMPLE_RECORD.get(2), lines.nextLine());
+		lines.setPosition(position);
+		assertEquals(SAMPLE_RECORD.get(1), lines.nextLine());
+		lines.setPosition(buffer.getLineCount());
+		assertFalse(lines.nextLineHasCode("DR"));
+		assertNull(lines.peekLine());
+		assertNull(lines.nextLine());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testCursor_InvalidPosition() {
+		createBuffer(SAMPLE_RECORD).cursor().setPosition(9);
+	}
+
+	/**
+	 * The DE line parser consumes DE lines that do not contain the full name and leaves the cursor
+	 * before the line that does
+	 */
+	@Test
+	public void testUniProtDeLineLookAhead() {
+		LineCursor lines = createBuffer(SAMPLE_RECORD).cursor();
+		lines.setPosition(3);
+		assertEquals("Putative transcription factor 001R", UniProtDatFileUtil.parseDELine(SAMPLE_RECORD.get(2), lines));
+		assertEquals(3, lines.getPosition());
+
+		lines.setPosition(4);
+		assertNull(UniProtDatFileUtil.parseDELine("DE   RecName: Short=Uncharacterized protein;", lines));
+		assertEquals(4, lines.getPosition());
+	}
+
+	private static MultiLineBuffer createBuffer(List<String> lines) {
+		MultiLineBuffer buffer = new MultiLineBuffer();
+		long byteOffset = 0;
+		for (int i = 0; i < lines.size(); i++) {
+			String text = lines.get(i);
+			buffer.add(new Line(text, Line.LineTerminator.LF, byteOffset, byteOffset, i, byteOffset));
+			byteOffset += text.length() + 1;
+		}
+		return buffer;
+	}
+
+}
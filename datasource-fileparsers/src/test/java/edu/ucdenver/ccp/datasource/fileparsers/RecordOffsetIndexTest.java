@@ -0,0 +1,191 @@
+package edu.ucdenver.ccp.datasource.fileparsers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.file.reader.Line;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordOffsetIndex.Checkpoint;
+
+public class RecordOffsetIndexTest extends DefaultTestCase {
+
+	private static final int LINE_COUNT = 25;
+
+	private File testFile;
+
+	@Before
+	public void setUp() throws Exception {
+		testFile = folder.newFile("testFile.ascii");
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < LINE_COUNT; i++) {
+			lines.add("line " + i);
+		}
+		FileWriterUtil.printLines(lines, testFile, CharacterEncoding.US_ASCII);
+	}
+
+	@Test
+	public void testBuildAndGetCheckpoint() throws Exception {
+		RecordOffsetIndex index = RecordOffsetIndex.build(new SampleRecordReader(testFile), testFile, 10);
+		assertEquals(10, index.getCheckpointInterval());
+		assertEquals(3, index.getCheckpointCount());
+
+		Checkpoint checkpoint = index.getCheckpoint(0);
+		assertEquals(0, checkpoint.getRecordOrdinal());
+		assertEquals(0, checkpoint.getByteOffset());
+
+		checkpoint = index.getCheckpoint(15);
+		assertEquals(10, checkpoint.getRecordOrdinal());
+		/* "line 0\n" through "line 9\n" are 7 bytes each */
+		assertEquals(70, checkpoint.getByteOffset());
+
+		checkpoint = index.getCheckpoint(20);
+		assertEquals(20, checkpoint.getRecordOrdinal());
+		/* "line 10\n" through "line 19\n" are 8 bytes each */
+		assertEquals(150, checkpoint.getByteOffset());
+
+		assertEquals(20, index.getCheckpoint(1000).getRecordOrdinal());
+		assertNull(index.getCheckpoint(-1));
+	}
+
+	@Test
+	public void testSeekToCheckpoint() throws Exception {
+		RecordOffsetIndex index = RecordOffsetIndex.build(new SampleRecordReader(testFile), testFile, 5);
+		SampleRecordReader reader = new SampleRecordReader(testFile);
+		Checkpoint checkpoint = index.getCheckpoint(17);
+		assertEquals(15, checkpoint.getRecordOrdinal());
+		reader.seek(checkpoint.getByteOffset());
+		assertEquals("line 15", reader.next().getText());
+		reader.close();
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		RecordOffsetIndex index = RecordOffsetIndex.build(new SampleRecordReader(testFile), testFile, 4);
+		File indexFile = new File(folder.newFolder("index"), "sample.offsets");
+		index.save(indexFile);
+
+		RecordOffsetIndex loadedIndex = RecordOffsetIndex.load(indexFile, testFile);
+		assertNotNull(loadedIndex);
+		assertEquals(index.getCheckpointInterval(), loadedIndex.getCheckpointInterval());
+		assertEquals(index.getCheckpointCount(), loadedIndex.getCheckpointCount());
+		for (long ordinal = 0; ordinal < LINE_COUNT; ordinal++) {
+			assertEquals(index.getCheckpoint(ordinal).getRecordOrdinal(), loadedIndex.getCheckpoint(ordinal)
+					.getRecordOrdinal());
+			assertEquals(index.getCheckpoint(ordinal).getByteOffset(), loadedIndex.getCheckpoint(ordinal)
+					.getByteOffset());
+		}
+	}
+
+	@Test
+	public void testLoad_StaleOrMissingIndex() throws Exception {
+		RecordOffsetIndex index = RecordOffsetIndex.build(new SampleRecordReader(testFile), testFile, 4);
+		File indexFile = new File(folder.newFolder("index"), "sample.offsets");
+		assertNull(RecordOffsetIndex.load(indexFile, testFile));
+		index.save(indexFile);
+
+		List<String> lines = new ArrayList<String>();
+		lines.add("a different line");
+		FileWriterUtil.printLines(lines, testFile, CharacterEncoding.US_ASCII);
+		assertNull(RecordOffsetIndex.load(indexFile, testFile));
+	}
+
+	@Test
+	public void testLoad_StaleInputFile() throws Exception {
+		File idListFile = folder.newFile("ids.txt");
+		List<String> ids = new ArrayList<String>();
+		ids.add("P12345");
+		FileWriterUtil.printLines(ids, idListFile, CharacterEncoding.US_ASCII);
+		List<File> inputFiles = Collections.singletonList(idListFile);
+
+		RecordOffsetIndex index = RecordOffsetIndex.build(new SampleRecordReader(testFile), testFile, 4, inputFiles);
+		File indexFile = new File(folder.newFolder("index"), "sample.offsets");
+		index.save(indexFile);
+		assertNotNull(RecordOffsetIndex.load(indexFile, testFile, inputFiles));
+		/* the index was built with an input file that is not expected by the loader */
+		assertNull(RecordOffsetIndex.load(indexFile, testFile));
+
+		/* the id-list is rebuilt, the data file is unchanged */
+		ids.add("Q67890");
+		FileWriterUtil.printLines(ids, idListFile, CharacterEncoding.US_ASCII);
+		assertNull(RecordOffsetIndex.load(indexFile, testFile, inputFiles));
+	}
+
+	private static class SampleRecordReader extends SingleLineFileRecordReader<SampleDataRecord> {
+
+		public SampleRecordReader(File dataFile) throws IOException {
+			super(dataFile, CharacterEncoding.US_ASCII, null);
+		}
+
+		@Override
+		protected SampleDataRecord parseRecordFromLine(Line line) {
+			return new SampleDataRecord(line.getText(), line.getByteOffset(), line.getLineNumber());
+		}
+
+		@Override
+		public boolean isSeekable() {
+			return true;
+		}
+
+	}
+
+	private static class SampleDataRecord extends SingleLineFileRecord {
+
+		private final String text;
+
+		public SampleDataRecord(String text, long byteOffset, long lineNumber) {
+			super(byteOffset, lineNumber);
+			this.text = text;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+	}
+
+}
@@ -36,10 +36,13 @@ package edu.ucdenver.ccp.datasource.fileparsers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -77,6 +80,160 @@ public class SingleLineDataRecordReaderTest extends DefaultTestCase {
 		assertFalse(reader.hasNext());
 	}
 
+	@Test
+	public void testSeek() throws Exception {
+		SampleRecordReader reader = new SampleRecordReader(testFile);
+		assertTrue(reader.isSeekable());
+		SampleDataRecord record1 = reader.next();
+		SampleDataRecord record2 = reader.next();
+		SampleDataRecord record3 = reader.next();
+		assertEquals(0, record1.getByteOffset());
+		assertEquals(7, record2.getByteOffset());
+		assertEquals(14, record3.getByteOffset());
+
+		reader.seek(record2.getByteOffset());
+		assertTrue(reader.hasNext());
+		assertEquals("line 2", reader.next().getText());
+		assertEquals("line 3", reader.next().getText());
+		assertFalse(reader.hasNext());
+
+		reader.seek(0);
+		assertEquals("line 1", reader.next().getText());
+		reader.close();
+	}
+
+	@Test
+	public void testSeek_NotSeekableByDefault() throws Exception {
+		SingleLineFileRecordReader<SampleDataRecord> reader = new SingleLineFileRecordReader<SampleDataRecord>(
+				testFile, CharacterEncoding.US_ASCII, null) {
+			@Override
+			protected SampleDataRecord parseRecordFromLine(Line line) {
+				return new SampleDataRecord(line.getText(), line.getByteOffset(), line.getLineNumber());
+			}
+		};
+		assertFalse(reader.isSeekable());
+		assertFalse(reader.isSplittable());
+		try {
+			reader.seek(0);
+			fail("Seeking should not be supported by default.");
+		} catch (UnsupportedOperationException e) {
+			/* expected */
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void testParallelParsing() throws Exception {
+		File largeTestFile = folder.newFile("largeTestFile.ascii");
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++) {
+			lines.add("line " + i);
+		}
+		FileWriterUtil.printLines(lines, largeTestFile, CharacterEncoding.US_ASCII);
+
+		List<SampleDataRecord> expectedRecords = new ArrayList<SampleDataRecord>();
+		SampleRecordReader reader = new SampleRecordReader(largeTestFile);
+		while (reader.hasNext()) {
+			expectedRecords.add(reader.next());
+		}
+		reader.close();
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			/* a batch size that does not divide the line count evenly */
+			reader = new SampleRecordReader(largeTestFile);
+			reader.setParallelParsing(pool, 7);
+			assertTrue(reader.isParsingInParallel());
+			for (SampleDataRecord expectedRecord : expectedRecords) {
+				assertTrue(reader.hasNext());
+				SampleDataRecord record = reader.next();
+				assertEquals(expectedRecord.getText(), record.getText());
+				assertEquals(expectedRecord.getByteOffset(), record.getByteOffset());
+				assertEquals(expectedRecord.getLineNumber(), record.getLineNumber());
+			}
+			assertFalse(reader.hasNext());
+
+			reader.seek(expectedRecords.get(4321).getByteOffset());
+			assertEquals("line 4321", reader.next().getText());
+			assertEquals("line 4322", reader.next().getText());
+			reader.close();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testByteRanges() throws Exception {
+		File largeTestFile = folder.newFile("largeTestFile.ascii");
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 5000; i++) {
+			lines.add("line " + i);
+		}
+		FileWriterUtil.printLines(lines, largeTestFile, CharacterEncoding.US_ASCII);
+
+		SampleRecordReader reader = new SampleRecordReader(largeTestFile);
+		assertTrue(reader.isSplittable());
+		List<ByteRange> byteRanges = reader.getByteRanges(4);
+		reader.close();
+		assertEquals(4, byteRanges.size());
+		assertEquals(0, byteRanges.get(0).getStartOffset());
+		assertEquals(largeTestFile.length(), byteRanges.get(3).getEndOffset());
+
+		List<String> texts = new ArrayList<String>();
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			for (int i = 0; i < byteRanges.size(); i++) {
+				if (i > 0) {
+					assertEquals(byteRanges.get(i - 1).getEndOffset(), byteRanges.get(i).getStartOffset());
+				}
+				reader = new SampleRecordReader(largeTestFile);
+				if (i % 2 == 1) {
+					reader.setParallelParsing(pool, 7);
+				}
+				reader.setByteRange(byteRanges.get(i));
+				int recordCount = 0;
+				while (reader.hasNext()) {
+					texts.add(reader.next().getText());
+					recordCount++;
+				}
+				reader.close();
+				assertTrue(recordCount > 0);
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(lines, texts);
+	}
+
+	@Test
+	public void testByteRanges_MoreRangesThanLines() throws Exception {
+		SampleRecordReader reader = new SampleRecordReader(testFile);
+		List<ByteRange> byteRanges = reader.getByteRanges(10);
+		reader.close();
+		assertEquals(3, byteRanges.size());
+
+		reader = new SampleRecordReader(testFile);
+		reader.setByteRange(byteRanges.get(1));
+		assertEquals("line 2", reader.next().getText());
+		assertFalse(reader.hasNext());
+		reader.close();
+	}
+
+	@Test
+	public void testParallelParsing_EmptyFile() throws Exception {
+		File emptyFile = folder.newFile("empty.ascii");
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			SampleRecordReader reader = new SampleRecordReader(emptyFile);
+			reader.setParallelParsing(pool, SingleLineFileRecordReader.DEFAULT_PARSE_BATCH_SIZE);
+			assertFalse(reader.hasNext());
+			reader.close();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	/**
 	 * Simple instantiation of the SingleLineDataRecordReader
 	 * 
@@ -94,6 +251,11 @@ public class SingleLineDataRecordReaderTest extends DefaultTestCase {
 			return new SampleDataRecord(line.getText(), line.getByteOffset(), line.getLineNumber());
 		}
 
+		@Override
+		public boolean isSeekable() {
+			return true;
+		}
+
 	}
 
 	private static class SampleDataRecord extends SingleLineFileRecord {
@@ -35,9 +35,9 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.embl;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
@@ -53,7 +53,10 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileWriterUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
+import edu.ucdenver.ccp.common.string.StringUtil;
 import edu.ucdenver.ccp.common.test.DefaultTestCase;
+import edu.ucdenver.ccp.datasource.fileparsers.MultiLineFileRecordReader.LineCursor;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.embl.EmblSequenceDatabaseFileParserBase.SequenceMode;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ebi.embl.EmblID;
 import edu.ucdenver.ccp.datasource.identifiers.mgi.MgiGeneID;
@@ -354,6 +357,44 @@ public class EmblNucleotideSequenceDatabaseFileParserTest extends DefaultTestCas
 
 	}
 
+	@Test
+	public void testSkipSequence() throws IOException {
+		File sampleFile = folder.newFile("sample-embl.dat");
+		FileWriterUtil.printLines(SAMPLE_EMBL_FILE_LINES, sampleFile, CharacterEncoding.UTF_8, WriteMode.OVERWRITE,
+				FileSuffixEnforcement.OFF);
+
+		EmblTestRecordReader parser = new EmblTestRecordReader(sampleFile, CharacterEncoding.UTF_8);
+		parser.setSequenceMode(SequenceMode.SKIP);
+
+		assertTrue(parser.hasNext());
+		EmblSequenceDatabaseFileData r = parser.next();
+		assertEquals(new EmblID("X56734"), r.getPrimaryAccessionNumber());
+		assertEquals(1859, r.getSequenceLength());
+		assertNull(r.getSequence());
+		assertNull(r.getPackedSequence());
+		assertFalse(parser.hasNext());
+	}
+
+	/**
+	 * The residues appended for each sequence data line must be those extracted by the original
+	 * regular expression based implementation
+	 */
+	@Test
+	public void testAppendSequenceLine() {
+		List<String> lines = CollectionsUtil.createList(
+				"     gaaacaaacc acaaatttat ttgttagtga taattattct cctaaactcc cgtatcctat        60",
+				"     tttgaattaa aagtcttttt ttattttttt aaaaaaaaaa aaaaaaaaa       1859", "     acgt",
+				"     acgt 12 34", "     12345", "  ", "     acgt\t60\t", "\t\tac\u000Bgt\f\u0001 60",
+				"     ac\u0001 60", "     nnnnnryk    3");
+		for (String line : lines) {
+			String expectedResidues = StringUtil.removeSuffixRegex(line.substring(2).trim(), "\\d+").trim()
+					.replaceAll("\\s", "");
+			PackedSequence.Builder sequenceBuilder = new PackedSequence.Builder();
+			EmblSequenceDatabaseFileParserBase.appendSequenceLine(line, sequenceBuilder);
+			assertEquals(line, expectedResidues, sequenceBuilder.build().toString());
+		}
+	}
+
 	/**
 	 * This is a subclass of the {@link EmblNucleotideSequenceDatabaseFileParser} with the
 	 * parseFeatureTable() method overriden so that parsing of everything but the feature table can
@@ -376,9 +417,8 @@ public class EmblNucleotideSequenceDatabaseFileParserTest extends DefaultTestCas
 		}
 
 		@Override
-		protected Collection<? extends SequenceFeature> parseFeatureTable(String line, BufferedReader br)
-				throws IOException {
-			while ((line = br.readLine()).startsWith("FT")) {
+		protected Collection<? extends SequenceFeature> parseFeatureTable(String line, LineCursor lines) {
+			while ((line = lines.nextLine()).startsWith("FT")) {
 
 			}
 			return new ArrayList<SequenceFeature>();
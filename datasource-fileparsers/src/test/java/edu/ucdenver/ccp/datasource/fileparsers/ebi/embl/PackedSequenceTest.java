@@ -0,0 +1,133 @@
+package edu.ucdenver.ccp.datasource.fileparsers.ebi.embl;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class PackedSequenceTest {
+
+	@Test
+	public void testBitsPerResidue() {
+		assertEquals(2, PackedSequence.valueOf("").getBitsPerResidue());
+		assertEquals(2, PackedSequence.valueOf("acgtacgtttga").getBitsPerResidue());
+		assertEquals(4, PackedSequence.valueOf("acgtnrykmacgt").getBitsPerResidue());
+		assertEquals(8, PackedSequence.valueOf("MKWVTFISLLFLFSSAYSRGVFRRDAHKSEVAHRFKDLGEENFKALVLIAFAQYLQQCPFEDHVK")
+				.getBitsPerResidue());
+		assertEquals(16, PackedSequence.valueOf(createRandomSequence(new Random(0), 1000, 1000))
+				.getBitsPerResidue());
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Random random = new Random(0);
+		for (int alphabetSize : new int[] { 1, 2, 4, 5, 16, 17, 25, 256, 257, 1000 }) {
+			for (int length : new int[] { 0, 1, 3, 4, 5, 7, 8, 9, 100, 1001 }) {
+				String sequence = createRandomSequence(random, alphabetSize, length);
+				PackedSequence packedSequence = PackedSequence.valueOf(sequence);
+				assertEquals(sequence, packedSequence.toString());
+				assertEquals(sequence.length(), packedSequence.length());
+				assertEquals(sequence.hashCode(), packedSequence.hashCode());
+				for (int i = 0; i < sequence.length(); i++) {
+					assertEquals(sequence.charAt(i), packedSequence.charAt(i));
+				}
+				if (length > 2) {
+					assertEquals(sequence.substring(1, length - 1), packedSequence.subSequence(1, length - 1)
+							.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testEquals() {
+		assertEquals(PackedSequence.valueOf("acgt"), new PackedSequence.Builder().append("ac").append('g')
+				.append("t").build());
+		assertEquals(PackedSequence.valueOf("acgtnrykm"), PackedSequence.valueOf("acgtnrykm"));
+		assertFalse(PackedSequence.valueOf("acgt").equals(PackedSequence.valueOf("tgca")));
+		assertFalse(PackedSequence.valueOf("acgt").equals(PackedSequence.valueOf("acgg")));
+		assertFalse(PackedSequence.valueOf("acg").equals(PackedSequence.valueOf("acga")));
+		assertFalse(PackedSequence.valueOf("acgt").equals("acgt"));
+	}
+
+	@Test
+	public void testNullSequence() {
+		assertNull(PackedSequence.valueOf(null));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testCharAtOutOfBounds() {
+		PackedSequence.valueOf("acgt").charAt(4);
+	}
+
+	/**
+	 * Compares the memory taken by a sequence stored as a {@link String} and as a
+	 * {@link PackedSequence}. The repository does not use JMH, so this benchmark is run as an
+	 * (ignored) unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkSequenceMemory() {
+		int length = Integer.getInteger("sequence.length", 50000000);
+		String sequence = createRandomSequence(new Random(0), 4, length);
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long before = runtime.totalMemory() - runtime.freeMemory();
+		PackedSequence packedSequence = PackedSequence.valueOf(sequence);
+		System.gc();
+		long after = runtime.totalMemory() - runtime.freeMemory();
+		System.out.println(String.format("String: ~%,d bytes  PackedSequence: ~%,d bytes (%d bits per residue)",
+				2L * length, after - before, packedSequence.getBitsPerResidue()));
+		assertEquals(sequence.length(), packedSequence.length());
+	}
+
+	private static String createRandomSequence(Random random, int alphabetSize, int length) {
+		char[] chars = new char[length];
+		for (int i = 0; i < length; i++) {
+			chars[i] = (char) ('a' + random.nextInt(alphabetSize));
+		}
+		return new String(chars);
+	}
+
+}
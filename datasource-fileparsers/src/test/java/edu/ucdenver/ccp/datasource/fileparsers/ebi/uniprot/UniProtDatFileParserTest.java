@@ -33,16 +33,21 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Test;
 
 import edu.ucdenver.ccp.common.collections.CollectionsUtil;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.datasource.fileparsers.ByteRange;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordReader;
 import edu.ucdenver.ccp.datasource.fileparsers.test.RecordReaderTester;
 import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
@@ -106,4 +111,39 @@ public class UniProtDatFileParserTest extends RecordReaderTester {
 
 	}
 
+	@Test
+	public void testByteRanges() throws IOException {
+		assertByteRangesMatchSequentialRead(null, 3);
+		assertByteRangesMatchSequentialRead(CollectionsUtil.createSet(new NcbiTaxonomyID(345201)), 2);
+		assertByteRangesMatchSequentialRead(CollectionsUtil.createSet(new NcbiTaxonomyID(54321)), 1);
+	}
+
+	private void assertByteRangesMatchSequentialRead(Set<NcbiTaxonomyID> taxonIds, int expectedRecordCount)
+			throws IOException {
+		List<String> expectedAccessions = new ArrayList<String>();
+		SparseUniProtDatFileRecordReader parser = new SparseUniProtDatFileRecordReader(sampleInputFile,
+				CharacterEncoding.US_ASCII, taxonIds);
+		while (parser.hasNext()) {
+			expectedAccessions.add(parser.next().getPrimaryAccession().toString());
+		}
+		parser.close();
+		assertEquals(expectedRecordCount, expectedAccessions.size());
+
+		parser = new SparseUniProtDatFileRecordReader(sampleInputFile, CharacterEncoding.US_ASCII, taxonIds);
+		assertTrue(parser.isSplittable());
+		List<ByteRange> byteRanges = parser.getByteRanges(3);
+		parser.close();
+
+		List<String> accessions = new ArrayList<String>();
+		for (ByteRange byteRange : byteRanges) {
+			parser = new SparseUniProtDatFileRecordReader(sampleInputFile, CharacterEncoding.US_ASCII, taxonIds);
+			parser.setByteRange(byteRange);
+			while (parser.hasNext()) {
+				accessions.add(parser.next().getPrimaryAccession().toString());
+			}
+			parser.close();
+		}
+		assertEquals(expectedAccessions, accessions);
+	}
+
 }
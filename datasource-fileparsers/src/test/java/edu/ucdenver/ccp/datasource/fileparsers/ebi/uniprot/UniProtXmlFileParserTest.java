@@ -33,16 +33,24 @@ package edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import org.junit.Ignore;
 import org.junit.Test;
 
 import edu.ucdenver.ccp.common.collections.CollectionsUtil;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordReader;
+import edu.ucdenver.ccp.datasource.fileparsers.ebi.uniprot.UniProtFileRecord.DbReference;
 import edu.ucdenver.ccp.datasource.fileparsers.test.RecordReaderTester;
 import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
 
@@ -103,4 +111,130 @@ public class UniProtXmlFileParserTest extends RecordReaderTester {
 
 	}
 
+	/**
+	 * Entries that are filtered by taxon prior to being unmarshalled must be the same as those
+	 * returned when every entry is unmarshalled and then filtered. The organismHost taxons of the
+	 * sample entries must not cause an entry to be returned.
+	 */
+	@Test
+	public void testParser_withTaxons_MatchesUnfilteredParser() throws IOException {
+		List<Set<NcbiTaxonomyID>> taxonSets = new ArrayList<Set<NcbiTaxonomyID>>();
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(654924)));
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(54321)));
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(654924), new NcbiTaxonomyID(54321)));
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(8295)));
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(9606)));
+		for (Set<NcbiTaxonomyID> taxonIds : taxonSets) {
+			assertEquals(taxonIds.toString(), readAccessions(sampleInputFile, null, taxonIds),
+					readAccessions(sampleInputFile, taxonIds, null));
+		}
+		assertEquals(2, readAccessions(sampleInputFile, taxonSets.get(0), null).size());
+		assertEquals(0, readAccessions(sampleInputFile, taxonSets.get(3), null).size());
+	}
+
+	/**
+	 * Records unmarshalled in parallel must be returned in the same order as records unmarshalled
+	 * sequentially, regardless of the batch size
+	 */
+	@Test
+	public void testParallelUnmarshalling() throws IOException {
+		List<Set<NcbiTaxonomyID>> taxonSets = new ArrayList<Set<NcbiTaxonomyID>>();
+		taxonSets.add(null);
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(654924)));
+		taxonSets.add(CollectionsUtil.createSet(new NcbiTaxonomyID(54321)));
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			for (Set<NcbiTaxonomyID> taxonIds : taxonSets) {
+				List<String> expectedAccessions = readAccessions(sampleInputFile, taxonIds, null);
+				for (int batchSize = 1; batchSize <= 4; batchSize++) {
+					assertEquals(taxonIds + " batch size: " + batchSize, expectedAccessions,
+							readAccessions(sampleInputFile, taxonIds, pool, batchSize));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Compares the time taken to read the entries of a taxon from a UniProt XML file when every
+	 * entry is unmarshalled and then filtered, and when entries are filtered prior to being
+	 * unmarshalled. The file, e.g. a sample of uniprot_trembl.xml, and the taxon are specified
+	 * using the uniprot.xml.file and uniprot.xml.taxon system properties and default to the sample
+	 * file of this test. The repository does not use JMH, so this benchmark is run as an (ignored)
+	 * unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkTaxonPreFiltering() throws IOException {
+		File xmlFile = new File(System.getProperty("uniprot.xml.file", sampleInputFile.getAbsolutePath()));
+		Set<NcbiTaxonomyID> taxonIds = CollectionsUtil.createSet(new NcbiTaxonomyID(System.getProperty(
+				"uniprot.xml.taxon", "9606")));
+		for (int round = 0; round < 5; round++) {
+			long start = System.currentTimeMillis();
+			List<String> unfilteredAccessions = readAccessions(xmlFile, null, taxonIds);
+			long unfilteredTime = System.currentTimeMillis() - start;
+
+			start = System.currentTimeMillis();
+			List<String> preFilteredAccessions = readAccessions(xmlFile, taxonIds, null);
+			long preFilteredTime = System.currentTimeMillis() - start;
+
+			assertEquals(unfilteredAccessions, preFilteredAccessions);
+			System.out.println(String.format("%d entries of taxon %s  unmarshal then filter: %,d ms  pre-filter: %,d ms",
+					preFilteredAccessions.size(), taxonIds, unfilteredTime, preFilteredTime));
+		}
+	}
+
+	/**
+	 * @param xmlFile
+	 * @param readerTaxonIds
+	 *            the taxons passed to the record reader
+	 * @param recordTaxonIds
+	 *            if not null, records returned by the reader are filtered by these taxons
+	 * @return the accessions of the records
+	 */
+	private static List<String> readAccessions(File xmlFile, Set<NcbiTaxonomyID> readerTaxonIds,
+			Set<NcbiTaxonomyID> recordTaxonIds) throws IOException {
+		List<String> accessions = new ArrayList<String>();
+		UniProtXmlFileRecordReader parser = new UniProtXmlFileRecordReader(xmlFile, readerTaxonIds);
+		try {
+			while (parser.hasNext()) {
+				UniProtFileRecord record = parser.next();
+				if (recordTaxonIds == null || hasTaxon(record, recordTaxonIds)) {
+					accessions.add(record.getAccession().toString());
+				}
+			}
+		} finally {
+			parser.close();
+		}
+		return accessions;
+	}
+
+	/**
+	 * @return the accessions of the records read by a reader that unmarshals entries in parallel
+	 */
+	private static List<String> readAccessions(File xmlFile, Set<NcbiTaxonomyID> readerTaxonIds, ForkJoinPool pool,
+			int batchSize) throws IOException {
+		List<String> accessions = new ArrayList<String>();
+		UniProtXmlFileRecordReader parser = new UniProtXmlFileRecordReader(xmlFile, readerTaxonIds);
+		parser.setParallelUnmarshalling(pool, batchSize);
+		try {
+			while (parser.hasNext()) {
+				accessions.add(parser.next().getAccession().toString());
+			}
+		} finally {
+			parser.close();
+		}
+		return accessions;
+	}
+
+	private static boolean hasTaxon(UniProtFileRecord record, Set<NcbiTaxonomyID> taxonIds) {
+		for (DbReference dbRef : record.getOrganism().getDbReference()) {
+			if (taxonIds.contains(dbRef.getId())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 }
@@ -0,0 +1,82 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class IntIdSetTest extends DefaultTestCase {
+
+	@Test
+	public void testLoad() throws IOException {
+		File idListFile = folder.newFile("EG.utf8");
+		FileWriterUtil.printLines(CollectionsUtil.createList("7157", "1", "100", "7157", "2147483647"), idListFile,
+				CharacterEncoding.UTF_8);
+		IntIdSet idSet = IntIdSet.load(idListFile);
+		assertEquals(4, idSet.size());
+		assertTrue(idSet.contains(7157));
+		assertTrue(idSet.contains("1"));
+		assertTrue(idSet.contains("100"));
+		assertTrue(idSet.contains("2147483647"));
+		assertFalse(idSet.contains(10));
+		assertFalse(idSet.contains("10"));
+		assertFalse(idSet.contains(""));
+		assertFalse(idSet.contains("-1"));
+		assertFalse(idSet.contains("71a57"));
+		assertFalse(idSet.contains("2147483648"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLoad_InvalidId() throws IOException {
+		File idListFile = folder.newFile("EG.utf8");
+		FileWriterUtil.printLines(CollectionsUtil.createList("7157", "P12345"), idListFile, CharacterEncoding.UTF_8);
+		IntIdSet.load(idListFile);
+	}
+
+}
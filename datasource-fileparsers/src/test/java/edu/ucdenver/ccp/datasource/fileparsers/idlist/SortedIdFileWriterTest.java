@@ -0,0 +1,90 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class SortedIdFileWriterTest extends DefaultTestCase {
+
+	/**
+	 * The id-list file must contain the distinct identifiers in sorted order whether they fit in a
+	 * single chunk or are merged from several runs; the run files must be deleted
+	 */
+	@Test
+	public void testWrite() throws IOException {
+		Random random = new Random(0);
+		for (int chunkSize : new int[] { 1, 2, 7, 100, 10000 }) {
+			File directory = folder.newFolder("chunk" + chunkSize);
+			File idListFile = new File(directory, "ids.utf8");
+			SortedIdFileWriter writer = new SortedIdFileWriter(idListFile, chunkSize);
+			TreeSet<String> expectedIds = new TreeSet<String>();
+			for (int i = 0; i < 1000; i++) {
+				String id = "A0A" + random.nextInt(300);
+				writer.add(id);
+				expectedIds.add(id);
+			}
+			writer.close();
+			assertEquals(new ArrayList<String>(expectedIds), FileReaderUtil.loadLinesFromFile(idListFile,
+					CharacterEncoding.UTF_8));
+			assertEquals(1, directory.listFiles().length);
+			assertEquals(expectedIds.size(), SortedIdSet.load(idListFile).size());
+		}
+	}
+
+	@Test
+	public void testWriteNoIds() throws IOException {
+		File idListFile = new File(folder.newFolder("empty"), "ids.utf8");
+		new SortedIdFileWriter(idListFile, 10).close();
+		List<String> lines = FileReaderUtil.loadLinesFromFile(idListFile, CharacterEncoding.UTF_8);
+		assertEquals(0, lines.size());
+	}
+
+}
@@ -0,0 +1,99 @@
+package edu.ucdenver.ccp.datasource.fileparsers.idlist;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class SortedIdSetTest extends DefaultTestCase {
+
+	private static final List<String> IDS = CollectionsUtil.createList("P12345", "A0A000", "EBI-1234", "Q6GZX4",
+			"A0A0001", "A0A00");
+
+	@Test
+	public void testCreate() {
+		validateIdSet(SortedIdSet.create(IDS));
+		assertEquals(2, SortedIdSet.create(CollectionsUtil.createList("B", "A", "B")).size());
+		assertFalse(SortedIdSet.create(CollectionsUtil.<String> createList()).contains("A"));
+	}
+
+	/**
+	 * a sorted id-list file is memory-mapped, an unsorted id-list file is sorted on the heap
+	 */
+	@Test
+	public void testLoad() throws IOException {
+		validateIdSet(SortedIdSet.load(createIdListFile("sorted.utf8", CollectionsUtil.createList("A0A00",
+				"A0A000", "A0A0001", "EBI-1234", "P12345", "Q6GZX4"))));
+		validateIdSet(SortedIdSet.load(createIdListFile("unsorted.utf8", IDS)));
+		validateIdSet(SortedIdSet.load(createIdListFile("duplicates.utf8", CollectionsUtil.createList("A0A00",
+				"A0A000", "A0A0001", "EBI-1234", "EBI-1234", "P12345", "Q6GZX4"))));
+		assertEquals(0, SortedIdSet.load(createIdListFile("empty.utf8", CollectionsUtil.<String> createList()))
+				.size());
+	}
+
+	private static void validateIdSet(SortedIdSet idSet) {
+		assertEquals(6, idSet.size());
+		for (String id : IDS) {
+			assertTrue(id, idSet.contains(id));
+			assertTrue(id, idSet.contains(new StringBuilder(id)));
+		}
+		for (String id : CollectionsUtil.createList("", "A", "A0A", "A0A0000", "A0A00010", "EBI-123", "Z",
+				"p12345", "P12345\u00e9")) {
+			assertFalse(id, idSet.contains(id));
+		}
+	}
+
+	private File createIdListFile(String fileName, List<String> ids) throws IOException {
+		File idListFile = folder.newFile(fileName);
+		FileWriterUtil.printLines(ids, idListFile, CharacterEncoding.UTF_8);
+		return idListFile;
+	}
+
+}
@@ -0,0 +1,375 @@
+package edu.ucdenver.ccp.datasource.fileparsers.irefweb;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.io.ClassPathUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+import edu.ucdenver.ccp.common.string.StringConstants;
+import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
+import edu.ucdenver.ccp.datasource.identifiers.NucleotideAccessionResolver;
+import edu.ucdenver.ccp.datasource.identifiers.ProbableErrorDataSourceIdentifier;
+import edu.ucdenver.ccp.datasource.identifiers.ProteinAccessionResolver;
+import edu.ucdenver.ccp.datasource.identifiers.UnknownDataSourceIdentifier;
+import edu.ucdenver.ccp.datasource.identifiers.dip.DipInteractorID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.intact.IntActID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.interpro.PirID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.interpro.TigrFamsID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.ipi.IpiID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtEntryName;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtIsoformID;
+import edu.ucdenver.ccp.datasource.identifiers.ensembl.EnsemblGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.flybase.FlyBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.hprd.HprdID;
+import edu.ucdenver.ccp.datasource.identifiers.irefweb.CrogId;
+import edu.ucdenver.ccp.datasource.identifiers.irefweb.IcrogId;
+import edu.ucdenver.ccp.datasource.identifiers.irefweb.IrogId;
+import edu.ucdenver.ccp.datasource.identifiers.irefweb.RogId;
+import edu.ucdenver.ccp.datasource.identifiers.kegg.KeggGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.mint.MintID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.gene.EntrezGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.gene.GiNumberID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.refseq.RefSeqID;
+import edu.ucdenver.ccp.datasource.identifiers.other.AfcsId;
+import edu.ucdenver.ccp.datasource.identifiers.other.CamjeDbId;
+import edu.ucdenver.ccp.datasource.identifiers.other.CorumId;
+import edu.ucdenver.ccp.datasource.identifiers.other.CygdId;
+import edu.ucdenver.ccp.datasource.identifiers.other.InnateDbId;
+import edu.ucdenver.ccp.datasource.identifiers.other.MatrixDbId;
+import edu.ucdenver.ccp.datasource.identifiers.other.MpiDbId;
+import edu.ucdenver.ccp.datasource.identifiers.other.PrfId;
+import edu.ucdenver.ccp.datasource.identifiers.other.UniParcID;
+import edu.ucdenver.ccp.datasource.identifiers.pdb.PdbID;
+import edu.ucdenver.ccp.datasource.identifiers.sgd.SgdID;
+import edu.ucdenver.ccp.identifier.publication.PubMedID;
+
+/**
+ * Tests that the prefix-trie based resolution of interactor identifiers by
+ * {@link IRefWebPsiMitab2_6FileParser} is equivalent to the chain of prefix tests that it
+ * replaced, which is reproduced below
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class IRefWebInteractorIdResolutionTest extends DefaultTestCase {
+
+	private static final String SAMPLE_FILE_NAME = "IRefWeb_10090.mitab.MMDDYYYY.txt";
+
+	/**
+	 * the uidA, uidB, altA, altB, OriginalReferenceA, OriginalReferenceB, FinalReferenceA and
+	 * FinalReferenceB columns
+	 */
+	private static final int[] INTERACTOR_ID_COLUMNS = { 0, 1, 2, 3, 36, 37, 38, 39 };
+
+	/**
+	 * every prefix tested by the chain
+	 */
+	private static final String[] PREFIXES = {
+			"CORUM:", "Ensembl:", "FlyBase:", "GB:", "GenBank:", "HPRD:", "InnateDB:", "KEGG:", "MatrixDB:",
+			"PDB:", "PIR:", "RefSeq:", "SGD:", "SP:", "Swiss-Prot:", "TIGR:", "TREMBL", "UniProtKB/TrEMBL:",
+			"afcs:", "camjedb:", "complex:", "crogid:", "cygd:", "dbj:", "ddbj/embl/genbank:", "dip:", "emb:",
+			"entrez gene/locuslink:", "entrezgene/locuslink:", "entrezgene:", "flybase:", "gb:",
+			"genbank indentifier:", "genbank_protein_gi:", "gi:", "icrogid:", "intact:", "ipi:", "irogid:",
+			"mint:", "mpiimex:", "mpilit:", "other:", "pdb:", "pir:", "prf:", "pubmed:", "rcsb pdb:", "refseq:",
+			"rogid:", "sgd:", "tpg:", "uniparc:", "uniprot knowledge base", "uniprot/swiss-prot:", "uniprot:",
+			"uniprotkb:", "xx:" };
+
+	private static final String[] SUFFIXES = { "", "-", "12345", "P12345", "P12345-2", "Q9Y6K9_MOUSE", "NP_012345",
+			"np_012345.2", "AAI00916", "CAI00916", "AB012345", "1ABC", "DIP-12345N", "EBI-12345", "MINT-12345",
+			"S12345", "FBgn0000001", "abc def", ":" };
+
+	@Test
+	public void testResolveInteractorId_EquivalentToPrefixChain() throws IOException {
+		List<String> idStrs = getSampleInteractorIds();
+		for (String prefix : PREFIXES) {
+			for (String prefixVariant : new String[] { prefix, prefix.toLowerCase(), prefix.toUpperCase(),
+					prefix.substring(0, prefix.length() - 1) }) {
+				for (String suffix : SUFFIXES) {
+					idStrs.add(prefixVariant + suffix);
+				}
+			}
+		}
+		for (String idStr : new String[] { "-", " - ", "null", "xx:12345", "other:12345", "", "unknown:12345" }) {
+			idStrs.add(idStr);
+		}
+		for (String idStr : idStrs) {
+			assertEquals(idStr, legacyResolveInteractorId(idStr),
+					IRefWebPsiMitab2_6FileParser.resolveInteractorId(idStr));
+		}
+	}
+
+	/**
+	 * Compares the time taken to resolve the interactor identifiers of a MITAB file, specified by
+	 * the irefweb.mitab.file system property, by the prefix trie and by the prefix chain
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkInteractorIdResolution() throws IOException {
+		List<String> idStrs = getInteractorIds(new File(System.getProperty("irefweb.mitab.file")));
+		for (int run = 0; run < 3; run++) {
+			long start = System.currentTimeMillis();
+			int resolvedCount = 0;
+			for (String idStr : idStrs) {
+				if (legacyResolveInteractorId(idStr) != null) {
+					resolvedCount++;
+				}
+			}
+			long chainTime = System.currentTimeMillis() - start;
+			start = System.currentTimeMillis();
+			for (String idStr : idStrs) {
+				if (IRefWebPsiMitab2_6FileParser.resolveInteractorId(idStr) != null) {
+					resolvedCount--;
+				}
+			}
+			long trieTime = System.currentTimeMillis() - start;
+			assertEquals(0, resolvedCount);
+			System.out.println(String.format("Resolved %d interactor ids: prefix chain=%dms prefix trie=%dms",
+					idStrs.size(), chainTime, trieTime));
+		}
+	}
+
+	private List<String> getSampleInteractorIds() throws IOException {
+		File sampleFile = folder.newFile(SAMPLE_FILE_NAME);
+		ClassPathUtil.copyClasspathResourceToFile(getClass(), SAMPLE_FILE_NAME, sampleFile);
+		return getInteractorIds(sampleFile);
+	}
+
+	/**
+	 * @return the pipe-delimited identifiers in the interactor identifier columns of the specified
+	 *         MITAB file
+	 */
+	private static List<String> getInteractorIds(File mitabFile) throws IOException {
+		List<String> idStrs = new ArrayList<String>();
+		BufferedReader reader = FileReaderUtil.initBufferedReader(mitabFile, CharacterEncoding.US_ASCII);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("#")) {
+					continue;
+				}
+				String[] columns = line.split("\\t", -1);
+				for (int column : INTERACTOR_ID_COLUMNS) {
+					if (column < columns.length) {
+						for (String idStr : columns[column].split("\\|")) {
+							idStrs.add(idStr);
+						}
+					}
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return idStrs;
+	}
+
+	private static DataSourceIdentifier<?> legacyResolveInteractorId(String idStr) {
+		if (idStr.trim().equals(StringConstants.HYPHEN_MINUS)) {
+			return null;
+		}
+		if (idStr.startsWith("xx:")) {
+			return new UnknownDataSourceIdentifier(idStr);
+		}
+		if (idStr.startsWith("other:")) {
+			return new UnknownDataSourceIdentifier(idStr);
+		}
+		if (idStr.equals("null")) {
+			return null;
+		}
+		try {
+			if (idStr.startsWith("uniprotkb:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "uniprotkb:"));
+			} else if (idStr.startsWith("uniprot:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "uniprot:"));
+			} else if (idStr.startsWith("Swiss-Prot:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "Swiss-Prot:"));
+			} else if (idStr.startsWith("uniprot/swiss-prot:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "uniprot/swiss-prot:"));
+			} else if (idStr.startsWith("UniProtKB/TrEMBL:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "UniProtKB/TrEMBL:"));
+			} else if (idStr.startsWith("SP:")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "SP:"));
+			} else if (idStr.startsWith("uniprot knowledge base")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "uniprot knowledge base:"));
+			} else if (idStr.startsWith("TREMBL")) {
+				return legacyGetUniprotId(StringUtil.removePrefix(idStr, "TREMBL:"));
+			} else if (idStr.startsWith("entrezgene/locuslink:")) {
+				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrezgene/locuslink:"));
+			} else if (idStr.startsWith("entrez gene/locuslink:")) {
+				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrez gene/locuslink:"));
+			} else if (idStr.startsWith("HPRD:")) {
+				return new HprdID(StringUtil.removePrefix(idStr, "HPRD:"));
+			} else if (idStr.startsWith("CORUM:")) {
+				return new CorumId(StringUtil.removePrefix(idStr, "CORUM:"));
+			} else if (idStr.startsWith("crogid:")) {
+				return new CrogId(StringUtil.removePrefix(idStr, "crogid:"));
+			} else if (idStr.startsWith("icrogid:")) {
+				return new IcrogId(StringUtil.removePrefix(idStr, "icrogid:"));
+			} else if (idStr.startsWith("refseq:")) {
+				return legacyGetRefseqAccession(StringUtil.removePrefix(idStr, "refseq:").toUpperCase(), idStr);
+			} else if (idStr.startsWith("RefSeq:")) {
+				return legacyGetRefseqAccession(StringUtil.removePrefix(idStr, "RefSeq:").toUpperCase(), idStr);
+			} else if (idStr.startsWith("rogid:")) {
+				return new RogId(StringUtil.removePrefix(idStr, "rogid:"));
+			} else if (idStr.startsWith("irogid:")) {
+				return new IrogId(StringUtil.removePrefix(idStr, "irogid:"));
+			} else if (idStr.startsWith("PDB:")) {
+				return new PdbID(StringUtil.removePrefix(idStr, "PDB:"));
+			} else if (idStr.startsWith("complex:")) {
+				return new RogId(StringUtil.removePrefix(idStr, "complex:"));
+			} else if (idStr.startsWith("cygd:")) {
+				return new CygdId(StringUtil.removePrefix(idStr, "cygd:"));
+			} else if (idStr.startsWith("prf:")) {
+				return new PrfId(StringUtil.removePrefix(idStr, "prf:"));
+			} else if (idStr.startsWith("mpilit:")) {
+				return new MpiDbId(StringUtil.removePrefix(idStr, "mpilit:"));
+			} else if (idStr.startsWith("mpiimex:")) {
+				return new MpiDbId(StringUtil.removePrefix(idStr, "mpiimex:"));
+			} else if (idStr.startsWith("pir:")) {
+				return new PirID(StringUtil.removePrefix(idStr, "pir:"));
+			} else if (idStr.startsWith("PIR:")) {
+				return new PirID(StringUtil.removePrefix(idStr, "PIR:"));
+			} else if (idStr.startsWith("mint:")) {
+				return new MintID(StringUtil.removePrefix(idStr, "mint:"));
+			} else if (idStr.startsWith("dip:")) {
+				return new DipInteractorID(StringUtil.removePrefix(idStr, "dip:"));
+			} else if (idStr.startsWith("camjedb:")) {
+				return new CamjeDbId(StringUtil.removePrefix(idStr, "camjedb:"));
+			} else if (idStr.startsWith("rcsb pdb:")) {
+				return new PdbID(StringUtil.removePrefix(idStr, "rcsb pdb:"));
+			} else if (idStr.startsWith("gi:")) {
+				return new GiNumberID(StringUtil.removePrefix(idStr, "gi:"));
+			} else if (idStr.startsWith("genbank_protein_gi:")) {
+				return new GiNumberID(StringUtil.removePrefix(idStr, "genbank_protein_gi:"));
+			} else if (idStr.startsWith("intact:")) {
+				return new IntActID(StringUtil.removePrefix(idStr, "intact:"));
+			} else if (idStr.startsWith("ipi:")) {
+				return new IpiID(StringUtil.removePrefix(idStr, "ipi:"));
+			} else if (idStr.startsWith("Ensembl:")) {
+				return new EnsemblGeneID(StringUtil.removePrefix(idStr, "Ensembl:"));
+			} else if (idStr.startsWith("MatrixDB:")) {
+				return new MatrixDbId(StringUtil.removePrefix(idStr, "MatrixDB:"));
+			} else if (idStr.startsWith("SGD:")) {
+				return new SgdID(StringUtil.removePrefix(idStr, "SGD:"));
+			} else if (idStr.startsWith("TIGR:")) {
+				return new TigrFamsID(StringUtil.removePrefix(idStr, "TIGR:"));
+			} else if (idStr.startsWith("afcs:")) {
+				return new AfcsId(StringUtil.removePrefix(idStr, "afcs:"));
+			} else if (idStr.startsWith("pubmed:")) {
+				return new PubMedID(StringUtil.removePrefix(idStr, "pubmed:"));
+			} else if (idStr.startsWith("uniparc:")) {
+				return new UniParcID(StringUtil.removePrefix(idStr, "uniparc:"));
+			} else if (idStr.startsWith("FlyBase:")) {
+				return new FlyBaseID(StringUtil.removePrefix(idStr, "FlyBase:"));
+			} else if (idStr.startsWith("KEGG:")) {
+				return new KeggGeneID(StringUtil.removePrefix(idStr, "KEGG:"));
+			} else if (idStr.startsWith("InnateDB:")) {
+				return new InnateDbId(StringUtil.removePrefix(idStr, "InnateDB:"));
+			} else if (idStr.startsWith("emb:")) {
+				return ProteinAccessionResolver.resolveProteinAccession(StringUtil.removePrefix(idStr, "emb:"), idStr);
+			} else if (idStr.startsWith("dbj:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "dbj:"), idStr);
+			} else if (idStr.startsWith("ddbj/embl/genbank:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "ddbj/embl/genbank:"), idStr);
+			} else if (idStr.startsWith("GenBank:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "GenBank:"), idStr);
+			} else if (idStr.startsWith("genbank indentifier:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "genbank indentifier:"), idStr);
+			} else if (idStr.startsWith("GB:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "GB:"), idStr);
+			} else if (idStr.startsWith("gb:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "gb:"), idStr);
+			} else if (idStr.startsWith("tpg:")) {
+				return legacyGetGenbankAccession(StringUtil.removePrefix(idStr, "tpg:"), idStr);
+			} else if (idStr.startsWith("pdb:")) {
+				return new PdbID(StringUtil.removePrefix(idStr, "pdb:"));
+			} else if (idStr.startsWith("flybase:")) {
+				return new FlyBaseID(StringUtil.removePrefix(idStr, "flybase:"));
+			} else if (idStr.startsWith("sgd:")) {
+				return new FlyBaseID(StringUtil.removePrefix(idStr, "sgd:"));
+			} else if (idStr.startsWith("entrezgene:")) {
+				return new EntrezGeneID(StringUtil.removePrefix(idStr, "entrezgene:"));
+			}
+		} catch (IllegalArgumentException e) {
+			return new ProbableErrorDataSourceIdentifier(idStr, null, e.getMessage());
+		}
+
+		return new UnknownDataSourceIdentifier(idStr);
+	}
+
+	private static DataSourceIdentifier<?> legacyGetUniprotId(String idStr) {
+		try {
+			if (idStr.contains(StringConstants.HYPHEN_MINUS)) {
+				return new UniProtIsoformID(idStr);
+			} else if (idStr.contains(StringConstants.UNDERSCORE)) {
+				return new UniProtEntryName(idStr);
+			}
+			return new UniProtID(idStr);
+		} catch (IllegalArgumentException e) {
+			return new ProbableErrorDataSourceIdentifier(idStr, null, e.getMessage());
+		}
+	}
+
+	private static DataSourceIdentifier<?> legacyGetRefseqAccession(String acc, String accWithPrefix) {
+		try {
+			return new RefSeqID(acc);
+		} catch (IllegalArgumentException e) {
+			return legacyGetGenbankAccession(acc, accWithPrefix);
+		}
+	}
+
+	private static DataSourceIdentifier<?> legacyGetGenbankAccession(String acc, String accWithPrefix) {
+		DataSourceIdentifier<String> nucAccId = NucleotideAccessionResolver.resolveNucleotideAccession(acc,
+				accWithPrefix);
+		if (ProbableErrorDataSourceIdentifier.class.isInstance(nucAccId)) {
+			return ProteinAccessionResolver.resolveProteinAccession(acc, accWithPrefix);
+		} else {
+			return nucAccId;
+		}
+	}
+
+}
@@ -40,17 +40,20 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
 import edu.ucdenver.ccp.common.collections.CollectionsUtil;
 import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileUtil;
+import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.datasource.fileparsers.test.RecordReaderTester;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.ensembl.EnsemblGeneID;
@@ -110,6 +113,57 @@ public class EntrezGeneInfoFileParserTest extends RecordReaderTester {
 		assertFalse(rr.hasNext());
 	}
 
+	/**
+	 * The taxon of each line is taken from the first column so only the line of interest should be
+	 * parsed, and only once
+	 */
+	@Test
+	public void testTaxonAwareParser_ParsesOnlyLinesOfInterest() throws IOException {
+		final List<Long> parsedLineNumbers = new ArrayList<Long>();
+		EntrezGeneInfoFileParser rr = new EntrezGeneInfoFileParser(sampleInputFile, CharacterEncoding.US_ASCII,
+				CollectionsUtil.createSet(new NcbiTaxonomyID(9606))) {
+			@Override
+			protected EntrezGeneInfoFileData parseRecordFromLine(Line line) {
+				parsedLineNumbers.add(line.getLineNumber());
+				return super.parseRecordFromLine(line);
+			}
+		};
+		assertTrue(rr.hasNext());
+		assertEquals(new NcbiTaxonomyID(9606), rr.next().getTaxonID());
+		assertFalse(rr.hasNext());
+		assertEquals(1, parsedLineNumbers.size());
+	}
+
+	@Test
+	public void testTaxonAwareParser_ParallelParsing() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			for (Set<NcbiTaxonomyID> taxonIds : CollectionsUtil.createList(null,
+					CollectionsUtil.createSet(new NcbiTaxonomyID(10090)),
+					CollectionsUtil.createSet(new NcbiTaxonomyID(9606)))) {
+				EntrezGeneInfoFileParser sequentialReader = new EntrezGeneInfoFileParser(sampleInputFile,
+						CharacterEncoding.US_ASCII, taxonIds);
+				EntrezGeneInfoFileParser parallelReader = new EntrezGeneInfoFileParser(sampleInputFile,
+						CharacterEncoding.US_ASCII, taxonIds);
+				parallelReader.setParallelParsing(pool, 2);
+				while (sequentialReader.hasNext()) {
+					assertTrue(parallelReader.hasNext());
+					EntrezGeneInfoFileData expectedRecord = sequentialReader.next();
+					EntrezGeneInfoFileData record = parallelReader.next();
+					assertEquals(expectedRecord.getGeneID(), record.getGeneID());
+					assertEquals(expectedRecord.getTaxonID(), record.getTaxonID());
+					assertEquals(expectedRecord.getByteOffset(), record.getByteOffset());
+					assertEquals(expectedRecord.getLineNumber(), record.getLineNumber());
+				}
+				assertFalse(parallelReader.hasNext());
+				sequentialReader.close();
+				parallelReader.close();
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
 	@Test
 	public void testTaxonAwareParser_null() throws IOException {
 		EntrezGeneInfoFileParser rr = new EntrezGeneInfoFileParser(sampleInputFile, CharacterEncoding.US_ASCII, null);
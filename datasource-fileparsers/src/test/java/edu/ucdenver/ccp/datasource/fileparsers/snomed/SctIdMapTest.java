@@ -0,0 +1,117 @@
+package edu.ucdenver.ccp.datasource.fileparsers.snomed;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class SctIdMapTest {
+
+	@Test
+	public void testParseSctId() {
+		assertEquals(138875005L, SctIdMap.parseSctId("138875005"));
+		assertEquals(900000000000207008L, SctIdMap.parseSctId("900000000000207008"));
+		assertEquals(1000131027L, SctIdMap.parseSctId("id\t1000131027\t", 3, 13));
+		assertEquals(-1, SctIdMap.parseSctId(""));
+		assertEquals(-1, SctIdMap.parseSctId("0"));
+		assertEquals(-1, SctIdMap.parseSctId("0138875005"));
+		assertEquals(-1, SctIdMap.parseSctId("-138875005"));
+		assertEquals(-1, SctIdMap.parseSctId("1388a75005"));
+		assertEquals(-1, SctIdMap.parseSctId("9000000000002070081"));
+	}
+
+	@Test
+	public void testPutGetRemove() {
+		SctIdMap map = new SctIdMap(4);
+		map.put(138875005L, 1);
+		map.put(900000000000207008L, 2);
+		map.put(138875005L, 3);
+		assertEquals(2, map.size());
+		assertEquals(3, map.get(138875005L, -1));
+		assertEquals(2, map.get(900000000000207008L, -1));
+		assertEquals(-1, map.get(123037004L, -1));
+		assertEquals(-1, map.get(-1, -1));
+		assertTrue(map.remove(138875005L));
+		assertFalse(map.remove(138875005L));
+		assertFalse(map.containsKey(138875005L));
+		assertTrue(map.containsKey(900000000000207008L));
+		assertEquals(1, map.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPutNegativeId() {
+		new SctIdMap(4).put(-1, 0);
+	}
+
+	/**
+	 * Compares the map with a {@link HashMap} after a random sequence of insertions and removals
+	 * that grow the map several times
+	 */
+	@Test
+	public void testMatchesHashMap() {
+		Random random = new Random(0);
+		SctIdMap map = new SctIdMap(16);
+		Map<Long, Integer> expectedMap = new HashMap<Long, Integer>();
+		for (int i = 0; i < 200000; i++) {
+			long sctId = 100000 + random.nextInt(50000) * 1000L + random.nextInt(3);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expectedMap.remove(sctId) != null, map.remove(sctId));
+			} else {
+				expectedMap.put(sctId, i);
+				map.put(sctId, i);
+			}
+		}
+		assertEquals(expectedMap.size(), map.size());
+		for (Entry<Long, Integer> entry : expectedMap.entrySet()) {
+			assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), -1));
+		}
+		for (int i = 0; i < 10000; i++) {
+			long sctId = 100000 + random.nextInt(50000) * 1000L + random.nextInt(3);
+			assertEquals(expectedMap.containsKey(sctId), map.containsKey(sctId));
+		}
+	}
+
+}
@@ -0,0 +1,177 @@
+package edu.ucdenver.ccp.datasource.fileparsers.snomed;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class SnoMedOboGeneratorTest extends DefaultTestCase {
+
+	private static final String CONCEPT_HEADER = "id\teffectiveTime\tactive\tmoduleId\tdefinitionStatusId";
+	private static final String DESCRIPTION_HEADER = "id\teffectiveTime\tactive\tmoduleId\tconceptId\tlanguageCode\ttypeId\tterm\tcaseSignificanceId";
+	private static final String RELATIONSHIP_HEADER = "id\teffectiveTime\tactive\tmoduleId\tsourceId\tdestinationId\trelationshipGroup\ttypeId\tcharacteristicTypeId\tmodifierId";
+	private static final String IS_A = "116680003";
+	private static final String FINDING_SITE = "363698007";
+
+	/**
+	 * The hierarchy, with root 123037004 and the SNOMED CT root concept 138875005, is:
+	 * 
+	 * <pre>
+	 * 138875005
+	 *   123037004 (root)
+	 *     1001
+	 *       1003
+	 *         1005
+	 *     1002
+	 *       1003
+	 *         1005
+	 *     1004 (inactivated)
+	 *   2001
+	 *     2002 (finding site 1001)
+	 *     1005
+	 * </pre>
+	 */
+	@Test
+	public void testGenerateObo() throws IOException {
+		List<String> conceptLines = CollectionsUtil.createList(CONCEPT_HEADER, concept("138875005", "20020131", 1),
+				concept("123037004", "20020131", 1), concept("1001", "20020131", 1), concept("1002", "20020131", 1),
+				concept("1003", "20020131", 1), concept("1004", "20020131", 1), concept("1004", "20090731", 0),
+				concept("1005", "20020131", 1), concept("2001", "20020131", 1), concept("2002", "20020131", 1));
+		List<String> descriptionLines = new ArrayList<String>();
+		descriptionLines.add(DESCRIPTION_HEADER);
+		for (String conceptId : CollectionsUtil.createList("138875005", "123037004", "1001", "1002", "1003",
+				"1004", "1005", "2001", "2002")) {
+			descriptionLines.add("1" + conceptId + "\t20020131\t1\t900000000000207008\t" + conceptId
+					+ "\ten\t900000000000003001\tconcept " + conceptId + "\t900000000000020002");
+		}
+		List<String> relationshipLines = CollectionsUtil.createList(RELATIONSHIP_HEADER,
+				relationship("123037004", "138875005", IS_A, 1), relationship("1001", "123037004", IS_A, 1),
+				relationship("1002", "123037004", IS_A, 1), relationship("1003", "1001", IS_A, 1),
+				relationship("1003", "1002", IS_A, 1), relationship("1004", "123037004", IS_A, 1),
+				relationship("1005", "1003", IS_A, 1), relationship("2001", "138875005", IS_A, 1),
+				relationship("2002", "2001", IS_A, 1), relationship("2002", "1001", FINDING_SITE, 1),
+				relationship("1005", "2001", IS_A, 1), relationship("2001", "123037004", IS_A, 0));
+
+		Set<String> expectedIds = new TreeSet<String>(CollectionsUtil.createList("SNOMED:138875005",
+				"SNOMED:123037004", "SNOMED:1001", "SNOMED:1002", "SNOMED:1003", "SNOMED:1005"));
+		assertEquals(expectedIds, getOboTermIds(generateObo("root", conceptLines, descriptionLines,
+				relationshipLines, CollectionsUtil.createSet("123037004"))));
+
+		expectedIds.add("SNOMED:2001");
+		expectedIds.add("SNOMED:2002");
+		assertEquals(expectedIds, getOboTermIds(generateObo("all", conceptLines, descriptionLines,
+				relationshipLines, null)));
+	}
+
+	/**
+	 * Each concept of the hierarchy below 2001 has two parents, so the number of paths from a
+	 * concept to the top of the hierarchy doubles with each level; determining that none of them
+	 * leads to the root must not follow each path.
+	 */
+	@Test
+	public void testGenerateOboDeepPolyhierarchy() throws IOException {
+		int depth = 200;
+		List<String> conceptLines = CollectionsUtil.createList(CONCEPT_HEADER, concept("123037004", "20020131", 1),
+				concept("2001", "20020131", 1));
+		List<String> descriptionLines = CollectionsUtil.createList(DESCRIPTION_HEADER);
+		List<String> relationshipLines = CollectionsUtil.createList(RELATIONSHIP_HEADER);
+		String[] previousLevel = new String[] { "2001" };
+		for (int level = 1; level <= depth; level++) {
+			String[] currentLevel = new String[] { Integer.toString(level * 10 + 1000001),
+					Integer.toString(level * 10 + 1000002) };
+			for (String conceptId : currentLevel) {
+				conceptLines.add(concept(conceptId, "20020131", 1));
+				for (String parentConceptId : previousLevel) {
+					relationshipLines.add(relationship(conceptId, parentConceptId, IS_A, 1));
+				}
+			}
+			previousLevel = currentLevel;
+		}
+		assertEquals(CollectionsUtil.createSet("SNOMED:123037004"), getOboTermIds(generateObo("deep", conceptLines,
+				descriptionLines, relationshipLines, CollectionsUtil.createSet("123037004"))));
+		assertEquals(2 * depth + 2, getOboTermIds(generateObo("deep-all", conceptLines, descriptionLines,
+				relationshipLines, null)).size());
+	}
+
+	private File generateObo(String name, List<String> conceptLines, List<String> descriptionLines,
+			List<String> relationshipLines, Set<String> rootNodesToInclude) throws IOException {
+		File conceptFile = folder.newFile(name + ".concept.utf8");
+		File descriptionFile = folder.newFile(name + ".description.utf8");
+		File relationshipFile = folder.newFile(name + ".relationship.utf8");
+		File oboFile = folder.newFile(name + ".obo");
+		FileWriterUtil.printLines(conceptLines, conceptFile, CharacterEncoding.UTF_8);
+		FileWriterUtil.printLines(descriptionLines, descriptionFile, CharacterEncoding.UTF_8);
+		FileWriterUtil.printLines(relationshipLines, relationshipFile, CharacterEncoding.UTF_8);
+		SnoMedOboGenerator.generateObo(conceptFile, descriptionFile, relationshipFile, oboFile, rootNodesToInclude);
+		return oboFile;
+	}
+
+	private static Set<String> getOboTermIds(File oboFile) throws IOException {
+		Set<String> ids = new TreeSet<String>();
+		for (String line : FileReaderUtil.loadLinesFromFile(oboFile, CharacterEncoding.UTF_8)) {
+			if (line.startsWith("id: ")) {
+				ids.add(line.substring(4));
+			}
+		}
+		return ids;
+	}
+
+	private static String concept(String conceptId, String effectiveTime, int active) {
+		return conceptId + "\t" + effectiveTime + "\t" + active + "\t900000000000207008\t900000000000074008";
+	}
+
+	private static String relationship(String sourceId, String destinationId, String typeId, int active) {
+		return "3" + sourceId + destinationId + "\t20020131\t" + active + "\t900000000000207008\t" + sourceId + "\t"
+				+ destinationId + "\t0\t" + typeId + "\t900000000000011006\t900000000000451002";
+	}
+
+}
@@ -33,10 +33,13 @@ package edu.ucdenver.ccp.datasource.fileparsers.snomed;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 import org.junit.Before;
@@ -47,6 +50,7 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil.ColumnOrder;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil.LineOrder;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil;
 import edu.ucdenver.ccp.common.test.DefaultTestCase;
 
@@ -57,12 +61,15 @@ import edu.ucdenver.ccp.common.test.DefaultTestCase;
 public class SnomedRfFileCleanerTest extends DefaultTestCase {
 
 	private File snomedConceptFile;
+	private File snomedDescriptionFile;
 	private File snomedRelationshipFile;
 
 	@Before
 	public void setUp() throws IOException {
 		snomedConceptFile = folder.newFile("snomed_concept.utf8");
 		populateSnomedConceptFile(snomedConceptFile);
+		snomedDescriptionFile = folder.newFile("snomed_description.utf8");
+		populateSnomedDescriptionFile(snomedDescriptionFile);
 		snomedRelationshipFile = folder.newFile("snomed_relationship.utf8");
 		populateSnomedRelationshipFile(snomedRelationshipFile);
 	}
@@ -92,6 +99,24 @@ public class SnomedRfFileCleanerTest extends DefaultTestCase {
 		FileWriterUtil.printLines(lines, snomedRelationshipFile2, CharacterEncoding.UTF_8);
 	}
 
+	/**
+	 * @param snomedDescriptionFile2
+	 * @throws IOException
+	 */
+	private void populateSnomedDescriptionFile(File snomedDescriptionFile2) throws IOException {
+		List<String> lines = CollectionsUtil.createList(
+				"id\teffectiveTime\tactive\tmoduleId\tconceptId\tlanguageCode\ttypeId\tterm\tcaseSignificanceId",
+				"101013\t20020131\t1\t900000000000207008\t126813005\ten\t900000000000013009\tNeoplasm of anterior aspect of epiglottis\t900000000000020002",
+				"101013\t20170731\t1\t900000000000207008\t126813005\ten\t900000000000013009\tNeoplasm of anterior epiglottis\t900000000000448009",
+				"102018\t20020131\t1\t900000000000207008\t126814004\ten\t900000000000013009\tNeoplasm of junctional region of epiglottis\t900000000000020002",
+				"102018\t20050731\t0\t900000000000207008\t126814004\ten\t900000000000013009\tNeoplasm of junctional region of epiglottis\t900000000000020002",
+				"103011\t20020131\t0\t900000000000207008\t126815003\ten\t900000000000013009\tNeoplasm of lateral wall of oropharynx\t900000000000020002",
+				"104017\t20020131\t1\t900000000000207008\t126816002\ten\t900000000000013009\tNeoplasm of posterior wall of oropharynx\t900000000000020002",
+				"104017\t20030131\t0\t900000000000207008\t126816002\ten\t900000000000013009\tNeoplasm of posterior wall of oropharynx\t900000000000020002",
+				"104017\t20040731\t1\t900000000000207008\t126816002\ten\t900000000000013009\tNeoplasm of posterior wall of oropharynx\t900000000000020002");
+		FileWriterUtil.printLines(lines, snomedDescriptionFile2, CharacterEncoding.UTF_8);
+	}
+
 	/**
 	 * @param snomedConceptFile2
 	 * @throws IOException
@@ -161,4 +186,69 @@ public class SnomedRfFileCleanerTest extends DefaultTestCase {
 		assertTrue(FileComparisonUtil.hasExpectedLines(outputFile, CharacterEncoding.UTF_8, expectedLines, null,
 				LineOrder.AS_IN_FILE, ColumnOrder.AS_IN_FILE));
 	}
+
+	@Test
+	public void testDescriptionClean() throws IOException {
+		List<String> expectedLines = CollectionsUtil.createList(
+				"id\teffectiveTime\tactive\tmoduleId\tconceptId\tlanguageCode\ttypeId\tterm\tcaseSignificanceId",
+				"101013\t20170731\t1\t900000000000207008\t126813005\ten\t900000000000013009\tNeoplasm of anterior epiglottis\t900000000000448009",
+				"104017\t20040731\t1\t900000000000207008\t126816002\ten\t900000000000013009\tNeoplasm of posterior wall of oropharynx\t900000000000020002");
+		File outputFile = folder.newFile("snomed_descriptions.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanDescriptionFile(snomedDescriptionFile, outputFile);
+		assertTrue(FileComparisonUtil.hasExpectedLines(outputFile, CharacterEncoding.UTF_8, expectedLines, null,
+				LineOrder.AS_IN_FILE, ColumnOrder.AS_IN_FILE));
+	}
+
+	@Test
+	public void testCleanFiles() throws IOException {
+		File conceptFile = folder.newFile("concepts.cleaned.utf8");
+		File descriptionFile = folder.newFile("descriptions.cleaned.utf8");
+		File relationshipFile = folder.newFile("relationships.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanFiles(snomedConceptFile, conceptFile, snomedDescriptionFile,
+				descriptionFile, snomedRelationshipFile, relationshipFile);
+
+		File expectedConceptFile = folder.newFile("expected_concepts.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanConceptFile(snomedConceptFile, expectedConceptFile);
+		File expectedDescriptionFile = folder.newFile("expected_descriptions.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanDescriptionFile(snomedDescriptionFile, expectedDescriptionFile);
+		File expectedRelationshipFile = folder.newFile("expected_relationships.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanRelationshipFile(snomedRelationshipFile, expectedRelationshipFile);
+
+		assertEquals(FileReaderUtil.loadLinesFromFile(expectedConceptFile, CharacterEncoding.UTF_8),
+				FileReaderUtil.loadLinesFromFile(conceptFile, CharacterEncoding.UTF_8));
+		assertEquals(FileReaderUtil.loadLinesFromFile(expectedDescriptionFile, CharacterEncoding.UTF_8),
+				FileReaderUtil.loadLinesFromFile(descriptionFile, CharacterEncoding.UTF_8));
+		assertEquals(FileReaderUtil.loadLinesFromFile(expectedRelationshipFile, CharacterEncoding.UTF_8),
+				FileReaderUtil.loadLinesFromFile(relationshipFile, CharacterEncoding.UTF_8));
+	}
+
+	/**
+	 * Lines may be terminated by carriage returns, and the last line need not be terminated
+	 */
+	@Test
+	public void testCleanFileWithCarriageReturns() throws IOException {
+		File inputFile = folder.newFile("snomed_concept_crlf.utf8");
+		OutputStream out = new FileOutputStream(inputFile);
+		try {
+			out.write(("id\teffectiveTime\tactive\tmoduleId\tdefinitionStatusId\r\n"
+					+ "1000004\t20020131\t1\t900000000000207008\t900000000000074008\r\n"
+					+ "1000004\t20030131\t0\t900000000000207008\t900000000000074008\r"
+					+ "10001005\t20020131\t1\t900000000000207008\t900000000000074008\r\n"
+					+ "10001005\t20020731\t1\t900000000000207008\t900000000000073002").getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		List<String> expectedLines = CollectionsUtil.createList(
+				"id\teffectiveTime\tactive\tmoduleId\tdefinitionStatusId",
+				"10001005\t20020731\t1\t900000000000207008\t900000000000073002");
+		File outputFile = folder.newFile("snomed_concepts_crlf.cleaned.utf8");
+		SnomedRf2ConceptFileCleaner.cleanConceptFile(inputFile, outputFile);
+		assertTrue(FileComparisonUtil.hasExpectedLines(outputFile, CharacterEncoding.UTF_8, expectedLines, null,
+				LineOrder.AS_IN_FILE, ColumnOrder.AS_IN_FILE));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCleanFileWithUnexpectedHeader() throws IOException {
+		SnomedRf2ConceptFileCleaner.cleanConceptFile(snomedRelationshipFile, folder.newFile("invalid.cleaned.utf8"));
+	}
 }
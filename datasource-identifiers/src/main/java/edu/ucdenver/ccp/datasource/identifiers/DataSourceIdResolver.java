@@ -150,6 +150,207 @@ public class DataSourceIdResolver {
 	private static final String IREFWEB_ENTREZGENE_ID_PREFIX = "entrezgene/locuslink:";
 	private static final Logger logger = Logger.getLogger(DataSourceIdResolver.class);
 
+	/**
+	 * the database names handled by {@link #resolveId(String, String)}, which are matched ignoring
+	 * case, in matching order
+	 */
+	private enum DatabaseName implements IdPrefix {
+		MGI("MGI"),
+		RGD("RGD"),
+		UNIPROTKB("UniProtKB"),
+		CHEBI("chebi"),
+		DIP("DIP"),
+		DRUGBANK("drugbank"),
+		KEGGDRUG("keggdrug"),
+		KEGGCOMPOUND("keggcompound"),
+		PUBCHEMCOMPOUND("pubchemcompound"),
+		PUBCHEMSUBSTANCE("pubchemsubstance"),
+		EG("EG"),
+		ENSEMBL("Ensembl"),
+		EMBL("EMBL"),
+		REFSEQ("RefSeq"),
+		VEGA("VEGA"),
+		NCBI_GI("NCBI-GI"),
+		NCBI_GENEID("NCBI-GeneID"),
+		OMIM("OMIM"),
+		HGNC("HGNC"),
+		HPRD("HPRD"),
+		UNIPROT("UniProt"),
+		PHARMGKB("PharmGKB"),
+		TTD("TTD"),
+		BINDINGDB("bindingDb"),
+		CHEMSPIDER("chemSpider"),
+		DPD("dpd"),
+		DAILYMED("DailyMed"),
+		HET("HET"),
+		IUPHAR_LIGAND("iupharLigand"),
+		NDC("ndc"),
+		PDB("pdb"),
+		DRUGS_PRODUCT_DATABASE("Drugs Product Database (DPD)"),
+		NATIONAL_DRUG_CODE_DIRECTORY("National Drug Code Directory"),
+		URL("url"),
+		GENBANK("GenBank"),
+		GENBANK_GENE_DATABASE("GenBank Gene Database"),
+		GENBANK_PROTEIN_DATABASE("GenBank Protein Database");
+
+		private final String name;
+
+		private DatabaseName(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getPrefix() {
+			return name;
+		}
+
+		@Override
+		public boolean isCaseSensitive() {
+			return false;
+		}
+
+		/**
+		 * A database name must match the entire string
+		 */
+		@Override
+		public boolean accepts(String databaseName) {
+			return databaseName.length() == name.length();
+		}
+	}
+
+	/**
+	 * the identifier prefixes handled by {@link #resolveId(String)}, in matching order
+	 */
+	private enum GeneIdPrefix implements IdPrefix {
+		MGI("MGI:"),
+		NCBI_GENEID("ncbi-geneid:"),
+		IREFWEB_ENTREZGENE(IREFWEB_ENTREZGENE_ID_PREFIX),
+		ENSEMBL("Ensembl:"),
+		REFSEQ_LOWER_CASE("refseq:"),
+		UNIPROT("uniprot", false) {
+			@Override
+			public boolean accepts(String idStr) {
+				return StringUtil.startsWithRegex(idStr.toLowerCase(), "uniprot.*?:");
+			}
+		},
+		SWISS_PROT("Swiss-Prot:"),
+		TREMBL("TREMBL:"),
+		TAIR("TAIR:"),
+		MAIZEGDB("MaizeGDB:"),
+		WORMBASE("WormBase:"),
+		BEEBASE("BEEBASE:"),
+		NASONIABASE("NASONIABASE:"),
+		VECTORBASE("VectorBase:"),
+		APHIDBASE("APHIDBASE:"),
+		BEETLEBASE("BEETLEBASE:"),
+		FLYBASE("FLYBASE:", false),
+		ZFIN("ZFIN:"),
+		ANIMALQTLDB("AnimalQTLdb:"),
+		RGD("RGD:"),
+		PBR("PBR:"),
+		VBRC("VBRC:"),
+		PATHEMA("Pathema:"),
+		PSEUDOCAP("PseudoCap:"),
+		APIDB_CRYPTODB("ApiDB_CryptoDB:"),
+		DICTYBASE("dictyBase:"),
+		UNIPROTKB_SWISS_PROT("UniProtKB/Swiss-Prot:"),
+		INTERPRO("InterPro:"),
+		ECOGENE("EcoGene:"),
+		ECOCYC("ECOCYC:", false),
+		SGD("SGD:"),
+		RATMAP("RATMAP:"),
+		XENBASE("Xenbase:"),
+		CGNC("CGNC:"),
+		HGNC("HGNC:"),
+		MIM("MIM:"),
+		HPRD("HPRD:"),
+		IMGT_GENE_DB("IMGT/GENE-DB:"),
+		PDB("PDB:"),
+		GB("gb:", false),
+		EMB("emb:"),
+		DBJ("dbj:"),
+		INTACT("intact:"),
+		REFSEQ("RefSeq:"),
+		UNIPARC("uniparc:"),
+		GENBANK_PROTEIN_GI("genbank_protein_gi:"),
+		PIR("pir:", false),
+		PUBMED("pubmed:"),
+		DIP_INTERACTOR("dip:") {
+			@Override
+			public boolean accepts(String idStr) {
+				return idStr.endsWith("N");
+			}
+		},
+		DIP_INTERACTION("dip:") {
+			@Override
+			public boolean accepts(String idStr) {
+				return idStr.endsWith("E");
+			}
+		},
+		TIGR("TIGR:"),
+		IPI("ipi:"),
+		MINT("mint:"),
+		REACTOME("Reactome:"),
+		MIRBASE("miRBase:"),
+		PR("PR:"),
+		SO("SO:"),
+		GO("GO:"),
+		CHEBI("CHEBI:"),
+		MP("MP:"),
+		MOD("MOD:"),
+		KEGG_GENE("KEGG_"),
+		KEGG_PATHWAY("KEGG_PATHWAY"),
+		EG("EG_"),
+		HOMOLOGENE_GROUP("HOMOLOGENE_GROUP_"),
+		INTERPRO_ACCESSION("IPR") {
+			@Override
+			public boolean accepts(String idStr) {
+				return idStr.matches("IPR\\d+");
+			}
+		},
+		SNP("rs") {
+			@Override
+			public boolean accepts(String idStr) {
+				return idStr.matches("rs\\d+");
+			}
+		},
+		CL("CL:"),
+		VEGA("Vega:"),
+		NCBI_TAXON("NCBITaxon:");
+
+		private final String prefix;
+		private final boolean caseSensitive;
+
+		private GeneIdPrefix(String prefix) {
+			this(prefix, true);
+		}
+
+		private GeneIdPrefix(String prefix, boolean caseSensitive) {
+			this.prefix = prefix;
+			this.caseSensitive = caseSensitive;
+		}
+
+		@Override
+		public String getPrefix() {
+			return prefix;
+		}
+
+		@Override
+		public boolean isCaseSensitive() {
+			return caseSensitive;
+		}
+
+		@Override
+		public boolean accepts(String idStr) {
+			return true;
+		}
+	}
+
+	private static final IdPrefixTrie<DatabaseName> DATABASE_NAMES = new IdPrefixTrie<DatabaseName>(
+			DatabaseName.values());
+	private static final IdPrefixTrie<GeneIdPrefix> GENE_ID_PREFIXES = new IdPrefixTrie<GeneIdPrefix>(
+			GeneIdPrefix.values());
+
 	public static DataSourceIdentifier<?> resolveId(DataSource dataSource, String databaseObjectID) {
 		switch (dataSource) {
 		case CLINICAL_TRIALS_GOV:
@@ -215,83 +416,91 @@ public class DataSourceIdResolver {
 	// TODO: remove this method and replace its use with resolveId(DataSource,
 	// String)
 	public static DataSourceIdentifier<?> resolveId(String databaseName, String databaseObjectID) {
-		if (databaseName.equalsIgnoreCase("MGI"))
-			return new MgiGeneID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("RGD"))
-			return new RgdID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("UniProtKB"))
-			return new UniProtID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("chebi"))
-			return new ChebiOntologyID("CHEBI:" + databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("DIP"))
-			return new DipInteractorID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("drugbank"))
-			return new DrugBankID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("keggdrug"))
-			return new KeggDrugID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("keggcompound"))
-			return new KeggCompoundID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("pubchemcompound"))
-			return new PubChemCompoundId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("pubchemsubstance"))
-			return new PubChemSubstanceId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("EG"))
-			return new EntrezGeneID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("Ensembl"))
-			return new EnsemblGeneID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("EMBL"))
-			return new EmblID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("RefSeq"))
-			return new RefSeqID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("VEGA"))
-			return new VegaID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("NCBI-GI"))
-			return new GiNumberID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("NCBI-GeneID"))
-			return new EntrezGeneID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("OMIM"))
-			return new OmimID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("HGNC"))
-			return new HgncID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("HPRD"))
-			return new HprdID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("UniProt"))
-			return new UniProtID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("PharmGKB"))
-			return new PharmGkbID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("TTD"))
-			return new TherapeuticTargetsDatabaseId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("bindingDb"))
-			return new BindingDbId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("chemSpider"))
-			return new ChemSpiderId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("dpd"))
-			return new DrugsProductDatabaseID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("DailyMed"))
-			return new DailyMedId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("HET"))
-			return new PdbLigandId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("iupharLigand"))
-			return new IupharLigandId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("ndc"))
-			return new NationalDrugCodeDirectoryId(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("pdb")) {
-			if (databaseObjectID.length() == 3) {
+		DatabaseName name = DATABASE_NAMES.getPrefix(databaseName);
+		if (name != null) {
+			switch (name) {
+			case MGI:
+				return new MgiGeneID(databaseObjectID);
+			case RGD:
+				return new RgdID(databaseObjectID);
+			case UNIPROTKB:
+				return new UniProtID(databaseObjectID);
+			case CHEBI:
+				return new ChebiOntologyID("CHEBI:" + databaseObjectID);
+			case DIP:
+				return new DipInteractorID(databaseObjectID);
+			case DRUGBANK:
+				return new DrugBankID(databaseObjectID);
+			case KEGGDRUG:
+				return new KeggDrugID(databaseObjectID);
+			case KEGGCOMPOUND:
+				return new KeggCompoundID(databaseObjectID);
+			case PUBCHEMCOMPOUND:
+				return new PubChemCompoundId(databaseObjectID);
+			case PUBCHEMSUBSTANCE:
+				return new PubChemSubstanceId(databaseObjectID);
+			case EG:
+				return new EntrezGeneID(databaseObjectID);
+			case ENSEMBL:
+				return new EnsemblGeneID(databaseObjectID);
+			case EMBL:
+				return new EmblID(databaseObjectID);
+			case REFSEQ:
+				return new RefSeqID(databaseObjectID);
+			case VEGA:
+				return new VegaID(databaseObjectID);
+			case NCBI_GI:
+				return new GiNumberID(databaseObjectID);
+			case NCBI_GENEID:
+				return new EntrezGeneID(databaseObjectID);
+			case OMIM:
+				return new OmimID(databaseObjectID);
+			case HGNC:
+				return new HgncID(databaseObjectID);
+			case HPRD:
+				return new HprdID(databaseObjectID);
+			case UNIPROT:
+				return new UniProtID(databaseObjectID);
+			case PHARMGKB:
+				return new PharmGkbID(databaseObjectID);
+			case TTD:
+				return new TherapeuticTargetsDatabaseId(databaseObjectID);
+			case BINDINGDB:
+				return new BindingDbId(databaseObjectID);
+			case CHEMSPIDER:
+				return new ChemSpiderId(databaseObjectID);
+			case DPD:
+				return new DrugsProductDatabaseID(databaseObjectID);
+			case DAILYMED:
+				return new DailyMedId(databaseObjectID);
+			case HET:
 				return new PdbLigandId(databaseObjectID);
+			case IUPHAR_LIGAND:
+				return new IupharLigandId(databaseObjectID);
+			case NDC:
+				return new NationalDrugCodeDirectoryId(databaseObjectID);
+			case PDB:
+				if (databaseObjectID.length() == 3) {
+					return new PdbLigandId(databaseObjectID);
+				}
+				return new PdbID(databaseObjectID);
+			case DRUGS_PRODUCT_DATABASE:
+				return new DrugsProductDatabaseID(databaseObjectID);
+			case NATIONAL_DRUG_CODE_DIRECTORY:
+				return new DrugCodeDirectoryID(databaseObjectID);
+			case URL:
+				if (databaseObjectID.startsWith("http://en.wikipedia.org/wiki/")) {
+					return new WikipediaId(StringUtil.removePrefix(databaseObjectID, "http://en.wikipedia.org/wiki/"));
+				}
+				break;
+			case GENBANK:
+			case GENBANK_GENE_DATABASE:
+			case GENBANK_PROTEIN_DATABASE:
+				return new GenBankID(databaseObjectID);
+			default:
+				throw new IllegalStateException("Unhandled database name: " + name.name());
 			}
-			return new PdbID(databaseObjectID);
-		} else if (databaseName.equalsIgnoreCase("Drugs Product Database (DPD)")
-				|| databaseName.equalsIgnoreCase("DPD"))
-			return new DrugsProductDatabaseID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("National Drug Code Directory"))
-			return new DrugCodeDirectoryID(databaseObjectID);
-		else if (databaseName.equalsIgnoreCase("url")) {
-			if (databaseObjectID.startsWith("http://en.wikipedia.org/wiki/")) {
-				return new WikipediaId(StringUtil.removePrefix(databaseObjectID, "http://en.wikipedia.org/wiki/"));
-			}
-		} else if (databaseName.equalsIgnoreCase("GenBank") || databaseName.equalsIgnoreCase("GenBank Gene Database")
-				|| databaseName.equalsIgnoreCase("GenBank Protein Database"))
-			return new GenBankID(databaseObjectID);
+		}
 
 		logger.warn("Unable to resolve data source identifier: datasource=" + databaseName + " id=" + databaseObjectID
 				+ ". Using UnknownDataSourceIdentifier.");
@@ -306,150 +515,152 @@ public class DataSourceIdResolver {
 	 */
 	public static DataSourceIdentifier<?> resolveId(String geneIDStr) {
 		try {
-			if (geneIDStr.startsWith("MGI:"))
-				return new MgiGeneID(geneIDStr);
-			else if (geneIDStr.startsWith("ncbi-geneid:"))
-				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, "ncbi-geneid:"));
-			else if (geneIDStr.startsWith(IREFWEB_ENTREZGENE_ID_PREFIX))
-				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, IREFWEB_ENTREZGENE_ID_PREFIX));
-			else if (geneIDStr.startsWith("Ensembl:"))
-				return new EnsemblGeneID(StringUtil.removePrefix(geneIDStr, "Ensembl:"));
-			else if (geneIDStr.startsWith("refseq:"))
-				return new RefSeqID(StringUtil.removePrefix(geneIDStr, "refseq:"));
-			else if (StringUtil.startsWithRegex(geneIDStr.toLowerCase(), "uniprot.*?:")) {
-				geneIDStr = StringUtil.removePrefixRegex(geneIDStr.toLowerCase(), "uniprot.*?:");
-				if (geneIDStr.contains(StringConstants.HYPHEN_MINUS))
-					return new UniProtIsoformID(geneIDStr.toUpperCase());
-
-				return new UniProtID(geneIDStr.toUpperCase());
-			} else if (geneIDStr.startsWith("Swiss-Prot:"))
-				return new UniProtID(StringUtil.removePrefix(geneIDStr, "Swiss-Prot:"));
-			else if (geneIDStr.startsWith("TREMBL:"))
-				return new UniProtID(StringUtil.removePrefix(geneIDStr, "TREMBL:"));
-			else if (geneIDStr.startsWith("TAIR:"))
-				return new TairID(StringUtil.removePrefix(geneIDStr, "TAIR:"));
-			else if (geneIDStr.startsWith("MaizeGDB:"))
-				return new MaizeGdbID(StringUtil.removePrefix(geneIDStr, "MaizeGDB:"));
-			else if (geneIDStr.startsWith("WormBase:"))
-				return new WormBaseID(StringUtil.removePrefix(geneIDStr, "WormBase:"));
-			else if (geneIDStr.startsWith("BEEBASE:"))
-				return new BeeBaseID(StringUtil.removePrefix(geneIDStr, "BEEBASE:"));
-			else if (geneIDStr.startsWith("NASONIABASE:"))
-				return new NasoniaBaseID(StringUtil.removePrefix(geneIDStr, "NASONIABASE:"));
-			else if (geneIDStr.startsWith("VectorBase:"))
-				return new VectorBaseID(StringUtil.removePrefix(geneIDStr, "VectorBase:"));
-			else if (geneIDStr.startsWith("APHIDBASE:"))
-				return new AphidBaseID(StringUtil.removePrefix(geneIDStr, "APHIDBASE:"));
-			else if (geneIDStr.startsWith("BEETLEBASE:"))
-				return new BeetleBaseID(StringUtil.removePrefix(geneIDStr, "BEETLEBASE:"));
-			else if (geneIDStr.toUpperCase().startsWith("FLYBASE:"))
-				return new FlyBaseID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "FLYBASE:"));
-			else if (geneIDStr.startsWith("ZFIN:"))
-				return new ZfinID(StringUtil.removePrefix(geneIDStr, "ZFIN:"));
-			else if (geneIDStr.startsWith("AnimalQTLdb:"))
-				return new AnimalQtlDbID(StringUtil.removePrefix(geneIDStr, "AnimalQTLdb:"));
-			else if (geneIDStr.startsWith("RGD:"))
-				return new RgdID(StringUtil.removePrefix(geneIDStr, "RGD:"));
-			else if (geneIDStr.startsWith("PBR:"))
-				return new PbrID(StringUtil.removePrefix(geneIDStr, "PBR:"));
-			else if (geneIDStr.startsWith("VBRC:"))
-				return new VbrcID(StringUtil.removePrefix(geneIDStr, "VBRC:"));
-			else if (geneIDStr.startsWith("Pathema:"))
-				return new PathemaID(StringUtil.removePrefix(geneIDStr, "Pathema:"));
-			else if (geneIDStr.startsWith("PseudoCap:"))
-				return new PseudoCapID(StringUtil.removePrefix(geneIDStr, "PseudoCap:"));
-			else if (geneIDStr.startsWith("ApiDB_CryptoDB:"))
-				return new ApiDbCryptoDbID(StringUtil.removePrefix(geneIDStr, "ApiDB_CryptoDB:"));
-			else if (geneIDStr.startsWith("dictyBase:"))
-				return new DictyBaseID(StringUtil.removePrefix(geneIDStr, "dictyBase:"));
-			else if (geneIDStr.startsWith("UniProtKB/Swiss-Prot:"))
-				return new UniProtID(StringUtil.removePrefix(geneIDStr, "UniProtKB/Swiss-Prot:"));
-			else if (geneIDStr.startsWith("InterPro:"))
-				return new InterProID(StringUtil.removePrefix(geneIDStr, "InterPro:"));
-			else if (geneIDStr.startsWith("EcoGene:"))
-				return new EcoGeneID(StringUtil.removePrefix(geneIDStr, "EcoGene:"));
-			else if (geneIDStr.toUpperCase().startsWith("ECOCYC:"))
-				return new EcoCycID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "ECOCYC:"));
-			else if (geneIDStr.startsWith("SGD:"))
-				return new SgdID(StringUtil.removePrefix(geneIDStr, "SGD:"));
-			else if (geneIDStr.startsWith("RATMAP:"))
-				return new RatMapID(StringUtil.removePrefix(geneIDStr, "RATMAP:"));
-			else if (geneIDStr.startsWith("Xenbase:"))
-				return new XenBaseID(StringUtil.removePrefix(geneIDStr, "Xenbase:"));
-			else if (geneIDStr.startsWith("CGNC:"))
-				return new CgncID(StringUtil.removePrefix(geneIDStr, "CGNC:"));
-			else if (geneIDStr.startsWith("HGNC:"))
-				return new HgncID(geneIDStr);
-			else if (geneIDStr.startsWith("MIM:"))
-				return new OmimID(StringUtil.removePrefix(geneIDStr, "MIM:"));
-			else if (geneIDStr.startsWith("HPRD:"))
-				return new HprdID(StringUtil.removePrefix(geneIDStr, "HPRD:"));
-			else if (geneIDStr.startsWith("IMGT/GENE-DB:"))
-				return new ImgtID(StringUtil.removePrefix(geneIDStr, "IMGT/GENE-DB:"));
-			else if (geneIDStr.startsWith("PDB:"))
-				return new PdbID(StringUtil.removePrefix(geneIDStr, "PDB:"));
-			else if (geneIDStr.toLowerCase().startsWith("gb:"))
-				return new GenBankID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "gb:").toUpperCase());
-			else if (geneIDStr.startsWith("emb:"))
-				return new EmbID(StringUtil.removePrefix(geneIDStr, "emb:"));
-			else if (geneIDStr.startsWith("dbj:"))
-				return new DbjID(StringUtil.removePrefix(geneIDStr, "dbj:"));
-			else if (geneIDStr.startsWith("intact:"))
-				return new IntActID(StringUtil.removePrefix(geneIDStr, "intact:"));
-			else if (geneIDStr.startsWith("RefSeq:"))
-				return new RefSeqID(StringUtil.removePrefix(geneIDStr, "RefSeq:"));
-			else if (geneIDStr.startsWith("uniparc:"))
-				return new UniParcID(StringUtil.removePrefix(geneIDStr, "uniparc:"));
-			else if (geneIDStr.startsWith("genbank_protein_gi:"))
-				return new GiNumberID(StringUtil.removePrefix(geneIDStr, "genbank_protein_gi:"));
-			else if (geneIDStr.toLowerCase().startsWith("pir:"))
-				return new PirID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "pir:").toUpperCase());
-			else if (geneIDStr.startsWith("pubmed:"))
-				return new PubMedID(StringUtil.removePrefix(geneIDStr, "pubmed:"));
-			else if (geneIDStr.startsWith("dip:") && geneIDStr.endsWith("N"))
-				return new DipInteractorID(StringUtil.removePrefix(geneIDStr, "dip:"));
-			else if (geneIDStr.startsWith("dip:") && geneIDStr.endsWith("E"))
-				return new DipInteractionID(StringUtil.removePrefix(geneIDStr, "dip:"));
-			else if (geneIDStr.startsWith("TIGR:"))
-				return new TigrFamsID(StringUtil.removePrefix(geneIDStr, "TIGR:"));
-			else if (geneIDStr.startsWith("ipi:"))
-				return new IpiID(StringUtil.removePrefix(geneIDStr, "ipi:"));
-			else if (geneIDStr.startsWith("mint:"))
-				return new MintID(StringUtil.removePrefix(geneIDStr, "mint:"));
-			else if (geneIDStr.startsWith("Reactome:"))
-				return new ReactomeReactionID(StringUtil.removePrefix(geneIDStr, "Reactome:"));
-			else if (geneIDStr.startsWith("miRBase:"))
-				return new MiRBaseID(StringUtil.removePrefix(geneIDStr, "miRBase:"));
-			else if (geneIDStr.startsWith("PR:"))
-				return new ProteinOntologyId(geneIDStr);
-			else if (geneIDStr.startsWith("SO:"))
-				return new SequenceOntologyId(geneIDStr);
-			else if (geneIDStr.startsWith("GO:"))
-				return new GeneOntologyID(geneIDStr);
-			else if (geneIDStr.startsWith("CHEBI:"))
-				return new ChebiOntologyID(geneIDStr);
-			else if (geneIDStr.startsWith("MP:"))
-				return new MammalianPhenotypeID(geneIDStr);
-			else if (geneIDStr.startsWith("MOD:"))
-				return new PsiModId(geneIDStr);
-			else if (geneIDStr.startsWith("KEGG_"))
-				return new KeggGeneID(geneIDStr);
-			else if (geneIDStr.startsWith("KEGG_PATHWAY"))
-				return new KeggPathwayID(geneIDStr);
-			else if (geneIDStr.startsWith("EG_"))
-				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, "EG_"));
-			else if (geneIDStr.startsWith("HOMOLOGENE_GROUP_"))
-				return new HomologeneGroupID(StringUtil.removePrefix(geneIDStr, "HOMOLOGENE_GROUP_"));
-			else if (geneIDStr.matches("IPR\\d+"))
-				return new InterProID(geneIDStr);
-			else if (geneIDStr.matches("rs\\d+"))
-				return new SnpRsId(geneIDStr);
-			else if (geneIDStr.startsWith("CL:"))
-				return new CellTypeOntologyID(geneIDStr);
-			else if (geneIDStr.startsWith("Vega:"))
-				return new VegaID(StringUtil.removePrefix(geneIDStr, "Vega:"));
-			else if (geneIDStr.startsWith("NCBITaxon:"))
-				return new NcbiTaxonomyID(StringUtil.removePrefix(geneIDStr, "NCBITaxon:"));
+			GeneIdPrefix prefix = GENE_ID_PREFIXES.getPrefix(geneIDStr);
+			if (prefix != null) {
+				switch (prefix) {
+				case MGI:
+					return new MgiGeneID(geneIDStr);
+				case NCBI_GENEID:
+				case IREFWEB_ENTREZGENE:
+				case EG:
+					return new EntrezGeneID(removePrefix(geneIDStr, prefix));
+				case ENSEMBL:
+					return new EnsemblGeneID(removePrefix(geneIDStr, prefix));
+				case REFSEQ_LOWER_CASE:
+				case REFSEQ:
+					return new RefSeqID(removePrefix(geneIDStr, prefix));
+				case UNIPROT:
+					geneIDStr = StringUtil.removePrefixRegex(geneIDStr.toLowerCase(), "uniprot.*?:");
+					if (geneIDStr.contains(StringConstants.HYPHEN_MINUS))
+						return new UniProtIsoformID(geneIDStr.toUpperCase());
+
+					return new UniProtID(geneIDStr.toUpperCase());
+				case SWISS_PROT:
+				case TREMBL:
+				case UNIPROTKB_SWISS_PROT:
+					return new UniProtID(removePrefix(geneIDStr, prefix));
+				case TAIR:
+					return new TairID(removePrefix(geneIDStr, prefix));
+				case MAIZEGDB:
+					return new MaizeGdbID(removePrefix(geneIDStr, prefix));
+				case WORMBASE:
+					return new WormBaseID(removePrefix(geneIDStr, prefix));
+				case BEEBASE:
+					return new BeeBaseID(removePrefix(geneIDStr, prefix));
+				case NASONIABASE:
+					return new NasoniaBaseID(removePrefix(geneIDStr, prefix));
+				case VECTORBASE:
+					return new VectorBaseID(removePrefix(geneIDStr, prefix));
+				case APHIDBASE:
+					return new AphidBaseID(removePrefix(geneIDStr, prefix));
+				case BEETLEBASE:
+					return new BeetleBaseID(removePrefix(geneIDStr, prefix));
+				case FLYBASE:
+					return new FlyBaseID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "FLYBASE:"));
+				case ZFIN:
+					return new ZfinID(removePrefix(geneIDStr, prefix));
+				case ANIMALQTLDB:
+					return new AnimalQtlDbID(removePrefix(geneIDStr, prefix));
+				case RGD:
+					return new RgdID(removePrefix(geneIDStr, prefix));
+				case PBR:
+					return new PbrID(removePrefix(geneIDStr, prefix));
+				case VBRC:
+					return new VbrcID(removePrefix(geneIDStr, prefix));
+				case PATHEMA:
+					return new PathemaID(removePrefix(geneIDStr, prefix));
+				case PSEUDOCAP:
+					return new PseudoCapID(removePrefix(geneIDStr, prefix));
+				case APIDB_CRYPTODB:
+					return new ApiDbCryptoDbID(removePrefix(geneIDStr, prefix));
+				case DICTYBASE:
+					return new DictyBaseID(removePrefix(geneIDStr, prefix));
+				case INTERPRO:
+					return new InterProID(removePrefix(geneIDStr, prefix));
+				case ECOGENE:
+					return new EcoGeneID(removePrefix(geneIDStr, prefix));
+				case ECOCYC:
+					return new EcoCycID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "ECOCYC:"));
+				case SGD:
+					return new SgdID(removePrefix(geneIDStr, prefix));
+				case RATMAP:
+					return new RatMapID(removePrefix(geneIDStr, prefix));
+				case XENBASE:
+					return new XenBaseID(removePrefix(geneIDStr, prefix));
+				case CGNC:
+					return new CgncID(removePrefix(geneIDStr, prefix));
+				case HGNC:
+					return new HgncID(geneIDStr);
+				case MIM:
+					return new OmimID(removePrefix(geneIDStr, prefix));
+				case HPRD:
+					return new HprdID(removePrefix(geneIDStr, prefix));
+				case IMGT_GENE_DB:
+					return new ImgtID(removePrefix(geneIDStr, prefix));
+				case PDB:
+					return new PdbID(removePrefix(geneIDStr, prefix));
+				case GB:
+					return new GenBankID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "gb:").toUpperCase());
+				case EMB:
+					return new EmbID(removePrefix(geneIDStr, prefix));
+				case DBJ:
+					return new DbjID(removePrefix(geneIDStr, prefix));
+				case INTACT:
+					return new IntActID(removePrefix(geneIDStr, prefix));
+				case UNIPARC:
+					return new UniParcID(removePrefix(geneIDStr, prefix));
+				case GENBANK_PROTEIN_GI:
+					return new GiNumberID(removePrefix(geneIDStr, prefix));
+				case PIR:
+					return new PirID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "pir:").toUpperCase());
+				case PUBMED:
+					return new PubMedID(removePrefix(geneIDStr, prefix));
+				case DIP_INTERACTOR:
+					return new DipInteractorID(removePrefix(geneIDStr, prefix));
+				case DIP_INTERACTION:
+					return new DipInteractionID(removePrefix(geneIDStr, prefix));
+				case TIGR:
+					return new TigrFamsID(removePrefix(geneIDStr, prefix));
+				case IPI:
+					return new IpiID(removePrefix(geneIDStr, prefix));
+				case MINT:
+					return new MintID(removePrefix(geneIDStr, prefix));
+				case REACTOME:
+					return new ReactomeReactionID(removePrefix(geneIDStr, prefix));
+				case MIRBASE:
+					return new MiRBaseID(removePrefix(geneIDStr, prefix));
+				case PR:
+					return new ProteinOntologyId(geneIDStr);
+				case SO:
+					return new SequenceOntologyId(geneIDStr);
+				case GO:
+					return new GeneOntologyID(geneIDStr);
+				case CHEBI:
+					return new ChebiOntologyID(geneIDStr);
+				case MP:
+					return new MammalianPhenotypeID(geneIDStr);
+				case MOD:
+					return new PsiModId(geneIDStr);
+				case KEGG_GENE:
+					return new KeggGeneID(geneIDStr);
+				case KEGG_PATHWAY:
+					return new KeggPathwayID(geneIDStr);
+				case HOMOLOGENE_GROUP:
+					return new HomologeneGroupID(removePrefix(geneIDStr, prefix));
+				case INTERPRO_ACCESSION:
+					return new InterProID(geneIDStr);
+				case SNP:
+					return new SnpRsId(geneIDStr);
+				case CL:
+					return new CellTypeOntologyID(geneIDStr);
+				case VEGA:
+					return new VegaID(removePrefix(geneIDStr, prefix));
+				case NCBI_TAXON:
+					return new NcbiTaxonomyID(removePrefix(geneIDStr, prefix));
+				default:
+					throw new IllegalStateException("Unhandled gene ID prefix: " + prefix.name());
+				}
+			}
 
 			logger.warn(String.format("Unhandled gene ID format: %s. Creating UnknownDataSourceIdentifier.", geneIDStr));
 			return new UnknownDataSourceIdentifier(geneIDStr);
@@ -460,6 +671,13 @@ public class DataSourceIdResolver {
 
 	}
 
+	/**
+	 * @return the specified identifier string without the specified (case-sensitive) prefix
+	 */
+	private static String removePrefix(String idStr, IdPrefix prefix) {
+		return idStr.substring(prefix.getPrefix().length());
+	}
+
 	/**
 	 * Resolve interaction id to {@link DataSourceIdentifier}.
 	 * 
@@ -0,0 +1,179 @@
+package edu.ucdenver.ccp.datasource.identifiers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * A trie of identifier prefixes used to determine the source of identifier strings, e.g. the
+ * cross-reference columns of a MITAB file, in a single pass over the prefix characters rather than
+ * by testing each prefix in turn. The prefixes are matched in the order in which they were given
+ * to the constructor: if several prefixes match an identifier string then the first one that
+ * accepts it (see {@link IdPrefix#accepts(String)}) is returned, as in a chain of
+ * {@link String#startsWith(String)} tests.
+ * <p>
+ * Instances are immutable and can be queried concurrently.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ * @param <T>
+ *            the prefix type, typically an enum
+ */
+public class IdPrefixTrie<T extends IdPrefix> {
+
+	/**
+	 * the root of the trie of the case-sensitive prefixes
+	 */
+	private final Node caseSensitiveRoot = new Node();
+	/**
+	 * the root of the trie of the case-insensitive prefixes, which are stored case-folded (see
+	 * {@link #foldCase(char)})
+	 */
+	private final Node caseInsensitiveRoot = new Node();
+	private final IdPrefix[] prefixes;
+
+	/**
+	 * @param prefixes
+	 *            the prefixes, in matching order
+	 */
+	public IdPrefixTrie(T[] prefixes) {
+		this.prefixes = prefixes.clone();
+		for (int order = 0; order < prefixes.length; order++) {
+			String prefix = prefixes[order].getPrefix();
+			boolean caseSensitive = prefixes[order].isCaseSensitive();
+			Node node = (caseSensitive) ? caseSensitiveRoot : caseInsensitiveRoot;
+			for (int i = 0; i < prefix.length(); i++) {
+				node = node.addChild((caseSensitive) ? prefix.charAt(i) : foldCase(prefix.charAt(i)));
+			}
+			node.addPrefixIndex(order);
+		}
+	}
+
+	/**
+	 * @param idStr
+	 * @return the first prefix that matches, and accepts, the specified identifier string, or null
+	 *         if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public T getPrefix(String idStr) {
+		int matchIndex = prefixes.length;
+		Node caseSensitiveNode = caseSensitiveRoot;
+		Node caseInsensitiveNode = caseInsensitiveRoot;
+		for (int i = 0; caseSensitiveNode != null || caseInsensitiveNode != null; i++) {
+			if (caseSensitiveNode != null) {
+				matchIndex = caseSensitiveNode.getFirstAcceptingPrefixIndex(prefixes, idStr, matchIndex);
+			}
+			if (caseInsensitiveNode != null) {
+				matchIndex = caseInsensitiveNode.getFirstAcceptingPrefixIndex(prefixes, idStr, matchIndex);
+			}
+			if (i == idStr.length()) {
+				break;
+			}
+			char c = idStr.charAt(i);
+			if (caseSensitiveNode != null) {
+				caseSensitiveNode = caseSensitiveNode.getChild(c);
+			}
+			if (caseInsensitiveNode != null) {
+				caseInsensitiveNode = caseInsensitiveNode.getChild(foldCase(c));
+			}
+		}
+		return (matchIndex < prefixes.length) ? (T) prefixes[matchIndex] : null;
+	}
+
+	/**
+	 * @return a character that is equal for two characters if and only if they are equal when
+	 *         case is ignored, as defined by
+	 *         {@link String#regionMatches(boolean, int, String, int, int)}
+	 */
+	private static char foldCase(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static class Node {
+		private char[] keys = new char[0];
+		private Node[] children = new Node[0];
+		/**
+		 * the indexes of the prefixes that end at this node, in ascending order
+		 */
+		private int[] prefixIndexes = new int[0];
+
+		private Node getChild(char key) {
+			int index = Arrays.binarySearch(keys, key);
+			return (index >= 0) ? children[index] : null;
+		}
+
+		private Node addChild(char key) {
+			int index = Arrays.binarySearch(keys, key);
+			if (index >= 0) {
+				return children[index];
+			}
+			int insertionIndex = -(index + 1);
+			char[] expandedKeys = new char[keys.length + 1];
+			Node[] expandedChildren = Arrays.copyOf(children, children.length + 1);
+			System.arraycopy(keys, 0, expandedKeys, 0, insertionIndex);
+			System.arraycopy(keys, insertionIndex, expandedKeys, insertionIndex + 1, keys.length - insertionIndex);
+			System.arraycopy(children, insertionIndex, expandedChildren, insertionIndex + 1, children.length
+					- insertionIndex);
+			Node child = new Node();
+			expandedKeys[insertionIndex] = key;
+			expandedChildren[insertionIndex] = child;
+			keys = expandedKeys;
+			children = expandedChildren;
+			return child;
+		}
+
+		private void addPrefixIndex(int prefixIndex) {
+			prefixIndexes = Arrays.copyOf(prefixIndexes, prefixIndexes.length + 1);
+			prefixIndexes[prefixIndexes.length - 1] = prefixIndex;
+		}
+
+		/**
+		 * @return the index of the first prefix ending at this node that precedes the specified
+		 *         index and accepts the specified identifier string, or the specified index if
+		 *         there is none
+		 */
+		private int getFirstAcceptingPrefixIndex(IdPrefix[] prefixes, String idStr, int matchIndex) {
+			for (int prefixIndex : prefixIndexes) {
+				if (prefixIndex >= matchIndex) {
+					break;
+				}
+				if (prefixes[prefixIndex].accepts(idStr)) {
+					return prefixIndex;
+				}
+			}
+			return matchIndex;
+		}
+	}
+
+}
@@ -0,0 +1,457 @@
+package edu.ucdenver.ccp.datasource.identifiers;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.string.StringConstants;
+import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.identifiers.dip.DipInteractionID;
+import edu.ucdenver.ccp.datasource.identifiers.dip.DipInteractorID;
+import edu.ucdenver.ccp.datasource.identifiers.drugbank.DrugBankID;
+import edu.ucdenver.ccp.datasource.identifiers.drugbank.DrugCodeDirectoryID;
+import edu.ucdenver.ccp.datasource.identifiers.drugbank.DrugsProductDatabaseID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.embl.EmblID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.intact.IntActID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.interpro.InterProID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.interpro.PirID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.interpro.TigrFamsID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.ipi.IpiID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtID;
+import edu.ucdenver.ccp.datasource.identifiers.ebi.uniprot.UniProtIsoformID;
+import edu.ucdenver.ccp.datasource.identifiers.ensembl.EnsemblGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.flybase.FlyBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.hgnc.HgncID;
+import edu.ucdenver.ccp.datasource.identifiers.hprd.HprdID;
+import edu.ucdenver.ccp.datasource.identifiers.kegg.KeggCompoundID;
+import edu.ucdenver.ccp.datasource.identifiers.kegg.KeggDrugID;
+import edu.ucdenver.ccp.datasource.identifiers.kegg.KeggGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.kegg.KeggPathwayID;
+import edu.ucdenver.ccp.datasource.identifiers.mgi.MgiGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.mint.MintID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.GenBankID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.gene.EntrezGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.gene.GiNumberID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.homologene.HomologeneGroupID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.omim.OmimID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.refseq.RefSeqID;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.snp.SnpRsId;
+import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
+import edu.ucdenver.ccp.datasource.identifiers.obo.CellTypeOntologyID;
+import edu.ucdenver.ccp.datasource.identifiers.obo.ChebiOntologyID;
+import edu.ucdenver.ccp.datasource.identifiers.obo.GeneOntologyID;
+import edu.ucdenver.ccp.datasource.identifiers.obo.MammalianPhenotypeID;
+import edu.ucdenver.ccp.datasource.identifiers.obo.ProteinOntologyId;
+import edu.ucdenver.ccp.datasource.identifiers.obo.SequenceOntologyId;
+import edu.ucdenver.ccp.datasource.identifiers.other.AnimalQtlDbID;
+import edu.ucdenver.ccp.datasource.identifiers.other.AphidBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.ApiDbCryptoDbID;
+import edu.ucdenver.ccp.datasource.identifiers.other.BeeBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.BeetleBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.BindingDbId;
+import edu.ucdenver.ccp.datasource.identifiers.other.CgncID;
+import edu.ucdenver.ccp.datasource.identifiers.other.ChemSpiderId;
+import edu.ucdenver.ccp.datasource.identifiers.other.DailyMedId;
+import edu.ucdenver.ccp.datasource.identifiers.other.DbjID;
+import edu.ucdenver.ccp.datasource.identifiers.other.DictyBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.EcoCycID;
+import edu.ucdenver.ccp.datasource.identifiers.other.EcoGeneID;
+import edu.ucdenver.ccp.datasource.identifiers.other.EmbID;
+import edu.ucdenver.ccp.datasource.identifiers.other.ImgtID;
+import edu.ucdenver.ccp.datasource.identifiers.other.IupharLigandId;
+import edu.ucdenver.ccp.datasource.identifiers.other.MaizeGdbID;
+import edu.ucdenver.ccp.datasource.identifiers.other.MiRBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.NasoniaBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.NationalDrugCodeDirectoryId;
+import edu.ucdenver.ccp.datasource.identifiers.other.PathemaID;
+import edu.ucdenver.ccp.datasource.identifiers.other.PbrID;
+import edu.ucdenver.ccp.datasource.identifiers.other.PseudoCapID;
+import edu.ucdenver.ccp.datasource.identifiers.other.PubChemCompoundId;
+import edu.ucdenver.ccp.datasource.identifiers.other.PubChemSubstanceId;
+import edu.ucdenver.ccp.datasource.identifiers.other.RatMapID;
+import edu.ucdenver.ccp.datasource.identifiers.other.TairID;
+import edu.ucdenver.ccp.datasource.identifiers.other.TherapeuticTargetsDatabaseId;
+import edu.ucdenver.ccp.datasource.identifiers.other.UniParcID;
+import edu.ucdenver.ccp.datasource.identifiers.other.VbrcID;
+import edu.ucdenver.ccp.datasource.identifiers.other.VectorBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.VegaID;
+import edu.ucdenver.ccp.datasource.identifiers.other.WikipediaId;
+import edu.ucdenver.ccp.datasource.identifiers.other.XenBaseID;
+import edu.ucdenver.ccp.datasource.identifiers.other.ZfinID;
+import edu.ucdenver.ccp.datasource.identifiers.pdb.PdbID;
+import edu.ucdenver.ccp.datasource.identifiers.pdb.PdbLigandId;
+import edu.ucdenver.ccp.datasource.identifiers.pharmgkb.PharmGkbID;
+import edu.ucdenver.ccp.datasource.identifiers.psi.PsiModId;
+import edu.ucdenver.ccp.datasource.identifiers.reactome.ReactomeReactionID;
+import edu.ucdenver.ccp.datasource.identifiers.rgd.RgdID;
+import edu.ucdenver.ccp.datasource.identifiers.sgd.SgdID;
+import edu.ucdenver.ccp.datasource.identifiers.wormbase.WormBaseID;
+import edu.ucdenver.ccp.identifier.publication.PubMedID;
+
+/**
+ * Tests that the prefix-trie based resolution of {@link DataSourceIdResolver} is equivalent to the
+ * chains of prefix tests that it replaced, which are reproduced below (without logging)
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class DataSourceIdResolverTest {
+
+	/**
+	 * every prefix and database name tested by the chains
+	 */
+	private static final String[] PREFIXES = {
+			"APHIDBASE:", "AnimalQTLdb:", "ApiDB_CryptoDB:", "BEEBASE:", "BEETLEBASE:", "CGNC:", "CHEBI:",
+			"CL:", "DIP", "DPD", "DailyMed", "Drugs Product Database (DPD)", "ECOCYC:", "EG", "EG_", "EMBL",
+			"EcoGene:", "Ensembl", "Ensembl:", "FLYBASE:", "GO:", "GenBank", "GenBank Gene Database",
+			"GenBank Protein Database", "HET", "HGNC", "HGNC:", "HOMOLOGENE_GROUP_", "HPRD", "HPRD:",
+			"IMGT/GENE-DB:", "IPR", "InterPro:", "KEGG_", "KEGG_PATHWAY", "MGI", "MGI:", "MIM:", "MOD:", "MP:",
+			"MaizeGDB:", "NASONIABASE:", "NCBI-GI", "NCBI-GeneID", "NCBITaxon:", "National Drug Code Directory",
+			"OMIM", "PBR:", "PDB:", "PR:", "Pathema:", "PharmGKB", "PseudoCap:", "RATMAP:", "RGD", "RGD:",
+			"Reactome:", "RefSeq", "RefSeq:", "SGD:", "SO:", "Swiss-Prot:", "TAIR:", "TIGR:", "TREMBL:", "TTD",
+			"UniProt", "UniProt/Swiss-Prot:", "UniProtKB", "UniProtKB/Swiss-Prot:", "VBRC:", "VEGA",
+			"VectorBase:", "Vega:", "WormBase:", "Xenbase:", "ZFIN:", "bindingDb", "chebi", "chemSpider",
+			"dbj:", "dictyBase:", "dip:", "dpd", "drugbank", "emb:", "entrezgene/locuslink:", "gb:",
+			"genbank_protein_gi:", "http://en.wikipedia.org/wiki/", "intact:", "ipi:", "iupharLigand",
+			"keggcompound", "keggdrug", "miRBase:", "mint:", "ncbi-geneid:", "ndc", "pdb", "pir:",
+			"pubchemcompound", "pubchemsubstance", "pubmed:", "refseq:", "rs", "uniparc:", "uniprot",
+			"uniprot knowledge base:", "uniprotkb:", "url" };
+
+	private static final String[] SUFFIXES = { "", "1", "12345", "P12345", "P12345-2", "p12345", "Q9Y6K9_HUMAN",
+			"DIP-12345N", "DIP-123E", "NM_012345", "NP_012345.2", "AB012345", "1ABC", "ATP", "IPR000001", "rs12345",
+			"GO:0005623", "FBgn0000001", "EG10001", "ENSG00000139618", "http://en.wikipedia.org/wiki/Aspirin", ":",
+			"::12345", "12345N", "12345E", "abc def" };
+
+	@Test
+	public void testResolveId_EquivalentToPrefixChain() {
+		for (String idStr : getIdStrings()) {
+			assertEquals(idStr, legacyResolveId(idStr), DataSourceIdResolver.resolveId(idStr));
+		}
+	}
+
+	@Test
+	public void testResolveIdWithDatabaseName_EquivalentToNameChain() {
+		for (String databaseName : getIdStrings()) {
+			for (String id : SUFFIXES) {
+				/* invalid identifiers are not caught by this method */
+				Object expected;
+				try {
+					expected = legacyResolveId(databaseName, id);
+				} catch (IllegalArgumentException e) {
+					expected = e.getMessage();
+				}
+				Object resolved;
+				try {
+					resolved = DataSourceIdResolver.resolveId(databaseName, id);
+				} catch (IllegalArgumentException e) {
+					resolved = e.getMessage();
+				}
+				assertEquals(databaseName + " " + id, expected, resolved);
+			}
+		}
+	}
+
+	@Test
+	public void testResolveId() {
+		assertEquals(new MgiGeneID("MGI:12345"), DataSourceIdResolver.resolveId("MGI:12345"));
+		assertEquals(new UniProtIsoformID("P12345-2"), DataSourceIdResolver.resolveId("UniProtKB/Swiss-Prot:p12345-2"));
+		assertEquals(new FlyBaseID("FBGN0000001"), DataSourceIdResolver.resolveId("flybase:FBgn0000001"));
+		assertEquals(new DipInteractionID("DIP-123E"), DataSourceIdResolver.resolveId("dip:DIP-123E"));
+		assertEquals(new KeggGeneID("KEGG_PATHWAY_1"), DataSourceIdResolver.resolveId("KEGG_PATHWAY_1"));
+		assertEquals(new SnpRsId("rs12345"), DataSourceIdResolver.resolveId("rs12345"));
+		assertEquals(new UnknownDataSourceIdentifier("rsid"), DataSourceIdResolver.resolveId("rsid"));
+		assertEquals(new PdbLigandId("ATP"), DataSourceIdResolver.resolveId("PDB", "ATP"));
+		assertEquals(new UnknownDataSourceIdentifier("ATP", "PDB ligand"),
+				DataSourceIdResolver.resolveId("PDB ligand", "ATP"));
+	}
+
+	/**
+	 * @return each prefix, in its original, lower and upper case and truncated by one character,
+	 *         followed by each suffix
+	 */
+	private static List<String> getIdStrings() {
+		List<String> idStrings = new ArrayList<String>();
+		for (String prefix : PREFIXES) {
+			for (String prefixVariant : new String[] { prefix, prefix.toLowerCase(), prefix.toUpperCase(),
+					prefix.substring(0, prefix.length() - 1) }) {
+				for (String suffix : SUFFIXES) {
+					idStrings.add(prefixVariant + suffix);
+				}
+			}
+		}
+		return idStrings;
+	}
+
+	private static DataSourceIdentifier<?> legacyResolveId(String databaseName, String databaseObjectID) {
+		if (databaseName.equalsIgnoreCase("MGI"))
+			return new MgiGeneID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("RGD"))
+			return new RgdID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("UniProtKB"))
+			return new UniProtID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("chebi"))
+			return new ChebiOntologyID("CHEBI:" + databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("DIP"))
+			return new DipInteractorID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("drugbank"))
+			return new DrugBankID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("keggdrug"))
+			return new KeggDrugID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("keggcompound"))
+			return new KeggCompoundID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("pubchemcompound"))
+			return new PubChemCompoundId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("pubchemsubstance"))
+			return new PubChemSubstanceId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("EG"))
+			return new EntrezGeneID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("Ensembl"))
+			return new EnsemblGeneID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("EMBL"))
+			return new EmblID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("RefSeq"))
+			return new RefSeqID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("VEGA"))
+			return new VegaID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("NCBI-GI"))
+			return new GiNumberID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("NCBI-GeneID"))
+			return new EntrezGeneID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("OMIM"))
+			return new OmimID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("HGNC"))
+			return new HgncID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("HPRD"))
+			return new HprdID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("UniProt"))
+			return new UniProtID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("PharmGKB"))
+			return new PharmGkbID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("TTD"))
+			return new TherapeuticTargetsDatabaseId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("bindingDb"))
+			return new BindingDbId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("chemSpider"))
+			return new ChemSpiderId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("dpd"))
+			return new DrugsProductDatabaseID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("DailyMed"))
+			return new DailyMedId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("HET"))
+			return new PdbLigandId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("iupharLigand"))
+			return new IupharLigandId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("ndc"))
+			return new NationalDrugCodeDirectoryId(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("pdb")) {
+			if (databaseObjectID.length() == 3) {
+				return new PdbLigandId(databaseObjectID);
+			}
+			return new PdbID(databaseObjectID);
+		} else if (databaseName.equalsIgnoreCase("Drugs Product Database (DPD)")
+				|| databaseName.equalsIgnoreCase("DPD"))
+			return new DrugsProductDatabaseID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("National Drug Code Directory"))
+			return new DrugCodeDirectoryID(databaseObjectID);
+		else if (databaseName.equalsIgnoreCase("url")) {
+			if (databaseObjectID.startsWith("http://en.wikipedia.org/wiki/")) {
+				return new WikipediaId(StringUtil.removePrefix(databaseObjectID, "http://en.wikipedia.org/wiki/"));
+			}
+		} else if (databaseName.equalsIgnoreCase("GenBank") || databaseName.equalsIgnoreCase("GenBank Gene Database")
+				|| databaseName.equalsIgnoreCase("GenBank Protein Database"))
+			return new GenBankID(databaseObjectID);
+
+		return new UnknownDataSourceIdentifier(databaseObjectID, databaseName);
+	}
+
+	private static DataSourceIdentifier<?> legacyResolveId(String geneIDStr) {
+		try {
+			if (geneIDStr.startsWith("MGI:"))
+				return new MgiGeneID(geneIDStr);
+			else if (geneIDStr.startsWith("ncbi-geneid:"))
+				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, "ncbi-geneid:"));
+			else if (geneIDStr.startsWith("entrezgene/locuslink:"))
+				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, "entrezgene/locuslink:"));
+			else if (geneIDStr.startsWith("Ensembl:"))
+				return new EnsemblGeneID(StringUtil.removePrefix(geneIDStr, "Ensembl:"));
+			else if (geneIDStr.startsWith("refseq:"))
+				return new RefSeqID(StringUtil.removePrefix(geneIDStr, "refseq:"));
+			else if (StringUtil.startsWithRegex(geneIDStr.toLowerCase(), "uniprot.*?:")) {
+				geneIDStr = StringUtil.removePrefixRegex(geneIDStr.toLowerCase(), "uniprot.*?:");
+				if (geneIDStr.contains(StringConstants.HYPHEN_MINUS))
+					return new UniProtIsoformID(geneIDStr.toUpperCase());
+
+				return new UniProtID(geneIDStr.toUpperCase());
+			} else if (geneIDStr.startsWith("Swiss-Prot:"))
+				return new UniProtID(StringUtil.removePrefix(geneIDStr, "Swiss-Prot:"));
+			else if (geneIDStr.startsWith("TREMBL:"))
+				return new UniProtID(StringUtil.removePrefix(geneIDStr, "TREMBL:"));
+			else if (geneIDStr.startsWith("TAIR:"))
+				return new TairID(StringUtil.removePrefix(geneIDStr, "TAIR:"));
+			else if (geneIDStr.startsWith("MaizeGDB:"))
+				return new MaizeGdbID(StringUtil.removePrefix(geneIDStr, "MaizeGDB:"));
+			else if (geneIDStr.startsWith("WormBase:"))
+				return new WormBaseID(StringUtil.removePrefix(geneIDStr, "WormBase:"));
+			else if (geneIDStr.startsWith("BEEBASE:"))
+				return new BeeBaseID(StringUtil.removePrefix(geneIDStr, "BEEBASE:"));
+			else if (geneIDStr.startsWith("NASONIABASE:"))
+				return new NasoniaBaseID(StringUtil.removePrefix(geneIDStr, "NASONIABASE:"));
+			else if (geneIDStr.startsWith("VectorBase:"))
+				return new VectorBaseID(StringUtil.removePrefix(geneIDStr, "VectorBase:"));
+			else if (geneIDStr.startsWith("APHIDBASE:"))
+				return new AphidBaseID(StringUtil.removePrefix(geneIDStr, "APHIDBASE:"));
+			else if (geneIDStr.startsWith("BEETLEBASE:"))
+				return new BeetleBaseID(StringUtil.removePrefix(geneIDStr, "BEETLEBASE:"));
+			else if (geneIDStr.toUpperCase().startsWith("FLYBASE:"))
+				return new FlyBaseID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "FLYBASE:"));
+			else if (geneIDStr.startsWith("ZFIN:"))
+				return new ZfinID(StringUtil.removePrefix(geneIDStr, "ZFIN:"));
+			else if (geneIDStr.startsWith("AnimalQTLdb:"))
+				return new AnimalQtlDbID(StringUtil.removePrefix(geneIDStr, "AnimalQTLdb:"));
+			else if (geneIDStr.startsWith("RGD:"))
+				return new RgdID(StringUtil.removePrefix(geneIDStr, "RGD:"));
+			else if (geneIDStr.startsWith("PBR:"))
+				return new PbrID(StringUtil.removePrefix(geneIDStr, "PBR:"));
+			else if (geneIDStr.startsWith("VBRC:"))
+				return new VbrcID(StringUtil.removePrefix(geneIDStr, "VBRC:"));
+			else if (geneIDStr.startsWith("Pathema:"))
+				return new PathemaID(StringUtil.removePrefix(geneIDStr, "Pathema:"));
+			else if (geneIDStr.startsWith("PseudoCap:"))
+				return new PseudoCapID(StringUtil.removePrefix(geneIDStr, "PseudoCap:"));
+			else if (geneIDStr.startsWith("ApiDB_CryptoDB:"))
+				return new ApiDbCryptoDbID(StringUtil.removePrefix(geneIDStr, "ApiDB_CryptoDB:"));
+			else if (geneIDStr.startsWith("dictyBase:"))
+				return new DictyBaseID(StringUtil.removePrefix(geneIDStr, "dictyBase:"));
+			else if (geneIDStr.startsWith("UniProtKB/Swiss-Prot:"))
+				return new UniProtID(StringUtil.removePrefix(geneIDStr, "UniProtKB/Swiss-Prot:"));
+			else if (geneIDStr.startsWith("InterPro:"))
+				return new InterProID(StringUtil.removePrefix(geneIDStr, "InterPro:"));
+			else if (geneIDStr.startsWith("EcoGene:"))
+				return new EcoGeneID(StringUtil.removePrefix(geneIDStr, "EcoGene:"));
+			else if (geneIDStr.toUpperCase().startsWith("ECOCYC:"))
+				return new EcoCycID(StringUtil.removePrefix(geneIDStr.toUpperCase(), "ECOCYC:"));
+			else if (geneIDStr.startsWith("SGD:"))
+				return new SgdID(StringUtil.removePrefix(geneIDStr, "SGD:"));
+			else if (geneIDStr.startsWith("RATMAP:"))
+				return new RatMapID(StringUtil.removePrefix(geneIDStr, "RATMAP:"));
+			else if (geneIDStr.startsWith("Xenbase:"))
+				return new XenBaseID(StringUtil.removePrefix(geneIDStr, "Xenbase:"));
+			else if (geneIDStr.startsWith("CGNC:"))
+				return new CgncID(StringUtil.removePrefix(geneIDStr, "CGNC:"));
+			else if (geneIDStr.startsWith("HGNC:"))
+				return new HgncID(geneIDStr);
+			else if (geneIDStr.startsWith("MIM:"))
+				return new OmimID(StringUtil.removePrefix(geneIDStr, "MIM:"));
+			else if (geneIDStr.startsWith("HPRD:"))
+				return new HprdID(StringUtil.removePrefix(geneIDStr, "HPRD:"));
+			else if (geneIDStr.startsWith("IMGT/GENE-DB:"))
+				return new ImgtID(StringUtil.removePrefix(geneIDStr, "IMGT/GENE-DB:"));
+			else if (geneIDStr.startsWith("PDB:"))
+				return new PdbID(StringUtil.removePrefix(geneIDStr, "PDB:"));
+			else if (geneIDStr.toLowerCase().startsWith("gb:"))
+				return new GenBankID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "gb:").toUpperCase());
+			else if (geneIDStr.startsWith("emb:"))
+				return new EmbID(StringUtil.removePrefix(geneIDStr, "emb:"));
+			else if (geneIDStr.startsWith("dbj:"))
+				return new DbjID(StringUtil.removePrefix(geneIDStr, "dbj:"));
+			else if (geneIDStr.startsWith("intact:"))
+				return new IntActID(StringUtil.removePrefix(geneIDStr, "intact:"));
+			else if (geneIDStr.startsWith("RefSeq:"))
+				return new RefSeqID(StringUtil.removePrefix(geneIDStr, "RefSeq:"));
+			else if (geneIDStr.startsWith("uniparc:"))
+				return new UniParcID(StringUtil.removePrefix(geneIDStr, "uniparc:"));
+			else if (geneIDStr.startsWith("genbank_protein_gi:"))
+				return new GiNumberID(StringUtil.removePrefix(geneIDStr, "genbank_protein_gi:"));
+			else if (geneIDStr.toLowerCase().startsWith("pir:"))
+				return new PirID(StringUtil.removePrefix(geneIDStr.toLowerCase(), "pir:").toUpperCase());
+			else if (geneIDStr.startsWith("pubmed:"))
+				return new PubMedID(StringUtil.removePrefix(geneIDStr, "pubmed:"));
+			else if (geneIDStr.startsWith("dip:") && geneIDStr.endsWith("N"))
+				return new DipInteractorID(StringUtil.removePrefix(geneIDStr, "dip:"));
+			else if (geneIDStr.startsWith("dip:") && geneIDStr.endsWith("E"))
+				return new DipInteractionID(StringUtil.removePrefix(geneIDStr, "dip:"));
+			else if (geneIDStr.startsWith("TIGR:"))
+				return new TigrFamsID(StringUtil.removePrefix(geneIDStr, "TIGR:"));
+			else if (geneIDStr.startsWith("ipi:"))
+				return new IpiID(StringUtil.removePrefix(geneIDStr, "ipi:"));
+			else if (geneIDStr.startsWith("mint:"))
+				return new MintID(StringUtil.removePrefix(geneIDStr, "mint:"));
+			else if (geneIDStr.startsWith("Reactome:"))
+				return new ReactomeReactionID(StringUtil.removePrefix(geneIDStr, "Reactome:"));
+			else if (geneIDStr.startsWith("miRBase:"))
+				return new MiRBaseID(StringUtil.removePrefix(geneIDStr, "miRBase:"));
+			else if (geneIDStr.startsWith("PR:"))
+				return new ProteinOntologyId(geneIDStr);
+			else if (geneIDStr.startsWith("SO:"))
+				return new SequenceOntologyId(geneIDStr);
+			else if (geneIDStr.startsWith("GO:"))
+				return new GeneOntologyID(geneIDStr);
+			else if (geneIDStr.startsWith("CHEBI:"))
+				return new ChebiOntologyID(geneIDStr);
+			else if (geneIDStr.startsWith("MP:"))
+				return new MammalianPhenotypeID(geneIDStr);
+			else if (geneIDStr.startsWith("MOD:"))
+				return new PsiModId(geneIDStr);
+			else if (geneIDStr.startsWith("KEGG_"))
+				return new KeggGeneID(geneIDStr);
+			else if (geneIDStr.startsWith("KEGG_PATHWAY"))
+				return new KeggPathwayID(geneIDStr);
+			else if (geneIDStr.startsWith("EG_"))
+				return new EntrezGeneID(StringUtil.removePrefix(geneIDStr, "EG_"));
+			else if (geneIDStr.startsWith("HOMOLOGENE_GROUP_"))
+				return new HomologeneGroupID(StringUtil.removePrefix(geneIDStr, "HOMOLOGENE_GROUP_"));
+			else if (geneIDStr.matches("IPR\\d+"))
+				return new InterProID(geneIDStr);
+			else if (geneIDStr.matches("rs\\d+"))
+				return new SnpRsId(geneIDStr);
+			else if (geneIDStr.startsWith("CL:"))
+				return new CellTypeOntologyID(geneIDStr);
+			else if (geneIDStr.startsWith("Vega:"))
+				return new VegaID(StringUtil.removePrefix(geneIDStr, "Vega:"));
+			else if (geneIDStr.startsWith("NCBITaxon:"))
+				return new NcbiTaxonomyID(StringUtil.removePrefix(geneIDStr, "NCBITaxon:"));
+
+			return new UnknownDataSourceIdentifier(geneIDStr);
+		} catch (IllegalArgumentException e) {
+			return new ProbableErrorDataSourceIdentifier(geneIDStr, null, e.getMessage());
+		}
+
+	}
+
+}
@@ -0,0 +1,164 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A Bloom filter for strings. The number of bits and hash functions are derived from the expected
+ * number of insertions and the desired false-positive probability. The bits can be stored on the
+ * Java heap or off-heap (in a direct buffer) so that large filters do not compete with the heap
+ * used by the rest of the RDF generation process.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BloomFilter {
+
+	/**
+	 * the largest number of bits that can be addressed by a single {@link LongBuffer} when
+	 * off-heap storage is used (direct buffers are limited to {@link Integer#MAX_VALUE} bytes)
+	 */
+	private static final long MAX_OFF_HEAP_BIT_COUNT = (Integer.MAX_VALUE / 8L) * 64L;
+
+	private final LongBuffer bits;
+	private final long bitCount;
+	private final int hashFunctionCount;
+
+	/**
+	 * @param expectedInsertions
+	 *            the number of distinct strings that are expected to be added to the filter
+	 * @param falsePositiveProbability
+	 *            the desired probability that {@link #mightContain(String)} returns true for a
+	 *            string that was not added once expectedInsertions strings have been added
+	 * @param offHeap
+	 *            if true the bits are stored in a direct buffer
+	 */
+	public BloomFilter(long expectedInsertions, double falsePositiveProbability, boolean offHeap) {
+		if (expectedInsertions < 1) {
+			throw new IllegalArgumentException("The expected number of insertions must be > 0 but was: "
+					+ expectedInsertions);
+		}
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+			throw new IllegalArgumentException("The false positive probability must be in (0,1) but was: "
+					+ falsePositiveProbability);
+		}
+		long optimalBitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability)
+				/ (Math.log(2) * Math.log(2)));
+		long longCount = (Math.max(optimalBitCount, 64) + 63) / 64;
+		if (offHeap && longCount * 64 > MAX_OFF_HEAP_BIT_COUNT) {
+			throw new IllegalArgumentException("Bloom filter is too large to store off-heap: " + (longCount * 64)
+					+ " bits");
+		}
+		if (longCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bloom filter is too large: " + (longCount * 64) + " bits");
+		}
+		bitCount = longCount * 64;
+		hashFunctionCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+		if (offHeap) {
+			bits = ByteBuffer.allocateDirect((int) longCount * 8).asLongBuffer();
+		} else {
+			bits = LongBuffer.allocate((int) longCount);
+		}
+	}
+
+	/**
+	 * Adds the specified string to the filter
+	 * 
+	 * @param s
+	 */
+	public void put(String s) {
+		long hash1 = hash(s);
+		long hash2 = mix(hash1 ^ 0xc2b2ae3d27d4eb4fL) | 1;
+		for (int i = 0; i < hashFunctionCount; i++) {
+			long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+			int longIndex = (int) (bitIndex >>> 6);
+			bits.put(longIndex, bits.get(longIndex) | (1L << bitIndex));
+		}
+	}
+
+	/**
+	 * @param s
+	 * @return false if the string has definitely not been added to the filter, true if it might
+	 *         have been added
+	 */
+	public boolean mightContain(String s) {
+		long hash1 = hash(s);
+		long hash2 = mix(hash1 ^ 0xc2b2ae3d27d4eb4fL) | 1;
+		for (int i = 0; i < hashFunctionCount; i++) {
+			long bitIndex = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+			if ((bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long getBitCount() {
+		return bitCount;
+	}
+
+	public int getHashFunctionCount() {
+		return hashFunctionCount;
+	}
+
+	/**
+	 * @return a 64-bit hash (FNV-1a over the characters followed by a finalization step) of the
+	 *         specified string
+	 */
+	private static long hash(String s) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < s.length(); i++) {
+			hash ^= s.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * the 64-bit finalization step of MurmurHash3
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
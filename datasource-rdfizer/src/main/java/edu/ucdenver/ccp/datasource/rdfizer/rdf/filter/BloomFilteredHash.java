@@ -0,0 +1,137 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.IOException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Places a {@link BloomFilter} in front of a {@link DiskBasedHash}. Most of the keys looked up by
+ * the {@link DuplicateFieldValueFilter} have never been observed; for those keys the Bloom filter
+ * usually answers definitively so the (disk-based) lookup is skipped. The answers returned by
+ * {@link #contains(Object)} are identical to those of the wrapped hash provided the wrapped hash is
+ * empty when it is wrapped and it is only modified via this class.
+ * <p>
+ * Counters for the number of disk lookups avoided and the observed false-positive rate of the Bloom
+ * filter are logged by {@link #shutdown()}.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BloomFilteredHash implements DiskBasedHash {
+
+	private static final Logger logger = Logger.getLogger(BloomFilteredHash.class);
+
+	private final DiskBasedHash hash;
+	private final BloomFilter bloomFilter;
+
+	private long lookupCount = 0;
+	/**
+	 * the number of lookups answered by the Bloom filter alone
+	 */
+	private long diskLookupsAvoidedCount = 0;
+	/**
+	 * the number of lookups for which the Bloom filter reported a possible match that the wrapped
+	 * hash did not contain
+	 */
+	private long falsePositiveCount = 0;
+
+	/**
+	 * @param hash
+	 *            the hash to wrap; it must be empty
+	 * @param expectedKeyCount
+	 *            the number of distinct keys expected to be added, used to size the Bloom filter
+	 * @param falsePositiveProbability
+	 *            the desired false-positive probability of the Bloom filter
+	 * @param offHeap
+	 *            if true the Bloom filter bits are stored off-heap
+	 */
+	public BloomFilteredHash(DiskBasedHash hash, long expectedKeyCount, double falsePositiveProbability,
+			boolean offHeap) {
+		this.hash = hash;
+		this.bloomFilter = new BloomFilter(expectedKeyCount, falsePositiveProbability, offHeap);
+		logger.info("Bloom filter initialized. Bits: " + bloomFilter.getBitCount() + " Hash functions: "
+				+ bloomFilter.getHashFunctionCount() + " Off-heap: " + offHeap);
+	}
+
+	@Override
+	public void add(Object o) throws IOException {
+		bloomFilter.put(o.toString());
+		hash.add(o);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		lookupCount++;
+		if (!bloomFilter.mightContain(o.toString())) {
+			diskLookupsAvoidedCount++;
+			return false;
+		}
+		boolean contains = hash.contains(o);
+		if (!contains) {
+			falsePositiveCount++;
+		}
+		return contains;
+	}
+
+	public long getLookupCount() {
+		return lookupCount;
+	}
+
+	public long getDiskLookupsAvoidedCount() {
+		return diskLookupsAvoidedCount;
+	}
+
+	public long getFalsePositiveCount() {
+		return falsePositiveCount;
+	}
+
+	/**
+	 * @return the fraction of lookups of keys not contained in the hash for which the Bloom filter
+	 *         reported a possible match
+	 */
+	public double getFalsePositiveRate() {
+		long negativeCount = diskLookupsAvoidedCount + falsePositiveCount;
+		return (negativeCount == 0) ? 0.0 : (double) falsePositiveCount / negativeCount;
+	}
+
+	@Override
+	public void shutdown() throws IOException {
+		logger.info("BLOOM FILTER LOOKUPS = " + lookupCount + " DISK LOOKUPS AVOIDED = " + diskLookupsAvoidedCount
+				+ " FALSE POSITIVES = " + falsePositiveCount + " FALSE POSITIVE RATE = " + getFalsePositiveRate());
+		hash.shutdown();
+	}
+
+}
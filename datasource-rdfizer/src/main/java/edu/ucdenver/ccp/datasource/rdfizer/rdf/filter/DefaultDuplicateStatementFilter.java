@@ -37,22 +37,50 @@ import java.io.File;
 import java.io.IOException;
 
 /**
- * Uses the JDBMS cache to store previously observed field values on disk
+ * Uses a {@link MappedDigestCache} to store the digests of previously observed field values on
+ * disk. A {@link BloomFilter} in front of the cache avoids most lookups of field values that have
+ * not been observed.
  * 
  * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
  * 
  */
 public class DefaultDuplicateStatementFilter extends DuplicateFieldValueFilter {
 
+	/**
+	 * the default number of distinct keys used to size the Bloom filter (~60MB off-heap). If more
+	 * keys are observed the false positive rate of the Bloom filter increases, however the results
+	 * of the filter are unaffected.
+	 */
+	public static final long DEFAULT_EXPECTED_KEY_COUNT = 50000000;
+
+	public static final double DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+
 	/**
 	 * @param cacheFilePrefix
-	 *            the file prefix where the JDBMS will catch information
+	 *            the file prefix used by the cache files
 	 * 
 	 * @throws IOException
 	 */
 	public DefaultDuplicateStatementFilter(File cacheFilePrefix) throws IOException {
-		super(new Jdbm2Cache(cacheFilePrefix));
+		this(cacheFilePrefix, DEFAULT_EXPECTED_KEY_COUNT, DEFAULT_BLOOM_FILTER_FALSE_POSITIVE_PROBABILITY, true);
+	}
 
+	/**
+	 * @param cacheFilePrefix
+	 *            the file prefix used by the cache files
+	 * @param expectedKeyCount
+	 *            the expected number of distinct record and field value keys, used to size the
+	 *            Bloom filter
+	 * @param falsePositiveProbability
+	 *            the desired false positive probability of the Bloom filter
+	 * @param offHeap
+	 *            if true the Bloom filter is stored off-heap
+	 * @throws IOException
+	 */
+	public DefaultDuplicateStatementFilter(File cacheFilePrefix, long expectedKeyCount,
+			double falsePositiveProbability, boolean offHeap) throws IOException {
+		super(new BloomFilteredHash(new MappedDigestCache(cacheFilePrefix), expectedKeyCount,
+				falsePositiveProbability, offHeap));
 	}
 
 	/**
@@ -35,13 +35,15 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.log4j.Logger;
@@ -54,6 +56,9 @@ import edu.ucdenver.ccp.common.file.FileWriterUtil;
 import edu.ucdenver.ccp.common.file.reader.Line;
 import edu.ucdenver.ccp.common.file.reader.StreamLineIterator;
 import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.GzipBlockIndex;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipInputStream;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipOutputStream;
 
 /**
  * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
@@ -66,6 +71,12 @@ public abstract class DuplicateFieldValueFilter implements DuplicateStatementFil
 	private final DiskBasedHash hash;
 	private List<File> noDupsFiles;
 	private String previousFieldValueKey = null;
+	/**
+	 * the number of threads used to decompress and compress the RDF files processed by
+	 * {@link #createNonRedundantRdfFiles(File)}, see {@link #setCompressionThreadCount(int)}. By
+	 * default the non-redundant files are plain gzip files.
+	 */
+	private int compressionThreadCount = 1;
 //	private int _3inARowCount = 0;
 
 	public DuplicateFieldValueFilter(DiskBasedHash hash) throws IOException {
@@ -134,6 +145,13 @@ public abstract class DuplicateFieldValueFilter implements DuplicateStatementFil
 		return uriStr.substring(uriStr.lastIndexOf("/"));
 	}
 
+	/**
+	 * Creates a non-redundant version of each RDF file in the directory, one file at a time. See
+	 * {@link NonRedundantRdfFileFactory} to process the files of a source in parallel.
+	 * 
+	 * @param baseRdfDirectory
+	 * @throws IOException
+	 */
 	public void createNonRedundantRdfFiles(File baseRdfDirectory) throws IOException {
 		Iterator<File> fileIterator = FileUtil.getFileIterator(baseRdfDirectory, true);
 		while (fileIterator.hasNext()) {
@@ -153,10 +171,19 @@ public abstract class DuplicateFieldValueFilter implements DuplicateStatementFil
 	 */
 	private void createNonRedundantRdfFile(File inputFile, File noDupsFile) throws IOException {
 		logger.info("Creating non-redundant version of file: " + inputFile.getAbsolutePath());
-		BufferedWriter writer = FileWriterUtil.initBufferedWriter(
-				new GZIPOutputStream(new FileOutputStream(noDupsFile)), CharacterEncoding.UTF_8);
-		StreamLineIterator lineIter = new StreamLineIterator(new GZIPInputStream(new FileInputStream(inputFile)),
-				CharacterEncoding.UTF_8, null);
+		ExecutorService compressionThreadPool = null;
+		OutputStream os;
+		if (compressionThreadCount > 1) {
+			compressionThreadPool = Executors.newFixedThreadPool(compressionThreadCount);
+			os = new ParallelGzipOutputStream(noDupsFile, GzipBlockIndex.getIndexFile(noDupsFile),
+					compressionThreadPool, compressionThreadCount, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+					Deflater.DEFAULT_COMPRESSION);
+		} else {
+			os = new GZIPOutputStream(new FileOutputStream(noDupsFile));
+		}
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(os, CharacterEncoding.UTF_8);
+		StreamLineIterator lineIter = new StreamLineIterator(ParallelGzipInputStream.open(inputFile,
+				compressionThreadCount), CharacterEncoding.UTF_8, null);
 		long previousTime = System.currentTimeMillis();
 		try {
 			int lineCount = 0;
@@ -197,6 +224,9 @@ public abstract class DuplicateFieldValueFilter implements DuplicateStatementFil
 				writer.close();
 			}
 			lineIter.close();
+			if (compressionThreadPool != null) {
+				compressionThreadPool.shutdown();
+			}
 		}
 
 	}
@@ -219,11 +249,23 @@ public abstract class DuplicateFieldValueFilter implements DuplicateStatementFil
 	 * @return
 	 */
 	private boolean isFieldRdfLine(String lineText) {
-		boolean isFieldLine = lineText.matches("^<?http://kabob.ucdenver.edu/iao/[^/]+/F_.*$");
+		boolean isFieldLine = NonRedundantRdfFileFactory.isFieldRdfLine(lineText);
 		logger.debug("is field line: " + isFieldLine + " " + lineText);
 		return isFieldLine;
 	}
 
+	/**
+	 * @param compressionThreadCount
+	 *            the number of threads used to decompress and compress RDF files in
+	 *            {@link #createNonRedundantRdfFiles(File)}; 1 (the default) for single-threaded
+	 *            (de)compression. If > 1, input files that have a {@link GzipBlockIndex} are
+	 *            decompressed in parallel and the non-redundant files are written as multi-member
+	 *            gzip files, each with a {@link GzipBlockIndex} file alongside it.
+	 */
+	public void setCompressionThreadCount(int compressionThreadCount) {
+		this.compressionThreadCount = compressionThreadCount;
+	}
+
 	/**
 	 * @return the noDupsFiles
 	 */
@@ -0,0 +1,447 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import edu.ucdenver.ccp.common.file.FileUtil;
+
+/**
+ * A {@link DiskBasedHash} specialized for the keys used by the {@link DuplicateFieldValueFilter},
+ * i.e. strings that end with an underscore followed by a URL-safe, unpadded Base64 encoded SHA-1
+ * digest, e.g. <code>entrezGeneID_rgB00oPB7KpKAed3uhvN2yGcHSE</code>. The portion of the key that
+ * precedes the digest selects a shard and the 160-bit digest is stored as 20 raw bytes in an
+ * open-addressing (linear probing) hash table that is backed by memory-mapped files, so every entry
+ * costs a fixed {@link #BYTES_PER_ENTRY} bytes (before accounting for the load factor). Tables
+ * double in size when their load factor exceeds {@link #MAX_LOAD_FACTOR}.
+ * <p>
+ * Keys that do not end with an encoded digest are stored in a separate table using the SHA-1 digest
+ * of the complete key. The cache stores every key that is added, so it is leak-proof.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class MappedDigestCache implements DiskBasedHash {
+
+	private static final Logger logger = Logger.getLogger(MappedDigestCache.class);
+
+	/**
+	 * the number of bytes used to store each entry in a table
+	 */
+	public static final int BYTES_PER_ENTRY = 20;
+
+	/**
+	 * the length of a Base64 encoded (URL-safe, no padding) SHA-1 digest
+	 */
+	private static final int ENCODED_DIGEST_LENGTH = 27;
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 1 << 16;
+
+	private static final double MAX_LOAD_FACTOR = 0.6;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int[] BASE64_URL_DECODE_TABLE = new int[128];
+	static {
+		Arrays.fill(BASE64_URL_DECODE_TABLE, -1);
+		String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+		for (int i = 0; i < alphabet.length(); i++) {
+			BASE64_URL_DECODE_TABLE[alphabet.charAt(i)] = i;
+		}
+	}
+
+	private final File storageDirectory;
+	private final String storageFileName;
+	private final long initialCapacity;
+
+	/**
+	 * maps the key prefix (the portion of the key preceding the encoded digest) to its table
+	 */
+	private final Map<String, DigestTable> prefixToTableMap = new HashMap<String, DigestTable>();
+
+	/**
+	 * stores keys that do not end with an encoded digest
+	 */
+	private DigestTable nonDigestKeyTable;
+
+	/**
+	 * the most recently used table, cached to avoid creating a prefix string for each lookup as
+	 * consecutive keys tend to share a prefix
+	 */
+	private DigestTable lastTable;
+	private String lastPrefix;
+
+	private final MessageDigest sha1;
+	private final byte[] digest = new byte[BYTES_PER_ENTRY];
+
+	private int tableCount = 0;
+	private long addCount = 0;
+
+	/**
+	 * @param storageFile
+	 *            the table files are created in the parent directory of this file and their names
+	 *            start with the name of this file. Any existing files in the directory are removed.
+	 * @throws IOException
+	 */
+	public MappedDigestCache(File storageFile) throws IOException {
+		this(storageFile, DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param storageFile
+	 *            the table files are created in the parent directory of this file and their names
+	 *            start with the name of this file. Any existing files in the directory are removed.
+	 * @param initialCapacity
+	 *            the initial number of entries per table, rounded up to a power of 2
+	 * @throws IOException
+	 */
+	public MappedDigestCache(File storageFile, long initialCapacity) throws IOException {
+		storageDirectory = storageFile.getAbsoluteFile().getParentFile();
+		storageFileName = storageFile.getName();
+		this.initialCapacity = Long.highestOneBit(Math.max(initialCapacity - 1, 1)) << 1;
+		logger.info("MAPPED DIGEST CACHE STORAGE: " + storageDirectory.getAbsolutePath());
+		if (!storageDirectory.exists()) {
+			logger.info("Creating directory to store duplicate filter cache files: " + storageDirectory);
+			FileUtil.mkdir(storageDirectory);
+		} else {
+			FileUtil.cleanDirectory(storageDirectory);
+		}
+		try {
+			sha1 = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not supported by this JVM.", e);
+		}
+	}
+
+	@Override
+	public void add(Object o) throws IOException {
+		addCount++;
+		getTable(o.toString(), true).add(digest);
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		DigestTable table = getTable(o.toString(), false);
+		return table != null && table.contains(digest);
+	}
+
+	/**
+	 * @return the number of keys stored by this cache
+	 */
+	public long size() {
+		long size = (nonDigestKeyTable == null) ? 0 : nonDigestKeyTable.size;
+		for (DigestTable table : prefixToTableMap.values()) {
+			size += table.size;
+		}
+		return size;
+	}
+
+	@Override
+	public void shutdown() throws IOException {
+		logger.info("shutting down MappedDigestCache... (adds: " + addCount + ", keys: " + size() + ")");
+		for (DigestTable table : getTables()) {
+			logger.info("cache size (" + table.name + "): " + table.size + " capacity: " + table.capacity);
+			table.close();
+		}
+		prefixToTableMap.clear();
+		nonDigestKeyTable = null;
+		lastTable = null;
+		lastPrefix = null;
+	}
+
+	private List<DigestTable> getTables() {
+		List<DigestTable> tables = new ArrayList<DigestTable>(prefixToTableMap.values());
+		if (nonDigestKeyTable != null) {
+			tables.add(nonDigestKeyTable);
+		}
+		return tables;
+	}
+
+	/**
+	 * Populates {@link #digest} with the digest portion of the specified key and returns the table
+	 * for the key's prefix
+	 * 
+	 * @param key
+	 * @param create
+	 *            if true the table is created if it does not exist
+	 * @return the table for the specified key, or null if create is false and the table does not
+	 *         exist
+	 */
+	private DigestTable getTable(String key, boolean create) {
+		int prefixLength = key.length() - ENCODED_DIGEST_LENGTH - 1;
+		if (prefixLength < 0 || key.charAt(prefixLength) != '_' || !decodeDigest(key, prefixLength + 1, digest)) {
+			byte[] keyDigest = sha1.digest(key.getBytes(UTF_8));
+			System.arraycopy(keyDigest, 0, digest, 0, BYTES_PER_ENTRY);
+			if (nonDigestKeyTable == null && create) {
+				nonDigestKeyTable = createTable("non-digest keys");
+			}
+			return nonDigestKeyTable;
+		}
+		if (lastPrefix != null && lastPrefix.length() == prefixLength
+				&& key.regionMatches(0, lastPrefix, 0, prefixLength)) {
+			return lastTable;
+		}
+		String prefix = key.substring(0, prefixLength);
+		DigestTable table = prefixToTableMap.get(prefix);
+		if (table == null) {
+			if (!create) {
+				return null;
+			}
+			table = createTable(prefix);
+			prefixToTableMap.put(prefix, table);
+		}
+		lastPrefix = prefix;
+		lastTable = table;
+		return table;
+	}
+
+	private DigestTable createTable(String name) {
+		try {
+			return new DigestTable(name, new File(storageDirectory, storageFileName + "." + (tableCount++)),
+					initialCapacity);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to create digest table for: " + name, e);
+		}
+	}
+
+	/**
+	 * Decodes a URL-safe, unpadded Base64 encoded SHA-1 digest
+	 * 
+	 * @param s
+	 * @param offset
+	 *            the index of the first character of the encoded digest
+	 * @param output
+	 *            populated with the 20 byte digest
+	 * @return false if the characters are not a valid encoding of a 20 byte digest
+	 */
+	static boolean decodeDigest(String s, int offset, byte[] output) {
+		int buffer = 0;
+		int bitCount = 0;
+		int outputIndex = 0;
+		for (int i = offset; i < offset + ENCODED_DIGEST_LENGTH; i++) {
+			char c = s.charAt(i);
+			int value = (c < 128) ? BASE64_URL_DECODE_TABLE[c] : -1;
+			if (value < 0) {
+				return false;
+			}
+			buffer = (buffer << 6) | value;
+			bitCount += 6;
+			if (bitCount >= 8) {
+				bitCount -= 8;
+				output[outputIndex++] = (byte) (buffer >> bitCount);
+				buffer &= (1 << bitCount) - 1;
+			}
+		}
+		/*
+		 * the final 2 bits are padding and must be zero, otherwise distinct strings would map to the
+		 * same digest
+		 */
+		return buffer == 0;
+	}
+
+	/**
+	 * An open-addressing hash table of 20 byte digests stored in a memory-mapped file. An all-zero
+	 * slot is empty, so the all-zero digest is tracked separately.
+	 */
+	private static class DigestTable {
+
+		/**
+		 * each mapped segment of the table file holds 2^25 entries (640MB)
+		 */
+		private static final int SEGMENT_SHIFT = 25;
+
+		private final String name;
+		private final File baseFile;
+		private int generation = 0;
+		private File file;
+		private RandomAccessFile randomAccessFile;
+		private MappedByteBuffer[] segments;
+		private long capacity;
+		private long mask;
+		private long size;
+		private long resizeThreshold;
+		private boolean containsZeroDigest = false;
+
+		public DigestTable(String name, File baseFile, long capacity) throws IOException {
+			this.name = name;
+			this.baseFile = baseFile;
+			allocate(capacity);
+		}
+
+		private void allocate(long newCapacity) throws IOException {
+			file = new File(baseFile.getPath() + "-" + (generation++) + ".digests");
+			randomAccessFile = new RandomAccessFile(file, "rw");
+			randomAccessFile.setLength(newCapacity * BYTES_PER_ENTRY);
+			FileChannel channel = randomAccessFile.getChannel();
+			long segmentCapacity = Math.min(newCapacity, 1L << SEGMENT_SHIFT);
+			segments = new MappedByteBuffer[(int) (newCapacity / segmentCapacity)];
+			for (int i = 0; i < segments.length; i++) {
+				segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, i * segmentCapacity * BYTES_PER_ENTRY,
+						segmentCapacity * BYTES_PER_ENTRY);
+			}
+			capacity = newCapacity;
+			mask = newCapacity - 1;
+			resizeThreshold = (long) (newCapacity * MAX_LOAD_FACTOR);
+		}
+
+		public boolean contains(byte[] digest) {
+			long d0 = getLong(digest, 0);
+			long d1 = getLong(digest, 8);
+			int d2 = getInt(digest, 16);
+			if (d0 == 0 && d1 == 0 && d2 == 0) {
+				return containsZeroDigest;
+			}
+			return findSlot(d0, d1, d2) >= 0;
+		}
+
+		public void add(byte[] digest) {
+			long d0 = getLong(digest, 0);
+			long d1 = getLong(digest, 8);
+			int d2 = getInt(digest, 16);
+			if (d0 == 0 && d1 == 0 && d2 == 0) {
+				if (!containsZeroDigest) {
+					containsZeroDigest = true;
+					size++;
+				}
+				return;
+			}
+			long slot = findSlot(d0, d1, d2);
+			if (slot < 0) {
+				put(-slot - 1, d0, d1, d2);
+				if (++size > resizeThreshold) {
+					grow();
+				}
+			}
+		}
+
+		/**
+		 * @return the slot containing the digest if it is present, otherwise (-(empty slot) - 1)
+		 *         where empty slot is the slot in which the digest should be stored
+		 */
+		private long findSlot(long d0, long d1, int d2) {
+			/* the digest bits are uniformly distributed, so they can be used directly as the hash */
+			long slot = d0 & mask;
+			while (true) {
+				MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+				int offset = (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * BYTES_PER_ENTRY;
+				long s0 = segment.getLong(offset);
+				long s1 = segment.getLong(offset + 8);
+				int s2 = segment.getInt(offset + 16);
+				if (s0 == d0 && s1 == d1 && s2 == d2) {
+					return slot;
+				}
+				if (s0 == 0 && s1 == 0 && s2 == 0) {
+					return -slot - 1;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+
+		private void put(long slot, long d0, long d1, int d2) {
+			MappedByteBuffer segment = segments[(int) (slot >>> SEGMENT_SHIFT)];
+			int offset = (int) (slot & ((1L << SEGMENT_SHIFT) - 1)) * BYTES_PER_ENTRY;
+			segment.putLong(offset, d0);
+			segment.putLong(offset + 8, d1);
+			segment.putInt(offset + 16, d2);
+		}
+
+		/**
+		 * Doubles the capacity of the table by re-inserting all entries into a new file
+		 */
+		private void grow() {
+			MappedByteBuffer[] oldSegments = segments;
+			RandomAccessFile oldRandomAccessFile = randomAccessFile;
+			File oldFile = file;
+			try {
+				allocate(capacity * 2);
+				for (MappedByteBuffer oldSegment : oldSegments) {
+					for (int offset = 0; offset < oldSegment.capacity(); offset += BYTES_PER_ENTRY) {
+						long d0 = oldSegment.getLong(offset);
+						long d1 = oldSegment.getLong(offset + 8);
+						int d2 = oldSegment.getInt(offset + 16);
+						if (d0 != 0 || d1 != 0 || d2 != 0) {
+							put(-findSlot(d0, d1, d2) - 1, d0, d1, d2);
+						}
+					}
+				}
+				oldRandomAccessFile.close();
+			} catch (IOException e) {
+				throw new IllegalStateException("Unable to grow digest table for: " + name, e);
+			}
+			if (!oldFile.delete()) {
+				logger.warn("Unable to delete digest table file: " + oldFile.getAbsolutePath());
+			}
+		}
+
+		public void close() throws IOException {
+			for (MappedByteBuffer segment : segments) {
+				segment.force();
+			}
+			randomAccessFile.close();
+		}
+
+		private static long getLong(byte[] bytes, int offset) {
+			long value = 0;
+			for (int i = offset; i < offset + 8; i++) {
+				value = (value << 8) | (bytes[i] & 0xff);
+			}
+			return value;
+		}
+
+		private static int getInt(byte[] bytes, int offset) {
+			int value = 0;
+			for (int i = offset; i < offset + 4; i++) {
+				value = (value << 8) | (bytes[i] & 0xff);
+			}
+			return value;
+		}
+	}
+
+}
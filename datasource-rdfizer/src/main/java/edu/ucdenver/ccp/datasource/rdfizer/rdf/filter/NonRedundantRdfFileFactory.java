@@ -0,0 +1,591 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.file.reader.Line;
+import edu.ucdenver.ccp.common.file.reader.StreamLineIterator;
+import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.GzipBlockIndex;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipInputStream;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipOutputStream;
+
+/**
+ * Creates a non-redundant ({@code .nodups.nt.gz}) version of each {@code .nt.gz} file in a
+ * directory tree, i.e. the files of a source, with the same result as
+ * {@link DuplicateFieldValueFilter#createNonRedundantRdfFiles(File)}: the consecutive lines of a
+ * field value (F_) are kept for the first occurrence of the field value in the files and removed
+ * for any later occurrence. Instead of checking each line against a disk-based hash, one file at a
+ * time, the files are processed in parallel in three passes:
+ * <ol>
+ * <li>the files are read and the start of each run of field value lines, i.e. the field value key
+ * and the position of the run, is written to one of several spill files, partitioned by the hash
+ * of the key</li>
+ * <li>each partition is sorted by key and position, the first run of each key being the one that
+ * is kept</li>
+ * <li>the files are read again and the non-redundant files are written</li>
+ * </ol>
+ * The field value keys are only held in memory while a partition is sorted in pass 2. Up to
+ * {@code threadCount} partitions are sorted concurrently, so the memory used for the keys is bounded
+ * by {@code threadCount} times the size of the largest partition; more partitions make the
+ * partitions smaller. Once a partition is sorted, only the file and run index of the first run of
+ * each of its keys is kept, as one bit per run in a {@link BitSet} per file, which is held until
+ * pass 3 has completed.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class NonRedundantRdfFileFactory {
+
+	private static final Logger logger = Logger.getLogger(NonRedundantRdfFileFactory.class);
+
+	public static final String RDF_FILE_SUFFIX = ".nt.gz";
+	public static final String NO_DUPS_RDF_FILE_SUFFIX = ".nodups.nt.gz";
+
+	private static final String KABOB_IAO_NAMESPACE = "http://kabob.ucdenver.edu/iao/";
+
+	/**
+	 * the number of bytes of run starts that are buffered by each file before they are appended to
+	 * a partition spill file
+	 */
+	private static final int SPILL_BUFFER_SIZE = 1 << 16;
+
+	private final File spillDirectory;
+	private final int threadCount;
+	private final int partitionCount;
+	/**
+	 * the number of threads used to compress each non-redundant file, see
+	 * {@link #setCompressionThreadCount(int)}. By default the non-redundant files are plain gzip
+	 * files.
+	 */
+	private int compressionThreadCount = 1;
+
+	/**
+	 * Uses one thread per available processor and four partitions per thread
+	 * 
+	 * @param spillDirectory
+	 *            the directory where the partition spill files are written; they are deleted once
+	 *            the non-redundant files have been created
+	 */
+	public NonRedundantRdfFileFactory(File spillDirectory) {
+		this(spillDirectory, Runtime.getRuntime().availableProcessors(), 4 * Runtime.getRuntime()
+				.availableProcessors());
+	}
+
+	/**
+	 * @param spillDirectory
+	 *            the directory where the partition spill files are written; they are deleted once
+	 *            the non-redundant files have been created
+	 * @param threadCount
+	 *            the number of files or partitions that are processed concurrently
+	 * @param partitionCount
+	 *            the number of partitions of the field value keys; more partitions use less memory
+	 *            per partition
+	 */
+	public NonRedundantRdfFileFactory(File spillDirectory, int threadCount, int partitionCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("The thread count must be > 0 but was: " + threadCount);
+		}
+		if (partitionCount < 1) {
+			throw new IllegalArgumentException("The partition count must be > 0 but was: " + partitionCount);
+		}
+		this.spillDirectory = spillDirectory;
+		this.threadCount = threadCount;
+		this.partitionCount = partitionCount;
+	}
+
+	/**
+	 * @param compressionThreadCount
+	 *            the number of threads used to compress each non-redundant file; 1 (the default)
+	 *            for plain gzip files. If > 1 the non-redundant files are written as multi-member
+	 *            gzip files, each with a {@link GzipBlockIndex} file alongside it.
+	 */
+	public void setCompressionThreadCount(int compressionThreadCount) {
+		if (compressionThreadCount < 1) {
+			throw new IllegalArgumentException("The compression thread count must be > 0 but was: "
+					+ compressionThreadCount);
+		}
+		this.compressionThreadCount = compressionThreadCount;
+	}
+
+	/**
+	 * @param baseRdfDirectory
+	 * @return the non-redundant files that were created, one per {@code .nt.gz} file in the
+	 *         specified directory (and its subdirectories)
+	 * @throws IOException
+	 */
+	public List<File> createNonRedundantRdfFiles(File baseRdfDirectory) throws IOException {
+		List<File> rdfFiles = getRdfFiles(baseRdfDirectory);
+		if (rdfFiles.isEmpty()) {
+			return Collections.emptyList();
+		}
+		FileUtil.mkdir(spillDirectory);
+		File[] partitionFiles = new File[partitionCount];
+		for (int partition = 0; partition < partitionCount; partition++) {
+			partitionFiles[partition] = new File(spillDirectory, "partition-" + partition + ".spill");
+		}
+		ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+		try {
+			int[] partitionRunCounts = spillRunStarts(rdfFiles, partitionFiles, threadPool);
+			BitSet[] keptRuns = getKeptRuns(rdfFiles.size(), partitionFiles, partitionRunCounts, threadPool);
+			return writeNonRedundantRdfFiles(rdfFiles, keptRuns, threadPool);
+		} finally {
+			threadPool.shutdownNow();
+			for (File partitionFile : partitionFiles) {
+				partitionFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * @return the {@code .nt.gz} files in the directory, in the order in which
+	 *         {@link DuplicateFieldValueFilter#createNonRedundantRdfFiles(File)} processes them,
+	 *         which determines which occurrence of a field value is kept
+	 */
+	private static List<File> getRdfFiles(File baseRdfDirectory) throws IOException {
+		List<File> rdfFiles = new ArrayList<File>();
+		Iterator<File> fileIterator = FileUtil.getFileIterator(baseRdfDirectory, true);
+		while (fileIterator.hasNext()) {
+			File file = fileIterator.next();
+			if (file.getAbsolutePath().endsWith(RDF_FILE_SUFFIX)
+					&& !file.getAbsolutePath().endsWith(NO_DUPS_RDF_FILE_SUFFIX)) {
+				rdfFiles.add(file);
+			}
+		}
+		return rdfFiles;
+	}
+
+	/**
+	 * Pass 1: writes the key, file index and run index of the start of each run of field value
+	 * lines to the partition of its key
+	 * 
+	 * @return the number of run starts written to each partition
+	 */
+	private int[] spillRunStarts(List<File> rdfFiles, File[] partitionFiles, ExecutorService threadPool)
+			throws IOException {
+		final DataOutputStream[] partitionStreams = new DataOutputStream[partitionCount];
+		final int[] partitionRunCounts = new int[partitionCount];
+		try {
+			for (int partition = 0; partition < partitionCount; partition++) {
+				partitionStreams[partition] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+						partitionFiles[partition]), SPILL_BUFFER_SIZE));
+			}
+			List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+			for (int fileIndex = 0; fileIndex < rdfFiles.size(); fileIndex++) {
+				final File rdfFile = rdfFiles.get(fileIndex);
+				final int index = fileIndex;
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						spillRunStarts(rdfFile, index, partitionStreams, partitionRunCounts);
+						return null;
+					}
+				});
+			}
+			invokeAll(tasks, threadPool);
+		} finally {
+			for (DataOutputStream partitionStream : partitionStreams) {
+				if (partitionStream != null) {
+					partitionStream.close();
+				}
+			}
+		}
+		return partitionRunCounts;
+	}
+
+	private void spillRunStarts(File rdfFile, int fileIndex, DataOutputStream[] partitionStreams,
+			int[] partitionRunCounts) throws IOException {
+		logger.info("Partitioning the field values of file: " + rdfFile.getAbsolutePath());
+		ByteArrayOutputStream[] buffers = new ByteArrayOutputStream[partitionCount];
+		DataOutputStream[] bufferStreams = new DataOutputStream[partitionCount];
+		int[] bufferedRunCounts = new int[partitionCount];
+		for (int partition = 0; partition < partitionCount; partition++) {
+			buffers[partition] = new ByteArrayOutputStream();
+			bufferStreams[partition] = new DataOutputStream(buffers[partition]);
+		}
+		StreamLineIterator lineIter = new StreamLineIterator(ParallelGzipInputStream.open(rdfFile, 1),
+				CharacterEncoding.UTF_8, null);
+		try {
+			String previousFieldValueKey = null;
+			int runIndex = -1;
+			while (lineIter.hasNext()) {
+				String lineText = lineIter.next().getText().trim();
+				if (isFieldRdfLine(lineText)) {
+					String fieldValueKey = getFieldValueKey(lineText);
+					if (!fieldValueKey.equals(previousFieldValueKey)) {
+						previousFieldValueKey = fieldValueKey;
+						runIndex++;
+						int partition = getPartition(fieldValueKey);
+						bufferStreams[partition].writeUTF(fieldValueKey);
+						bufferStreams[partition].writeInt(fileIndex);
+						bufferStreams[partition].writeInt(runIndex);
+						bufferedRunCounts[partition]++;
+						if (buffers[partition].size() >= SPILL_BUFFER_SIZE) {
+							appendToPartition(partition, buffers, bufferedRunCounts, partitionStreams,
+									partitionRunCounts);
+						}
+					}
+				}
+			}
+		} finally {
+			lineIter.close();
+		}
+		for (int partition = 0; partition < partitionCount; partition++) {
+			appendToPartition(partition, buffers, bufferedRunCounts, partitionStreams, partitionRunCounts);
+		}
+	}
+
+	private static void appendToPartition(int partition, ByteArrayOutputStream[] buffers, int[] bufferedRunCounts,
+			DataOutputStream[] partitionStreams, int[] partitionRunCounts) throws IOException {
+		synchronized (partitionStreams[partition]) {
+			buffers[partition].writeTo(partitionStreams[partition]);
+			partitionRunCounts[partition] += bufferedRunCounts[partition];
+		}
+		buffers[partition].reset();
+		bufferedRunCounts[partition] = 0;
+	}
+
+	private int getPartition(String fieldValueKey) {
+		return (fieldValueKey.hashCode() & Integer.MAX_VALUE) % partitionCount;
+	}
+
+	/**
+	 * Pass 2: sorts each partition to find the first run of each field value key
+	 * 
+	 * @return for each file, the indexes of its runs of field value lines that are kept
+	 */
+	private static BitSet[] getKeptRuns(int fileCount, File[] partitionFiles, final int[] partitionRunCounts,
+			ExecutorService threadPool) throws IOException {
+		final BitSet[] keptRuns = new BitSet[fileCount];
+		for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+			keptRuns[fileIndex] = new BitSet();
+		}
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int partition = 0; partition < partitionFiles.length; partition++) {
+			final File partitionFile = partitionFiles[partition];
+			final int runCount = partitionRunCounts[partition];
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() throws IOException {
+					setKeptRuns(getFirstRunStarts(partitionFile, runCount), keptRuns);
+					return null;
+				}
+			});
+		}
+		invokeAll(tasks, threadPool);
+		return keptRuns;
+	}
+
+	/**
+	 * @return the first run start of each field value key in the partition, each encoded as its
+	 *         file index (high 32 bits) and run index (low 32 bits), see
+	 *         {@link #getRunStart(int, int)}
+	 */
+	private static long[] getFirstRunStarts(File partitionFile, int runCount) throws IOException {
+		List<RunStart> runStarts = new ArrayList<RunStart>(runCount);
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(partitionFile),
+				SPILL_BUFFER_SIZE));
+		try {
+			for (int i = 0; i < runCount; i++) {
+				runStarts.add(new RunStart(in.readUTF(), in.readInt(), in.readInt()));
+			}
+		} finally {
+			in.close();
+		}
+		Collections.sort(runStarts);
+		long[] firstRunStarts = new long[runCount];
+		int firstRunCount = 0;
+		String previousKey = null;
+		for (RunStart runStart : runStarts) {
+			if (!runStart.fieldValueKey.equals(previousKey)) {
+				firstRunStarts[firstRunCount++] = getRunStart(runStart.fileIndex, runStart.runIndex);
+				previousKey = runStart.fieldValueKey;
+			}
+		}
+		/* the keys are no longer needed, only the file and run indexes are returned */
+		return Arrays.copyOf(firstRunStarts, firstRunCount);
+	}
+
+	private static long getRunStart(int fileIndex, int runIndex) {
+		return ((long) fileIndex << 32) | (runIndex & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Sets the bits of the specified run starts, see {@link #getFirstRunStarts(File, int)}, in the
+	 * kept runs of their files; the partitions are processed concurrently, so the kept runs are
+	 * locked while they are updated
+	 */
+	private static void setKeptRuns(long[] runStarts, BitSet[] keptRuns) {
+		synchronized (keptRuns) {
+			for (long runStart : runStarts) {
+				keptRuns[(int) (runStart >>> 32)].set((int) runStart);
+			}
+		}
+	}
+
+	/**
+	 * Pass 3: writes the lines of each file, except for the field value lines of runs that are not
+	 * kept
+	 */
+	private List<File> writeNonRedundantRdfFiles(List<File> rdfFiles, final BitSet[] keptRuns,
+			ExecutorService threadPool) throws IOException {
+		final ExecutorService compressionThreadPool = (compressionThreadCount > 1) ? Executors
+				.newFixedThreadPool(compressionThreadCount) : null;
+		try {
+			List<Callable<File>> tasks = new ArrayList<Callable<File>>();
+			for (int fileIndex = 0; fileIndex < rdfFiles.size(); fileIndex++) {
+				final File rdfFile = rdfFiles.get(fileIndex);
+				final BitSet fileKeptRuns = keptRuns[fileIndex];
+				tasks.add(new Callable<File>() {
+					@Override
+					public File call() throws IOException {
+						return writeNonRedundantRdfFile(rdfFile, fileKeptRuns, compressionThreadPool);
+					}
+				});
+			}
+			return invokeAll(tasks, threadPool);
+		} finally {
+			if (compressionThreadPool != null) {
+				compressionThreadPool.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * @param compressionThreadPool
+	 *            the pool shared by the {@link ParallelGzipOutputStream}s of the non-redundant files,
+	 *            or null if they are plain gzip files
+	 */
+	private File writeNonRedundantRdfFile(File rdfFile, BitSet keptRuns, ExecutorService compressionThreadPool)
+			throws IOException {
+		logger.info("Creating non-redundant version of file: " + rdfFile.getAbsolutePath());
+		File noDupsFile = new File(StringUtil.removeSuffix(rdfFile.getAbsolutePath(), RDF_FILE_SUFFIX)
+				+ NO_DUPS_RDF_FILE_SUFFIX);
+		OutputStream os;
+		if (compressionThreadPool != null) {
+			os = new ParallelGzipOutputStream(noDupsFile, GzipBlockIndex.getIndexFile(noDupsFile),
+					compressionThreadPool, compressionThreadCount, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+					Deflater.DEFAULT_COMPRESSION);
+		} else {
+			os = new GZIPOutputStream(new FileOutputStream(noDupsFile));
+		}
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(os, CharacterEncoding.UTF_8);
+		StreamLineIterator lineIter = new StreamLineIterator(ParallelGzipInputStream.open(rdfFile, 1),
+				CharacterEncoding.UTF_8, null);
+		try {
+			String previousFieldValueKey = null;
+			int runIndex = -1;
+			while (lineIter.hasNext()) {
+				Line line = lineIter.next();
+				String lineText = line.getText().trim();
+				if (isFieldRdfLine(lineText)) {
+					String fieldValueKey = getFieldValueKey(lineText);
+					if (!fieldValueKey.equals(previousFieldValueKey)) {
+						previousFieldValueKey = fieldValueKey;
+						runIndex++;
+					}
+					if (!keptRuns.get(runIndex)) {
+						continue;
+					}
+				}
+				writer.write(lineText);
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+			lineIter.close();
+		}
+		return noDupsFile;
+	}
+
+	/**
+	 * @return the results of the tasks, in order
+	 */
+	private static <T> List<T> invokeAll(List<Callable<T>> tasks, ExecutorService threadPool) throws IOException {
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		for (Callable<T> task : tasks) {
+			futures.add(threadPool.submit(task));
+		}
+		List<T> results = new ArrayList<T>();
+		for (Future<T> future : futures) {
+			try {
+				results.add(future.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while creating non-redundant RDF files.", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException) {
+					throw (IOException) e.getCause();
+				}
+				throw new IllegalStateException("Error while creating non-redundant RDF files.", e.getCause());
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Equivalent to matching the regular expression
+	 * {@code ^<?http://kabob.ucdenver.edu/iao/[^/]+/F_.*$}
+	 * 
+	 * @param lineText
+	 *            a line of an N-Triples file or the subject of a statement
+	 * @return true if the subject is a field value URI
+	 */
+	static boolean isFieldRdfLine(String lineText) {
+		int namespaceStart = (lineText.startsWith("<")) ? 1 : 0;
+		if (!lineText.startsWith(KABOB_IAO_NAMESPACE, namespaceStart)) {
+			return false;
+		}
+		int partitionStart = namespaceStart + KABOB_IAO_NAMESPACE.length();
+		int partitionEnd = lineText.indexOf('/', partitionStart);
+		if (partitionEnd <= partitionStart || !lineText.startsWith("F_", partitionEnd + 1)) {
+			return false;
+		}
+		/* '.' does not match line terminators */
+		for (int i = partitionEnd + 3; i < lineText.length(); i++) {
+			char c = lineText.charAt(i);
+			if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param lineText
+	 *            a field value line, see {@link #isFieldRdfLine(String)}
+	 * @return the part of the subject following the second underscore, e.g. entrezGeneID_[DIGEST]
+	 *         for a subject {@code <http://kabob.ucdenver.edu/iao/hprd/F_HprdIdMappingsTxtFileData_entrezGeneID_[DIGEST]>}
+	 */
+	static String getFieldValueKey(String lineText) {
+		String subject = lineText.substring(0, lineText.indexOf('>'));
+		int secondUnderscoreIndex = subject.indexOf('_', subject.indexOf('_') + 1) + 1;
+		return subject.substring(secondUnderscoreIndex);
+	}
+
+	/**
+	 * Creates the non-redundant versions of the RDF files of a source
+	 * 
+	 * @param args
+	 *            args[0] - base rdf directory<br>
+	 *            args[1] - spill directory, used for the partition spill files<br>
+	 *            args[2] - [OPTIONAL] the number of files or partitions processed concurrently.
+	 *            Defaults to the number of available processors.<br>
+	 *            args[3] - [OPTIONAL] the number of partitions. Defaults to four times the thread
+	 *            count.<br>
+	 *            args[4] - [OPTIONAL] the number of threads used to compress each non-redundant
+	 *            file. Defaults to 1, i.e. plain gzip files. If > 1 the files are multi-member gzip
+	 *            files and a {@link GzipBlockIndex} file is written alongside each of them.
+	 */
+	public static void main(String[] args) {
+		BasicConfigurator.configure();
+		Logger.getRootLogger().setLevel(Level.INFO);
+		File baseRdfDirectory = new File(args[0]);
+		File spillDirectory = new File(args[1]);
+		int threadCount = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime()
+				.availableProcessors();
+		int partitionCount = (args.length > 3) ? Integer.parseInt(args[3]) : 4 * threadCount;
+		int compressionThreadCount = (args.length > 4) ? Integer.parseInt(args[4]) : 1;
+		try {
+			NonRedundantRdfFileFactory factory = new NonRedundantRdfFileFactory(spillDirectory, threadCount,
+					partitionCount);
+			factory.setCompressionThreadCount(compressionThreadCount);
+			for (File noDupsFile : factory.createNonRedundantRdfFiles(baseRdfDirectory)) {
+				logger.info("NON-REDUNDANT FILE: " + noDupsFile.getAbsolutePath());
+			}
+		} catch (Exception e) {
+			logger.error("Error while creating non-redundant triple files: ", e);
+			System.exit(-1);
+		}
+	}
+
+	/**
+	 * The start of a run of consecutive field value lines with the same key
+	 */
+	private static class RunStart implements Comparable<RunStart> {
+		private final String fieldValueKey;
+		private final int fileIndex;
+		private final int runIndex;
+
+		private RunStart(String fieldValueKey, int fileIndex, int runIndex) {
+			this.fieldValueKey = fieldValueKey;
+			this.fileIndex = fileIndex;
+			this.runIndex = runIndex;
+		}
+
+		@Override
+		public int compareTo(RunStart other) {
+			int comparison = fieldValueKey.compareTo(other.fieldValueKey);
+			if (comparison != 0) {
+				return comparison;
+			}
+			if (fileIndex != other.fileIndex) {
+				return (fileIndex < other.fileIndex) ? -1 : 1;
+			}
+			return (runIndex < other.runIndex) ? -1 : ((runIndex == other.runIndex) ? 0 : 1);
+		}
+	}
+
+}
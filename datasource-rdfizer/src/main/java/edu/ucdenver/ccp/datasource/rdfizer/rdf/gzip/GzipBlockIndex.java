@@ -0,0 +1,184 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
+import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
+
+/**
+ * The compressed and uncompressed lengths of the members of a multi-member gzip file as written by
+ * the {@link ParallelGzipOutputStream}. The index is stored in a sidecar text file (by convention
+ * the gzip file name with the {@link #FILE_SUFFIX} suffix appended) with one line per member
+ * containing the compressed offset, compressed length and uncompressed length of the member.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class GzipBlockIndex {
+
+	private static final Logger logger = Logger.getLogger(GzipBlockIndex.class);
+
+	public static final String FILE_SUFFIX = ".blocks";
+
+	private final long[] compressedOffsets;
+	private final long[] compressedLengths;
+	private final long[] uncompressedLengths;
+
+	GzipBlockIndex(List<Long> compressedLengths, List<Long> uncompressedLengths) {
+		int memberCount = compressedLengths.size();
+		this.compressedOffsets = new long[memberCount];
+		this.compressedLengths = new long[memberCount];
+		this.uncompressedLengths = new long[memberCount];
+		long offset = 0;
+		for (int i = 0; i < memberCount; i++) {
+			this.compressedOffsets[i] = offset;
+			this.compressedLengths[i] = compressedLengths.get(i);
+			this.uncompressedLengths[i] = uncompressedLengths.get(i);
+			offset += this.compressedLengths[i];
+		}
+	}
+
+	private GzipBlockIndex(long[] compressedOffsets, long[] compressedLengths, long[] uncompressedLengths) {
+		this.compressedOffsets = compressedOffsets;
+		this.compressedLengths = compressedLengths;
+		this.uncompressedLengths = uncompressedLengths;
+	}
+
+	/**
+	 * @param gzipFile
+	 * @return a reference to the block index file for the specified gzip file
+	 */
+	public static File getIndexFile(File gzipFile) {
+		return new File(gzipFile.getPath() + FILE_SUFFIX);
+	}
+
+	public int getMemberCount() {
+		return compressedOffsets.length;
+	}
+
+	public long getCompressedOffset(int member) {
+		return compressedOffsets[member];
+	}
+
+	public long getCompressedLength(int member) {
+		return compressedLengths[member];
+	}
+
+	public long getUncompressedLength(int member) {
+		return uncompressedLengths[member];
+	}
+
+	/**
+	 * @return the sum of the compressed member lengths, i.e. the expected length of the gzip file
+	 */
+	public long getCompressedFileLength() {
+		int last = compressedOffsets.length - 1;
+		return (last < 0) ? 0 : compressedOffsets[last] + compressedLengths[last];
+	}
+
+	/**
+	 * @param indexFile
+	 * @throws IOException
+	 */
+	public void save(File indexFile) throws IOException {
+		BufferedWriter writer = FileWriterUtil.initBufferedWriter(indexFile, CharacterEncoding.UTF_8,
+				WriteMode.OVERWRITE, FileSuffixEnforcement.OFF);
+		try {
+			for (int i = 0; i < compressedOffsets.length; i++) {
+				writer.write(compressedOffsets[i] + "\t" + compressedLengths[i] + "\t" + uncompressedLengths[i] + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * @param gzipFile
+	 * @return the block index for the specified gzip file, or null if the index file does not exist
+	 *         or does not describe the gzip file (as judged by the file length)
+	 * @throws IOException
+	 */
+	public static GzipBlockIndex load(File gzipFile) throws IOException {
+		File indexFile = getIndexFile(gzipFile);
+		if (!indexFile.exists()) {
+			return null;
+		}
+		long[] offsets = new long[16];
+		long[] compressed = new long[16];
+		long[] uncompressed = new long[16];
+		int memberCount = 0;
+		BufferedReader reader = FileReaderUtil.initBufferedReader(indexFile, CharacterEncoding.UTF_8);
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] toks = line.split("\\t");
+				if (toks.length != 3) {
+					throw new IllegalStateException("Invalid line in gzip block index file (" + indexFile.getAbsolutePath()
+							+ "): " + line);
+				}
+				if (memberCount == offsets.length) {
+					offsets = Arrays.copyOf(offsets, memberCount * 2);
+					compressed = Arrays.copyOf(compressed, memberCount * 2);
+					uncompressed = Arrays.copyOf(uncompressed, memberCount * 2);
+				}
+				offsets[memberCount] = Long.parseLong(toks[0]);
+				compressed[memberCount] = Long.parseLong(toks[1]);
+				uncompressed[memberCount] = Long.parseLong(toks[2]);
+				memberCount++;
+			}
+		} finally {
+			reader.close();
+		}
+		GzipBlockIndex index = new GzipBlockIndex(Arrays.copyOf(offsets, memberCount), Arrays.copyOf(compressed,
+				memberCount), Arrays.copyOf(uncompressed, memberCount));
+		if (memberCount == 0 || index.getCompressedFileLength() != gzipFile.length()) {
+			logger.info("Ignoring stale gzip block index file: " + indexFile.getAbsolutePath());
+			return null;
+		}
+		return index;
+	}
+
+}
@@ -0,0 +1,206 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a multi-member gzip file written by the {@link ParallelGzipOutputStream}, decompressing
+ * the members ahead of the reader using a thread pool. The member offsets are taken from the
+ * file's {@link GzipBlockIndex}. Use {@link #open(File, int)} to fall back to a
+ * {@link GZIPInputStream} for gzip files that do not have a block index.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+	private final FileInputStream fileStream;
+	private final FileChannel channel;
+	private final GzipBlockIndex index;
+	private final ExecutorService threadPool;
+	private final int maxPendingMemberCount;
+
+	private int nextMemberToSubmit = 0;
+	private final LinkedList<Future<byte[]>> pendingMembers = new LinkedList<Future<byte[]>>();
+	private byte[] member = new byte[0];
+	private int memberPosition = 0;
+	private boolean closed = false;
+
+	/**
+	 * @param gzipFile
+	 * @param threadCount
+	 * @return a {@link ParallelGzipInputStream} if the gzip file has a valid block index and the
+	 *         thread count is > 1, a {@link GZIPInputStream} otherwise
+	 * @throws IOException
+	 */
+	public static InputStream open(File gzipFile, int threadCount) throws IOException {
+		if (threadCount > 1) {
+			GzipBlockIndex index = GzipBlockIndex.load(gzipFile);
+			if (index != null) {
+				return new ParallelGzipInputStream(gzipFile, index, threadCount);
+			}
+		}
+		return new GZIPInputStream(new FileInputStream(gzipFile), 1 << 16);
+	}
+
+	/**
+	 * @param gzipFile
+	 * @param index
+	 *            the block index of the gzip file
+	 * @param threadCount
+	 *            the number of threads used to decompress members; the threads are stopped when
+	 *            this stream is closed
+	 * @throws IOException
+	 */
+	public ParallelGzipInputStream(File gzipFile, GzipBlockIndex index, int threadCount) throws IOException {
+		this.fileStream = new FileInputStream(gzipFile);
+		this.channel = fileStream.getChannel();
+		this.index = index;
+		this.threadPool = Executors.newFixedThreadPool(threadCount);
+		this.maxPendingMemberCount = 2 * threadCount;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fillMember()) {
+			return -1;
+		}
+		return member[memberPosition++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (!fillMember()) {
+			return -1;
+		}
+		int length = Math.min(len, member.length - memberPosition);
+		System.arraycopy(member, memberPosition, b, off, length);
+		memberPosition += length;
+		return length;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return (closed) ? 0 : member.length - memberPosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		threadPool.shutdownNow();
+		fileStream.close();
+	}
+
+	/**
+	 * @return false if all members have been read
+	 */
+	private boolean fillMember() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		while (memberPosition == member.length) {
+			while (nextMemberToSubmit < index.getMemberCount() && pendingMembers.size() < maxPendingMemberCount) {
+				final int memberIndex = nextMemberToSubmit++;
+				pendingMembers.add(threadPool.submit(new Callable<byte[]>() {
+					@Override
+					public byte[] call() throws IOException {
+						return decompressMember(memberIndex);
+					}
+				}));
+			}
+			if (pendingMembers.isEmpty()) {
+				return false;
+			}
+			try {
+				member = pendingMembers.removeFirst().get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while decompressing gzip member.", e);
+			} catch (ExecutionException e) {
+				throw new IOException("Error while decompressing gzip member.", e.getCause());
+			}
+			memberPosition = 0;
+		}
+		return true;
+	}
+
+	private byte[] decompressMember(int memberIndex) throws IOException {
+		byte[] compressed = new byte[(int) index.getCompressedLength(memberIndex)];
+		ByteBuffer buffer = ByteBuffer.wrap(compressed);
+		long position = index.getCompressedOffset(memberIndex);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file while reading gzip member " + memberIndex);
+			}
+		}
+		byte[] uncompressed = new byte[(int) index.getUncompressedLength(memberIndex)];
+		GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(compressed), 1 << 16);
+		try {
+			int length = 0;
+			int count;
+			while (length < uncompressed.length
+					&& (count = gzipStream.read(uncompressed, length, uncompressed.length - length)) > 0) {
+				length += count;
+			}
+			if (length != uncompressed.length || gzipStream.read() != -1) {
+				throw new IOException("Gzip member " + memberIndex + " does not have the expected length: "
+						+ uncompressed.length);
+			}
+		} finally {
+			gzipStream.close();
+		}
+		return uncompressed;
+	}
+
+}
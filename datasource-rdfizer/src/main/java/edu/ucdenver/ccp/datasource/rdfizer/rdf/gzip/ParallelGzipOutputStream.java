@@ -0,0 +1,261 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip output stream that compresses fixed-size blocks of its input independently, using a
+ * thread pool, in the manner of pigz. Each block is written as a complete gzip member so the
+ * output is a valid multi-member gzip file that can be read by gunzip, {@link java.util.zip.GZIPInputStream}
+ * and other gzip readers.
+ * <p>
+ * If a block index file is specified, the compressed and uncompressed offsets and lengths of each
+ * member are written to it when the stream is closed (see {@link GzipBlockIndex}). The index
+ * allows the members to be decompressed in parallel by the {@link ParallelGzipInputStream}.
+ * <p>
+ * This class is not thread-safe, however multiple instances can share the same thread pool.
+ * 
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+	private final OutputStream out;
+	private final File blockIndexFile;
+	private final ExecutorService threadPool;
+	private final int compressionLevel;
+	/**
+	 * the maximum number of blocks that can be queued for compression before the stream blocks,
+	 * which bounds memory usage
+	 */
+	private final int maxPendingBlockCount;
+
+	private byte[] block;
+	private int blockLength = 0;
+	private final LinkedList<Future<byte[]>> pendingBlocks = new LinkedList<Future<byte[]>>();
+	private final List<Long> uncompressedBlockLengths = new ArrayList<Long>();
+	private final LinkedList<Integer> pendingUncompressedBlockLengths = new LinkedList<Integer>();
+	private final List<Long> compressedBlockLengths = new ArrayList<Long>();
+	private boolean closed = false;
+
+	/**
+	 * @param file
+	 *            the gzip file to write
+	 * @param blockIndexFile
+	 *            if not null, the block offsets are written to this file when the stream is closed
+	 * @param threadPool
+	 *            used to compress the blocks; it is not shut down by this stream
+	 * @param threadCount
+	 *            the number of threads in the thread pool
+	 * @param blockSize
+	 *            the number of uncompressed bytes per block
+	 * @param compressionLevel
+	 *            0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+	 * @throws IOException
+	 */
+	public ParallelGzipOutputStream(File file, File blockIndexFile, ExecutorService threadPool, int threadCount,
+			int blockSize, int compressionLevel) throws IOException {
+		this(new FileOutputStream(file), blockIndexFile, threadPool, threadCount, blockSize, compressionLevel);
+	}
+
+	/**
+	 * @param out
+	 *            the stream to which the gzip members are written
+	 * @param blockIndexFile
+	 *            if not null, the block offsets are written to this file when the stream is closed
+	 * @param threadPool
+	 *            used to compress the blocks; it is not shut down by this stream
+	 * @param threadCount
+	 *            the number of threads in the thread pool
+	 * @param blockSize
+	 *            the number of uncompressed bytes per block
+	 * @param compressionLevel
+	 *            0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public ParallelGzipOutputStream(OutputStream out, File blockIndexFile, ExecutorService threadPool,
+			int threadCount, int blockSize, int compressionLevel) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("The block size must be > 0 but was: " + blockSize);
+		}
+		if ((compressionLevel < 0 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("The compression level must be in [0,9] but was: " + compressionLevel);
+		}
+		this.out = out;
+		this.blockIndexFile = blockIndexFile;
+		this.threadPool = threadPool;
+		this.compressionLevel = compressionLevel;
+		this.maxPendingBlockCount = 2 * Math.max(1, threadCount);
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		ensureOpen();
+		block[blockLength++] = (byte) b;
+		if (blockLength == block.length) {
+			submitBlock();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			int length = Math.min(len, block.length - blockLength);
+			System.arraycopy(b, off, block, blockLength, length);
+			blockLength += length;
+			off += length;
+			len -= length;
+			if (blockLength == block.length) {
+				submitBlock();
+			}
+		}
+	}
+
+	/**
+	 * Writes the members that have been compressed so far. Buffered input that does not fill a
+	 * block is not compressed until the block is full or the stream is closed, so that members do
+	 * not become small.
+	 */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		while (!pendingBlocks.isEmpty() && pendingBlocks.getFirst().isDone()) {
+			writeNextMember();
+		}
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (blockLength > 0 || compressedBlockLengths.size() + pendingBlocks.size() == 0) {
+				/* an empty input is written as a single empty member */
+				submitBlock();
+			}
+			while (!pendingBlocks.isEmpty()) {
+				writeNextMember();
+			}
+			if (blockIndexFile != null) {
+				new GzipBlockIndex(compressedBlockLengths, uncompressedBlockLengths).save(blockIndexFile);
+			}
+		} finally {
+			closed = true;
+			block = null;
+			for (Future<byte[]> future : pendingBlocks) {
+				future.cancel(true);
+			}
+			out.close();
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+	}
+
+	private void submitBlock() throws IOException {
+		if (pendingBlocks.size() >= maxPendingBlockCount) {
+			writeNextMember();
+		}
+		final byte[] input = block;
+		final int length = blockLength;
+		pendingBlocks.add(threadPool.submit(new Callable<byte[]>() {
+			@Override
+			public byte[] call() throws IOException {
+				return compress(input, length, compressionLevel);
+			}
+		}));
+		pendingUncompressedBlockLengths.add(length);
+		block = new byte[block.length];
+		blockLength = 0;
+	}
+
+	/**
+	 * Waits for the oldest pending block to be compressed and writes it
+	 */
+	private void writeNextMember() throws IOException {
+		byte[] member;
+		try {
+			member = pendingBlocks.removeFirst().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing block.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error while compressing block.", e.getCause());
+		}
+		out.write(member);
+		compressedBlockLengths.add((long) member.length);
+		uncompressedBlockLengths.add((long) pendingUncompressedBlockLengths.removeFirst());
+	}
+
+	/**
+	 * @return the specified bytes as a complete gzip member
+	 */
+	static byte[] compress(byte[] input, int length, final int compressionLevel) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream(length / 2 + 64);
+		GZIPOutputStream gzipStream = new GZIPOutputStream(baos, 1 << 16) {
+			{
+				def.setLevel(compressionLevel);
+			}
+		};
+		try {
+			gzipStream.write(input, 0, length);
+		} finally {
+			gzipStream.close();
+		}
+		return baos.toByteArray();
+	}
+
+}
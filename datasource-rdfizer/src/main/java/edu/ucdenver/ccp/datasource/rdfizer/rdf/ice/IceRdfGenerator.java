@@ -36,23 +36,39 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
 import java.io.File;
 import java.io.IOException;
 import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 
 import org.apache.log4j.BasicConfigurator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
+import edu.ucdenver.ccp.common.digest.DigestUtil;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil;
 import edu.ucdenver.ccp.common.file.FileUtil;
+import edu.ucdenver.ccp.datasource.fileparsers.ByteRange;
 import edu.ucdenver.ccp.datasource.fileparsers.FileRecordReader;
+import edu.ucdenver.ccp.datasource.fileparsers.LineFileRecordReader;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordOffsetIndex;
 import edu.ucdenver.ccp.datasource.fileparsers.idlist.IdListFileFactory;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.ncbi.taxonomy.NcbiTaxonomyID;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.DefaultDuplicateStatementFilter;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.DuplicateStatementFilter;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.NoOpDuplicateStatementFilter;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.GzipBlockIndex;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipOutputStream;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.FileDataSource.Split;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfUtil.RdfFormat;
 
@@ -73,6 +89,25 @@ public class IceRdfGenerator {
 
 	private static final Logger logger = Logger.getLogger(IceRdfGenerator.class);
 
+	/**
+	 * the data sources for which id-list files are generated, see
+	 * {@link #generateIdListFiles(File, File, boolean, Set)}
+	 */
+	private static final List<DataSource> ID_LIST_DATA_SOURCES = Arrays.asList(DataSource.EG, DataSource.UNIPROT,
+			DataSource.IREFWEB);
+
+	/**
+	 * Same as
+	 * {@link #generateIceRdf(Split, long, int, int, File, File, boolean, boolean, long, Set, int, int)}
+	 * with thread counts of 1, i.e. records are converted and compressed sequentially.
+	 */
+	public static void generateIceRdf(Split split, long currentTime, int stageStartNumber, int stagesToProcessCount,
+			File baseSourceFileDirectory, File baseRdfOutputDirectory, boolean cleanSourceFiles, boolean compress,
+			long outputRecordLimit, Set<NcbiTaxonomyID> taxonIds) throws IOException {
+		generateIceRdf(split, currentTime, stageStartNumber, stagesToProcessCount, baseSourceFileDirectory,
+				baseRdfOutputDirectory, cleanSourceFiles, compress, outputRecordLimit, taxonIds, 1, 1);
+	}
+
 	/**
 	 * This method is designed to be used by SGE (or some other process where
 	 * jobs are designated by integers).
@@ -80,7 +115,11 @@ public class IceRdfGenerator {
 	 * @param split
 	 *            if BY_STAGES then the larger files will be split into pieces
 	 *            and the RDF will be generated for each piece. No duplicate
-	 *            statement detection is done in this case. if NONE, then each
+	 *            statement detection is done in this case. If the record
+	 *            reader of a file supports splitting (see
+	 *            {@link LineFileRecordReader#isSplittable()}) the pieces are
+	 *            byte ranges of the file that are processed concurrently,
+	 *            otherwise they are blocks of records. if NONE, then each
 	 *            file is parsed by a single process and duplicate field values
 	 *            are excluded from the resultant RDF
 	 * @param currentTime
@@ -91,31 +130,74 @@ public class IceRdfGenerator {
 	 * @param cleanSourceFiles
 	 * @param compress
 	 * @param outputRecordLimit
+	 * @param threadCount
+	 *            the number of threads used to convert records to RDF. If < 2
+	 *            records are converted sequentially.
+	 * @param compressionThreadCount
+	 *            the number of threads used to compress each RDF output file
+	 *            (if compress is true). If < 2 the files are plain gzip files,
+	 *            otherwise they are multi-member gzip files, each with a
+	 *            {@link GzipBlockIndex} file alongside it (see
+	 *            {@link RdfRecordWriterImpl#setParallelCompression(int, int, int)}).
 	 * @throws IOException
 	 */
 	public static void generateIceRdf(Split split, long currentTime, int stageStartNumber, int stagesToProcessCount,
 			File baseSourceFileDirectory, File baseRdfOutputDirectory, boolean cleanSourceFiles, boolean compress,
-			long outputRecordLimit, Set<NcbiTaxonomyID> taxonIds) throws IOException {
+			long outputRecordLimit, Set<NcbiTaxonomyID> taxonIds, int threadCount, int compressionThreadCount)
+			throws IOException {
 		int globalStageIndex = 1;
+		/*
+		 * the id-list files are shared by all taxon-aware sources so they are generated once, before
+		 * any source is processed
+		 */
+		File sharedIdListFileDirectory = null;
+		if (taxonIds != null && taxonIds.size() > 0
+				&& (split.equals(Split.BY_STAGES) || isTaxonAwareSourceInRange(stageStartNumber, stagesToProcessCount))) {
+			sharedIdListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
+					cleanSourceFiles, taxonIds);
+		}
 		if (split.equals(Split.BY_STAGES)) {
 			for (FileDataSource rdfSource : FileDataSource.values()) {
 				File sourceFileDirectory = getSourceFileDirectory(baseSourceFileDirectory, rdfSource.dataSource());
 				File rdfOutputDirectory = getOutputDirectory(baseRdfOutputDirectory, rdfSource);
 
-				File idListFileDirectory = null;
-				if (rdfSource.isTaxonAware() && taxonIds != null && taxonIds.size() > 0) {
-					idListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
-							cleanSourceFiles, taxonIds);
-				}
+				File idListFileDirectory = (rdfSource.isTaxonAware()) ? sharedIdListFileDirectory : null;
 				FileRecordReader<?> rr = rdfSource.initFileRecordReader(sourceFileDirectory, cleanSourceFiles,
 						idListFileDirectory, taxonIds);
 
+				if (rdfSource.getNumberOfStages() > 1 && rr instanceof LineFileRecordReader
+						&& ((LineFileRecordReader<?>) rr).isSplittable()) {
+					List<Integer> stageIndexes = new ArrayList<Integer>();
+					for (int stageIndex = 1; stageIndex <= rdfSource.getNumberOfStages(); stageIndex++) {
+						if (globalStageIndex >= stageStartNumber
+								&& globalStageIndex < (stageStartNumber + stagesToProcessCount)) {
+							stageIndexes.add(stageIndex);
+						}
+						globalStageIndex++;
+					}
+					if (!stageIndexes.isEmpty()) {
+						List<ByteRange> byteRanges = ((LineFileRecordReader<?>) rr).getByteRanges(rdfSource
+								.getNumberOfStages());
+						generateRdfStagesByByteRange(rdfSource, sourceFileDirectory, rdfOutputDirectory,
+								idListFileDirectory, taxonIds, byteRanges, stageIndexes, currentTime, compress,
+								outputRecordLimit, threadCount, compressionThreadCount);
+					}
+					rr.close();
+					continue;
+				}
+
+				RecordOffsetIndex recordOffsetIndex = null;
 				for (int stageIndex = 1; stageIndex <= rdfSource.getNumberOfStages(); stageIndex++) {
 					if (globalStageIndex >= stageStartNumber
 							&& globalStageIndex < (stageStartNumber + stagesToProcessCount)) {
+						if (stageIndex > 1 && recordOffsetIndex == null) {
+							recordOffsetIndex = loadRecordOffsetIndex(rdfSource, rr, rdfOutputDirectory,
+									idListFileDirectory, taxonIds);
+						}
 						DuplicateStatementFilter filter = new NoOpDuplicateStatementFilter();
 						generateRdfStage(rdfOutputDirectory, currentTime, compress, outputRecordLimit, stageIndex, rr,
-								filter, rdfSource.blockRecordCount(), rdfSource.getNumberOfStages());
+								filter, rdfSource.blockRecordCount(), rdfSource.getNumberOfStages(), threadCount,
+								compressionThreadCount, recordOffsetIndex);
 					}
 					globalStageIndex++;
 				}
@@ -128,11 +210,7 @@ public class IceRdfGenerator {
 					File rdfOutputDirectory = getOutputDirectory(baseRdfOutputDirectory, rdfSource);
 					logger.info("SOURCE DIR: " + sourceFileDirectory.getAbsolutePath());
 					logger.info("RDF OUT DIR: " + rdfOutputDirectory.getAbsolutePath());
-					File idListFileDirectory = null;
-					if (rdfSource.isTaxonAware() && taxonIds != null && taxonIds.size() > 0) {
-						idListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
-								cleanSourceFiles, taxonIds);
-					}
+					File idListFileDirectory = (rdfSource.isTaxonAware()) ? sharedIdListFileDirectory : null;
 					FileRecordReader<?> rr = rdfSource.initFileRecordReader(sourceFileDirectory, cleanSourceFiles,
 							idListFileDirectory, taxonIds);
 					File cacheFilePrefix = FileUtil.appendPathElementsToDirectory(rdfOutputDirectory, "filter-cache",
@@ -140,7 +218,8 @@ public class IceRdfGenerator {
 					// DuplicateStatementFilter filter = new
 					// InMemoryDuplicateStatementFilter();
 					DuplicateStatementFilter filter = new DefaultDuplicateStatementFilter(cacheFilePrefix);
-					generateRdf(currentTime, rr, rdfOutputDirectory, compress, outputRecordLimit, filter);
+					generateRdf(currentTime, rr, rdfOutputDirectory, compress, outputRecordLimit, filter, threadCount,
+							compressionThreadCount);
 				}
 				globalStageIndex++;
 			}
@@ -148,35 +227,199 @@ public class IceRdfGenerator {
 	}
 
 	/**
+	 * @param stageStartNumber
+	 * @param stagesToProcessCount
+	 * @return true if a taxon-aware source will be processed when each source is processed as a
+	 *         single stage (see {@link Split#NONE})
+	 */
+	private static boolean isTaxonAwareSourceInRange(int stageStartNumber, int stagesToProcessCount) {
+		int globalStageIndex = 1;
+		for (FileDataSource rdfSource : FileDataSource.values()) {
+			if (rdfSource.isTaxonAware() && globalStageIndex >= stageStartNumber
+					&& globalStageIndex < (stageStartNumber + stagesToProcessCount)) {
+				return true;
+			}
+			globalStageIndex++;
+		}
+		return false;
+	}
+
+	/**
+	 * Builds, for each source that is processed in blocks of records when split
+	 * {@link Split#BY_STAGES}, an index of the record offsets in its data file. The index allows
+	 * each stage to reposition the record reader at the start of its block of records instead of
+	 * parsing all preceding records (see
+	 * {@link #loadRecordOffsetIndex(FileDataSource, FileRecordReader, File, File, Set)}). This is
+	 * meant to be run once, before the stage jobs, e.g. via {@link RunBy#RECORD_OFFSET_INDEXES}; an
+	 * existing index is only rebuilt if it is stale, i.e. if the data file, or an id-list file used
+	 * to filter the records by taxon, has changed since it was built. Stage jobs never build the
+	 * index themselves.
+	 * 
 	 * @param baseSourceFileDirectory
 	 * @param baseRdfOutputDirectory
 	 * @param cleanSourceFiles
 	 * @param taxonIds
-	 * @return
 	 * @throws IOException
 	 */
-	private static File generateIdListFiles(File baseSourceFileDirectory, File baseRdfOutputDirectory,
+	public static void generateRecordOffsetIndexes(File baseSourceFileDirectory, File baseRdfOutputDirectory,
 			boolean cleanSourceFiles, Set<NcbiTaxonomyID> taxonIds) throws IOException {
-		File outputDir = new File(baseRdfOutputDirectory, "id-lists");
-		if (cleanSourceFiles) {
-			FileUtil.cleanDirectory(outputDir);
-		} else {
-			if (!outputDir.exists()) {
-				System.out.println("dir exists:" + outputDir.exists());
-				FileUtil.mkdir(outputDir);
+		File sharedIdListFileDirectory = null;
+		if (taxonIds != null && taxonIds.size() > 0) {
+			sharedIdListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
+					cleanSourceFiles, taxonIds);
+		}
+		for (FileDataSource rdfSource : FileDataSource.values()) {
+			if (rdfSource.getNumberOfStages() < 2) {
+				continue;
+			}
+			File sourceFileDirectory = getSourceFileDirectory(baseSourceFileDirectory, rdfSource.dataSource());
+			File rdfOutputDirectory = getOutputDirectory(baseRdfOutputDirectory, rdfSource);
+			File idListFileDirectory = (rdfSource.isTaxonAware()) ? sharedIdListFileDirectory : null;
+			FileRecordReader<?> rr = rdfSource.initFileRecordReader(sourceFileDirectory, cleanSourceFiles,
+					idListFileDirectory, taxonIds);
+			try {
+				if (!(rr instanceof LineFileRecordReader) || ((LineFileRecordReader<?>) rr).isSplittable()
+						|| !((LineFileRecordReader<?>) rr).isSeekable()) {
+					/* split by byte range, or skipped by parsing */
+					continue;
+				}
+				File dataFile = ((LineFileRecordReader<?>) rr).getDataFile();
+				File indexFile = getRecordOffsetIndexFile(rdfOutputDirectory, rr, taxonIds);
+				List<File> idListFiles = getIdListFiles(idListFileDirectory, taxonIds);
+				long checkpointInterval = getBlockRecordCount(rdfSource.blockRecordCount());
+				RecordOffsetIndex index = RecordOffsetIndex.load(indexFile, dataFile, idListFiles);
+				if (index == null || index.getCheckpointInterval() != checkpointInterval) {
+					logger.info("Building record offset index: " + indexFile.getAbsolutePath());
+					RecordOffsetIndex.build(rr, dataFile, checkpointInterval, idListFiles).save(indexFile);
+				}
+			} finally {
+				rr.close();
 			}
 		}
+	}
 
-		IdListFileFactory.createIdListFile(DataSource.EG, taxonIds, baseSourceFileDirectory, cleanSourceFiles,
-				outputDir);
-		IdListFileFactory.createIdListFile(DataSource.UNIPROT, taxonIds, baseSourceFileDirectory, cleanSourceFiles,
-				outputDir);
-		IdListFileFactory.createIdListFile(DataSource.IREFWEB, taxonIds, baseSourceFileDirectory, cleanSourceFiles,
-				outputDir);
+	/**
+	 * Loads the index of the record offsets in the data file of the specified source, see
+	 * {@link #generateRecordOffsetIndexes(File, File, boolean, Set)}. The index is not built here,
+	 * so that a stage does not parse the whole data file; if there is no (up-to-date) index, the
+	 * records that precede the stage are skipped by parsing.
+	 * 
+	 * @param rdfSource
+	 * @param recordReader
+	 *            the record reader that will be used to process the stages
+	 * @param rdfOutputDirectory
+	 * @param idListFileDirectory
+	 *            the directory containing the id-list files used by the record reader, or null
+	 * @param taxonIds
+	 * @return the index, or null if the record reader is not seekable or there is no up-to-date
+	 *         index
+	 * @throws IOException
+	 */
+	private static RecordOffsetIndex loadRecordOffsetIndex(FileDataSource rdfSource,
+			FileRecordReader<?> recordReader, File rdfOutputDirectory, File idListFileDirectory,
+			Set<NcbiTaxonomyID> taxonIds) throws IOException {
+		if (!(recordReader instanceof LineFileRecordReader)
+				|| !((LineFileRecordReader<?>) recordReader).isSeekable()) {
+			logger.info("Record reader does not support seeking. Records will be skipped by parsing: "
+					+ recordReader.getClass().getName());
+			return null;
+		}
+		File dataFile = ((LineFileRecordReader<?>) recordReader).getDataFile();
+		File indexFile = getRecordOffsetIndexFile(rdfOutputDirectory, recordReader, taxonIds);
+		RecordOffsetIndex index = RecordOffsetIndex.load(indexFile, dataFile, getIdListFiles(idListFileDirectory,
+				taxonIds));
+		if (index == null || index.getCheckpointInterval() != getBlockRecordCount(rdfSource.blockRecordCount())) {
+			logger.info("No up-to-date record offset index (" + indexFile.getAbsolutePath()
+					+ "). Records will be skipped by parsing; run " + RunBy.RECORD_OFFSET_INDEXES.name()
+					+ " before the stages to avoid this.");
+			return null;
+		}
+		return index;
+	}
+
+	/**
+	 * @param rdfOutputDirectory
+	 * @param recordReader
+	 * @param taxonIds
+	 * @return the file used to store the record offset index for the specified record reader. The
+	 *         index depends on the taxa of interest so a digest of the taxon identifiers is included
+	 *         in the file name.
+	 */
+	private static File getRecordOffsetIndexFile(File rdfOutputDirectory, FileRecordReader<?> recordReader,
+			Set<NcbiTaxonomyID> taxonIds) {
+		String filename = recordReader.getClass().getSimpleName();
+		if (taxonIds != null && !taxonIds.isEmpty()) {
+			List<String> sortedTaxonIds = new ArrayList<String>();
+			for (NcbiTaxonomyID taxonId : taxonIds) {
+				sortedTaxonIds.add(taxonId.toString());
+			}
+			Collections.sort(sortedTaxonIds);
+			StringBuilder sb = new StringBuilder();
+			for (String taxonId : sortedTaxonIds) {
+				sb.append(taxonId + "+");
+			}
+			filename += "." + DigestUtil.getBase64Sha1Digest(sb.toString());
+		}
+		return FileUtil.appendPathElementsToDirectory(rdfOutputDirectory, "record-offset-index", filename
+				+ ".offsets");
+	}
 
+	/**
+	 * @param idListFileDirectory
+	 *            the directory containing the id-list files, or null if the source is not
+	 *            taxon-aware or no taxons are specified
+	 * @param taxonIds
+	 * @return the id-list files for the specified taxons. A taxon-aware record reader may filter
+	 *         its records using any of them, so a record offset index built for the reader is
+	 *         stale once one of them is rebuilt.
+	 */
+	private static List<File> getIdListFiles(File idListFileDirectory, Set<NcbiTaxonomyID> taxonIds) {
+		List<File> idListFiles = new ArrayList<File>();
+		if (idListFileDirectory != null) {
+			for (DataSource ds : ID_LIST_DATA_SOURCES) {
+				idListFiles.add(IdListFileFactory.getIdListFile(idListFileDirectory, ds, taxonIds));
+			}
+		}
+		return idListFiles;
+	}
+
+	/**
+	 * Generates the EG, UniProt and iRefWeb id-list files for the specified taxons concurrently.
+	 * The id-list files are named by a digest of the taxons, so the files for different taxon sets
+	 * can coexist in the id-list directory, and existing files are reused unless the source files
+	 * are to be cleaned or have changed (see
+	 * {@link IdListFileFactory#createIdListFile(DataSource, Set, File, boolean, File)}).
+	 * 
+	 * @param baseSourceFileDirectory
+	 * @param baseRdfOutputDirectory
+	 * @param cleanSourceFiles
+	 * @param taxonIds
+	 * @return the directory containing the id-list files
+	 * @throws IOException
+	 */
+	private static File generateIdListFiles(File baseSourceFileDirectory, File baseRdfOutputDirectory,
+			boolean cleanSourceFiles, Set<NcbiTaxonomyID> taxonIds) throws IOException {
+		File outputDir = new File(baseRdfOutputDirectory, "id-lists");
+		if (!outputDir.exists()) {
+			FileUtil.mkdir(outputDir);
+		}
+		IdListFileFactory.createIdListFiles(ID_LIST_DATA_SOURCES, taxonIds, baseSourceFileDirectory, cleanSourceFiles,
+				outputDir);
 		return outputDir;
 	}
 
+	/**
+	 * Same as
+	 * {@link #generateIceRdf(FileDataSource, long, File, File, boolean, boolean, long, Set, int, int)}
+	 * with thread counts of 1, i.e. records are converted and compressed sequentially.
+	 */
+	public static void generateIceRdf(FileDataSource fileDataSource, long currentTime, File baseSourceFileDirectory,
+			File baseRdfOutputDirectory, boolean cleanSourceFiles, boolean compress, long outputRecordLimit,
+			Set<NcbiTaxonomyID> taxonIds) throws IOException {
+		generateIceRdf(fileDataSource, currentTime, baseSourceFileDirectory, baseRdfOutputDirectory,
+				cleanSourceFiles, compress, outputRecordLimit, taxonIds, 1, 1);
+	}
+
 	/**
 	 * Use this method to generate RDF for a single FileDataSource
 	 * 
@@ -187,23 +430,48 @@ public class IceRdfGenerator {
 	 * @param cleanSourceFiles
 	 * @param compress
 	 * @param outputRecordLimit
+	 * @param threadCount
+	 *            the number of threads used to convert records to RDF. If < 2
+	 *            records are converted sequentially.
+	 * @param compressionThreadCount
+	 *            the number of threads used to compress each RDF output file
+	 *            (if compress is true). If < 2 the files are plain gzip files,
+	 *            otherwise they are multi-member gzip files, each with a
+	 *            {@link GzipBlockIndex} file alongside it (see
+	 *            {@link RdfRecordWriterImpl#setParallelCompression(int, int, int)}).
 	 * @throws IOException
 	 */
 	public static void generateIceRdf(FileDataSource fileDataSource, long currentTime, File baseSourceFileDirectory,
 			File baseRdfOutputDirectory, boolean cleanSourceFiles, boolean compress, long outputRecordLimit,
-			Set<NcbiTaxonomyID> taxonIds) throws IOException {
-		File sourceFileDirectory = getSourceFileDirectory(baseSourceFileDirectory, fileDataSource.dataSource());
-		File rdfOutputDirectory = getOutputDirectory(baseRdfOutputDirectory, fileDataSource);
+			Set<NcbiTaxonomyID> taxonIds, int threadCount, int compressionThreadCount) throws IOException {
 		File idListFileDirectory = null;
 		if (fileDataSource.isTaxonAware() && taxonIds != null && taxonIds.size() > 0) {
 			idListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
 					cleanSourceFiles, taxonIds);
 		}
+		generateIceRdf(fileDataSource, currentTime, baseSourceFileDirectory, baseRdfOutputDirectory,
+				cleanSourceFiles, compress, outputRecordLimit, taxonIds, threadCount, compressionThreadCount,
+				idListFileDirectory);
+	}
+
+	/**
+	 * @param idListFileDirectory
+	 *            the directory containing the id-list files that have already been generated for
+	 *            the specified taxons, or null if the source is not taxon-aware or no taxons are
+	 *            specified
+	 */
+	private static void generateIceRdf(FileDataSource fileDataSource, long currentTime,
+			File baseSourceFileDirectory, File baseRdfOutputDirectory, boolean cleanSourceFiles, boolean compress,
+			long outputRecordLimit, Set<NcbiTaxonomyID> taxonIds, int threadCount, int compressionThreadCount,
+			File idListFileDirectory) throws IOException {
+		File sourceFileDirectory = getSourceFileDirectory(baseSourceFileDirectory, fileDataSource.dataSource());
+		File rdfOutputDirectory = getOutputDirectory(baseRdfOutputDirectory, fileDataSource);
 		FileRecordReader<?> rr = fileDataSource.initFileRecordReader(sourceFileDirectory, cleanSourceFiles,
 				idListFileDirectory, taxonIds);
 		File cacheFilePrefix = FileUtil.appendPathElementsToDirectory(rdfOutputDirectory, "filter-cache", "filter");
 		DuplicateStatementFilter filter = new DefaultDuplicateStatementFilter(cacheFilePrefix);
-		generateRdf(currentTime, rr, rdfOutputDirectory, compress, outputRecordLimit, filter);
+		generateRdf(currentTime, rr, rdfOutputDirectory, compress, outputRecordLimit, filter, threadCount,
+				compressionThreadCount);
 	}
 
 	/**
@@ -241,13 +509,16 @@ public class IceRdfGenerator {
 	 * @param stageNum
 	 * @param recordReader
 	 * @param filter
+	 * @param recordOffsetIndex
+	 *            if not null, used to reposition the record reader at the start of the stage
 	 * @return
 	 */
 	private static void generateRdfStage(File rdfOutputDirectory, long createdTime, boolean compress,
 			long outputRecordLimit, int stageNum, FileRecordReader<?> recordReader, DuplicateStatementFilter filter,
-			Long blockRecordCount, int numStages) {
+			Long blockRecordCount, int numStages, int threadCount, int compressionThreadCount,
+			RecordOffsetIndex recordOffsetIndex) {
 
-		long blockCount = (blockRecordCount == null) ? BLOCK_RECORD_COUNT : blockRecordCount;
+		long blockCount = getBlockRecordCount(blockRecordCount);
 		long skip = 0;
 		long recordsToProcess = -1;
 		if (outputRecordLimit == -1) {
@@ -260,7 +531,93 @@ public class IceRdfGenerator {
 			skip = (stageNum - 1) * blockCount;
 			recordsToProcess = outputRecordLimit;
 		}
-		generateRdf(createdTime, recordReader, rdfOutputDirectory, compress, skip, recordsToProcess, stageNum, filter);
+		generateRdf(createdTime, recordReader, rdfOutputDirectory, compress, skip, recordsToProcess, stageNum, filter,
+				threadCount, compressionThreadCount, recordOffsetIndex, true);
+	}
+
+	/**
+	 * Generates the RDF for the specified stages of a source whose data file has been partitioned
+	 * into byte ranges, one per stage (see {@link LineFileRecordReader#getByteRanges(int)}). Each
+	 * stage is read by its own record reader, restricted to the byte range of the stage, and written
+	 * to its own output file, so unlike
+	 * {@link #generateRdfStage(File, long, boolean, long, int, FileRecordReader, DuplicateStatementFilter, Long, int, int, int, RecordOffsetIndex)}
+	 * a stage does not read through the records of the preceding stages and the stages are
+	 * processed concurrently. The data source instance statements and the schema definition file
+	 * are written by the first stage only.
+	 * 
+	 * @param byteRanges
+	 *            the byte ranges of the data file; stage n processes the n-th range. There may be
+	 *            fewer ranges than stages if the file is small.
+	 * @param stageIndexes
+	 *            the (1-based) stages to process
+	 * @param outputRecordLimit
+	 *            the maximum number of records to process per stage; -1 for all
+	 * @param threadCount
+	 *            the total number of threads to use; the stages are processed concurrently using up
+	 *            to this many threads and the remaining threads, if any, are divided among the
+	 *            stages to convert records to RDF
+	 * @param compressionThreadCount
+	 *            the number of threads used to compress each RDF output file
+	 * @throws IOException
+	 */
+	private static void generateRdfStagesByByteRange(final FileDataSource rdfSource, final File sourceFileDirectory,
+			final File rdfOutputDirectory, final File idListFileDirectory, final Set<NcbiTaxonomyID> taxonIds,
+			List<ByteRange> byteRanges, List<Integer> stageIndexes, final long createdTime, final boolean compress,
+			final long outputRecordLimit, int threadCount, final int compressionThreadCount) throws IOException {
+		int concurrentStageCount = Math.max(1, Math.min(threadCount, stageIndexes.size()));
+		final int stageThreadCount = Math.max(1, threadCount / concurrentStageCount);
+		ExecutorService stageThreadPool = Executors.newFixedThreadPool(concurrentStageCount);
+		try {
+			List<Future<Void>> stages = new ArrayList<Future<Void>>();
+			for (final int stageIndex : stageIndexes) {
+				if (stageIndex > byteRanges.size()) {
+					logger.info("No records to process for stage " + stageIndex + " of " + rdfSource.name()
+							+ ". The data file was split into " + byteRanges.size() + " byte ranges.");
+					continue;
+				}
+				final ByteRange byteRange = byteRanges.get(stageIndex - 1);
+				stages.add(stageThreadPool.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						LineFileRecordReader<?> recordReader = (LineFileRecordReader<?>) rdfSource
+								.initFileRecordReader(sourceFileDirectory, false, idListFileDirectory, taxonIds);
+						try {
+							recordReader.setByteRange(byteRange);
+							logger.info("Processing byte range " + byteRange + " of file "
+									+ recordReader.getDataFile().getAbsolutePath() + " (STAGE=" + stageIndex + ")");
+							generateRdf(createdTime, recordReader, rdfOutputDirectory, compress, 0,
+									outputRecordLimit, stageIndex, new NoOpDuplicateStatementFilter(),
+									stageThreadCount, compressionThreadCount, null, stageIndex == 1);
+						} finally {
+							recordReader.close();
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> stage : stages) {
+				try {
+					stage.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while generating RDF.", e);
+				} catch (ExecutionException e) {
+					throw new IllegalStateException("Error while generating RDF for " + rdfSource.name() + ".",
+							e.getCause());
+				}
+			}
+		} finally {
+			stageThreadPool.shutdownNow();
+		}
+	}
+
+	/**
+	 * @param blockRecordCount
+	 * @return the number of records to process per stage, {@link #BLOCK_RECORD_COUNT} if the
+	 *         specified count is null
+	 */
+	private static long getBlockRecordCount(Long blockRecordCount) {
+		return (blockRecordCount == null) ? BLOCK_RECORD_COUNT : blockRecordCount;
 	}
 
 	/**
@@ -273,13 +630,17 @@ public class IceRdfGenerator {
 	 * @param compress
 	 * @param outputRecordLimit
 	 * @param filter
+	 * @param threadCount
+	 * @param compressionThreadCount
 	 * @return
 	 */
 	private static void generateRdf(long createdTime, FileRecordReader<?> recordReader, File outputDirectory,
-			boolean compress, long outputRecordLimit, DuplicateStatementFilter filter) {
+			boolean compress, long outputRecordLimit, DuplicateStatementFilter filter, int threadCount,
+			int compressionThreadCount) {
 		long skip = 0;
 		int batchNum = 0;
-		generateRdf(createdTime, recordReader, outputDirectory, compress, skip, outputRecordLimit, batchNum, filter);
+		generateRdf(createdTime, recordReader, outputDirectory, compress, skip, outputRecordLimit, batchNum, filter,
+				threadCount, compressionThreadCount, null, true);
 	}
 
 	/**
@@ -308,16 +669,62 @@ public class IceRdfGenerator {
 	public static void generateRdf(final long createdTime, final FileRecordReader<?> recordReader,
 			final File outputDirectory, boolean compress, long skip, long outputRecordLimit, int batchNumber,
 			DuplicateStatementFilter filter) {
+		generateRdf(createdTime, recordReader, outputDirectory, compress, skip, outputRecordLimit, batchNumber,
+				filter, 1);
+	}
+
+	/**
+	 * Generate rdf from record reader, optionally using a pipeline of
+	 * threads. See
+	 * {@link RdfRecordWriterImpl#processRecordReader(edu.ucdenver.ccp.datasource.fileparsers.RecordReader, long, long, long, int)}
+	 * 
+	 * @param threadCount
+	 *            the number of threads used to convert records to RDF. If < 2
+	 *            records are converted sequentially. The generated RDF does
+	 *            not depend on the thread count.
+	 */
+	public static void generateRdf(final long createdTime, final FileRecordReader<?> recordReader,
+			final File outputDirectory, boolean compress, long skip, long outputRecordLimit, int batchNumber,
+			DuplicateStatementFilter filter, int threadCount) {
+		generateRdf(createdTime, recordReader, outputDirectory, compress, skip, outputRecordLimit, batchNumber,
+				filter, threadCount, 1, null, true);
+	}
+
+	/**
+	 * @param compressionThreadCount
+	 *            if > 1 and compress is true, the RDF files are compressed in
+	 *            parallel, see
+	 *            {@link RdfRecordWriterImpl#setParallelCompression(int, int, int)}
+	 * @param recordOffsetIndex
+	 *            if not null and the record reader is seekable, used to
+	 *            reposition the record reader instead of parsing the skipped
+	 *            records
+	 * @param writeDataSourceMetadata
+	 *            see
+	 *            {@link RdfRecordWriterImpl#setWriteDataSourceMetadata(boolean)}
+	 */
+	private static void generateRdf(final long createdTime, final FileRecordReader<?> recordReader,
+			final File outputDirectory, boolean compress, long skip, long outputRecordLimit, int batchNumber,
+			DuplicateStatementFilter filter, int threadCount, int compressionThreadCount,
+			RecordOffsetIndex recordOffsetIndex, boolean writeDataSourceMetadata) {
 		RdfRecordWriterImpl<?> recordWriter = null;
 		logger.info("Creating RDF for Record Reader: " + recordReader.getClass().getName() + " SKIP=" + skip
 				+ " COMPRESS=" + compress + " OUTPUT_RECORD_LIMIT=" + outputRecordLimit + " BATCH_NUMBER="
-				+ batchNumber + " OUTPUT_DIRECTORY=" + outputDirectory.getAbsolutePath());
+				+ batchNumber + " THREAD_COUNT=" + threadCount + " COMPRESSION_THREAD_COUNT=" + compressionThreadCount
+				+ " OUTPUT_DIRECTORY="
+				+ outputDirectory.getAbsolutePath());
 		long startTime = System.currentTimeMillis();
 		try {
 			recordWriter = new RdfRecordWriterImpl(outputDirectory, RdfFormat.NTRIPLES, compress, -1, batchNumber,
 					filter);
+			recordWriter.setRecordOffsetIndex(recordOffsetIndex);
+			recordWriter.setWriteDataSourceMetadata(writeDataSourceMetadata);
+			if (compress && compressionThreadCount > 1) {
+				recordWriter.setParallelCompression(compressionThreadCount,
+						ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION);
+			}
 			Collection<File> generatedRdfFiles = recordWriter.processRecordReader(recordReader, createdTime, skip,
-					outputRecordLimit);
+					outputRecordLimit, threadCount);
 			createMd5CheckSumsForGeneratedRdfFiles(generatedRdfFiles);
 		} catch (IOException ioe) {
 			throw new RuntimeException(String.format("IO Error while processing RecordWriter: %s", recordWriter
@@ -345,18 +752,26 @@ public class IceRdfGenerator {
 	}
 
 	public enum RunBy {
-		NAME, INDEX;
+		NAME, INDEX,
+		/**
+		 * builds the record offset indexes used by the stages of {@link Split#BY_STAGES}, see
+		 * {@link IceRdfGenerator#generateRecordOffsetIndexes(File, File, boolean, Set)}
+		 */
+		RECORD_OFFSET_INDEXES;
 	}
 
 	/**
 	 * 
 	 * @param args
-	 *            args[0]: NAME or INDEX<br>
+	 *            args[0]: NAME, INDEX or RECORD_OFFSET_INDEXES<br>
 	 *            if NAME, then the FileDataSource to be processed will be
 	 *            explicitly named (see below). <br>
 	 *            if INDEX, then the index provided will be used to specify
 	 *            which FileDataSource is processed. This is useful when running
 	 *            in batches such as when invoking via Grid Engine. <br>
+	 *            if RECORD_OFFSET_INDEXES, then the record offset indexes used
+	 *            by the stages of a BY_STAGES run are built; this should be
+	 *            run once before the stage jobs. <br>
 	 * <br>
 	 *            args[1]: base directory where the data source files are
 	 *            already downloaded <br>
@@ -373,12 +788,22 @@ public class IceRdfGenerator {
 	 *            args[6]: Clean data source files (if true, then the data
 	 *            source files will be deleted and re-downloaded)
 	 * 
-	 *            The remaining input arguments depend on args[0]:<br>
+	 *            The remaining input arguments depend on args[0] (there are
+	 *            none for RECORD_OFFSET_INDEXES):<br>
 	 *            if NAME:<br>
 	 *            args[7]: comma-delimited list of FileDataSource names to
 	 *            process <br>
 	 *            args[8]: [OPTIONAL] date to use in the form yyyy-mm-dd. If not
 	 *            included or if "null" then the current date will be used<br>
+	 *            args[9]: [OPTIONAL] the number of threads to use when
+	 *            converting records to RDF. Defaults to 1, i.e. sequential
+	 *            processing. Requires args[8] to be set (use "null" for the
+	 *            current date).<br>
+	 *            args[10]: [OPTIONAL] the number of threads to use when
+	 *            compressing each RDF output file. Defaults to 1, i.e. plain
+	 *            gzip files. If > 1 the files are multi-member gzip files and a
+	 *            {@link GzipBlockIndex} file is written alongside each of them.
+	 *            Requires args[9] to be set.<br>
 	 * <br>
 	 *            if INDEX: <br>
 	 *            args[7]: start stage args<br>
@@ -395,7 +820,16 @@ public class IceRdfGenerator {
 	 *            larger files, however duplicate triple removal can be done
 	 *            concurrently.<br>
 	 *            args[10]: [OPTIONAL] date to use in the form yyyy-mm-dd. If not
-	 *            included or if "null" then the current date will be used
+	 *            included or if "null" then the current date will be used<br>
+	 *            args[11]: [OPTIONAL] the number of threads to use when
+	 *            converting records to RDF. Defaults to 1, i.e. sequential
+	 *            processing. Requires args[10] to be set (use "null" for the
+	 *            current date).<br>
+	 *            args[12]: [OPTIONAL] the number of threads to use when
+	 *            compressing each RDF output file. Defaults to 1, i.e. plain
+	 *            gzip files. If > 1 the files are multi-member gzip files and a
+	 *            {@link GzipBlockIndex} file is written alongside each of them.
+	 *            Requires args[11] to be set.
 	 * 
 	 */
 	public static void main(String[] args) {
@@ -427,30 +861,48 @@ public class IceRdfGenerator {
 		boolean cleanSourceFiles = Boolean.valueOf(args[index++]);
 
 		try {
-
-			// File idListFileDirectory =
-			// generateIdListFiles(baseSourceFileDirectory,
-			// baseRdfOutputDirectory,
-			// cleanSourceFiles, taxonIds);
 			switch (runBy) {
 			case INDEX:
 				int stageStartNumber = Integer.valueOf(args[index++]);
 				int stagesToProcessCount = Integer.valueOf(args[index++]);
 				Split split = Split.valueOf(args[index++]);
 				long time = getTime(args, index);
+				int threadCount = getThreadCount(args, index + 1);
+				int compressionThreadCount = getThreadCount(args, index + 2);
 				generateIceRdf(split, time, stageStartNumber, stagesToProcessCount, baseSourceFileDirectory,
-						baseRdfOutputDirectory, cleanSourceFiles, compress, outputRecordLimit, taxonIds);
+						baseRdfOutputDirectory, cleanSourceFiles, compress, outputRecordLimit, taxonIds, threadCount,
+						compressionThreadCount);
 				break;
 
 			case NAME:
 				String datasourceStr = args[index++].toUpperCase();
+				threadCount = getThreadCount(args, index + 1);
+				compressionThreadCount = getThreadCount(args, index + 2);
+				List<FileDataSource> sources = new ArrayList<FileDataSource>();
+				boolean taxonAwareSource = false;
 				for (String ds : datasourceStr.split(",")) {
 					FileDataSource source = FileDataSource.valueOf(ds);
+					sources.add(source);
+					taxonAwareSource = taxonAwareSource || source.isTaxonAware();
+				}
+				/* the id-list files are generated once and shared by the taxon-aware sources */
+				File idListFileDirectory = null;
+				if (taxonAwareSource && taxonIds != null && taxonIds.size() > 0) {
+					idListFileDirectory = generateIdListFiles(baseSourceFileDirectory, baseRdfOutputDirectory,
+							cleanSourceFiles, taxonIds);
+				}
+				for (FileDataSource source : sources) {
 					time = getTime(args, index);
 					generateIceRdf(source, time, baseSourceFileDirectory, baseRdfOutputDirectory, cleanSourceFiles,
-							compress, outputRecordLimit, taxonIds);
+							compress, outputRecordLimit, taxonIds, threadCount, compressionThreadCount,
+							(source.isTaxonAware()) ? idListFileDirectory : null);
 				}
 				break;
+
+			case RECORD_OFFSET_INDEXES:
+				generateRecordOffsetIndexes(baseSourceFileDirectory, baseRdfOutputDirectory, cleanSourceFiles,
+						taxonIds);
+				break;
 			default:
 				throw new IllegalArgumentException("Unhandled RunBy option: " + runBy.name());
 			}
@@ -474,4 +926,17 @@ public class IceRdfGenerator {
 		return System.currentTimeMillis();
 	}
 
+	/**
+	 * @param args
+	 * @param index
+	 * @return the thread count specified at the index in the args array, or 1
+	 *         if there is no such argument
+	 */
+	private static int getThreadCount(String[] args, int index) {
+		if (args.length > index && !args[index].equals("null")) {
+			return Integer.parseInt(args[index]);
+		}
+		return 1;
+	}
+
 }
@@ -0,0 +1,227 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.openrdf.model.Resource;
+
+/**
+ * Determines whether a statement subject contains one of the key field name prefixes of a record
+ * class (e.g. F_SparseUniProtDatFileRecord_accession_), i.e. whether the subject is the URI of a
+ * primary key field value. The result is identical to calling {@link String#contains(CharSequence)}
+ * on the subject for each key field name, however the subject is not searched for each key field
+ * name every time.
+ * <p>
+ * Record and field URIs end with a fixed-length digest that is preceded by a template that repeats
+ * across records (e.g. http://kabob.ucdenver.edu/iao/uniprot/F_SparseUniProtDatFileRecord_accession_).
+ * The key field names are searched for in each template only once, when the template is first
+ * observed. Matches that extend into the digest are then detected using the (usually empty) set of
+ * key field name suffixes that can complete a match that begins in the template, plus a search of
+ * the digest for key field names short enough to fit inside it. In addition, the result for the
+ * most recent subject is remembered since consecutive statements often share the same subject
+ * instance.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ */
+final class KeyFieldUriMatcher {
+
+	/**
+	 * the length of the URL-safe base64 encoded SHA-1 digest at the end of record and field URIs
+	 */
+	static final int DIGEST_LENGTH = 27;
+
+	private static final int TEMPLATE_TABLE_SIZE = 256;
+	/**
+	 * the template table is cleared when it holds this many templates so that it remains small
+	 * if the subjects do not share templates
+	 */
+	private static final int MAX_TEMPLATE_COUNT = TEMPLATE_TABLE_SIZE / 2;
+	/**
+	 * templates are hashed using their length and final characters, which differ between the field
+	 * names of a record class
+	 */
+	private static final int TEMPLATE_HASH_LENGTH = 16;
+
+	private final String[] keyFieldNames;
+	/**
+	 * the key field names that are short enough to be found entirely within a digest
+	 */
+	private final String[] digestSizedKeyFieldNames;
+
+	private final Template[] templates = new Template[TEMPLATE_TABLE_SIZE];
+	private int templateCount = 0;
+
+	/*
+	 * the two most recent subjects are remembered since statements about a record and statements
+	 * about its field values are interleaved
+	 */
+	private Resource lastSubject = null;
+	private boolean lastSubjectMatches = false;
+	private Resource previousSubject = null;
+	private boolean previousSubjectMatches = false;
+
+	/**
+	 * @param keyFieldNames
+	 *            the key field URI prefixes of the record class, as returned by
+	 *            {@link RdfRecordEmissionPlan#getKeyFieldUriPrefixes()}
+	 */
+	KeyFieldUriMatcher(Collection<String> keyFieldNames) {
+		this.keyFieldNames = keyFieldNames.toArray(new String[keyFieldNames.size()]);
+		List<String> digestSized = new ArrayList<String>();
+		for (String keyFieldName : keyFieldNames) {
+			if (keyFieldName.length() <= DIGEST_LENGTH) {
+				digestSized.add(keyFieldName);
+			}
+		}
+		this.digestSizedKeyFieldNames = digestSized.toArray(new String[digestSized.size()]);
+	}
+
+	/**
+	 * @param subject
+	 * @return true if the subject contains one of the key field names
+	 */
+	boolean isKeyFieldUri(Resource subject) {
+		if (subject == lastSubject) {
+			return lastSubjectMatches;
+		}
+		if (subject == previousSubject) {
+			boolean matches = previousSubjectMatches;
+			previousSubject = lastSubject;
+			previousSubjectMatches = lastSubjectMatches;
+			lastSubject = subject;
+			lastSubjectMatches = matches;
+			return matches;
+		}
+		String sub = subject.toString();
+		boolean matches;
+		if (keyFieldNames.length == 0) {
+			matches = false;
+		} else if (sub.length() <= DIGEST_LENGTH) {
+			matches = containsAny(sub, keyFieldNames, 0);
+		} else {
+			matches = templateMatches(sub);
+		}
+		previousSubject = lastSubject;
+		previousSubjectMatches = lastSubjectMatches;
+		lastSubject = subject;
+		lastSubjectMatches = matches;
+		return matches;
+	}
+
+	/**
+	 * Splits the subject into a template and a digest-length tail. A key field name occurs in the
+	 * subject if it occurs in the template, if it begins in the template and ends in the tail, or
+	 * if it occurs in the tail.
+	 */
+	private boolean templateMatches(String sub) {
+		int templateLength = sub.length() - DIGEST_LENGTH;
+		Template template = getTemplate(sub, templateLength);
+		if (template.containsKeyFieldName) {
+			return true;
+		}
+		for (String suffix : template.keyFieldNameSuffixes) {
+			if (sub.startsWith(suffix, templateLength)) {
+				return true;
+			}
+		}
+		return containsAny(sub, digestSizedKeyFieldNames, templateLength);
+	}
+
+	private Template getTemplate(String sub, int templateLength) {
+		int hash = templateLength;
+		for (int i = Math.max(0, templateLength - TEMPLATE_HASH_LENGTH); i < templateLength; i++) {
+			hash = 31 * hash + sub.charAt(i);
+		}
+		int slot = (hash ^ (hash >>> 16)) & (TEMPLATE_TABLE_SIZE - 1);
+		for (Template template; (template = templates[slot]) != null; slot = (slot + 1) & (TEMPLATE_TABLE_SIZE - 1)) {
+			if (template.hash == hash && template.prefix.length() == templateLength
+					&& sub.regionMatches(0, template.prefix, 0, templateLength)) {
+				return template;
+			}
+		}
+		if (templateCount == MAX_TEMPLATE_COUNT) {
+			for (int i = 0; i < TEMPLATE_TABLE_SIZE; i++) {
+				templates[i] = null;
+			}
+			templateCount = 0;
+			slot = (hash ^ (hash >>> 16)) & (TEMPLATE_TABLE_SIZE - 1);
+		}
+		Template template = new Template(sub.substring(0, templateLength), hash, keyFieldNames);
+		templates[slot] = template;
+		templateCount++;
+		return template;
+	}
+
+	private static boolean containsAny(String s, String[] keyFieldNames, int fromIndex) {
+		for (String keyFieldName : keyFieldNames) {
+			if (s.indexOf(keyFieldName, fromIndex) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class Template {
+		private final String prefix;
+		private final int hash;
+		private final boolean containsKeyFieldName;
+		/**
+		 * for each key field name that has a proper prefix at the end of this template, the
+		 * remainder of the key field name; a subject with this template contains the key field name
+		 * if its tail starts with the remainder
+		 */
+		private final String[] keyFieldNameSuffixes;
+
+		public Template(String prefix, int hash, String[] keyFieldNames) {
+			this.prefix = prefix;
+			this.hash = hash;
+			this.containsKeyFieldName = containsAny(prefix, keyFieldNames, 0);
+			List<String> suffixes = new ArrayList<String>();
+			for (String keyFieldName : keyFieldNames) {
+				for (int i = 1; i < keyFieldName.length(); i++) {
+					if (prefix.endsWith(keyFieldName.substring(0, i))) {
+						suffixes.add(keyFieldName.substring(i));
+					}
+				}
+			}
+			this.keyFieldNameSuffixes = suffixes.toArray(new String[suffixes.size()]);
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import org.openrdf.model.impl.URIImpl;
+
+import edu.ucdenver.ccp.common.string.StringConstants;
+import edu.ucdenver.ccp.datasource.identifiers.DataSource;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.RdfPartition;
+
+/**
+ * Creates the KaBOB IAO URIs of a {@link DataSource}, e.g.
+ * {@code http://kabob.ucdenver.edu/iao/omim/OMIM_100050_ICE}, see
+ * {@link RdfUtil#createKiaoUri(DataSource, String)}. The base URI and the prefix of local names
+ * that start with a digit are computed once per {@link DataSource}, and local names are encoded
+ * in a single pass (see {@link #encodeLocalName(String)}), as URIs are created for every record,
+ * field and value that is serialized.
+ * <p>
+ * Instances are immutable and can be used concurrently.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ */
+public final class KiaoUriFactory {
+
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * the factory for each {@link DataSource}, indexed by ordinal
+	 */
+	private static final KiaoUriFactory[] FACTORIES;
+
+	static {
+		DataSource[] dataSources = DataSource.values();
+		FACTORIES = new KiaoUriFactory[dataSources.length];
+		for (DataSource ds : dataSources) {
+			FACTORIES[ds.ordinal()] = new KiaoUriFactory(ds);
+		}
+	}
+
+	private final String baseUri;
+	/**
+	 * the prefix of encoded local names that start with a digit
+	 */
+	private final String numericLocalNamePrefix;
+
+	private KiaoUriFactory(DataSource targetNamespace) {
+		this.baseUri = DataSource.KABOB.longName() + RdfPartition.IAO.toString().toLowerCase()
+				+ StringConstants.FORWARD_SLASH + targetNamespace.lowerName() + StringConstants.FORWARD_SLASH;
+		this.numericLocalNamePrefix = targetNamespace.getLocalName() + StringConstants.UNDERSCORE;
+	}
+
+	/**
+	 * @param targetNamespace
+	 * @return the factory of the KaBOB IAO URIs of the specified {@link DataSource}
+	 */
+	public static KiaoUriFactory getFactory(DataSource targetNamespace) {
+		return FACTORIES[targetNamespace.ordinal()];
+	}
+
+	/**
+	 * @return the base URI, e.g. {@code http://kabob.ucdenver.edu/iao/omim/}
+	 */
+	public String getBaseUri() {
+		return baseUri;
+	}
+
+	/**
+	 * @param localName
+	 * @return the URI of the specified local name, see {@link #createUriString(String)}
+	 */
+	public URIImpl createUri(String localName) {
+		return new URIImpl(createUriString(localName));
+	}
+
+	/**
+	 * @param localName
+	 * @return the base URI followed by the encoded local name (see {@link #encodeLocalName(String)}
+	 *         ); if the encoded local name starts with a digit it is prefixed with the local name of
+	 *         the {@link DataSource} and an underscore
+	 */
+	public String createUriString(String localName) {
+		String encodedName = encodeLocalName(localName);
+		StringBuilder sb = new StringBuilder(baseUri.length() + numericLocalNamePrefix.length()
+				+ encodedName.length());
+		sb.append(baseUri);
+		if (startsWithDigit(encodedName)) {
+			sb.append(numericLocalNamePrefix);
+		}
+		return sb.append(encodedName).toString();
+	}
+
+	/**
+	 * Encodes a local name as {@code URLEncoder.encode(localName.replaceAll(":", "_"), "UTF-8")}
+	 * does, without a regular expression or intermediate strings: colons are replaced by
+	 * underscores, letters, digits and the characters {@code .-*_} are kept, spaces are replaced by
+	 * '+', and all other characters are replaced by the percent-encoded bytes of their UTF-8
+	 * encoding (unpaired surrogates are encoded as '?').
+	 * 
+	 * @param localName
+	 * @return the encoded local name; the input if no character needs to be encoded
+	 */
+	public static String encodeLocalName(String localName) {
+		int length = localName.length();
+		int i = 0;
+		while (i < length && isUnreserved(localName.charAt(i))) {
+			i++;
+		}
+		if (i == length) {
+			return localName;
+		}
+		StringBuilder sb = new StringBuilder(length + 16);
+		sb.append(localName, 0, i);
+		for (; i < length; i++) {
+			char c = localName.charAt(i);
+			if (isUnreserved(c)) {
+				sb.append(c);
+			} else if (c == ':') {
+				sb.append('_');
+			} else if (c == ' ') {
+				sb.append('+');
+			} else if (c < 0x80) {
+				appendEncodedByte(sb, c);
+			} else if (c < 0x800) {
+				appendEncodedByte(sb, 0xC0 | (c >> 6));
+				appendEncodedByte(sb, 0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(localName.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, localName.charAt(++i));
+				appendEncodedByte(sb, 0xF0 | (codePoint >> 18));
+				appendEncodedByte(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+				appendEncodedByte(sb, 0x80 | ((codePoint >> 6) & 0x3F));
+				appendEncodedByte(sb, 0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				appendEncodedByte(sb, '?');
+			} else {
+				appendEncodedByte(sb, 0xE0 | (c >> 12));
+				appendEncodedByte(sb, 0x80 | ((c >> 6) & 0x3F));
+				appendEncodedByte(sb, 0x80 | (c & 0x3F));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @param encodedName
+	 * @return true if the specified name starts with an ASCII digit
+	 */
+	static boolean startsWithDigit(String encodedName) {
+		if (encodedName.isEmpty()) {
+			return false;
+		}
+		char c = encodedName.charAt(0);
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * @return true if the character is not changed by {@link #encodeLocalName(String)}
+	 */
+	private static boolean isUnreserved(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-'
+				|| c == '*' || c == '_';
+	}
+
+	private static void appendEncodedByte(StringBuilder sb, int b) {
+		sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+	}
+
+}
@@ -0,0 +1,283 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+import org.openrdf.model.BNode;
+import org.openrdf.model.Literal;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.Value;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+
+/**
+ * Serializes statements as N-Triples. The output is byte-for-byte identical to that of the
+ * Sesame Rio N-Triples writer, i.e. all characters outside of the printable ASCII range are
+ * escaped using \\uXXXX sequences, however statements are written directly into a reusable byte
+ * buffer that is flushed to the output channel when full. This avoids the {@link java.io.Writer}
+ * and {@link java.nio.charset.CharsetEncoder} layers used by Rio.
+ * <p>
+ * Namespaces are ignored (as by Rio). This class is not thread-safe.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class NTriplesStatementWriter implements RDFHandler {
+
+	private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	/**
+	 * the largest number of bytes written for a single character (a \\uXXXX escape)
+	 */
+	private static final int MAX_BYTES_PER_CHAR = 6;
+	private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(Charset.forName("US-ASCII"));
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final WritableByteChannel channel;
+	private final byte[] buffer;
+	private final ByteBuffer byteBuffer;
+	private int position = 0;
+	private boolean writingStarted = false;
+
+	/**
+	 * @param channel
+	 *            the channel to which the N-Triples are written. It is not closed by this writer.
+	 */
+	public NTriplesStatementWriter(WritableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param channel
+	 *            the channel to which the N-Triples are written. It is not closed by this writer.
+	 * @param bufferSize
+	 *            the size of the byte buffer in bytes
+	 */
+	public NTriplesStatementWriter(WritableByteChannel channel, int bufferSize) {
+		if (bufferSize < 16 * MAX_BYTES_PER_CHAR) {
+			throw new IllegalArgumentException("The buffer size must be >= " + (16 * MAX_BYTES_PER_CHAR) + " but was: "
+					+ bufferSize);
+		}
+		this.channel = channel;
+		this.buffer = new byte[bufferSize];
+		this.byteBuffer = ByteBuffer.wrap(buffer);
+	}
+
+	@Override
+	public void startRDF() throws RDFHandlerException {
+		if (writingStarted) {
+			throw new RuntimeException("Document writing has already started");
+		}
+		writingStarted = true;
+	}
+
+	@Override
+	public void endRDF() throws RDFHandlerException {
+		if (!writingStarted) {
+			throw new RuntimeException("Document writing has not yet started");
+		}
+		try {
+			flush();
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		} finally {
+			writingStarted = false;
+		}
+	}
+
+	@Override
+	public void handleNamespace(String prefix, String name) throws RDFHandlerException {
+		/* N-Triples does not support namespace prefixes */
+	}
+
+	@Override
+	public void handleStatement(Statement st) throws RDFHandlerException {
+		if (!writingStarted) {
+			throw new RuntimeException("Document writing has not yet started");
+		}
+		try {
+			writeResource(st.getSubject());
+			writeByte(' ');
+			writeUri(st.getPredicate());
+			writeByte(' ');
+			writeValue(st.getObject());
+			ensureCapacity(3);
+			buffer[position++] = ' ';
+			buffer[position++] = '.';
+			buffer[position++] = '\n';
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	@Override
+	public void handleComment(String comment) throws RDFHandlerException {
+		try {
+			writeByte('#');
+			writeByte(' ');
+			writeUnescaped(comment);
+			writeByte('\n');
+		} catch (IOException e) {
+			throw new RDFHandlerException(e);
+		}
+	}
+
+	private void writeValue(Value value) throws IOException {
+		if (value instanceof Literal) {
+			writeLiteral((Literal) value);
+		} else {
+			writeResource((Resource) value);
+		}
+	}
+
+	private void writeResource(Resource resource) throws IOException {
+		if (resource instanceof URI) {
+			writeUri((URI) resource);
+		} else {
+			writeByte('_');
+			writeByte(':');
+			writeUnescaped(((BNode) resource).getID());
+		}
+	}
+
+	private void writeUri(URI uri) throws IOException {
+		writeByte('<');
+		writeEscaped(uri.toString());
+		writeByte('>');
+	}
+
+	private void writeLiteral(Literal literal) throws IOException {
+		writeByte('"');
+		writeEscaped(literal.getLabel());
+		writeByte('"');
+		if (literal.getLanguage() != null) {
+			writeByte('@');
+			writeUnescaped(literal.getLanguage());
+		} else if (literal.getDatatype() != null) {
+			writeByte('^');
+			writeByte('^');
+			writeUri(literal.getDatatype());
+		}
+	}
+
+	/**
+	 * Writes the specified string, escaped as by the Rio N-Triples writer
+	 */
+	private void writeEscaped(String s) throws IOException {
+		int length = s.length();
+		int i = 0;
+		while (i < length) {
+			/* write as many characters as are guaranteed to fit in the buffer */
+			int end = Math.min(length, i + (buffer.length - position) / MAX_BYTES_PER_CHAR);
+			if (end == i) {
+				flush();
+				continue;
+			}
+			byte[] buf = buffer;
+			int pos = position;
+			for (; i < end; i++) {
+				char c = s.charAt(i);
+				if (c >= 0x20 && c < 0x7F) {
+					if (c == '\\' || c == '"') {
+						buf[pos++] = '\\';
+					}
+					buf[pos++] = (byte) c;
+				} else if (c == '\n') {
+					buf[pos++] = '\\';
+					buf[pos++] = 'n';
+				} else if (c == '\r') {
+					buf[pos++] = '\\';
+					buf[pos++] = 'r';
+				} else if (c == '\t') {
+					buf[pos++] = '\\';
+					buf[pos++] = 't';
+				} else {
+					buf[pos++] = '\\';
+					buf[pos++] = 'u';
+					buf[pos++] = HEX_DIGITS[(c >>> 12) & 0xF];
+					buf[pos++] = HEX_DIGITS[(c >>> 8) & 0xF];
+					buf[pos++] = HEX_DIGITS[(c >>> 4) & 0xF];
+					buf[pos++] = HEX_DIGITS[c & 0xF];
+				}
+			}
+			position = pos;
+		}
+	}
+
+	/**
+	 * Writes the UTF-8 encoding of the specified string (Rio does not escape comments, blank node
+	 * identifiers and language tags)
+	 */
+	private void writeUnescaped(String s) throws IOException {
+		byte[] bytes = s.getBytes(UTF_8);
+		for (int offset = 0; offset < bytes.length;) {
+			ensureCapacity(1);
+			int length = Math.min(bytes.length - offset, buffer.length - position);
+			System.arraycopy(bytes, offset, buffer, position, length);
+			position += length;
+			offset += length;
+		}
+	}
+
+	private void writeByte(char c) throws IOException {
+		ensureCapacity(1);
+		buffer[position++] = (byte) c;
+	}
+
+	private void ensureCapacity(int byteCount) throws IOException {
+		if (buffer.length - position < byteCount) {
+			flush();
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes to the channel
+	 * 
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		byteBuffer.clear();
+		byteBuffer.limit(position);
+		while (byteBuffer.hasRemaining()) {
+			channel.write(byteBuffer);
+		}
+		position = 0;
+	}
+
+}
@@ -0,0 +1,276 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openrdf.model.impl.URIImpl;
+
+import edu.ucdenver.ccp.datasource.fileparsers.Record;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordField;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordUtil;
+import edu.ucdenver.ccp.datasource.identifiers.DataSource;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordUriFactory.IncludeVersion;
+
+/**
+ * Captures everything about a {@link Record}-annotated class that is needed to emit RDF for its
+ * instances, i.e. the {@link RecordField}-annotated fields sorted by name, whether each field is a
+ * sub-record, the field template URIs, and a {@link MethodHandle} getter for each field. Plans are
+ * built once per record class and cached, so the reflection required to inspect a record class is
+ * no longer repeated for every record (and sub-record) that is serialized.
+ *
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ */
+public class RdfRecordEmissionPlan {
+
+	private static final Map<Class<?>, RdfRecordEmissionPlan> planCache = new ConcurrentHashMap<Class<?>, RdfRecordEmissionPlan>();
+
+	private final Class<?> recordClass;
+	private final String recordClassSimpleName;
+	private final DataSource namespace;
+	private final URIImpl recordTypeUri;
+	private final URIImpl recordSchemaUri;
+	private final List<FieldPlan> sortedFields;
+	private final Set<String> keyFieldUriPrefixes;
+	private final boolean hasSubRecordFields;
+
+	/**
+	 * @param recordClass
+	 * @return the cached {@link RdfRecordEmissionPlan} for the input record class. The plan is
+	 *         created the first time a class is requested.
+	 * @throws IllegalArgumentException
+	 *             if the input class is missing its {@link Record} annotation
+	 */
+	public static RdfRecordEmissionPlan getPlan(Class<?> recordClass) {
+		RdfRecordEmissionPlan plan = planCache.get(recordClass);
+		if (plan == null) {
+			plan = new RdfRecordEmissionPlan(recordClass);
+			RdfRecordEmissionPlan existingPlan = planCache.putIfAbsent(recordClass, plan);
+			if (existingPlan != null) {
+				plan = existingPlan;
+			}
+		}
+		return plan;
+	}
+
+	private RdfRecordEmissionPlan(Class<?> recordClass) {
+		this.recordClass = recordClass;
+		this.recordClassSimpleName = recordClass.getSimpleName();
+		this.namespace = DataSource.getNamespace(RecordUtil.getRecordDataSource(recordClass));
+		this.recordTypeUri = RdfRecordUriFactory.createRecordTypeUri(recordClass);
+		this.recordSchemaUri = RdfRecordUriFactory.createRecordSchemaUri(recordClass, IncludeVersion.YES);
+
+		List<Field> fields = new ArrayList<Field>(RecordUtil.getFieldToRecordFieldAnnotationsMap(recordClass)
+				.keySet());
+		Collections.sort(fields, new RdfRecordUtil.FieldNameComparator());
+		List<FieldPlan> fieldPlans = new ArrayList<FieldPlan>(fields.size());
+		Set<String> keyPrefixes = new HashSet<String>();
+		boolean subRecordFieldObserved = false;
+		for (Field field : fields) {
+			FieldPlan fieldPlan = new FieldPlan(recordClass, field);
+			fieldPlans.add(fieldPlan);
+			subRecordFieldObserved |= fieldPlan.isSubRecord();
+			if (fieldPlan.isKeyField()) {
+				keyPrefixes.add("F_" + recordClassSimpleName + "_" + field.getName() + "_");
+			}
+		}
+		this.sortedFields = Collections.unmodifiableList(fieldPlans);
+		this.keyFieldUriPrefixes = Collections.unmodifiableSet(keyPrefixes);
+		this.hasSubRecordFields = subRecordFieldObserved;
+	}
+
+	public String getRecordClassSimpleName() {
+		return recordClassSimpleName;
+	}
+
+	/**
+	 * @return the {@link DataSource} namespace as specified by the {@link Record} annotation
+	 */
+	public DataSource getNamespace() {
+		return namespace;
+	}
+
+	/**
+	 * @return the same URI as {@link RdfRecordUriFactory#createRecordTypeUri(Class)}
+	 */
+	public URIImpl getRecordTypeUri() {
+		return recordTypeUri;
+	}
+
+	/**
+	 * @return the same URI as {@link RdfRecordUriFactory#createRecordSchemaUri(Class, IncludeVersion)}
+	 *         with {@link IncludeVersion#YES}
+	 */
+	public URIImpl getRecordSchemaUri() {
+		return recordSchemaUri;
+	}
+
+	/**
+	 * @return the {@link RecordField}-annotated fields of the record class sorted by field name
+	 */
+	public List<FieldPlan> getSortedFields() {
+		return sortedFields;
+	}
+
+	/**
+	 * @return the F_[RECORD]_[FIELD]_ prefixes for the key fields of the record class. See
+	 *         {@link RecordUtil#getKeyFieldNames(Class)}.
+	 */
+	public Set<String> getKeyFieldUriPrefixes() {
+		return keyFieldUriPrefixes;
+	}
+
+	/**
+	 * @return true if at least one field of the record class is a sub-record (or a collection of
+	 *         sub-records)
+	 */
+	public boolean hasSubRecordFields() {
+		return hasSubRecordFields;
+	}
+
+	/**
+	 * @param fieldName
+	 * @return the {@link FieldPlan} for the field with the specified name
+	 * @throws IllegalArgumentException
+	 *             if the field is not a {@link RecordField}-annotated field of the record class
+	 */
+	public FieldPlan getFieldPlan(String fieldName) {
+		for (FieldPlan fieldPlan : sortedFields) {
+			if (fieldPlan.getName().equals(fieldName)) {
+				return fieldPlan;
+			}
+		}
+		throw new IllegalArgumentException("The '" + fieldName + "' field is not a RecordField in class: "
+				+ recordClass.getName());
+	}
+
+	/**
+	 * Per-field portion of the {@link RdfRecordEmissionPlan}
+	 */
+	public static class FieldPlan {
+		private final String name;
+		private final boolean isSubRecord;
+		private final boolean isKeyField;
+		private final URIImpl templateUri;
+		private final String templateUriNTriplesStr;
+		private final byte[] templateUriNTriplesBytes;
+		private final MethodHandle getter;
+
+		private FieldPlan(Class<?> recordClass, Field field) {
+			this.name = field.getName();
+			this.isSubRecord = RdfRecordUtil.isFieldSubRecord(field);
+			this.isKeyField = field.getAnnotation(RecordField.class).isKeyField();
+			this.templateUri = RdfRecordUriFactory.createDataFieldTemplateUri(recordClass, name, IncludeVersion.YES);
+			this.templateUriNTriplesStr = "<" + templateUri.toString() + ">";
+			this.templateUriNTriplesBytes = templateUriNTriplesStr.getBytes(StandardCharsets.UTF_8);
+			try {
+				field.setAccessible(true);
+				this.getter = MethodHandles.lookup().unreflectGetter(field)
+						.asType(MethodType.methodType(Object.class, Object.class));
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("Unable to access field '" + name + "' in class: "
+						+ recordClass.getName(), e);
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return true if the field type (or the generic type of a {@link Collection} field) is
+		 *         annotated with {@link Record}
+		 */
+		public boolean isSubRecord() {
+			return isSubRecord;
+		}
+
+		public boolean isKeyField() {
+			return isKeyField;
+		}
+
+		/**
+		 * @return the same URI as
+		 *         {@link RdfRecordUriFactory#createDataFieldTemplateUri(Class, String, IncludeVersion)}
+		 *         with {@link IncludeVersion#YES}
+		 */
+		public URIImpl getTemplateUri() {
+			return templateUri;
+		}
+
+		/**
+		 * @return the template URI surrounded by angle brackets, as it appears in N-Triples
+		 */
+		public String getTemplateUriNTriplesStr() {
+			return templateUriNTriplesStr;
+		}
+
+		/**
+		 * @return the UTF-8 encoding of {@link #getTemplateUriNTriplesStr()}. The returned array is
+		 *         shared and must not be modified.
+		 */
+		byte[] getTemplateUriNTriplesBytes() {
+			return templateUriNTriplesBytes;
+		}
+
+		/**
+		 * @param record
+		 * @return the value of this field in the input record
+		 */
+		public Object getValue(Object record) {
+			try {
+				return (Object) getter.invokeExact(record);
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable t) {
+				throw new RuntimeException(t);
+			}
+		}
+	}
+
+}
@@ -38,11 +38,9 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.openrdf.model.Statement;
 import org.openrdf.model.Value;
@@ -50,13 +48,12 @@ import org.openrdf.model.impl.URIImpl;
 import org.openrdf.rio.ntriples.NTriplesUtil;
 
 import edu.ucdenver.ccp.common.collections.CollectionsUtil;
-import edu.ucdenver.ccp.common.digest.DigestUtil;
-import edu.ucdenver.ccp.common.reflection.PrivateAccessor;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordField;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordUtil;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.ProbableErrorDataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.UnknownDataSourceIdentifier;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordEmissionPlan.FieldPlan;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.vocabulary.KIAO;
 
 /**
@@ -70,6 +67,12 @@ public class RdfRecordUriFactory {
 		NO
 	}
 
+	/**
+	 * the record schema and data field template URIs, which are constant for a given record class,
+	 * field and {@link IncludeVersion}
+	 */
+	private static final Map<TemplateUriKey, URIImpl> templateUriCache = new ConcurrentHashMap<TemplateUriKey, URIImpl>();
+
 	/**
 	 * @param record
 	 * @return the URI for the input Record. The URI should take the form
@@ -79,13 +82,22 @@ public class RdfRecordUriFactory {
 	 *         added to the string with no spaces. Each URI is surrounded by angle brackets.
 	 */
 	public static URIImpl createRecordUri(Object record) {
-		String inputFileType = record.getClass().getSimpleName();
-		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass()));
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(record.getClass());
 		String sha1Str = RdfRecordUriFactory.sha1DigestForSortedFieldsAndValues(record);
-		return RdfUtil.createKiaoUri(ns, "R_" + inputFileType + "_" + sha1Str);
+		return RdfUtil.createKiaoUri(plan.getNamespace(), "R_" + plan.getRecordClassSimpleName() + "_" + sha1Str);
 	}
 
 	public static URIImpl createRecordSchemaUri(Class<?> recordClass, IncludeVersion includeVersion) {
+		TemplateUriKey key = new TemplateUriKey(recordClass, null, includeVersion);
+		URIImpl uri = templateUriCache.get(key);
+		if (uri == null) {
+			uri = computeRecordSchemaUri(recordClass, includeVersion);
+			templateUriCache.put(key, uri);
+		}
+		return uri;
+	}
+
+	private static URIImpl computeRecordSchemaUri(Class<?> recordClass, IncludeVersion includeVersion) {
 		String inputFileType = recordClass.getSimpleName();
 		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(recordClass));
 		String localName = inputFileType + KIAO.SCHEMA.termName();
@@ -101,16 +113,28 @@ public class RdfRecordUriFactory {
 	}
 
 	public static URIImpl createFieldUri(Object record, Field field, Object value) {
+		return createFieldUri(record, RdfRecordEmissionPlan.getPlan(record.getClass()).getFieldPlan(field.getName()),
+				value);
+	}
+
+	/**
+	 * @param record
+	 * @param fieldPlan
+	 *            the cached {@link FieldPlan} for the field of the input record
+	 * @param value
+	 * @return the URI for the field/value pairing, see {@link #createFieldUri(Object, Field, Object)}
+	 */
+	static URIImpl createFieldUri(Object record, FieldPlan fieldPlan, Object value) {
 		if (value == null) {
 			return null;
 		}
-		String sha1DigestForFieldValues = RdfRecordUriFactory.getSha1DigestForFieldValuePairing(record, field, value);
+		String sha1DigestForFieldValues = RdfRecordUriFactory.getSha1DigestForFieldValuePairing(fieldPlan, value);
 		if (sha1DigestForFieldValues == null) {
 			return null;
 		}
-		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass()));
-		return RdfUtil.createKiaoUri(ns, "F_" + record.getClass().getSimpleName() + "_" + field.getName() + "_"
-				+ sha1DigestForFieldValues);
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(record.getClass());
+		return RdfUtil.createKiaoUri(plan.getNamespace(), "F_" + plan.getRecordClassSimpleName() + "_"
+				+ fieldPlan.getName() + "_" + sha1DigestForFieldValues);
 	}
 
 	/**
@@ -121,6 +145,17 @@ public class RdfRecordUriFactory {
 	 */
 	public static URIImpl createDataFieldTemplateUri(Class<?> recordClass, String fieldName,
 			IncludeVersion includeVersion) {
+		TemplateUriKey key = new TemplateUriKey(recordClass, fieldName, includeVersion);
+		URIImpl uri = templateUriCache.get(key);
+		if (uri == null) {
+			uri = computeDataFieldTemplateUri(recordClass, fieldName, includeVersion);
+			templateUriCache.put(key, uri);
+		}
+		return uri;
+	}
+
+	private static URIImpl computeDataFieldTemplateUri(Class<?> recordClass, String fieldName,
+			IncludeVersion includeVersion) {
 		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(recordClass));
 		String localName = recordClass.getSimpleName() + "_" + fieldName + KIAO.DATAFIELD.termName();
 		if (includeVersion.equals(IncludeVersion.YES)) {
@@ -129,44 +164,16 @@ public class RdfRecordUriFactory {
 		return RdfUtil.createKiaoUri(ns, localName);
 	}
 
-	/**
-	 * @param record
-	 * @param rdfSource
-	 * @param inputFileType
-	 * @return a sorted {@link LinkedHashMap} containing mappings from field names to field values
-	 *         sorted as strings. Only record fields that are annotated with {@link RecordField} are
-	 *         included in the mapping.
-	 */
-	private static LinkedHashMap<String, List<String>> getSortedFieldAndValueUriStrs(Object record) {
-		LinkedHashMap<String, List<String>> sortedFieldsAndValues = new LinkedHashMap<String, List<String>>();
-		Set<Field> fields = RecordUtil.getFieldToRecordFieldAnnotationsMap(record.getClass()).keySet();
-		if (fields.isEmpty()) {
-			throw new IllegalArgumentException(
-					"Detected DataRecord with no fields annotated with RecordField annotations. Please add RecordField annotations to class: "
-							+ record.getClass().getName());
-		}
-		List<Field> sortedFields = new ArrayList<Field>(fields);
-		Collections.sort(sortedFields, new FieldNameComparator());
-		for (Field field : sortedFields) {
-			Collection<Object> fieldValues = getFieldValues(record, field);
-			if (fieldValues != null) {
-				URIImpl dataFileNameUri = createDataFieldTemplateUri(record.getClass(), field.getName(),
-						IncludeVersion.YES);
-				List<String> fieldValueUriStrs = getSortedFieldValueUriStrs(fieldValues);
-				sortedFieldsAndValues.put("<" + dataFileNameUri.toString() + ">", fieldValueUriStrs);
-			}
-		}
-		return sortedFieldsAndValues;
-	}
-
 	/**
 	 * @param fieldValues
 	 * @return
 	 */
-	private static List<String> getSortedFieldValueUriStrs(Collection<Object> fieldValues) {
-		List<String> fieldValueUriStrs = new ArrayList<String>();
+	private static List<String> getSortedFieldValueUriStrs(Collection<?> fieldValues) {
+		List<String> fieldValueUriStrs = new ArrayList<String>(fieldValues.size());
 		for (Object fieldValue : fieldValues) {
-			fieldValueUriStrs.add(getFieldValueUri(fieldValue));
+			if (fieldValue != null) {
+				fieldValueUriStrs.add(getFieldValueUri(getNonCollectionFieldValues(fieldValue)));
+			}
 		}
 		Collections.sort(fieldValueUriStrs);
 		return fieldValueUriStrs;
@@ -181,7 +188,7 @@ public class RdfRecordUriFactory {
 	 * @param fieldValue
 	 *            could be a collection, if so we return one string per value
 	 */
-	private static String getFieldValueUri(Object fieldValue) {
+	static String getFieldValueUri(Object fieldValue) {
 		/* address unknown and probable error data source identifiers here? */
 		if (fieldValue instanceof UnknownDataSourceIdentifier) {
 			UnknownDataSourceIdentifier id = (UnknownDataSourceIdentifier) fieldValue;
@@ -210,62 +217,58 @@ public class RdfRecordUriFactory {
 		return NTriplesUtil.toNTriplesString(value);
 	}
 
-	private static String getSortedFieldsAndValuesStr(Object record) {
-		LinkedHashMap<String, List<String>> sortedFieldsAndValues = getSortedFieldAndValueUriStrs(record);
-		StringBuffer buffer = new StringBuffer();
-		for (Entry<String, List<String>> entry : sortedFieldsAndValues.entrySet()) {
-			for (String value : entry.getValue()) {
-				buffer.append(entry.getKey() + value);
-			}
-		}
-		return buffer.toString();
-	}
-
+	/**
+	 * Computes the SHA-1 digest of the canonical field/value serialization of the input record
+	 * without materializing it. The serialization is the concatenation, for each
+	 * {@link RecordField} in field name order and for each of its non-null values sorted as
+	 * N-Triples strings, of the angle-bracketed field template URI followed by the N-Triples value.
+	 * Null fields contribute nothing.
+	 * 
+	 * @param record
+	 * @return the URL-safe base64 SHA-1 digest of the canonical serialization of the record
+	 */
 	static String sha1DigestForSortedFieldsAndValues(Object record) {
-		String sortedStr = getSortedFieldsAndValuesStr(record);
-		if (sortedStr == null) {
-			return null;
+		List<FieldPlan> sortedFields = RdfRecordEmissionPlan.getPlan(record.getClass()).getSortedFields();
+		if (sortedFields.isEmpty()) {
+			throw new IllegalArgumentException(
+					"Detected DataRecord with no fields annotated with RecordField annotations. Please add RecordField annotations to class: "
+							+ record.getClass().getName());
+		}
+		Sha1DigestStream digest = Sha1DigestStream.acquire();
+		try {
+			for (FieldPlan fieldPlan : sortedFields) {
+				Object fieldValue = fieldPlan.getValue(record);
+				if (fieldValue == null) {
+					continue;
+				}
+				if (fieldValue instanceof Collection) {
+					for (String fieldValueUriStr : getSortedFieldValueUriStrs((Collection<?>) fieldValue)) {
+						digest.update(fieldPlan.getTemplateUriNTriplesBytes()).update(fieldValueUriStr);
+					}
+				} else {
+					digest.update(fieldPlan.getTemplateUriNTriplesBytes()).update(getFieldValueUri(fieldValue));
+				}
+			}
+			return digest.digestBase64();
+		} finally {
+			digest.release();
 		}
-		return DigestUtil.getBase64Sha1Digest(sortedStr);
 	}
 
-	private static String getSha1DigestForFieldValuePairing(Object record, Field field, Object fieldValue) {
+	private static String getSha1DigestForFieldValuePairing(FieldPlan fieldPlan, Object fieldValue) {
 		if (fieldValue instanceof Collection) {
 			throw new IllegalArgumentException("Collection input argument not allowed");
 		}
-		URIImpl dataFileNameUri = createDataFieldTemplateUri(record.getClass(), field.getName(), IncludeVersion.YES);
 		String fieldValueUri = getFieldValueUri(fieldValue);
 		if (fieldValueUri == null) {
 			return null;
 		}
-		String fieldValueStr = "<" + dataFileNameUri + ">" + fieldValueUri;
-		return DigestUtil.getBase64Sha1Digest(fieldValueStr);
-	}
-
-	/**
-	 * @param field
-	 * @return
-	 */
-	private static Collection<Object> getFieldValues(Object record, Field field) {
-		Object fieldValue = PrivateAccessor.getFieldValue(record, field.getName());
-		if (fieldValue == null) {
-			return null;
-		}
-
-		Collection<Object> fieldValues = new ArrayList<Object>();
-
-		if (!(fieldValue instanceof Collection)) {
-			fieldValues.add(getNonCollectionFieldValues(fieldValue));
-		} else {
-			Collection<?> coll = (Collection<?>) fieldValue;
-			for (Object object : coll) {
-				if (object != null) {
-					fieldValues.add(getNonCollectionFieldValues(object));
-				}
-			}
+		Sha1DigestStream digest = Sha1DigestStream.acquire();
+		try {
+			return digest.update(fieldPlan.getTemplateUriNTriplesBytes()).update(fieldValueUri).digestBase64();
+		} finally {
+			digest.release();
 		}
-
-		return fieldValues;
 	}
 
 	/**
@@ -283,17 +286,38 @@ public class RdfRecordUriFactory {
 	}
 
 	/**
-	 * Comparator that uses {@link Field#getName()} for comparison.
+	 * The key of a cached record schema URI (with a null field name) or data field template URI
 	 */
-	private static class FieldNameComparator implements Comparator<Field> {
-		/**
-		 * Compare using fields' names
-		 * 
-		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
-		 */
+	private static final class TemplateUriKey {
+		private final Class<?> recordClass;
+		private final String fieldName;
+		private final IncludeVersion includeVersion;
+
+		private TemplateUriKey(Class<?> recordClass, String fieldName, IncludeVersion includeVersion) {
+			this.recordClass = recordClass;
+			this.fieldName = fieldName;
+			this.includeVersion = includeVersion;
+		}
+
+		@Override
+		public int hashCode() {
+			int result = recordClass.hashCode();
+			result = 31 * result + ((fieldName == null) ? 0 : fieldName.hashCode());
+			return 31 * result + includeVersion.hashCode();
+		}
+
 		@Override
-		public int compare(Field o1, Field o2) {
-			return o1.getName().compareTo(o2.getName());
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TemplateUriKey)) {
+				return false;
+			}
+			TemplateUriKey other = (TemplateUriKey) obj;
+			return recordClass.equals(other.recordClass)
+					&& ((fieldName == null) ? other.fieldName == null : fieldName.equals(other.fieldName))
+					&& includeVersion == other.includeVersion;
 		}
 	}
 
@@ -64,6 +64,7 @@ import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.ProbableErrorDataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.UnknownDataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.DuplicateStatementFilter;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordEmissionPlan.FieldPlan;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordUriFactory.IncludeVersion;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.vocabulary.DC;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.vocabulary.IAO;
@@ -403,7 +404,7 @@ public class RdfRecordUtil {
 	 *            to check
 	 * @return true if sub-record; otherwise, false.
 	 */
-	private static boolean isFieldSubRecord(Field field) {
+	static boolean isFieldSubRecord(Field field) {
 		Class<?> klass = field.getType();
 
 		if (Collection.class.isAssignableFrom(klass)) {
@@ -551,8 +552,9 @@ public class RdfRecordUtil {
 		boolean isSubRecord = parentRecordUri != null;
 
 		// record instance part of dataset instance
-		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass()));
-		URIImpl dataSetInstanceUri = RdfUtil.createKiaoUri(ns, ns.lowerName() + record.getClass().getSimpleName()
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(record.getClass());
+		DataSource ns = plan.getNamespace();
+		URIImpl dataSetInstanceUri = RdfUtil.createKiaoUri(ns, ns.lowerName() + plan.getRecordClassSimpleName()
 				+ readerKey + KIAO.DATASET.termName() + yyyyMMdd);
 
 		if (isSubRecord) {
@@ -564,37 +566,15 @@ public class RdfRecordUtil {
 		}
 
 		// record instance type record class
-		// URIImpl recordClassUri = RdfUtil.createKiaoUri(targetNs,
-		// targetNs.lowerName() + KIAO.KABOB_DATARECORD.termName());
-		URIImpl recordClassUri = RdfRecordUriFactory.createRecordTypeUri(record.getClass());
-		statements.add(new StatementImpl(recordUri, RDF.TYPE.uri(), recordClassUri));
+		statements.add(new StatementImpl(recordUri, RDF.TYPE.uri(), plan.getRecordTypeUri()));
 
 		// record instance has template record schema
-		// URIImpl recordSchemaUri = RdfUtil.createKiaoUri(
-		// targetNs,
-		// targetNs.lowerName() + record.getClass().getSimpleName() +
-		// KIAO.KABOB_SCHEMA.termName()
-		// + RecordUtil.getRecordSchemaVersion(record.getClass()));
-		URIImpl recordSchemaUri = RdfRecordUriFactory.createRecordSchemaUri(record.getClass(), IncludeVersion.YES);
-		statements.add(new StatementImpl(recordUri, KIAO.HAS_TEMPLATE.uri(), recordSchemaUri));
-
-		Set<Field> fields = RecordUtil.getFieldToRecordFieldAnnotationsMap(record.getClass()).keySet();
-		List<Field> sortedFields = new ArrayList<Field>(fields);
-		Collections.sort(sortedFields, new FieldNameComparator()); // sorted to
-																	// ease unit
-																	// testing
-
-		for (Field field : sortedFields) {
-			if (isFieldSubRecord(field)) {
-				Object subRecord = null;
-				try {
-					subRecord = field.get(record);
-				} catch (IllegalArgumentException e) {
-					throw new RuntimeException(e);
-				} catch (IllegalAccessException e) {
-					throw new RuntimeException(e);
-				}
+		statements.add(new StatementImpl(recordUri, KIAO.HAS_TEMPLATE.uri(), plan.getRecordSchemaUri()));
 
+		/* the plan stores the fields sorted by name to ease unit testing */
+		for (FieldPlan fieldPlan : plan.getSortedFields()) {
+			if (fieldPlan.isSubRecord()) {
+				Object subRecord = fieldPlan.getValue(record);
 				if (subRecord == null) {
 					continue;
 				}
@@ -605,15 +585,9 @@ public class RdfRecordUtil {
 					}
 				} else {
 					statements.addAll(getSubrecordStatements(createdTime, recordUri, readerKey, filter, subRecord));
-					// URIImpl subRecordUri =
-					// RdfRecordUriFactory.createRecordUri(subRecord);
-					// statements.addAll(getRecordInstanceStatements(subRecord,
-					// createdTime,
-					// subRecordUri, recordUri,
-					// readerKey));
 				}
 			} else {
-				Collection<Statement> fieldValueStmts = getRdfFieldValueStatements(recordUri, record, field,
+				Collection<Statement> fieldValueStmts = getRdfFieldValueStatements(recordUri, record, fieldPlan,
 						createdTime, filter);
 				if (fieldValueStmts.isEmpty()) {
 					continue;
@@ -660,21 +634,15 @@ public class RdfRecordUtil {
 	 * <http://www.ncbi.nlm.nih.gov/gene/R_RdfRecordWriterImplTest%24GeneId2NameDatFileData_nj8VcqOTAweA2MA8-l5HxgW1SlU> <http://purl.obolibrary.org/obo/has_part> <http://www.ncbi.nlm.nih.gov/gene/F_RdfRecordWriterImplTest%24GeneId2NameDatFileData_geneID_bZWMJYAy_y1wpq1BHpoB2OFoLlc> .<br>
 	 * </pre>
 	 * 
-	 * @param recordUri
 	 * @param fieldUri
-	 * @param src
-	 * @param inputFileType
-	 * @param fieldName
+	 * @param fieldPlan
 	 * @return
 	 */
-	private static Collection<Statement> createCommonFieldStatements(Object record, URIImpl recordUri,
-			URIImpl fieldUri, String fieldName) {
+	private static Collection<Statement> createCommonFieldStatements(URIImpl fieldUri, FieldPlan fieldPlan) {
 		Collection<Statement> commonFieldStatements = new ArrayList<Statement>();
 
 		// field instance has template field schema
-		URIImpl fieldSchemaUri = RdfRecordUriFactory.createDataFieldTemplateUri(record.getClass(), fieldName,
-				IncludeVersion.YES);
-		commonFieldStatements.add(new StatementImpl(fieldUri, KIAO.HAS_TEMPLATE.uri(), fieldSchemaUri));
+		commonFieldStatements.add(new StatementImpl(fieldUri, KIAO.HAS_TEMPLATE.uri(), fieldPlan.getTemplateUri()));
 
 		// field instance type kiao:FieldValue
 		commonFieldStatements.add(new StatementImpl(fieldUri, RDF.TYPE.uri(), KIAO.FIELDVALUE.uri()));
@@ -703,24 +671,22 @@ public class RdfRecordUtil {
 	 * @param record
 	 *            instance with specified field
 	 * @param filter
-	 * @param fieldName
-	 *            field name
-	 * @param commonFieldStatements
-	 *            shared template statements to be asserted about every field
+	 * @param fieldPlan
+	 *            the cached plan for the field
 	 * @return statements
 	 */
-	private static Collection<Statement> getRdfFieldValueStatements(URIImpl recordUri, Object record, Field field,
-			long createdTime, DuplicateStatementFilter filter) {
-		Object fieldValue = PrivateAccessor.getFieldValue(record, field.getName());
+	private static Collection<Statement> getRdfFieldValueStatements(URIImpl recordUri, Object record,
+			FieldPlan fieldPlan, long createdTime, DuplicateStatementFilter filter) {
+		Object fieldValue = fieldPlan.getValue(record);
 		if (fieldValue == null) {
 			return new ArrayList<Statement>();
 		}
 		Collection<Statement> statements = new ArrayList<Statement>();
 
 		if (!(fieldValue instanceof Collection)) {
-			URIImpl fieldUri = RdfRecordUriFactory.createFieldUri(record, field, fieldValue);
+			URIImpl fieldUri = RdfRecordUriFactory.createFieldUri(record, fieldPlan, fieldValue);
 			statements.addAll(linkFieldToRecord(recordUri, fieldUri));
-			statements.addAll(createCommonFieldStatements(record, recordUri, fieldUri, field.getName()));
+			statements.addAll(createCommonFieldStatements(fieldUri, fieldPlan));
 			statements.addAll(getFieldDenotesValueStatement(fieldUri, fieldValue, createdTime, filter));
 		} else {
 			/*
@@ -729,11 +695,11 @@ public class RdfRecordUtil {
 			 */
 			Collection<?> coll = (Collection<?>) fieldValue;
 			for (Object object : coll) {
-				URIImpl fieldUri = RdfRecordUriFactory.createFieldUri(record, field, object);
+				URIImpl fieldUri = RdfRecordUriFactory.createFieldUri(record, fieldPlan, object);
 				if (fieldUri != null) {
 					statements.addAll(linkFieldToRecord(recordUri, fieldUri));
 					statements.addAll(getFieldDenotesValueStatement(fieldUri, object, createdTime, filter));
-					statements.addAll(createCommonFieldStatements(record, recordUri, fieldUri, field.getName()));
+					statements.addAll(createCommonFieldStatements(fieldUri, fieldPlan));
 				}
 			}
 			// int startingFieldCount =
@@ -836,7 +802,7 @@ public class RdfRecordUtil {
 	/**
 	 * Comparator that uses {@link Field#getName()} for comparison.
 	 */
-	private static class FieldNameComparator implements Comparator<Field> {
+	static class FieldNameComparator implements Comparator<Field> {
 		/**
 		 * Compare using fields' names
 		 * 
@@ -34,6 +34,7 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
  */
 
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -41,20 +42,34 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import org.apache.log4j.Logger;
 import org.openrdf.model.Resource;
 import org.openrdf.model.Statement;
 import org.openrdf.model.impl.URIImpl;
+import org.openrdf.rio.RDFHandler;
 import org.openrdf.rio.RDFHandlerException;
 import org.openrdf.rio.RDFWriter;
 
@@ -62,11 +77,17 @@ import edu.ucdenver.ccp.common.file.CharacterEncoding;
 import edu.ucdenver.ccp.common.file.FileUtil;
 import edu.ucdenver.ccp.common.string.StringConstants;
 import edu.ucdenver.ccp.datasource.fileparsers.DataRecord;
+import edu.ucdenver.ccp.datasource.fileparsers.LineFileRecordReader;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordOffsetIndex;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordOffsetIndex.Checkpoint;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordReader;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordUtil;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.DuplicateStatementFilter;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.InMemoryDuplicateStatementFilter;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.filter.NoOpDuplicateStatementFilter;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.GzipBlockIndex;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.ParallelGzipOutputStream;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfUtil.RdfFormat;
 
 /**
@@ -89,6 +110,19 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	/** file key (specified in config parser config files) to writer map */
 	private Map<File, RdfWriterResource> file2RdfWriterMap;
 
+	/**
+	 * the writers for the current output files, by namespace. Resolving a writer via this map avoids
+	 * compiling the output file name for each statement. It is cleared whenever the output file
+	 * names change, i.e. when the output file index rolls over or the reader key changes.
+	 */
+	private final Map<DataSource, RdfWriterResource> namespace2RdfWriterMap = new EnumMap<DataSource, RdfWriterResource>(
+			DataSource.class);
+
+	/**
+	 * the output file index of the writers in {@link #file2RdfWriterMap}
+	 */
+	private long currentOutFileIndex = 0;
+
 	/**
 	 * Part of output file name driven by reader.
 	 * <p>
@@ -128,6 +162,29 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 */
 	private CharacterEncoding encoding = CharacterEncoding.UTF_8;
 
+	/**
+	 * if true, N-Triples output is written using the {@link NTriplesStatementWriter}
+	 */
+	private boolean fastNTriplesWriter = true;
+
+	private static final int GZIP_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * the number of threads used to compress output files; if > 1, compressed files are written
+	 * as multi-member gzip files by a {@link ParallelGzipOutputStream} and a {@link GzipBlockIndex}
+	 * is written alongside each file. See {@link #setParallelCompression(int, int, int)}.
+	 */
+	private int compressionThreadCount = 1;
+
+	private int compressionBlockSize = ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE;
+
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	/**
+	 * shared by the compressed output files; created when the first compressed file is opened
+	 */
+	private ExecutorService compressionThreadPool = null;
+
 	/**
 	 * A reference to the {@link RecordReader} being processed is stored b/c it is used during the
 	 * output file name creation process. See {@link #getOutputFileName()}
@@ -141,11 +198,47 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 
 	private final DuplicateStatementFilter filter;
 
-	private final Set<String> rollingCacheSet = new HashSet<String>();
-	private final LinkedList<String> rollingCacheList = new LinkedList<String>();
-
-	private Set<String> primaryKeyFieldNames = null;
 	private static final int ROLLING_CACHE_MAX_SIZE = 1000;
+	private final RecentStatementCache rollingCache = new RecentStatementCache(ROLLING_CACHE_MAX_SIZE);
+
+	/**
+	 * identifies the subjects of primary key field value statements; initialized when the first
+	 * (non-skipped) record is processed
+	 */
+	private KeyFieldUriMatcher keyFieldUriMatcher = null;
+
+	/**
+	 * if not null, used to reposition seekable record readers when records are to be skipped
+	 */
+	private RecordOffsetIndex recordOffsetIndex = null;
+
+	/**
+	 * if false, the data source instance statements and the schema definition file are not written
+	 * (see {@link #initializeOutput(DataRecord)}), e.g. because another writer processing a
+	 * different part of the same data file writes them
+	 */
+	private boolean writeDataSourceMetadata = true;
+
+	/**
+	 * the number of records handed to a worker thread at a time when processing in pipelined mode
+	 */
+	private static final int PIPELINE_BATCH_SIZE = 256;
+
+	/**
+	 * bounds the number of batches that are read but not yet written in pipelined mode
+	 */
+	private static final int PIPELINE_QUEUED_BATCHES_PER_THREAD = 4;
+
+	/**
+	 * signals the end of the record batches in pipelined mode
+	 */
+	private static final Future<List<ConvertedRecord>> END_OF_BATCHES = new FutureTask<List<ConvertedRecord>>(
+			new Callable<List<ConvertedRecord>>() {
+				@Override
+				public List<ConvertedRecord> call() {
+					return null;
+				}
+			});
 
 	/**
 	 * @param outputDirectory
@@ -260,22 +353,12 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	public <E extends DataRecord> Collection<File> processRecordReader(RecordReader<E> recordReader, long createdTime,
 			long recordSkipCount, long outputRecordLimit) throws IOException {
 
-		this.recordReader = recordReader;
+		setRecordReader(recordReader);
 
 		setCreatedTime(createdTime);
 		setReaderKey(recordReader.getDataSpecificKey());
 
-		long instanceCount = 0;
-		/* skip the recordSkipCount */
-		while (recordReader.hasNext() && instanceCount < recordSkipCount) {
-			DataRecord record = recordReader.next();
-			if (record != null) {
-				if (instanceCount % 100000 == 0) {
-					logger.info("SKIP PROGRESS: " + instanceCount);
-				}
-				instanceCount++;
-			}
-		}
+		long instanceCount = skipRecords(recordReader, recordSkipCount);
 		while (recordReader.hasNext()) {
 			DataRecord record = recordReader.next();
 			if (record != null) {
@@ -285,12 +368,9 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 					// (instanceCount - recordSkipCount));
 				}
 				instanceCount++;
-				if (instanceCount == 1) {
-					primaryKeyFieldNames = RecordUtil.getKeyFieldNames(record.getClass());
-					writeDataSourceInstanceStatements(
-							RdfRecordUtil.getDataSourceInstanceStatements(record, createdTime),
-							DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass())));
-					writeSchemaDefinitionRdfFile(record.getClass());
+				initializeKeyFieldUriMatcher(record);
+				if (instanceCount == 1 && writeDataSourceMetadata) {
+					initializeOutput(record);
 				}
 
 				URIImpl recordUri = RdfRecordUriFactory.createRecordUri(record);
@@ -304,12 +384,310 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 				break;
 			}
 		}
+		return finishProcessing();
+	}
+
+	/**
+	 * Process file data using a pipeline: a reader thread pulls records from the
+	 * {@link RecordReader} and groups them into batches, a pool of worker threads computes the
+	 * record URIs and statements for each batch, and the calling thread writes the batches in the
+	 * order in which they were read. The duplicate statement filter and the output files are only
+	 * accessed by the calling thread, so the output is identical to that of
+	 * {@link #processRecordReader(RecordReader, long, long, long)}. Records of classes that have
+	 * sub-record fields are converted by the calling thread as sub-record de-duplication depends on
+	 * the state of the filter.
+	 * 
+	 * @param recordReader
+	 * @param createdTime
+	 * @param recordSkipCount
+	 *            the number of records to skip before processing
+	 * @param outputRecordLimit
+	 *            max records to process; -1 for all
+	 * @param threadCount
+	 *            the number of worker threads used to convert records to statements. If < 2 the
+	 *            records are processed sequentially by the calling thread.
+	 * @return a collection of references to all generated RDF files
+	 * @throws IOException
+	 */
+	public <E extends DataRecord> Collection<File> processRecordReader(final RecordReader<E> recordReader,
+			long createdTime, long recordSkipCount, final long outputRecordLimit, int threadCount) throws IOException {
+		if (threadCount < 2) {
+			return processRecordReader(recordReader, createdTime, recordSkipCount, outputRecordLimit);
+		}
+		setRecordReader(recordReader);
+
+		setCreatedTime(createdTime);
+		setReaderKey(recordReader.getDataSpecificKey());
+
+		final long skippedRecordCount = skipRecords(recordReader, recordSkipCount);
+
+		final StageThroughput readStage = new StageThroughput("READ");
+		final StageThroughput convertStage = new StageThroughput("CONVERT");
+		final StageThroughput writeStage = new StageThroughput("WRITE");
+		final ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+		final BlockingQueue<Future<List<ConvertedRecord>>> pendingBatches = new ArrayBlockingQueue<Future<List<ConvertedRecord>>>(
+				threadCount * PIPELINE_QUEUED_BATCHES_PER_THREAD);
+		final AtomicReference<Throwable> readerFailure = new AtomicReference<Throwable>();
+		final String key = getReaderKey();
+		final long time = createdTime;
+
+		Thread readerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					long readCount = 0;
+					List<DataRecord> batch = new ArrayList<DataRecord>(PIPELINE_BATCH_SIZE);
+					long start = System.nanoTime();
+					while ((outputRecordLimit < 0 || readCount < outputRecordLimit) && recordReader.hasNext()) {
+						DataRecord record = recordReader.next();
+						if (record != null) {
+							batch.add(record);
+							readCount++;
+							if (batch.size() == PIPELINE_BATCH_SIZE) {
+								readStage.add(batch.size(), System.nanoTime() - start);
+								pendingBatches.put(workers.submit(new ConversionTask(batch, time, key, convertStage)));
+								batch = new ArrayList<DataRecord>(PIPELINE_BATCH_SIZE);
+								start = System.nanoTime();
+							}
+						}
+					}
+					if (!batch.isEmpty()) {
+						readStage.add(batch.size(), System.nanoTime() - start);
+						pendingBatches.put(workers.submit(new ConversionTask(batch, time, key, convertStage)));
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} catch (Throwable t) {
+					readerFailure.set(t);
+				} finally {
+					try {
+						pendingBatches.put(END_OF_BATCHES);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+		}, "rdf-pipeline-reader");
+
+		long recordCount = 0;
+		readerThread.start();
+		try {
+			while (true) {
+				Future<List<ConvertedRecord>> pendingBatch = pendingBatches.take();
+				if (pendingBatch == END_OF_BATCHES) {
+					break;
+				}
+				List<ConvertedRecord> batch = pendingBatch.get();
+				long start = System.nanoTime();
+				for (ConvertedRecord convertedRecord : batch) {
+					if (recordCount % 100000 == 0) {
+						logger.info("RDF GENERATION PROGRESS: " + recordCount + " " + readStage + " " + convertStage
+								+ " " + writeStage);
+					}
+					initializeKeyFieldUriMatcher(convertedRecord.record);
+					/* as in sequential mode, the output is only initialized if no records were skipped */
+					if (recordCount++ == 0 && skippedRecordCount == 0 && writeDataSourceMetadata) {
+						initializeOutput(convertedRecord.record);
+					}
+					Collection<? extends Statement> stmts = convertedRecord.statements;
+					if (stmts == null) {
+						stmts = RdfRecordUtil.getRecordInstanceStatements(convertedRecord.record, createdTime,
+								convertedRecord.recordUri, null, key, filter);
+					}
+					for (Statement stmt : stmts) {
+						write(stmt, convertedRecord.namespace);
+					}
+				}
+				writeStage.add(batch.size(), System.nanoTime() - start);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating RDF.", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Error while converting records to RDF.", e.getCause());
+		} finally {
+			readerThread.interrupt();
+			workers.shutdownNow();
+		}
+		try {
+			readerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (readerFailure.get() != null) {
+			throw new IllegalStateException("Error while reading records.", readerFailure.get());
+		}
+		logger.info("RDF GENERATION COMPLETE: " + recordCount + " " + readStage + " " + convertStage + " "
+				+ writeStage);
+		return finishProcessing();
+	}
+
+	/**
+	 * Advances the record reader past the first recordSkipCount records. If a
+	 * {@link RecordOffsetIndex} has been set and the record reader is seekable, the reader is first
+	 * repositioned at the closest preceding checkpoint so that only the records between the
+	 * checkpoint and the requested position are parsed.
+	 * 
+	 * @param recordReader
+	 * @param recordSkipCount
+	 * @return the number of records skipped
+	 * @throws IOException
+	 */
+	private long skipRecords(RecordReader<?> recordReader, long recordSkipCount) throws IOException {
+		long instanceCount = 0;
+		if (recordSkipCount > 0 && recordOffsetIndex != null && recordReader instanceof LineFileRecordReader
+				&& ((LineFileRecordReader<?>) recordReader).isSeekable()) {
+			Checkpoint checkpoint = recordOffsetIndex.getCheckpoint(recordSkipCount);
+			if (checkpoint != null) {
+				((LineFileRecordReader<?>) recordReader).seek(checkpoint.getByteOffset());
+				instanceCount = checkpoint.getRecordOrdinal();
+				logger.info("SKIPPED TO RECORD " + instanceCount + " AT BYTE OFFSET " + checkpoint.getByteOffset());
+			}
+		}
+		while (recordReader.hasNext() && instanceCount < recordSkipCount) {
+			DataRecord record = recordReader.next();
+			if (record != null) {
+				if (instanceCount % 100000 == 0) {
+					logger.info("SKIP PROGRESS: " + instanceCount);
+				}
+				instanceCount++;
+			}
+		}
+		return instanceCount;
+	}
+
+	/**
+	 * Initializes the {@link KeyFieldUriMatcher} using the key fields of the input record's class if
+	 * it has not already been initialized. Unlike {@link #initializeOutput(DataRecord)} this is
+	 * also necessary when records have been skipped.
+	 * 
+	 * @param record
+	 */
+	private void initializeKeyFieldUriMatcher(DataRecord record) {
+		if (keyFieldUriMatcher == null) {
+			Set<String> keyFieldUriPrefixes = RdfRecordEmissionPlan.getPlan(record.getClass())
+					.getKeyFieldUriPrefixes();
+			for (String keyFieldUriPrefix : keyFieldUriPrefixes) {
+				logger.info("Key field name to be ignored by duplicate cache: " + keyFieldUriPrefix);
+			}
+			keyFieldUriMatcher = new KeyFieldUriMatcher(keyFieldUriPrefixes);
+		}
+	}
+
+	/**
+	 * Writes the data source instance statements and the schema definition file. Called once, when
+	 * the first record is processed.
+	 * 
+	 * @param record
+	 */
+	private void initializeOutput(DataRecord record) {
+		writeDataSourceInstanceStatements(RdfRecordUtil.getDataSourceInstanceStatements(record, createdTime),
+				DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass())));
+		writeSchemaDefinitionRdfFile(record.getClass());
+	}
+
+	/**
+	 * Closes the output files and shuts down the duplicate statement filter
+	 * 
+	 * @return a collection of references to all generated RDF files
+	 * @throws IOException
+	 */
+	private Collection<File> finishProcessing() throws IOException {
 		closeFiles();
+		if (compressionThreadPool != null) {
+			compressionThreadPool.shutdown();
+			compressionThreadPool = null;
+		}
 		filter.shutdown();
 		logger.info("DUPLICATE TRIPLE FILTER WAS LEAK-PROOF = " + filter.isLeakProof());
 		return generatedRdfFiles;
 	}
 
+	/**
+	 * A record along with its URI and statements as computed by a {@link ConversionTask}
+	 */
+	private static class ConvertedRecord {
+		private final DataRecord record;
+		private final DataSource namespace;
+		private final URIImpl recordUri;
+		/**
+		 * null if the statements must be computed by the writing thread
+		 */
+		private final Collection<? extends Statement> statements;
+
+		public ConvertedRecord(DataRecord record, DataSource namespace, URIImpl recordUri,
+				Collection<? extends Statement> statements) {
+			this.record = record;
+			this.namespace = namespace;
+			this.recordUri = recordUri;
+			this.statements = statements;
+		}
+	}
+
+	/**
+	 * Converts a batch of records to statements on a worker thread. The worker threads never
+	 * consult the duplicate statement filter of the writer.
+	 */
+	private static class ConversionTask implements Callable<List<ConvertedRecord>> {
+		private static final DuplicateStatementFilter NO_OP_FILTER = new NoOpDuplicateStatementFilter();
+
+		private final List<DataRecord> records;
+		private final long createdTime;
+		private final String readerKey;
+		private final StageThroughput throughput;
+
+		public ConversionTask(List<DataRecord> records, long createdTime, String readerKey, StageThroughput throughput) {
+			this.records = records;
+			this.createdTime = createdTime;
+			this.readerKey = readerKey;
+			this.throughput = throughput;
+		}
+
+		@Override
+		public List<ConvertedRecord> call() {
+			long start = System.nanoTime();
+			List<ConvertedRecord> convertedRecords = new ArrayList<ConvertedRecord>(records.size());
+			for (DataRecord record : records) {
+				RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(record.getClass());
+				URIImpl recordUri = RdfRecordUriFactory.createRecordUri(record);
+				Collection<? extends Statement> stmts = null;
+				if (!plan.hasSubRecordFields()) {
+					stmts = RdfRecordUtil.getRecordInstanceStatements(record, createdTime, recordUri, null, readerKey,
+							NO_OP_FILTER);
+				}
+				convertedRecords.add(new ConvertedRecord(record, plan.getNamespace(), recordUri, stmts));
+			}
+			throughput.add(records.size(), System.nanoTime() - start);
+			return convertedRecords;
+		}
+	}
+
+	/**
+	 * Tracks the number of records handled by a pipeline stage and the time spent handling them.
+	 * For the worker stage the time is summed over all worker threads.
+	 */
+	private static class StageThroughput {
+		private final String stageName;
+		private final AtomicLong recordCount = new AtomicLong();
+		private final AtomicLong busyNanos = new AtomicLong();
+
+		public StageThroughput(String stageName) {
+			this.stageName = stageName;
+		}
+
+		public void add(long records, long nanos) {
+			recordCount.addAndGet(records);
+			busyNanos.addAndGet(nanos);
+		}
+
+		@Override
+		public String toString() {
+			long nanos = busyNanos.get();
+			long recordsPerSecond = (nanos == 0) ? 0 : (recordCount.get() * 1000000000L / nanos);
+			return stageName + "=" + recordCount.get() + " records (" + recordsPerSecond + " records/s)";
+		}
+	}
+
 	/**
 	 * @param recordClass
 	 * @return a reference to the schema definition RDF file
@@ -359,7 +737,23 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 *            {@link StringConstants#BLANK}.
 	 */
 	private void setReaderKey(String readerKey) {
-		this.readerKey = readerKey == null || readerKey.trim().isEmpty() ? StringConstants.BLANK : readerKey;
+		String key = readerKey == null || readerKey.trim().isEmpty() ? StringConstants.BLANK : readerKey;
+		if (!key.equals(this.readerKey)) {
+			namespace2RdfWriterMap.clear();
+		}
+		this.readerKey = key;
+	}
+
+	/**
+	 * Sets the record reader whose class name is part of the output file names
+	 * 
+	 * @param recordReader
+	 */
+	private void setRecordReader(RecordReader<?> recordReader) {
+		if (recordReader != this.recordReader) {
+			namespace2RdfWriterMap.clear();
+		}
+		this.recordReader = recordReader;
 	}
 
 	/**
@@ -396,6 +790,25 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 		this.createdTime = createdTime;
 	}
 
+	/**
+	 * @param recordOffsetIndex
+	 *            an index of the data file read by the record reader that will be processed. If the
+	 *            record reader is seekable, the index is used to avoid parsing skipped records.
+	 */
+	public void setRecordOffsetIndex(RecordOffsetIndex recordOffsetIndex) {
+		this.recordOffsetIndex = recordOffsetIndex;
+	}
+
+	/**
+	 * @param writeDataSourceMetadata
+	 *            if false, the data source instance statements and the schema definition file are
+	 *            not written when the first record is processed. Used when the records of a data
+	 *            file are processed in parallel by several writers so that they are written once.
+	 */
+	public void setWriteDataSourceMetadata(boolean writeDataSourceMetadata) {
+		this.writeDataSourceMetadata = writeDataSourceMetadata;
+	}
+
 	// /**
 	// * Process record reader
 	// *
@@ -447,7 +860,7 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 		setReaderKey(readerKey);
 		Collection<? extends Statement> stmts = RdfRecordUtil.getRecordInstanceStatements(record, createdTime,
 				recordUri, null, getReaderKey(), filter);
-		DataSource ns = DataSource.getNamespace(RecordUtil.getRecordDataSource(record.getClass()));
+		DataSource ns = RdfRecordEmissionPlan.getPlan(record.getClass()).getNamespace();
 		for (Statement stmt : stmts) {
 			write(stmt, ns);
 		}
@@ -649,14 +1062,14 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 *            to output
 	 */
 	private void write(Statement stmt, DataSource ns) {
-		RDFWriter rdfWriter = getWriter(ns);
+		RDFHandler rdfWriter = getWriter(ns);
 		// primary key field values will always be printed, so there's no reason to check and store
 		// them in the filter. This saves some memory and also the time needed to check for
 		// something that is guaranteed to not be already observed
 		boolean checkFilter = needToCheckFilter(stmt.getSubject());
 		try {
 		if (!checkFilter || (checkFilter && !filter.alreadyObservedStatement(stmt))) {
-			if (!rollingCacheContains(stmt)) {
+			if (!rollingCache.containsOrAdd(stmt)) {
 				write(stmt, rdfWriter);
 				writtenStatementCount++;
 			}
@@ -679,40 +1092,11 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 * it should not be observed again given its "primary key" status
 	 * 
 	 * @param subject
-	 * @param primaryKeyFieldValues
-	 *            will contain things like: F_SparseUniProtDatFileRecord_accession_
 	 * @return true if the filter should be checked, false otherwise
+	 * @see KeyFieldUriMatcher
 	 */
 	private boolean needToCheckFilter(Resource subject) {
-		String sub = subject.toString();
-		for (String key : primaryKeyFieldNames) {
-			if (sub.contains(key)) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * keeps track of the most recent 1000 statements and returns true if the input statement is in
-	 * the cache
-	 * 
-	 * @param stmt
-	 * @return
-	 */
-	private boolean rollingCacheContains(Statement stmt) {
-		String stmtStr = stmt.toString();
-		if (rollingCacheSet.contains(stmtStr)) {
-			return true;
-		}
-		int currentSize = rollingCacheList.size();
-		if (currentSize >= ROLLING_CACHE_MAX_SIZE) {
-			String removed = rollingCacheList.removeLast();
-			rollingCacheSet.remove(removed);
-		}
-		rollingCacheSet.add(stmtStr);
-		rollingCacheList.addFirst(stmtStr);
-		return false;
+		return !keyFieldUriMatcher.isKeyFieldUri(subject);
 	}
 
 	/**
@@ -723,7 +1107,7 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 * @param rdfWriter
 	 *            writer
 	 */
-	private static void write(Statement s, RDFWriter rdfWriter) {
+	private static void write(Statement s, RDFHandler rdfWriter) {
 		try {
 			rdfWriter.handleStatement(s);
 		} catch (RDFHandlerException e) {
@@ -731,6 +1115,33 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 		}
 	}
 
+	/**
+	 * Returns the rdf writer for the current output file of the specified namespace. If the output
+	 * file index has rolled over (see {@link #maxStatementsPerFile}) the previous output files are
+	 * closed first.
+	 * 
+	 * @param ns
+	 * @return rdf writer
+	 */
+	private RDFHandler getWriter(DataSource ns) {
+		long outFileIndex = getOutFileIndex();
+		if (outFileIndex != currentOutFileIndex) {
+			try {
+				closeFiles();
+			} catch (IOException e) {
+				throw new RuntimeException("Error occured while closing rdf writers for output file index "
+						+ currentOutFileIndex, e);
+			}
+			currentOutFileIndex = outFileIndex;
+		}
+		RdfWriterResource rdfWriterResource = namespace2RdfWriterMap.get(ns);
+		if (rdfWriterResource == null) {
+			rdfWriterResource = getWriterResource(ns);
+			namespace2RdfWriterMap.put(ns, rdfWriterResource);
+		}
+		return rdfWriterResource.rw;
+	}
+
 	/**
 	 * Initialize lazily and return rdf writer.
 	 * 
@@ -742,17 +1153,19 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	 * @throws FileNotFoundException
 	 * @throws RDFHandlerException
 	 */
-	private RDFWriter getWriter(DataSource ns) {
+	private RdfWriterResource getWriterResource(DataSource ns) {
 		File outputFile = getOutputFile(ns);
 		if (!file2RdfWriterMap.containsKey(outputFile)) {
 			generatedRdfFiles.add(outputFile);
+			if (useNTriplesStatementWriter()) {
+				file2RdfWriterMap.put(outputFile, createNTriplesStatementWriter(outputFile));
+				return file2RdfWriterMap.get(outputFile);
+			}
 			Writer writer = null;
 			try {
 				logger.info("Initializing new RDF writer. Compress flag = " + compress + " Output file = " + outputFile);
-				OutputStream os = new FileOutputStream(outputFile);
-				if (compress) {
-					os = new GZIPOutputStream(os);
-				}
+				OutputStream os = (compress) ? openCompressedOutputStream(outputFile) : new FileOutputStream(
+						outputFile);
 				writer = new BufferedWriter(new OutputStreamWriter(os, Charset.forName(encoding.getCharacterSetName())
 						.newEncoder()));
 			} catch (IOException e) {
@@ -772,7 +1185,69 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 			}
 
 		}
-		return file2RdfWriterMap.get(outputFile).rw;
+		return file2RdfWriterMap.get(outputFile);
+	}
+
+	/**
+	 * @return true if the {@link NTriplesStatementWriter} should be used instead of the Rio writer.
+	 *         Its output is ASCII so it is only used for N-Triples output that is to be encoded
+	 *         using UTF-8 or ASCII.
+	 */
+	private boolean useNTriplesStatementWriter() {
+		return fastNTriplesWriter && rdfFormat == RdfFormat.NTRIPLES
+				&& (encoding == CharacterEncoding.UTF_8 || encoding == CharacterEncoding.US_ASCII);
+	}
+
+	/**
+	 * @param outputFile
+	 * @return a started {@link NTriplesStatementWriter} that writes to the specified file, via the
+	 *         stream returned by {@link #openCompressedOutputStream(File)} if the output is to be
+	 *         compressed
+	 */
+	private RdfWriterResource createNTriplesStatementWriter(File outputFile) {
+		logger.info("Initializing new N-Triples writer. Compress flag = " + compress + " Output file = "
+				+ outputFile);
+		try {
+			OutputStream os;
+			WritableByteChannel channel;
+			if (compress) {
+				os = openCompressedOutputStream(outputFile);
+				channel = Channels.newChannel(os);
+			} else {
+				FileOutputStream fos = new FileOutputStream(outputFile);
+				os = fos;
+				channel = fos.getChannel();
+			}
+			NTriplesStatementWriter rdfWriter = new NTriplesStatementWriter(channel);
+			rdfWriter.startRDF();
+			return new RdfWriterResource(rdfWriter, os);
+		} catch (IOException e) {
+			throw new RuntimeException("Error occured while creating rdf writer to " + outputFile, e);
+		} catch (RDFHandlerException e) {
+			throw new RuntimeException("Error occured while starting rdf writer to " + outputFile, e);
+		}
+	}
+
+	/**
+	 * @param outputFile
+	 * @return a stream that gzips its input into the specified file. If parallel compression is
+	 *         enabled the stream is a {@link ParallelGzipOutputStream} that writes a
+	 *         {@link GzipBlockIndex} for the file when it is closed.
+	 * @throws IOException
+	 */
+	private OutputStream openCompressedOutputStream(File outputFile) throws IOException {
+		if (compressionThreadCount < 2) {
+			return new GZIPOutputStream(new FileOutputStream(outputFile), GZIP_BUFFER_SIZE) {
+				{
+					def.setLevel(compressionLevel);
+				}
+			};
+		}
+		if (compressionThreadPool == null) {
+			compressionThreadPool = Executors.newFixedThreadPool(compressionThreadCount);
+		}
+		return new ParallelGzipOutputStream(outputFile, GzipBlockIndex.getIndexFile(outputFile),
+				compressionThreadPool, compressionThreadCount, compressionBlockSize, compressionLevel);
 	}
 
 	/**
@@ -851,6 +1326,9 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 			}
 		} catch (RDFHandlerException e) {
 			throw new IOException("Exception while closing RDF Writers.", e);
+		} finally {
+			file2RdfWriterMap.clear();
+			namespace2RdfWriterMap.clear();
 		}
 	}
 
@@ -913,6 +1391,42 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	// }
 	// }
 
+	/**
+	 * @param fastNTriplesWriter
+	 *            if true (the default) N-Triples output is written using the
+	 *            {@link NTriplesStatementWriter} instead of the Rio N-Triples writer
+	 */
+	public void setFastNTriplesWriter(boolean fastNTriplesWriter) {
+		this.fastNTriplesWriter = fastNTriplesWriter;
+	}
+
+	/**
+	 * Configures the compression of output files (when compression is enabled). By default
+	 * compression is single-threaded.
+	 * 
+	 * @param threadCount
+	 *            the number of threads used to compress output files. If > 1, blocks of each file
+	 *            are compressed concurrently and written as a multi-member gzip file (readable by
+	 *            gunzip or a {@link java.util.zip.GZIPInputStream}). The member offsets are stored in
+	 *            a {@link GzipBlockIndex} file alongside the gzip file so that it can be
+	 *            decompressed in parallel.
+	 * @param blockSize
+	 *            the number of uncompressed bytes per gzip member when compressing in parallel
+	 * @param compressionLevel
+	 *            0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public void setParallelCompression(int threadCount, int blockSize, int compressionLevel) {
+		if (blockSize < 1) {
+			throw new IllegalArgumentException("The block size must be > 0 but was: " + blockSize);
+		}
+		if ((compressionLevel < 0 || compressionLevel > 9) && compressionLevel != Deflater.DEFAULT_COMPRESSION) {
+			throw new IllegalArgumentException("The compression level must be in [0,9] but was: " + compressionLevel);
+		}
+		this.compressionThreadCount = threadCount;
+		this.compressionBlockSize = blockSize;
+		this.compressionLevel = compressionLevel;
+	}
+
 	/**
 	 * @return the encoding
 	 */
@@ -929,14 +1443,15 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 	}
 
 	/**
-	 * Wrapper that captures {@link RDFWriter} and underlying {@link Writer} for post processing.
+	 * Wrapper that captures {@link RDFHandler} and underlying {@link Writer} (or
+	 * {@link OutputStream}) for post processing.
 	 */
 	private static class RdfWriterResource {
 		/** rdf writer */
-		private final RDFWriter rw;
+		private final RDFHandler rw;
 
 		/** underlying writer used by rdf writer */
-		private final Writer w;
+		private final Closeable w;
 
 		/**
 		 * Constructor .
@@ -946,7 +1461,7 @@ public class RdfRecordWriterImpl<T extends RecordReader<?>> {
 		 * @param w
 		 *            java writer
 		 */
-		public RdfWriterResource(RDFWriter rw, Writer w) {
+		public RdfWriterResource(RDFHandler rw, Closeable w) {
 			this.rw = rw;
 			this.w = w;
 		}
@@ -36,7 +36,6 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.lang.reflect.Field;
 import java.math.BigDecimal;
@@ -80,13 +79,11 @@ import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
 import edu.ucdenver.ccp.common.reflection.PrivateAccessor;
 import edu.ucdenver.ccp.common.string.StringConstants;
-import edu.ucdenver.ccp.common.string.StringUtil;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceElement;
 import edu.ucdenver.ccp.datasource.identifiers.DataSourceIdentifier;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.RdfId;
-import edu.ucdenver.ccp.datasource.rdfizer.rdf.RdfPartition;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.vocabulary.KIAO;
 import edu.ucdenver.ccp.datasource.rdfizer.rdf.vocabulary.RDF;
 
@@ -219,7 +216,8 @@ public class RdfUtil {
 
 	/**
 	 * Create URI in specified {@code baseNameSpace} for given {@code localName}. This method
-	 * normalizes localName by using the {@link URLEncoder#encode(String, String)} method. In order
+	 * normalizes localName as {@link URLEncoder#encode(String, String)} does (see
+	 * {@link KiaoUriFactory#encodeLocalName(String)}). In order
 	 * 
 	 * to maintain consistency with OBO we first replace colons with underscores. If the local name
 	 * starts with a number then the specified {@link DataSource} name will be appended to the
@@ -235,14 +233,8 @@ public class RdfUtil {
 	 * @return URI
 	 */
 	public static URI createUri(String baseNamespace, String localName, DataSource ds) {
-		String encodedName = localName.replaceAll(":", "_");
-		try {
-			encodedName = URLEncoder.encode(encodedName, "UTF-8");
-		} catch (UnsupportedEncodingException e) {
-			throw new RuntimeException(e);
-		}
-
-		if (StringUtil.startsWithRegex(encodedName, "[0-9]")) {
+		String encodedName = KiaoUriFactory.encodeLocalName(localName);
+		if (KiaoUriFactory.startsWithDigit(encodedName)) {
 			encodedName = ds.name() + NAMESPACE_LOCALNAME_DELIMITER + encodedName;
 		}
 
@@ -251,13 +243,8 @@ public class RdfUtil {
 	}
 
 	public static URIImpl createUriImpl(String baseNamespace, String localName, DataSource ns) {
-		String encodedName = localName.replaceAll(":", "_");
-		try {
-			encodedName = URLEncoder.encode(encodedName, "UTF-8");
-		} catch (UnsupportedEncodingException e) {
-			throw new RuntimeException(e);
-		}
-		if (StringUtil.startsWithRegex(encodedName, "[0-9]")) {
+		String encodedName = KiaoUriFactory.encodeLocalName(localName);
+		if (KiaoUriFactory.startsWithDigit(encodedName)) {
 			encodedName = ns.getLocalName() + NAMESPACE_LOCALNAME_DELIMITER + encodedName;
 		}
 		String uriStr = baseNamespace + encodedName;
@@ -461,10 +448,7 @@ public class RdfUtil {
 	 * @return URI
 	 */
 	public static URIImpl createKiaoUri(DataSource targetNamespace, String localName) {
-		String baseUri = DataSource.KABOB.longName() + RdfPartition.IAO.toString().toLowerCase()
-				+ NAMESPACE_PARTITION_DELIMITER + targetNamespace.lowerName() + NAMESPACE_PARTITION_DELIMITER;
-		return createUriImpl(baseUri, localName, targetNamespace);
-
+		return KiaoUriFactory.getFactory(targetNamespace).createUri(localName);
 	}
 
 	/**
@@ -484,7 +468,7 @@ public class RdfUtil {
 	 * @return URI
 	 */
 	public static String createKiaoUriAsString(DataSource targetNamespace, String localName) {
-		return createKiaoUri(targetNamespace, localName).toString();
+		return KiaoUriFactory.getFactory(targetNamespace).createUriString(localName);
 	}
 
 	/**
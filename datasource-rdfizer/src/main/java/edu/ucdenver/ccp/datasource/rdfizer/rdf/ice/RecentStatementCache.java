@@ -0,0 +1,174 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import org.openrdf.model.Statement;
+
+/**
+ * Remembers the most recently observed statements so that statements repeated within a short
+ * window (e.g. the same field value referenced by consecutive records) are written only once. The
+ * statements are kept in a fixed-size ring buffer, oldest first out, along with a 64-bit
+ * fingerprint of each statement. An open-addressing index over the fingerprints makes lookups
+ * constant time. Statements are considered equal if their string representations are equal. When
+ * fingerprints match, the subjects, predicates and objects are first compared directly (equal
+ * components have equal string representations); the string representations are only compared if
+ * they differ.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ */
+final class RecentStatementCache {
+
+	private final int capacity;
+	private final Statement[] statements;
+	private final long[] fingerprints;
+	/**
+	 * the index of the oldest statement in the ring buffer
+	 */
+	private int oldest = 0;
+	private int size = 0;
+
+	/**
+	 * open-addressing (linear probing) index; each slot holds a ring buffer position + 1, or 0 if
+	 * the slot is empty
+	 */
+	private final int[] index;
+	private final int indexMask;
+
+	/**
+	 * @param capacity
+	 *            the number of statements to remember
+	 */
+	RecentStatementCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity must be > 0 but was: " + capacity);
+		}
+		this.capacity = capacity;
+		this.statements = new Statement[capacity];
+		this.fingerprints = new long[capacity];
+		/* keep the index at most half full */
+		int indexSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		this.index = new int[indexSize];
+		this.indexMask = indexSize - 1;
+	}
+
+	/**
+	 * @param stmt
+	 * @return true if the statement is one of the most recently observed statements. If not, the
+	 *         statement is added to the cache, evicting the oldest statement if the cache is full.
+	 */
+	boolean containsOrAdd(Statement stmt) {
+		long fingerprint = fingerprint(stmt);
+		String stmtStr = null;
+		int slot = (int) fingerprint & indexMask;
+		for (int position; (position = index[slot]) != 0; slot = (slot + 1) & indexMask) {
+			if (fingerprints[position - 1] == fingerprint) {
+				Statement cached = statements[position - 1];
+				if (hasEqualComponents(stmt, cached)) {
+					return true;
+				}
+				if (stmtStr == null) {
+					stmtStr = stmt.toString();
+				}
+				if (stmtStr.equals(cached.toString())) {
+					return true;
+				}
+			}
+		}
+		if (size == capacity) {
+			removeOldest();
+		}
+		int position = (oldest + size) % capacity;
+		statements[position] = stmt;
+		fingerprints[position] = fingerprint;
+		size++;
+		/* removing the oldest statement may have shifted index entries so probe again */
+		slot = (int) fingerprint & indexMask;
+		while (index[slot] != 0) {
+			slot = (slot + 1) & indexMask;
+		}
+		index[slot] = position + 1;
+		return false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void removeOldest() {
+		int position = oldest;
+		int slot = (int) fingerprints[position] & indexMask;
+		while (index[slot] != position + 1) {
+			slot = (slot + 1) & indexMask;
+		}
+		/* backward-shift deletion keeps the probe sequences of the remaining entries intact */
+		int next = (slot + 1) & indexMask;
+		while (index[next] != 0) {
+			int home = (int) fingerprints[index[next] - 1] & indexMask;
+			/* move the entry into the vacated slot if its home is not between the vacated slot and its slot */
+			if (((next - home) & indexMask) >= ((next - slot) & indexMask)) {
+				index[slot] = index[next];
+				slot = next;
+			}
+			next = (next + 1) & indexMask;
+		}
+		index[slot] = 0;
+		statements[position] = null;
+		oldest = (oldest + 1) % capacity;
+		size--;
+	}
+
+	private static boolean hasEqualComponents(Statement stmt1, Statement stmt2) {
+		return stmt1.getSubject().equals(stmt2.getSubject()) && stmt1.getPredicate().equals(stmt2.getPredicate())
+				&& stmt1.getObject().equals(stmt2.getObject());
+	}
+
+	/**
+	 * @return a 64-bit fingerprint computed from the hash codes of the subject, predicate and
+	 *         object. The hash codes of URIs are those of their (cached) string values.
+	 */
+	static long fingerprint(Statement stmt) {
+		long h = stmt.getSubject().hashCode();
+		h = h * 0x9e3779b97f4a7c15L + stmt.getPredicate().hashCode();
+		h = h * 0x9e3779b97f4a7c15L + stmt.getObject().hashCode();
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+}
@@ -0,0 +1,159 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+
+import edu.ucdenver.ccp.common.digest.DigestUtil;
+
+/**
+ * Computes the same digest as {@link DigestUtil#getBase64Sha1Digest(String)} for the concatenation
+ * of the strings and byte arrays passed to the update methods, without building the concatenated
+ * string. Characters are UTF-8 encoded into a reusable buffer that is flushed into the underlying
+ * {@link MessageDigest}.<br>
+ * Instances are thread-confined and pooled per thread. Use {@link #acquire()} and
+ * {@link #release()} in a try/finally block. The pool allows nested use on the same thread, e.g.
+ * record URIs for non-normalized identifiers are computed while the URI of the enclosing record is
+ * being computed.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+final class Sha1DigestStream {
+
+	private static final int BUFFER_SIZE = 4096;
+
+	private static final ThreadLocal<ArrayDeque<Sha1DigestStream>> pool = new ThreadLocal<ArrayDeque<Sha1DigestStream>>() {
+		@Override
+		protected ArrayDeque<Sha1DigestStream> initialValue() {
+			return new ArrayDeque<Sha1DigestStream>();
+		}
+	};
+
+	private static final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+	private final MessageDigest digest;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int position = 0;
+
+	private Sha1DigestStream() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-1 is not available.", e);
+		}
+	}
+
+	/**
+	 * @return a reset {@link Sha1DigestStream} owned by the current thread until
+	 *         {@link #release()} is called
+	 */
+	static Sha1DigestStream acquire() {
+		Sha1DigestStream stream = pool.get().pollFirst();
+		if (stream == null) {
+			stream = new Sha1DigestStream();
+		}
+		return stream;
+	}
+
+	/**
+	 * Resets this stream and returns it to the pool of the current thread
+	 */
+	void release() {
+		position = 0;
+		digest.reset();
+		pool.get().addFirst(this);
+	}
+
+	Sha1DigestStream update(byte[] bytes) {
+		flush();
+		digest.update(bytes);
+		return this;
+	}
+
+	/**
+	 * Appends the UTF-8 encoding of the input string. Unpaired surrogates are replaced with '?',
+	 * consistent with {@link String#getBytes(java.nio.charset.Charset)}.
+	 */
+	Sha1DigestStream update(String str) {
+		int length = str.length();
+		for (int i = 0; i < length; i++) {
+			if (position > BUFFER_SIZE - 4) {
+				flush();
+			}
+			char c = str.charAt(i);
+			if (c < 0x80) {
+				buffer[position++] = (byte) c;
+			} else if (c < 0x800) {
+				buffer[position++] = (byte) (0xc0 | (c >> 6));
+				buffer[position++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(str.charAt(i + 1))) {
+					int cp = Character.toCodePoint(c, str.charAt(++i));
+					buffer[position++] = (byte) (0xf0 | (cp >> 18));
+					buffer[position++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+					buffer[position++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+					buffer[position++] = (byte) (0x80 | (cp & 0x3f));
+				} else {
+					buffer[position++] = (byte) '?';
+				}
+			} else {
+				buffer[position++] = (byte) (0xe0 | (c >> 12));
+				buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buffer[position++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * @return the URL-safe, unpadded base64 encoding of the SHA-1 digest of the bytes appended
+	 *         since this stream was acquired. The stream is reset.
+	 */
+	String digestBase64() {
+		flush();
+		return encoder.encodeToString(digest.digest());
+	}
+
+	private void flush() {
+		if (position > 0) {
+			digest.update(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+}
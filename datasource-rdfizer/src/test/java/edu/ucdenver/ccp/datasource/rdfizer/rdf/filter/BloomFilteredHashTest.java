@@ -0,0 +1,129 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class BloomFilteredHashTest {
+
+	@Test
+	public void testBloomFilter() {
+		for (boolean offHeap : new boolean[] { false, true }) {
+			BloomFilter bloomFilter = new BloomFilter(10000, 0.01, offHeap);
+			for (int i = 0; i < 10000; i++) {
+				bloomFilter.put("key " + i);
+			}
+			for (int i = 0; i < 10000; i++) {
+				assertTrue(bloomFilter.mightContain("key " + i));
+			}
+			int falsePositiveCount = 0;
+			for (int i = 0; i < 100000; i++) {
+				if (bloomFilter.mightContain("other key " + i)) {
+					falsePositiveCount++;
+				}
+			}
+			assertTrue("false positive count: " + falsePositiveCount, falsePositiveCount < 2000);
+		}
+	}
+
+	@Test
+	public void testContainsMatchesWrappedHash() throws IOException {
+		HashSetHash wrappedHash = new HashSetHash();
+		BloomFilteredHash hash = new BloomFilteredHash(wrappedHash, 1000, 0.01, false);
+		Random random = new Random(0);
+		long lookupCount = 0;
+		for (int i = 0; i < 20000; i++) {
+			String key = "field_" + random.nextInt(5000);
+			assertEquals(key, wrappedHash.keys.contains(key), hash.contains(key));
+			lookupCount++;
+			if (random.nextInt(4) == 0) {
+				hash.add(key);
+			}
+		}
+		assertEquals(lookupCount, hash.getLookupCount());
+		assertEquals(lookupCount, wrappedHash.containsCount + hash.getDiskLookupsAvoidedCount());
+		assertTrue(hash.getDiskLookupsAvoidedCount() > 0);
+		hash.shutdown();
+		assertTrue(wrappedHash.isShutdown);
+	}
+
+	@Test
+	public void testDefiniteMissSkipsWrappedHash() throws IOException {
+		HashSetHash wrappedHash = new HashSetHash();
+		BloomFilteredHash hash = new BloomFilteredHash(wrappedHash, 1000, 0.001, true);
+		hash.add("input 1");
+		assertTrue(hash.contains("input 1"));
+		assertEquals(1, wrappedHash.containsCount);
+		assertFalse(hash.contains("input 2"));
+		assertEquals(1, hash.getDiskLookupsAvoidedCount());
+		assertEquals(0, hash.getFalsePositiveCount());
+		assertEquals(0.0, hash.getFalsePositiveRate(), 0.0);
+	}
+
+	private static class HashSetHash implements DiskBasedHash {
+		private final Set<Object> keys = new HashSet<Object>();
+		private long containsCount = 0;
+		private boolean isShutdown = false;
+
+		@Override
+		public void add(Object o) {
+			keys.add(o);
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			containsCount++;
+			return keys.contains(o);
+		}
+
+		@Override
+		public void shutdown() {
+			isShutdown = true;
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.reader.Line;
+import edu.ucdenver.ccp.common.file.reader.StreamLineIterator;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class MappedDigestCacheTest extends DefaultTestCase {
+
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+	private static final String[] GOA_FIELD_NAMES = new String[] { "database", "databaseObjectID", "qualifier",
+			"goID", "dbReference", "evidenceCode", "with", "interactingTaxonID", "date", "assignedBy",
+			"annotationExtension", "annotationProperties" };
+
+	@Test
+	public void testAddAndContains() throws IOException {
+		MappedDigestCache cache = new MappedDigestCache(new File(folder.newFolder("cache"), "filter"));
+		String key1 = "entrezGeneID_rgB00oPB7KpKAed3uhvN2yGcHSE";
+		String key2 = "geneSymbol_rgB00oPB7KpKAed3uhvN2yGcHSE";
+		String key3 = "/R_HprdIdMappingsTxtFileData_hDafTYVx4wPUw_w5Ck2SsiA7sgY";
+		assertFalse(cache.contains(key1));
+		cache.add(key1);
+		assertTrue(cache.contains(key1));
+		assertFalse("same digest, different prefix", cache.contains(key2));
+		cache.add(key2);
+		cache.add(key3);
+		cache.add(key3);
+		assertTrue(cache.contains(key2));
+		assertTrue(cache.contains(key3));
+		assertEquals(3, cache.size());
+		cache.shutdown();
+	}
+
+	@Test
+	public void testNonDigestKeys() throws IOException {
+		MappedDigestCache cache = new MappedDigestCache(new File(folder.newFolder("cache"), "filter"));
+		cache.add("input 1");
+		cache.add("input 2");
+		/* the final character of an encoded 20 byte digest must have its 2 low-order bits unset */
+		cache.add("field_rgB00oPB7KpKAed3uhvN2yGcHSF");
+		cache.add("field_AAAAAAAAAAAAAAAAAAAAAAAAAAA");
+		assertTrue(cache.contains("input 1"));
+		assertTrue(cache.contains("input 2"));
+		assertFalse(cache.contains("input 3"));
+		assertTrue(cache.contains("field_rgB00oPB7KpKAed3uhvN2yGcHSF"));
+		assertFalse(cache.contains("field_rgB00oPB7KpKAed3uhvN2yGcHSE"));
+		assertTrue("the all-zero digest", cache.contains("field_AAAAAAAAAAAAAAAAAAAAAAAAAAA"));
+		assertEquals(4, cache.size());
+		cache.shutdown();
+	}
+
+	/**
+	 * Compares the cache to a {@link HashSet} while forcing the tables to grow many times
+	 */
+	@Test
+	public void testMatchesHashSet() throws Exception {
+		MappedDigestCache cache = new MappedDigestCache(new File(folder.newFolder("cache"), "filter"), 4);
+		Set<String> expectedKeys = new HashSet<String>();
+		Random random = new Random(0);
+		MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+		for (int i = 0; i < 50000; i++) {
+			String key = GOA_FIELD_NAMES[random.nextInt(GOA_FIELD_NAMES.length)] + "_"
+					+ ENCODER.encodeToString(sha1.digest(Integer.toString(random.nextInt(20000)).getBytes()));
+			assertEquals(key, expectedKeys.contains(key), cache.contains(key));
+			if (random.nextBoolean()) {
+				expectedKeys.add(key);
+				cache.add(key);
+			}
+		}
+		assertEquals(expectedKeys.size(), cache.size());
+		cache.shutdown();
+	}
+
+	/**
+	 * Replays the field value keys of a GOA RDF file through the {@link Jdbm2Cache} and the
+	 * {@link MappedDigestCache} using the same add/contains pattern as the
+	 * {@link DuplicateFieldValueFilter} and reports the throughput and disk footprint of each. Set
+	 * the goa.rdf.file system property to the path of a (gzipped) GOA N-Triples file produced by
+	 * the RDF generator to replay a real run, otherwise GOA-like keys are synthesized.
+	 */
+	@Ignore("benchmark; takes several minutes")
+	@Test
+	public void benchmarkGoaFieldValueKeys() throws Exception {
+		List<String> keys = loadGoaFieldValueKeys();
+		System.out.println("Replaying " + keys.size() + " field value keys");
+
+		File jdbmDir = folder.newFolder("jdbm");
+		long start = System.currentTimeMillis();
+		int jdbmHits = replay(new Jdbm2Cache(new File(jdbmDir, "filter")), keys);
+		long jdbmTime = System.currentTimeMillis() - start;
+
+		File mappedDir = folder.newFolder("mapped");
+		start = System.currentTimeMillis();
+		int mappedHits = replay(new MappedDigestCache(new File(mappedDir, "filter")), keys);
+		long mappedTime = System.currentTimeMillis() - start;
+
+		assertEquals(jdbmHits, mappedHits);
+		System.out.println(String.format("Jdbm2Cache:        %,d ms  %,d bytes on disk", jdbmTime,
+				getDiskUsage(jdbmDir)));
+		System.out.println(String.format("MappedDigestCache: %,d ms  %,d bytes on disk", mappedTime,
+				getDiskUsage(mappedDir)));
+	}
+
+	/**
+	 * @return the number of keys that were already observed
+	 */
+	private static int replay(DiskBasedHash hash, List<String> keys) throws IOException {
+		int alreadyObservedCount = 0;
+		String previousKey = null;
+		for (String key : keys) {
+			if (!key.equals(previousKey)) {
+				if (previousKey != null) {
+					hash.add(previousKey);
+				}
+				previousKey = key;
+			}
+			if (hash.contains(key)) {
+				alreadyObservedCount++;
+			}
+		}
+		hash.shutdown();
+		return alreadyObservedCount;
+	}
+
+	private static List<String> loadGoaFieldValueKeys() throws Exception {
+		List<String> keys = new ArrayList<String>();
+		String goaRdfFile = System.getProperty("goa.rdf.file");
+		if (goaRdfFile != null) {
+			File file = new File(goaRdfFile);
+			StreamLineIterator lineIter = (file.getName().endsWith(".gz")) ? new StreamLineIterator(
+					new GZIPInputStream(new FileInputStream(file)), CharacterEncoding.UTF_8, null)
+					: new StreamLineIterator(file, CharacterEncoding.UTF_8);
+			try {
+				while (lineIter.hasNext()) {
+					Line line = lineIter.next();
+					int subjectEndIndex = line.getText().indexOf('>');
+					String subject = (subjectEndIndex < 0) ? line.getText() : line.getText().substring(0,
+							subjectEndIndex);
+					if (subject.contains("/F_")) {
+						/* see DuplicateFieldValueFilter.getFieldValueKey() */
+						keys.add(subject.substring(subject.indexOf('_', subject.indexOf('_') + 1) + 1));
+					}
+				}
+			} finally {
+				lineIter.close();
+			}
+		} else {
+			/*
+			 * each field value is the subject of 3 consecutive statements; field values are drawn
+			 * from skewed distributions as many GOA field values (evidence codes, dates, etc.) repeat
+			 */
+			Random random = new Random(0);
+			MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+			for (int record = 0; record < 2000000; record++) {
+				for (String fieldName : GOA_FIELD_NAMES) {
+					int value = (int) Math.abs(random.nextGaussian() * 1000000);
+					String key = fieldName + "_" + ENCODER.encodeToString(sha1.digest(Integer.toString(value).getBytes()));
+					keys.add(key);
+					keys.add(key);
+					keys.add(key);
+				}
+			}
+		}
+		return keys;
+	}
+
+	private static long getDiskUsage(File directory) {
+		long size = 0;
+		for (File file : directory.listFiles()) {
+			size += (file.isDirectory()) ? getDiskUsage(file) : file.length();
+		}
+		return size;
+	}
+
+}
@@ -0,0 +1,231 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.filter;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.file.CharacterEncoding;
+import edu.ucdenver.ccp.common.file.FileWriterUtil;
+import edu.ucdenver.ccp.common.file.reader.Line;
+import edu.ucdenver.ccp.common.file.reader.StreamLineIterator;
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip.GzipBlockIndex;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class NonRedundantRdfFileFactoryTest extends DefaultTestCase {
+
+	private static final String NS = "http://kabob.ucdenver.edu/iao/goa/";
+
+	private static final String[] FIELD_NAMES = new String[] { "databaseObjectID", "goID", "dbReference",
+			"evidenceCode", "with" };
+
+	@Test
+	public void testIsFieldRdfLine() {
+		List<String> lines = Arrays.asList("<" + NS + "F_GoaGaf2FileData_goID_abc> <p> <o> .", NS
+				+ "F_GoaGaf2FileData_goID_abc", "<" + NS + "R_GoaGaf2FileData_abc> <p> <o> .",
+				"<http://kabob.ucdenver.edu/iao/F_GoaGaf2FileData_goID_abc> <p> <o> .",
+				"<http://kabob.ucdenver.edu/iao//F_GoaGaf2FileData_goID_abc> <p> <o> .",
+				"<http://kabob.ucdenver.edu/iao/goa/sub/F_GoaGaf2FileData_goID_abc> <p> <o> .",
+				"<http://kabob.ucdenver.edu/iao/goa/F_> <p> \"a\rb\" .", "<" + NS + "F_x> <p> \"a\u2028b\" .",
+				"<<" + NS + "F_x> <p> <o> .", "<" + NS + "F", "", "<");
+		for (String line : lines) {
+			assertEquals(line, line.matches("^<?http://kabob.ucdenver.edu/iao/[^/]+/F_.*$"),
+					NonRedundantRdfFileFactory.isFieldRdfLine(line));
+		}
+	}
+
+	/**
+	 * The non-redundant files must be the same as those created by the
+	 * {@link DuplicateFieldValueFilter}
+	 */
+	@Test
+	public void testCreateNonRedundantRdfFilesMatchesDuplicateFieldValueFilter() throws IOException {
+		for (int seed = 0; seed < 5; seed++) {
+			File legacyDirectory = folder.newFolder("legacy" + seed);
+			File directory = folder.newFolder("parallel" + seed);
+			createRdfFiles(legacyDirectory, 7, 300, new Random(seed));
+			createRdfFiles(directory, 7, 300, new Random(seed));
+
+			DuplicateFieldValueFilter filter = new DefaultDuplicateStatementFilter(new File(
+					folder.newFolder("filter-cache" + seed), "filter"));
+			filter.setCompressionThreadCount(1);
+			filter.createNonRedundantRdfFiles(legacyDirectory);
+			filter.shutdown();
+
+			List<File> noDupsFiles = new NonRedundantRdfFileFactory(folder.newFolder("spill" + seed), 3, 5)
+					.createNonRedundantRdfFiles(directory);
+
+			assertEquals(filter.getNoDupsFiles().size(), noDupsFiles.size());
+			for (File legacyNoDupsFile : filter.getNoDupsFiles()) {
+				File noDupsFile = new File(directory, legacyDirectory.toURI().relativize(legacyNoDupsFile.toURI())
+						.getPath());
+				assertEquals(noDupsFile.getName(), readLines(legacyNoDupsFile), readLines(noDupsFile));
+				assertFalse(GzipBlockIndex.getIndexFile(noDupsFile).exists());
+			}
+		}
+	}
+
+	@Test
+	public void testCreateNonRedundantRdfFiles_ParallelCompression() throws IOException {
+		File directory = folder.newFolder("plain");
+		File parallelDirectory = folder.newFolder("parallel");
+		createRdfFiles(directory, 3, 300, new Random(0));
+		createRdfFiles(parallelDirectory, 3, 300, new Random(0));
+
+		List<File> noDupsFiles = new NonRedundantRdfFileFactory(folder.newFolder("spill"), 2, 3)
+				.createNonRedundantRdfFiles(directory);
+		NonRedundantRdfFileFactory factory = new NonRedundantRdfFileFactory(folder.newFolder("parallel-spill"), 2, 3);
+		factory.setCompressionThreadCount(2);
+		List<File> parallelNoDupsFiles = factory.createNonRedundantRdfFiles(parallelDirectory);
+
+		assertEquals(noDupsFiles.size(), parallelNoDupsFiles.size());
+		for (int i = 0; i < noDupsFiles.size(); i++) {
+			File parallelNoDupsFile = parallelNoDupsFiles.get(i);
+			assertEquals(readLines(noDupsFiles.get(i)), readLines(parallelNoDupsFile));
+			assertTrue(GzipBlockIndex.getIndexFile(parallelNoDupsFile).exists());
+		}
+	}
+
+	@Test
+	public void testNoRdfFiles() throws IOException {
+		assertEquals(0, new NonRedundantRdfFileFactory(folder.newFolder("spill"))
+				.createNonRedundantRdfFiles(folder.newFolder("rdf")).size());
+	}
+
+	/**
+	 * Compares the time spent creating non-redundant files by the {@link DuplicateFieldValueFilter}
+	 * and by the {@link NonRedundantRdfFileFactory} with an increasing number of threads. The
+	 * repository does not use JMH, so this benchmark is run as an (ignored) unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkCreateNonRedundantRdfFiles() throws IOException {
+		int fileCount = Integer.getInteger("nodups.file.count", 16);
+		int recordCount = Integer.getInteger("nodups.record.count", 50000);
+		File legacyDirectory = folder.newFolder("legacy");
+		createRdfFiles(legacyDirectory, fileCount, recordCount, new Random(0));
+		long start = System.nanoTime();
+		DuplicateFieldValueFilter filter = new DefaultDuplicateStatementFilter(new File(
+				folder.newFolder("filter-cache"), "filter"));
+		filter.createNonRedundantRdfFiles(legacyDirectory);
+		filter.shutdown();
+		System.out.println(String.format("legacy: %,d ms", (System.nanoTime() - start) / 1000000));
+
+		for (int threadCount = 1; threadCount <= Runtime.getRuntime().availableProcessors(); threadCount *= 2) {
+			File directory = folder.newFolder("parallel" + threadCount);
+			createRdfFiles(directory, fileCount, recordCount, new Random(0));
+			start = System.nanoTime();
+			new NonRedundantRdfFileFactory(folder.newFolder("spill" + threadCount), threadCount, 4 * threadCount)
+					.createNonRedundantRdfFiles(directory);
+			System.out.println(String.format("%d thread(s): %,d ms", threadCount,
+					(System.nanoTime() - start) / 1000000));
+		}
+	}
+
+	/**
+	 * Creates gzipped RDF files, some in a subdirectory, that resemble those generated for GOA
+	 * records. Field values are drawn from a skewed distribution so that many of them repeat, both
+	 * within a file and across files; the field value lines of a record are occasionally
+	 * interleaved with record lines.
+	 */
+	private static void createRdfFiles(File directory, int fileCount, int recordCount, Random random)
+			throws IOException {
+		for (int fileIndex = 0; fileIndex < fileCount; fileIndex++) {
+			File parentDirectory = (fileIndex % 2 == 0) ? directory : new File(directory, "sub");
+			parentDirectory.mkdirs();
+			File rdfFile = new File(parentDirectory, "goa-" + fileIndex + ".nt.gz");
+			BufferedWriter writer = FileWriterUtil.initBufferedWriter(new GZIPOutputStream(new FileOutputStream(
+					rdfFile)), CharacterEncoding.UTF_8);
+			try {
+				for (int record = 0; record < recordCount; record++) {
+					String recordUri = "<" + NS + "R_GoaGaf2FileData_" + fileIndex + "_" + record + ">";
+					writer.write(recordUri + " <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <" + NS
+							+ "GoaGaf2FileData> .\n");
+					for (String fieldName : FIELD_NAMES) {
+						String value = Integer.toString((int) Math.abs(random.nextGaussian() * 200));
+						String fieldUri = "<" + NS + "F_GoaGaf2FileData_" + fieldName + "_" + value + ">";
+						writer.write(recordUri + " <http://purl.obolibrary.org/obo/has_part> " + fieldUri + " .\n");
+						writer.write(fieldUri + " <http://kabob.ucdenver.edu/iao/hasTemplate> <" + NS
+								+ "GoaGaf2FileData_" + fieldName + "DataField1> .\n");
+						if (random.nextInt(10) == 0) {
+							writer.write("  " + recordUri + " <http://kabob.ucdenver.edu/iao/hasComment> \"x\" .\n");
+						}
+						writer.write(fieldUri
+								+ " <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://kabob.ucdenver.edu/iao/FieldValue> .\n");
+						writer.write(fieldUri + " <http://purl.obolibrary.org/obo/IAO_0000219> \"" + value
+								+ "\"@en .\n");
+					}
+				}
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	private static List<String> readLines(File gzipFile) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		StreamLineIterator lineIter = new StreamLineIterator(new GZIPInputStream(new FileInputStream(gzipFile)),
+				CharacterEncoding.UTF_8, null);
+		try {
+			while (lineIter.hasNext()) {
+				Line line = lineIter.next();
+				lines.add(line.getText());
+			}
+		} finally {
+			lineIter.close();
+		}
+		return lines;
+	}
+
+}
@@ -0,0 +1,179 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.gzip;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.test.DefaultTestCase;
+
+/**
+ * @author Center for Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class ParallelGzipOutputStreamTest extends DefaultTestCase {
+
+	private static final int THREAD_COUNT = 4;
+
+	private ExecutorService threadPool;
+
+	@Before
+	public void setUp() {
+		threadPool = Executors.newFixedThreadPool(THREAD_COUNT);
+	}
+
+	@After
+	public void tearDown() {
+		threadPool.shutdown();
+	}
+
+	@Test
+	public void testReadableByGzipInputStream() throws IOException {
+		byte[] data = createData(100000);
+		File gzipFile = write(data, 1000, Deflater.DEFAULT_COMPRESSION);
+		assertArrayEquals(data, read(new GZIPInputStream(new FileInputStream(gzipFile))));
+	}
+
+	@Test
+	public void testBlockIndex() throws IOException {
+		byte[] data = createData(100000);
+		File gzipFile = write(data, 1000, 1);
+		GzipBlockIndex index = GzipBlockIndex.load(gzipFile);
+		assertNotNull(index);
+		assertEquals(100, index.getMemberCount());
+		assertEquals(gzipFile.length(), index.getCompressedFileLength());
+		long offset = 0;
+		for (int i = 0; i < index.getMemberCount(); i++) {
+			assertEquals(offset, index.getCompressedOffset(i));
+			assertEquals(1000, index.getUncompressedLength(i));
+			offset += index.getCompressedLength(i);
+		}
+	}
+
+	@Test
+	public void testParallelRead() throws IOException {
+		for (int length : new int[] { 0, 1, 999, 1000, 1001, 123457 }) {
+			byte[] data = createData(length);
+			File gzipFile = write(data, 1000, Deflater.BEST_SPEED);
+			InputStream is = ParallelGzipInputStream.open(gzipFile, THREAD_COUNT);
+			assertTrue(is instanceof ParallelGzipInputStream);
+			assertArrayEquals(data, read(is));
+		}
+	}
+
+	@Test
+	public void testOpenWithoutBlockIndex() throws IOException {
+		byte[] data = createData(10000);
+		File gzipFile = write(data, 1000, Deflater.DEFAULT_COMPRESSION);
+		assertTrue(GzipBlockIndex.getIndexFile(gzipFile).delete());
+		assertNull(GzipBlockIndex.load(gzipFile));
+		InputStream is = ParallelGzipInputStream.open(gzipFile, THREAD_COUNT);
+		assertTrue(is instanceof GZIPInputStream);
+		assertArrayEquals(data, read(is));
+	}
+
+	@Test
+	public void testStaleBlockIndexIsIgnored() throws IOException {
+		byte[] data = createData(10000);
+		File gzipFile = write(data, 1000, Deflater.DEFAULT_COMPRESSION);
+		OutputStream os = new FileOutputStream(gzipFile, true);
+		os.write(ParallelGzipOutputStream.compress(data, 10, Deflater.DEFAULT_COMPRESSION));
+		os.close();
+		assertNull(GzipBlockIndex.load(gzipFile));
+	}
+
+	private File write(byte[] data, int blockSize, int compressionLevel) throws IOException {
+		File gzipFile = File.createTempFile("data", ".gz", folder.getRoot());
+		ParallelGzipOutputStream os = new ParallelGzipOutputStream(gzipFile, GzipBlockIndex.getIndexFile(gzipFile),
+				threadPool, THREAD_COUNT, blockSize, compressionLevel);
+		Random random = new Random(0);
+		/* write in chunks of varying size so that writes straddle the block boundaries */
+		for (int offset = 0; offset < data.length;) {
+			int length = Math.min(data.length - offset, random.nextInt(2500));
+			if (length == 1) {
+				os.write(data[offset]);
+			} else {
+				os.write(data, offset, length);
+			}
+			offset += length;
+			os.flush();
+		}
+		os.close();
+		return gzipFile;
+	}
+
+	private static byte[] read(InputStream is) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try {
+			byte[] buffer = new byte[777];
+			int count;
+			while ((count = is.read(buffer)) != -1) {
+				baos.write(buffer, 0, count);
+			}
+		} finally {
+			is.close();
+		}
+		return baos.toByteArray();
+	}
+
+	private static byte[] createData(int length) {
+		Random random = new Random(length);
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) ('a' + random.nextInt(8));
+		}
+		return data;
+	}
+
+}
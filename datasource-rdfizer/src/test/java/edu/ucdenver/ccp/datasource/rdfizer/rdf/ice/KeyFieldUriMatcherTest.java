@@ -0,0 +1,136 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.openrdf.model.Resource;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.URIImpl;
+
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordEmissionPlanTest.TestDataRecord;
+
+/**
+ * Compares the {@link KeyFieldUriMatcher} used by {@link RdfRecordWriterImpl} to the substring-based
+ * key field check it replaced.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class KeyFieldUriMatcherTest {
+
+	private static final String NS = "http://kabob.ucdenver.edu/iao/goa/";
+	private static final String DIGEST = "rgB00oPB7KpKAed3uhvN2yGcHSE";
+	private static final Set<String> KEY_FIELD_NAMES = new HashSet<String>(
+			Arrays.asList("F_GoaGaf2FileRecord_databaseObjectID_"));
+
+	@Test
+	public void testIsKeyFieldUri() {
+		KeyFieldUriMatcher matcher = new KeyFieldUriMatcher(KEY_FIELD_NAMES);
+		assertTrue(matcher.isKeyFieldUri(new URIImpl(NS + "F_GoaGaf2FileRecord_databaseObjectID_" + DIGEST)));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "F_GoaGaf2FileRecord_goID_" + DIGEST)));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "R_GoaGaf2FileRecord_" + DIGEST)));
+		/*
+		 * as with the previous substring check, the key field names of nested record classes do not
+		 * match as they do not include the encoded outer class name
+		 */
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "F_Outer%24GoaGaf2FileRecord_databaseObjectID_" + DIGEST)));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl("http://short")));
+	}
+
+	@Test
+	public void testIsKeyFieldUri_EmissionPlanPrefixes() {
+		KeyFieldUriMatcher matcher = new KeyFieldUriMatcher(RdfRecordEmissionPlan.getPlan(TestDataRecord.class)
+				.getKeyFieldUriPrefixes());
+		assertTrue(matcher.isKeyFieldUri(new URIImpl(NS + "F_TestDataRecord_primitiveIntField_" + DIGEST)));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "F_TestDataRecord_stringField_" + DIGEST)));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "R_TestDataRecord_" + DIGEST)));
+	}
+
+	@Test
+	public void testIsKeyFieldUri_MatchInDigest() {
+		KeyFieldUriMatcher matcher = new KeyFieldUriMatcher(new HashSet<String>(Arrays.asList("F_A_id_")));
+		/* key field name entirely within the digest-length tail */
+		assertTrue(matcher.isKeyFieldUri(new URIImpl(NS + "R_B_rgB00oPB7KpKAedF_A_id_SE")));
+		/* key field name beginning in the template and ending in the tail */
+		assertTrue(matcher.isKeyFieldUri(new URIImpl(NS + "R_F_A_" + "id_00oPB7KpKAed3uhvN2yGcHSE")));
+		assertFalse(matcher.isKeyFieldUri(new URIImpl(NS + "R_F_A_" + "ix_00oPB7KpKAed3uhvN2yGcHSE")));
+	}
+
+	@Test
+	public void testIsKeyFieldUri_MatchesLegacyCheck() {
+		Random random = new Random(0);
+		Set<String> keyFieldNames = new HashSet<String>(Arrays.asList("F_X_a_", "F_X_b_", "_"));
+		for (Set<String> keys : Arrays.asList(KEY_FIELD_NAMES, keyFieldNames)) {
+			KeyFieldUriMatcher matcher = new KeyFieldUriMatcher(keys);
+			for (Statement stmt : RecentStatementCacheTest.createStatements(20000, random)) {
+				assertEquals(stmt.getSubject().toString(), legacyNeedToCheckFilter(stmt.getSubject(), keys),
+						!matcher.isKeyFieldUri(stmt.getSubject()));
+			}
+			/* random subjects over a small alphabet to exercise matches spanning the template */
+			char[] alphabet = "F_Xab".toCharArray();
+			for (int i = 0; i < 20000; i++) {
+				StringBuilder sb = new StringBuilder();
+				int length = random.nextInt(60);
+				for (int j = 0; j < length; j++) {
+					sb.append(alphabet[random.nextInt(alphabet.length)]);
+				}
+				URIImpl subject = new URIImpl(NS + sb);
+				assertEquals(subject.toString(), legacyNeedToCheckFilter(subject, keys), !matcher.isKeyFieldUri(subject));
+			}
+		}
+	}
+
+	/**
+	 * the key field check previously used by {@link RdfRecordWriterImpl}
+	 */
+	static boolean legacyNeedToCheckFilter(Resource subject, Set<String> primaryKeyFieldNames) {
+		String sub = subject.toString();
+		for (String key : primaryKeyFieldNames) {
+			if (sub.contains(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
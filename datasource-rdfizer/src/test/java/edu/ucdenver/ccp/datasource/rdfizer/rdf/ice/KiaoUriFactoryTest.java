@@ -0,0 +1,214 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.string.StringUtil;
+import edu.ucdenver.ccp.datasource.identifiers.DataSource;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.RdfPartition;
+
+public class KiaoUriFactoryTest {
+
+	private static final String[] LOCAL_NAMES = { "", "hasCreationDate", "GO:0008150", "0hasCreationDate", "12345",
+			"R_GoaGaf2FileRecord_CmV_pf20rReEpG6Yzbq6d8NJ8GA", "F_TestDataRecord_stringField_NF8a-Gl2D69E",
+			"has:Creation:Date", ":123", "a b c", " 1", "+1", "%41", "a/b#c?d=e&f", "x.y*z~", "\"quoted\" 'text'",
+			"<tag>", "caf\u00e9", "\u00e9t\u00e9", "\u03b1-helix", "\u4e2d\u6587", "\u20ac100", "\ud83d\ude00",
+			"a\ud83d\ude00b", "\ud83d", "a\ude00b", "\ude00\ud83d", "tab\tnewline\n", "\u0000", "\u007f\u0080",
+			"\u07ff\u0800", "\uffff", "9:a b" };
+
+	/**
+	 * The KaBOB IAO URIs must not change as they are referenced by previously generated RDF
+	 */
+	@Test
+	public void testGoldenKiaoUris() {
+		assertEquals("http://kabob.ucdenver.edu/iao/omim/OMIM_100050_ICE",
+				RdfUtil.createKiaoUri(DataSource.OMIM, "OMIM_100050_ICE").toString());
+		assertEquals("http://kabob.ucdenver.edu/iao/eg/EG_100050",
+				RdfUtil.createKiaoUri(DataSource.EG, "100050").toString());
+		assertEquals("http://kabob.ucdenver.edu/iao/go/GO_0008150",
+				RdfUtil.createKiaoUri(DataSource.GO, "GO:0008150").toString());
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/a+b%2Fc", RdfUtil.createKiaoUriAsString(DataSource.KEGG,
+				"a b/c"));
+	}
+
+	/**
+	 * Compares the URIs created for every {@link DataSource} with those created by the original
+	 * string concatenation, {@link URLEncoder} and regular expression implementation
+	 */
+	@Test
+	public void testKiaoUrisMatchLegacyUrisForAllDataSources() {
+		for (DataSource ds : DataSource.values()) {
+			for (String localName : LOCAL_NAMES) {
+				String expectedUri = legacyCreateKiaoUri(ds, localName);
+				assertEquals(ds + " " + localName, expectedUri, RdfUtil.createKiaoUri(ds, localName).toString());
+				assertEquals(ds + " " + localName, expectedUri, RdfUtil.createKiaoUriAsString(ds, localName));
+			}
+		}
+	}
+
+	@Test
+	public void testCreateUriMatchesLegacyUris() {
+		for (DataSource ds : DataSource.values()) {
+			for (String localName : LOCAL_NAMES) {
+				assertEquals(ds + " " + localName, legacyCreateUri("http://kabob/", localName, ds.name()), RdfUtil
+						.createUri("http://kabob/", localName, ds).toString());
+				assertEquals(ds + " " + localName, legacyCreateUri("http://kabob/", localName, ds.getLocalName()),
+						RdfUtil.createUriImpl("http://kabob/", localName, ds).toString());
+			}
+		}
+	}
+
+	@Test
+	public void testEncodeLocalNameMatchesUrlEncoder() throws UnsupportedEncodingException {
+		for (String localName : LOCAL_NAMES) {
+			assertEquals(localName, URLEncoder.encode(localName.replaceAll(":", "_"), "UTF-8"),
+					KiaoUriFactory.encodeLocalName(localName));
+		}
+		Random random = new Random(0);
+		for (int i = 0; i < 100000; i++) {
+			String localName = createRandomLocalName(random);
+			assertEquals(localName, URLEncoder.encode(localName.replaceAll(":", "_"), "UTF-8"),
+					KiaoUriFactory.encodeLocalName(localName));
+		}
+	}
+
+	@Test
+	public void testEncodeLocalNameReturnsUnchangedInput() {
+		String localName = "R_GoaGaf2FileRecord_CmV-pf20rReEpG6Yzbq6d8NJ8GA";
+		assertSame(localName, KiaoUriFactory.encodeLocalName(localName));
+	}
+
+	/**
+	 * Compares the number of URIs created per second by the original and the current
+	 * implementation. The repository does not use JMH, so this benchmark is run as an (ignored)
+	 * unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkUrisPerSecond() {
+		Random random = new Random(0);
+		DataSource[] dataSources = DataSource.values();
+		List<DataSource> namespaces = new ArrayList<DataSource>();
+		List<String> localNames = new ArrayList<String>();
+		for (int i = 0; i < 1000000; i++) {
+			namespaces.add(dataSources[random.nextInt(dataSources.length)]);
+			switch (i % 4) {
+			case 0:
+				localNames.add("R_GoaGaf2FileRecord_" + Long.toString(random.nextLong(), 36));
+				break;
+			case 1:
+				localNames.add("F_GoaGaf2FileRecord_dbReference_" + Long.toString(random.nextLong(), 36));
+				break;
+			case 2:
+				localNames.add("GO:" + random.nextInt(10000000));
+				break;
+			default:
+				localNames.add(Integer.toString(random.nextInt(10000000)));
+			}
+		}
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			int legacyLength = 0;
+			for (int i = 0; i < localNames.size(); i++) {
+				legacyLength += legacyCreateKiaoUri(namespaces.get(i), localNames.get(i)).length();
+			}
+			long legacyTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			int length = 0;
+			for (int i = 0; i < localNames.size(); i++) {
+				length += RdfUtil.createKiaoUri(namespaces.get(i), localNames.get(i)).toString().length();
+			}
+			long time = System.nanoTime() - start;
+			assertEquals(legacyLength, length);
+			System.out.println(String.format("legacy: %,d URIs/s  current: %,d URIs/s", localNames.size()
+					* 1000000000L / legacyTime, localNames.size() * 1000000000L / time));
+		}
+	}
+
+	private static String createRandomLocalName(Random random) {
+		char[] chars = new char[random.nextInt(12)];
+		for (int i = 0; i < chars.length; i++) {
+			switch (random.nextInt(4)) {
+			case 0:
+				chars[i] = (char) random.nextInt(0x80);
+				break;
+			case 1:
+				chars[i] = (char) (0xd800 + random.nextInt(0x800));
+				break;
+			default:
+				chars[i] = (char) random.nextInt(0x10000);
+			}
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * The original implementation of {@link RdfUtil#createKiaoUri(DataSource, String)}
+	 */
+	private static String legacyCreateKiaoUri(DataSource targetNamespace, String localName) {
+		String baseUri = DataSource.KABOB.longName() + RdfPartition.IAO.toString().toLowerCase() + "/"
+				+ targetNamespace.lowerName() + "/";
+		return legacyCreateUri(baseUri, localName, targetNamespace.getLocalName());
+	}
+
+	/**
+	 * The original implementation of
+	 * {@link RdfUtil#createUriImpl(String, String, DataSource)}
+	 */
+	private static String legacyCreateUri(String baseNamespace, String localName, String dataSourceName) {
+		String encodedName = localName.replaceAll(":", "_");
+		try {
+			encodedName = URLEncoder.encode(encodedName, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new RuntimeException(e);
+		}
+		if (StringUtil.startsWithRegex(encodedName, "[0-9]")) {
+			encodedName = dataSourceName + "_" + encodedName;
+		}
+		return baseNamespace + encodedName;
+	}
+
+}
@@ -0,0 +1,207 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.model.URI;
+import org.openrdf.model.impl.BNodeImpl;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+import org.openrdf.model.vocabulary.XMLSchema;
+import org.openrdf.rio.RDFFormat;
+import org.openrdf.rio.RDFHandler;
+import org.openrdf.rio.RDFHandlerException;
+import org.openrdf.rio.Rio;
+
+/**
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class NTriplesStatementWriterTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String NS = "http://kabob.ucdenver.edu/iao/eg/";
+	private static final URI DENOTES = new URIImpl("http://purl.obolibrary.org/obo/IAO_0000219");
+
+	@Test
+	public void testMatchesRioOutput() throws Exception {
+		List<Statement> stmts = new ArrayList<Statement>();
+		URIImpl subject = new URIImpl(NS + "F_GeneId2NameDatFileData_geneName_0Bh5BTPeMidQDIVhcwyulDl43_w");
+		stmts.add(new StatementImpl(subject, DENOTES, new URIImpl(NS + "EG_111_ICE")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("ABC-1", "en")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("1", XMLSchema.INTEGER)));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("plain")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("quote \" backslash \\ tab \t cr \r lf \n")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("control \u0000 \u0008 \u000B \u000C \u001F \u007F")));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("non-ASCII \u00E9 \u03B2 \u4E2D \uFFFF",
+				XMLSchema.STRING)));
+		stmts.add(new StatementImpl(subject, DENOTES, new LiteralImpl("supplementary \uD835\uDC00")));
+		stmts.add(new StatementImpl(new URIImpl(NS + "\u00E9<escaped>\""), DENOTES, new BNodeImpl("node1")));
+		stmts.add(new StatementImpl(new BNodeImpl("node2"), DENOTES, new URIImpl(NS + "EG_567_ICE")));
+		assertArrayEquals(serializeWithRio(stmts), serialize(stmts, 1 << 16));
+	}
+
+	/**
+	 * Uses a small buffer so that statements and long literals span several flushes
+	 */
+	@Test
+	public void testMatchesRioOutputWithSmallBuffer() throws Exception {
+		List<Statement> stmts = createStatements(2000, new Random(0));
+		StringBuilder longLabel = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			longLabel.append("long literal \u00E9\n");
+		}
+		stmts.add(new StatementImpl(new URIImpl(NS + "R_1"), DENOTES, new LiteralImpl(longLabel.toString())));
+		assertArrayEquals(serializeWithRio(stmts), serialize(stmts, 100));
+	}
+
+	@Test
+	public void testComment() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		NTriplesStatementWriter writer = new NTriplesStatementWriter(Channels.newChannel(baos));
+		writer.startRDF();
+		writer.handleComment("a comment");
+		writer.handleNamespace("eg", NS);
+		writer.endRDF();
+		assertEquals("# a comment\n", new String(baos.toByteArray(), UTF_8));
+	}
+
+	/**
+	 * Compares the number of statements per second serialized by the Rio N-Triples writer (behind
+	 * the same BufferedWriter/OutputStreamWriter stack used by {@link RdfRecordWriterImpl}) and by
+	 * the {@link NTriplesStatementWriter}. The repository does not use JMH, so this benchmark is
+	 * run as an (ignored) unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkTriplesPerSecond() throws Exception {
+		List<Statement> stmts = createStatements(500000, new Random(0));
+		for (int round = 0; round < 5; round++) {
+			NullOutputStream rioOut = new NullOutputStream();
+			Writer writer = new BufferedWriter(new OutputStreamWriter(rioOut, UTF_8.newEncoder()));
+			long start = System.nanoTime();
+			write(Rio.createWriter(RDFFormat.NTRIPLES, writer), stmts);
+			writer.close();
+			long rioTime = System.nanoTime() - start;
+
+			NullOutputStream out = new NullOutputStream();
+			start = System.nanoTime();
+			write(new NTriplesStatementWriter(Channels.newChannel(out)), stmts);
+			long time = System.nanoTime() - start;
+
+			assertEquals(rioOut.byteCount, out.byteCount);
+			System.out.println(String.format("Rio: %,d triples/s  NTriplesStatementWriter: %,d triples/s",
+					stmts.size() * 1000000000L / rioTime, stmts.size() * 1000000000L / time));
+		}
+	}
+
+	private static byte[] serializeWithRio(List<Statement> stmts) throws IOException, RDFHandlerException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(baos, UTF_8);
+		write(Rio.createWriter(RDFFormat.NTRIPLES, writer), stmts);
+		writer.close();
+		return baos.toByteArray();
+	}
+
+	private static byte[] serialize(List<Statement> stmts, int bufferSize) throws RDFHandlerException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		write(new NTriplesStatementWriter(Channels.newChannel(baos), bufferSize), stmts);
+		return baos.toByteArray();
+	}
+
+	private static void write(RDFHandler handler, List<Statement> stmts) throws RDFHandlerException {
+		handler.startRDF();
+		for (Statement stmt : stmts) {
+			handler.handleStatement(stmt);
+		}
+		handler.endRDF();
+	}
+
+	/**
+	 * @return statements resembling those generated for Entrez Gene records
+	 */
+	private static List<Statement> createStatements(int recordCount, Random random) {
+		URI type = new URIImpl("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+		URI hasPart = new URIImpl("http://purl.obolibrary.org/obo/BFO_0000051");
+		URI fieldValue = new URIImpl("http://kabob.ucdenver.edu/iao/FieldValue");
+		List<Statement> stmts = new ArrayList<Statement>();
+		for (int i = 0; i < recordCount; i++) {
+			URIImpl recordUri = new URIImpl(NS + "R_GeneId2NameDatFileData_" + Long.toHexString(random.nextLong()));
+			URIImpl fieldUri = new URIImpl(NS + "F_GeneId2NameDatFileData_geneName_"
+					+ Long.toHexString(random.nextLong()));
+			stmts.add(new StatementImpl(recordUri, type, new URIImpl(NS + "GeneId2NameDatFileData")));
+			stmts.add(new StatementImpl(recordUri, hasPart, fieldUri));
+			stmts.add(new StatementImpl(fieldUri, type, fieldValue));
+			stmts.add(new StatementImpl(fieldUri, DENOTES, new LiteralImpl("gene name " + random.nextInt(100000)
+					+ ((i % 100 == 0) ? " \u03B2-\u00E9" : ""), "en")));
+			stmts.add(new StatementImpl(fieldUri, DENOTES, new LiteralImpl(Integer.toString(random.nextInt()),
+					XMLSchema.INTEGER)));
+		}
+		return stmts;
+	}
+
+	private static class NullOutputStream extends OutputStream {
+		private long byteCount = 0;
+
+		@Override
+		public void write(int b) {
+			byteCount++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			byteCount += len;
+		}
+	}
+
+}
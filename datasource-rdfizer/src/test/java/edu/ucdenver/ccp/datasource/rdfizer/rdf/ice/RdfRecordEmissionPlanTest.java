@@ -0,0 +1,203 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import edu.ucdenver.ccp.common.collections.CollectionsUtil;
+import edu.ucdenver.ccp.common.reflection.PrivateAccessor;
+import edu.ucdenver.ccp.datasource.fileparsers.DataRecord;
+import edu.ucdenver.ccp.datasource.fileparsers.Record;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordField;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordUtil;
+import edu.ucdenver.ccp.datasource.identifiers.DataSource;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordEmissionPlan.FieldPlan;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordUriFactory.IncludeVersion;
+
+/**
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class RdfRecordEmissionPlanTest {
+
+	@Record(dataSource = DataSource.KEGG)
+	public static class TestDataRecord implements DataRecord {
+		@RecordField
+		private final String stringField;
+		@RecordField(isKeyField = true)
+		private final int primitiveIntField;
+		@RecordField
+		private final SubRecord subRecordField;
+		@RecordField
+		private final Collection<SubRecord> subRecordCollectionField;
+
+		public TestDataRecord(String stringField, int primitiveIntField, SubRecord subRecordField,
+				Collection<SubRecord> subRecordCollectionField) {
+			super();
+			this.stringField = stringField;
+			this.primitiveIntField = primitiveIntField;
+			this.subRecordField = subRecordField;
+			this.subRecordCollectionField = subRecordCollectionField;
+		}
+	}
+
+	@Record(dataSource = DataSource.KEGG)
+	public static class SubRecord implements DataRecord {
+		@RecordField
+		private final String subStringField;
+
+		public SubRecord(String subStringField) {
+			super();
+			this.subStringField = subStringField;
+		}
+	}
+
+	@Test
+	public void testPlanIsCached() {
+		assertSame(RdfRecordEmissionPlan.getPlan(TestDataRecord.class),
+				RdfRecordEmissionPlan.getPlan(TestDataRecord.class));
+	}
+
+	@Test
+	public void testRecordLevelUris() {
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(TestDataRecord.class);
+		assertEquals(DataSource.KEGG, plan.getNamespace());
+		assertEquals("TestDataRecord", plan.getRecordClassSimpleName());
+		assertEquals(RdfRecordUriFactory.createRecordTypeUri(TestDataRecord.class), plan.getRecordTypeUri());
+		assertEquals(RdfRecordUriFactory.createRecordSchemaUri(TestDataRecord.class, IncludeVersion.YES),
+				plan.getRecordSchemaUri());
+		assertEquals(CollectionsUtil.createSet("F_TestDataRecord_primitiveIntField_"), plan.getKeyFieldUriPrefixes());
+	}
+
+	@Test
+	public void testFieldPlans() {
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(TestDataRecord.class);
+		List<String> fieldNames = new ArrayList<String>();
+		for (FieldPlan fieldPlan : plan.getSortedFields()) {
+			fieldNames.add(fieldPlan.getName());
+			assertEquals(
+					RdfRecordUriFactory.createDataFieldTemplateUri(TestDataRecord.class, fieldPlan.getName(),
+							IncludeVersion.YES), fieldPlan.getTemplateUri());
+			assertEquals("<" + fieldPlan.getTemplateUri().toString() + ">", fieldPlan.getTemplateUriNTriplesStr());
+		}
+		assertEquals(
+				Arrays.asList("primitiveIntField", "stringField", "subRecordCollectionField", "subRecordField"),
+				fieldNames);
+
+		assertFalse(plan.getFieldPlan("stringField").isSubRecord());
+		assertFalse(plan.getFieldPlan("primitiveIntField").isSubRecord());
+		assertTrue(plan.getFieldPlan("subRecordField").isSubRecord());
+		assertTrue(plan.getFieldPlan("subRecordCollectionField").isSubRecord());
+		assertTrue(plan.getFieldPlan("primitiveIntField").isKeyField());
+		assertFalse(plan.getFieldPlan("stringField").isKeyField());
+	}
+
+	@Test
+	public void testFieldValues() {
+		SubRecord subRecord = new SubRecord("sub");
+		List<SubRecord> subRecords = Arrays.asList(new SubRecord("a"), new SubRecord("b"));
+		TestDataRecord record = new TestDataRecord("string", 42, subRecord, subRecords);
+		RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(TestDataRecord.class);
+		assertEquals("string", plan.getFieldPlan("stringField").getValue(record));
+		assertEquals(Integer.valueOf(42), plan.getFieldPlan("primitiveIntField").getValue(record));
+		assertSame(subRecord, plan.getFieldPlan("subRecordField").getValue(record));
+		assertSame(subRecords, plan.getFieldPlan("subRecordCollectionField").getValue(record));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownFieldName() {
+		RdfRecordEmissionPlan.getPlan(TestDataRecord.class).getFieldPlan("notAField");
+	}
+
+	/**
+	 * Compares the per-record reflection that used to take place when emitting RDF (annotation scan,
+	 * sort, reflective field access) with the cached plan. Ignored by default as it is a throughput
+	 * measurement, not a unit test.
+	 */
+	@Ignore("throughput benchmark; run manually")
+	@Test
+	public void benchmarkFieldAccess() {
+		int recordCount = 200000;
+		List<TestDataRecord> records = new ArrayList<TestDataRecord>(recordCount);
+		for (int i = 0; i < recordCount; i++) {
+			records.add(new TestDataRecord("string" + i, i, new SubRecord("sub" + i), null));
+		}
+
+		int sink = 0;
+		long start = System.nanoTime();
+		for (TestDataRecord record : records) {
+			List<Field> fields = new ArrayList<Field>(RecordUtil.getFieldToRecordFieldAnnotationsMap(record.getClass())
+					.keySet());
+			Collections.sort(fields, new Comparator<Field>() {
+				@Override
+				public int compare(Field f1, Field f2) {
+					return f1.getName().compareTo(f2.getName());
+				}
+			});
+			for (Field field : fields) {
+				Object value = PrivateAccessor.getFieldValue(record, field.getName());
+				sink += (value == null) ? 0 : 1;
+			}
+		}
+		long reflectionNanos = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (TestDataRecord record : records) {
+			for (FieldPlan fieldPlan : RdfRecordEmissionPlan.getPlan(record.getClass()).getSortedFields()) {
+				Object value = fieldPlan.getValue(record);
+				sink += (value == null) ? 0 : 1;
+			}
+		}
+		long planNanos = System.nanoTime() - start;
+
+		System.out.println("Reflection: " + (recordCount * 1000000000L / reflectionNanos) + " records/s");
+		System.out.println("Emission plan: " + (recordCount * 1000000000L / planNanos) + " records/s");
+		assertTrue(sink > 0);
+	}
+
+}
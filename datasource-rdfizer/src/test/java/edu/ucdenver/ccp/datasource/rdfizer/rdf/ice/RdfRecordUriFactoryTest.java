@@ -34,15 +34,40 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
  */
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 import org.junit.Ignore;
 import org.junit.Test;
 import org.openrdf.model.impl.URIImpl;
 
+import edu.ucdenver.ccp.common.digest.DigestUtil;
 import edu.ucdenver.ccp.datasource.fileparsers.DataRecord;
 import edu.ucdenver.ccp.datasource.fileparsers.Record;
 import edu.ucdenver.ccp.datasource.fileparsers.RecordField;
+import edu.ucdenver.ccp.datasource.fileparsers.RecordUtil;
 import edu.ucdenver.ccp.datasource.identifiers.DataSource;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordEmissionPlan.FieldPlan;
+import edu.ucdenver.ccp.datasource.rdfizer.rdf.ice.RdfRecordUriFactory.IncludeVersion;
 
 /**
  * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
@@ -106,4 +131,230 @@ public class RdfRecordUriFactoryTest {
 		assertEquals(testRecordUri, testRecordWithSubRecordUri);
 	}
 
+	/**
+	 * Record and field URIs must not change as they are referenced by previously generated RDF
+	 */
+	@Test
+	public void testGoldenRecordAndFieldUris() {
+		TestDataRecord record = new TestDataRecord("string1", 2, null);
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/R_TestDataRecord_CmV_pf20rReEpG6Yzbq6d8NJ8GA",
+				RdfRecordUriFactory.createRecordUri(record).toString());
+		URIImpl fieldUri = RdfRecordUriFactory.createFieldUri(record,
+				RdfRecordEmissionPlan.getPlan(TestDataRecord.class).getFieldPlan("stringField"), "string1");
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/F_TestDataRecord_stringField_NF8a_Gl2D69ESHGIGPEwkVtDngw",
+				fieldUri.toString());
+	}
+
+	/**
+	 * Record schema and data field template URIs are cached per record class and field
+	 */
+	@Test
+	public void testCachedSchemaAndTemplateUris() {
+		URIImpl schemaUri = RdfRecordUriFactory.createRecordSchemaUri(TestDataRecord.class, IncludeVersion.YES);
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/TestDataRecordSchema1", schemaUri.toString());
+		assertSame(schemaUri, RdfRecordUriFactory.createRecordSchemaUri(TestDataRecord.class, IncludeVersion.YES));
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/TestDataRecordSchema",
+				RdfRecordUriFactory.createRecordSchemaUri(TestDataRecord.class, IncludeVersion.NO).toString());
+
+		URIImpl templateUri = RdfRecordUriFactory.createDataFieldTemplateUri(TestDataRecord.class, "stringField",
+				IncludeVersion.YES);
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/TestDataRecord_stringFieldDataField1", templateUri.toString());
+		assertSame(templateUri, RdfRecordUriFactory.createDataFieldTemplateUri(TestDataRecord.class, "stringField",
+				IncludeVersion.YES));
+		assertEquals("http://kabob.ucdenver.edu/iao/kegg/TestDataRecord_intFieldDataField", RdfRecordUriFactory
+				.createDataFieldTemplateUri(TestDataRecord.class, "intField", IncludeVersion.NO).toString());
+	}
+
+	/**
+	 * Populates an instance of every {@link Record} class in the datasource-fileparsers module with
+	 * synthetic field values and checks that the streamed record and field digests match digests
+	 * computed over the fully concatenated canonical strings.
+	 */
+	@Test
+	public void testStreamedDigestsMatchConcatenatedStringDigests() throws Exception {
+		int testedRecordCount = 0;
+		for (Class<?> recordClass : getFileParserRecordClasses()) {
+			Object record = createPopulatedRecord(recordClass);
+			if (record == null) {
+				continue;
+			}
+			assertEquals("Record digest mismatch for " + recordClass.getName(), getConcatenatedStringDigest(record),
+					RdfRecordUriFactory.sha1DigestForSortedFieldsAndValues(record));
+			RdfRecordEmissionPlan plan = RdfRecordEmissionPlan.getPlan(recordClass);
+			for (FieldPlan fieldPlan : plan.getSortedFields()) {
+				Object fieldValue = fieldPlan.getValue(record);
+				if (fieldValue == null || fieldPlan.isSubRecord()) {
+					continue;
+				}
+				Collection<?> values = (fieldValue instanceof Collection) ? (Collection<?>) fieldValue : Collections
+						.singleton(fieldValue);
+				for (Object value : values) {
+					String expectedDigest = DigestUtil.getBase64Sha1Digest(fieldPlan.getTemplateUriNTriplesStr()
+							+ RdfRecordUriFactory.getFieldValueUri(value));
+					URIImpl expectedUri = RdfUtil.createKiaoUri(plan.getNamespace(), "F_" + recordClass.getSimpleName()
+							+ "_" + fieldPlan.getName() + "_" + expectedDigest);
+					assertEquals(expectedUri, RdfRecordUriFactory.createFieldUri(record, fieldPlan, value));
+				}
+			}
+			testedRecordCount++;
+		}
+		assertTrue("Expected to test many record classes but tested: " + testedRecordCount, testedRecordCount > 25);
+	}
+
+	/**
+	 * @param record
+	 * @return the digest of the canonical field/value string built by concatenation, i.e. how
+	 *         record URI digests were originally computed
+	 */
+	private static String getConcatenatedStringDigest(Object record) {
+		StringBuffer buffer = new StringBuffer();
+		for (FieldPlan fieldPlan : RdfRecordEmissionPlan.getPlan(record.getClass()).getSortedFields()) {
+			Object fieldValue = fieldPlan.getValue(record);
+			if (fieldValue == null) {
+				continue;
+			}
+			Collection<?> values = (fieldValue instanceof Collection) ? (Collection<?>) fieldValue : Collections
+					.singleton(fieldValue);
+			List<String> valueUriStrs = new ArrayList<String>();
+			for (Object value : values) {
+				if (value != null) {
+					valueUriStrs.add(RdfRecordUriFactory.getFieldValueUri(value));
+				}
+			}
+			Collections.sort(valueUriStrs);
+			for (String valueUriStr : valueUriStrs) {
+				buffer.append(fieldPlan.getTemplateUriNTriplesStr() + valueUriStr);
+			}
+		}
+		return DigestUtil.getBase64Sha1Digest(buffer.toString());
+	}
+
+	/**
+	 * @return all concrete {@link Record}-annotated classes found in the same classpath location
+	 *         (directory or jar) as {@link RecordUtil}
+	 */
+	private static List<Class<?>> getFileParserRecordClasses() throws IOException, URISyntaxException {
+		File location = new File(RecordUtil.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		List<String> classNames = new ArrayList<String>();
+		if (location.isDirectory()) {
+			addClassNames(location, location, classNames);
+		} else {
+			JarFile jarFile = new JarFile(location);
+			try {
+				for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+					String name = entries.nextElement().getName();
+					if (name.endsWith(".class")) {
+						classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+					}
+				}
+			} finally {
+				jarFile.close();
+			}
+		}
+		Collections.sort(classNames);
+		List<Class<?>> recordClasses = new ArrayList<Class<?>>();
+		for (String className : classNames) {
+			Class<?> cls;
+			try {
+				cls = Class.forName(className, false, RecordUtil.class.getClassLoader());
+			} catch (Throwable t) {
+				continue;
+			}
+			if (cls.isAnnotationPresent(Record.class) && !cls.isInterface() && !Modifier.isAbstract(cls.getModifiers())
+					&& !RecordUtil.getFieldToRecordFieldAnnotationsMap(cls).isEmpty()) {
+				recordClasses.add(cls);
+			}
+		}
+		return recordClasses;
+	}
+
+	private static void addClassNames(File root, File directory, List<String> classNames) {
+		for (File file : directory.listFiles()) {
+			if (file.isDirectory()) {
+				addClassNames(root, file, classNames);
+			} else if (file.getName().endsWith(".class")) {
+				String path = file.getAbsolutePath().substring(root.getAbsolutePath().length() + 1);
+				classNames.add(path.substring(0, path.length() - 6).replace(File.separatorChar, '.'));
+			}
+		}
+	}
+
+	/**
+	 * @param recordClass
+	 * @return an instance of the record class with its simple-typed {@link RecordField} fields set
+	 *         to synthetic values, or null if the class could not be instantiated
+	 */
+	private static Object createPopulatedRecord(Class<?> recordClass) {
+		Object record = null;
+		Constructor<?>[] constructors = recordClass.getDeclaredConstructors();
+		Arrays.sort(constructors, new Comparator<Constructor<?>>() {
+			@Override
+			public int compare(Constructor<?> c1, Constructor<?> c2) {
+				return c1.getParameterTypes().length - c2.getParameterTypes().length;
+			}
+		});
+		for (Constructor<?> constructor : constructors) {
+			Class<?>[] paramTypes = constructor.getParameterTypes();
+			Object[] args = new Object[paramTypes.length];
+			for (int i = 0; i < paramTypes.length; i++) {
+				args[i] = paramTypes[i].isPrimitive() ? getSyntheticValue(paramTypes[i], i) : null;
+			}
+			try {
+				constructor.setAccessible(true);
+				record = constructor.newInstance(args);
+				break;
+			} catch (Throwable t) {
+				/* try the next constructor */
+			}
+		}
+		if (record == null) {
+			return null;
+		}
+		int index = 0;
+		for (Field field : RecordUtil.getFieldToRecordFieldAnnotationsMap(recordClass).keySet()) {
+			Object value = null;
+			if (Collection.class.isAssignableFrom(field.getType())
+					&& field.getGenericType() instanceof ParameterizedType
+					&& String.class.equals(((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0])) {
+				List<String> strs = Arrays.asList("value-b-" + index, "value-a-\u00e9-" + index);
+				value = Set.class.isAssignableFrom(field.getType()) ? new HashSet<String>(strs) : strs;
+			} else {
+				value = getSyntheticValue(field.getType(), index);
+			}
+			if (value != null) {
+				try {
+					field.setAccessible(true);
+					field.set(record, value);
+				} catch (Throwable t) {
+					/* leave the value set by the constructor */
+				}
+			}
+			index++;
+		}
+		return record;
+	}
+
+	private static Object getSyntheticValue(Class<?> type, int index) {
+		if (type.equals(String.class)) {
+			return "value \"" + index + "\" \u00e9\t\uD83D\uDE00";
+		} else if (type.equals(int.class) || type.equals(Integer.class)) {
+			return Integer.valueOf(index);
+		} else if (type.equals(long.class) || type.equals(Long.class)) {
+			return Long.valueOf(index);
+		} else if (type.equals(double.class) || type.equals(Double.class)) {
+			return Double.valueOf(index + 0.5);
+		} else if (type.equals(float.class) || type.equals(Float.class)) {
+			return Float.valueOf(index + 0.5f);
+		} else if (type.equals(boolean.class) || type.equals(Boolean.class)) {
+			return Boolean.valueOf(index % 2 == 0);
+		} else if (type.equals(short.class) || type.equals(Short.class)) {
+			return Short.valueOf((short) index);
+		} else if (type.equals(byte.class) || type.equals(Byte.class)) {
+			return Byte.valueOf((byte) index);
+		} else if (type.equals(char.class) || type.equals(Character.class)) {
+			return Character.valueOf('c');
+		}
+		return null;
+	}
+
 }
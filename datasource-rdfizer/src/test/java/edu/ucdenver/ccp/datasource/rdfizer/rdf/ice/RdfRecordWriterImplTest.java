@@ -33,10 +33,12 @@ package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
  * #L%
  */
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
@@ -53,6 +55,7 @@ import edu.ucdenver.ccp.common.file.FileComparisonUtil;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil.ColumnOrder;
 import edu.ucdenver.ccp.common.file.FileComparisonUtil.LineOrder;
 import edu.ucdenver.ccp.common.file.FileUtil;
+import edu.ucdenver.ccp.common.file.FileReaderUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.FileSuffixEnforcement;
 import edu.ucdenver.ccp.common.file.FileWriterUtil.WriteMode;
@@ -153,6 +156,40 @@ public class RdfRecordWriterImplTest extends DefaultTestCase {
 				CharacterEncoding.UTF_8, expectedLines, null, LineOrder.ANY_ORDER, ColumnOrder.AS_IN_FILE));
 	}
 
+	/**
+	 * Tests that the output is split into files of at most maxStatementsPerFile statements and that
+	 * each file is complete (the previous file is closed when the output file index rolls over)
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testWriteRdf_MaxStatementsPerFile() throws IOException {
+		GeneId2NameDatFileParser parser = new GeneId2NameDatFileParser(geneId2NameDatFile);
+		RdfRecordWriterImpl<GeneId2NameDatFileParser> recordWriter = new RdfRecordWriterImpl<GeneId2NameDatFileParser>(
+				outputDirectory, RdfFormat.NTRIPLES, true, 10, 0, new SimpleDuplicateTripleFilter());
+		long createdTimeInMillis20101217 = new GregorianCalendar(2010, 11, 17).getTimeInMillis();
+		recordWriter.processRecordReader(parser, createdTimeInMillis20101217);
+
+		List<String> lines = new ArrayList<String>();
+		int fileIndex = 0;
+		File zippedOutputFile;
+		while ((zippedOutputFile = FileUtil.appendPathElementsToDirectory(outputDirectory,
+				"eg-GeneId2NameDatFileParser." + fileIndex + "-0.nt.gz")).exists()) {
+			List<String> fileLines = FileReaderUtil.loadLinesFromFile(FileArchiveUtil.gunzipFile(zippedOutputFile),
+					CharacterEncoding.UTF_8);
+			assertTrue("Output file should contain at most 10 statements: " + fileLines.size(), fileLines.size() <= 10);
+			lines.addAll(fileLines);
+			fileIndex++;
+		}
+		List<String> expectedLines = getExpectedLines();
+		assertEquals("Output should be split into 10 statement files.", (expectedLines.size() + 9) / 10, fileIndex);
+		File outputFile = folder.newFile("combined.nt");
+		FileWriterUtil.printLines(lines, outputFile, CharacterEncoding.UTF_8, WriteMode.OVERWRITE,
+				FileSuffixEnforcement.OFF);
+		assertTrue("N-Triple Lines should be as expected.", FileComparisonUtil.hasExpectedLines(outputFile,
+				CharacterEncoding.UTF_8, expectedLines, null, LineOrder.ANY_ORDER, ColumnOrder.AS_IN_FILE));
+	}
+
 	/**
 	 * Tests that setting the output record limit works as expected by capping the number of records
 	 * output
@@ -173,6 +210,32 @@ public class RdfRecordWriterImplTest extends DefaultTestCase {
 				CharacterEncoding.UTF_8, expectedLines, null, LineOrder.ANY_ORDER, ColumnOrder.AS_IN_FILE));
 	}
 
+	/**
+	 * The pipelined mode must produce exactly the same lines, in the same order, as sequential
+	 * processing
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void testWriteRdf_Pipelined() throws IOException {
+		long createdTimeInMillis20101217 = new GregorianCalendar(2010, 11, 17).getTimeInMillis();
+		File sequentialOutputDirectory = folder.newFolder("sequential");
+		new RdfRecordWriterImpl<GeneId2NameDatFileParser>(sequentialOutputDirectory, RdfFormat.NTRIPLES)
+				.processRecordReader(new GeneId2NameDatFileParser(geneId2NameDatFile), createdTimeInMillis20101217, 0,
+						-1);
+		new RdfRecordWriterImpl<GeneId2NameDatFileParser>(outputDirectory, RdfFormat.NTRIPLES).processRecordReader(
+				new GeneId2NameDatFileParser(geneId2NameDatFile), createdTimeInMillis20101217, 0, -1, 4);
+
+		File outputFile = FileUtil.appendPathElementsToDirectory(outputDirectory, expectedOutputFileName);
+		assertTrue("Output file should have been created.", outputFile.exists());
+		List<String> expectedLines = FileReaderUtil.loadLinesFromFile(
+				FileUtil.appendPathElementsToDirectory(sequentialOutputDirectory, expectedOutputFileName),
+				CharacterEncoding.UTF_8);
+		assertEquals(expectedLines, FileReaderUtil.loadLinesFromFile(outputFile, CharacterEncoding.UTF_8));
+		assertTrue("N-Triple Lines should be as expected.", FileComparisonUtil.hasExpectedLines(outputFile,
+				CharacterEncoding.UTF_8, getExpectedLines(), null, LineOrder.ANY_ORDER, ColumnOrder.AS_IN_FILE));
+	}
+
 	private List<String> getExpectedLines() {
 
 		return CollectionsUtil
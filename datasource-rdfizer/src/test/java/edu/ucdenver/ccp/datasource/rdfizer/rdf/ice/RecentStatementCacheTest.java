@@ -0,0 +1,199 @@
+package edu.ucdenver.ccp.datasource.rdfizer.rdf.ice;
+
+/*
+ * #%L
+ * Colorado Computational Pharmacology's common module
+ * %%
+ * Copyright (C) 2012 - 2015 Regents of the University of Colorado
+ * %%
+ * Redistribution and use in source and binary forms, with or without modification,
+ * are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * 3. Neither the name of the Regents of the University of Colorado nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software without
+ *    specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED.
+ * IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.openrdf.model.Statement;
+import org.openrdf.model.impl.LiteralImpl;
+import org.openrdf.model.impl.StatementImpl;
+import org.openrdf.model.impl.URIImpl;
+
+/**
+ * Compares the {@link RecentStatementCache} used by {@link RdfRecordWriterImpl} to the string-based
+ * rolling cache it replaced.
+ * 
+ * @author Colorado Computational Pharmacology, UC Denver; ccpsupport@ucdenver.edu
+ * 
+ */
+public class RecentStatementCacheTest {
+
+	private static final String NS = "http://kabob.ucdenver.edu/iao/goa/";
+	private static final URIImpl RDF_TYPE = new URIImpl("http://www.w3.org/1999/02/22-rdf-syntax-ns#type");
+	private static final URIImpl HAS_PART = new URIImpl("http://purl.obolibrary.org/obo/BFO_0000051");
+	private static final URIImpl DENOTES = new URIImpl("http://purl.obolibrary.org/obo/IAO_0000219");
+	private static final String[] FIELD_NAMES = new String[] { "databaseObjectID", "goID", "evidenceCode", "date" };
+	private static final Set<String> KEY_FIELD_NAMES = new HashSet<String>(
+			Arrays.asList("F_GoaGaf2FileRecord_databaseObjectID_"));
+
+	@Test
+	public void testContainsOrAdd() {
+		RecentStatementCache cache = new RecentStatementCache(2);
+		Statement s1 = new StatementImpl(new URIImpl(NS + "R_1"), RDF_TYPE, new URIImpl(NS + "Record"));
+		Statement s2 = new StatementImpl(new URIImpl(NS + "R_2"), RDF_TYPE, new URIImpl(NS + "Record"));
+		Statement s3 = new StatementImpl(new URIImpl(NS + "R_3"), RDF_TYPE, new URIImpl(NS + "Record"));
+		assertFalse(cache.containsOrAdd(s1));
+		assertTrue(cache.containsOrAdd(s1));
+		assertTrue("equal statements are matched",
+				cache.containsOrAdd(new StatementImpl(new URIImpl(NS + "R_1"), RDF_TYPE, new URIImpl(NS + "Record"))));
+		assertFalse(cache.containsOrAdd(s2));
+		assertFalse("evicts s1", cache.containsOrAdd(s3));
+		assertEquals(2, cache.size());
+		assertFalse(cache.containsOrAdd(s1));
+		assertTrue(cache.containsOrAdd(s3));
+	}
+
+	@Test
+	public void testMatchesLegacyRollingCache() {
+		List<Statement> statements = createStatements(200000, new Random(0));
+		LegacyRollingCache legacyCache = new LegacyRollingCache(1000);
+		RecentStatementCache cache = new RecentStatementCache(1000);
+		for (Statement stmt : statements) {
+			assertEquals(stmt.toString(), legacyCache.contains(stmt), cache.containsOrAdd(stmt));
+		}
+	}
+
+	/**
+	 * Compares the time spent by the legacy and the current rolling cache and key field check on
+	 * the statement sequence produced by GOA-like records. The repository does not use JMH, so
+	 * this benchmark is run as an (ignored) unit test.
+	 */
+	@Ignore("benchmark")
+	@Test
+	public void benchmarkWritePathChecks() {
+		List<Statement> statements = createStatements(500000, new Random(0));
+		for (int round = 0; round < 5; round++) {
+			LegacyRollingCache legacyCache = new LegacyRollingCache(1000);
+			long start = System.nanoTime();
+			int legacyCount = 0;
+			for (Statement stmt : statements) {
+				if (KeyFieldUriMatcherTest.legacyNeedToCheckFilter(stmt.getSubject(), KEY_FIELD_NAMES)
+						& !legacyCache.contains(stmt)) {
+					legacyCount++;
+				}
+			}
+			long legacyTime = System.nanoTime() - start;
+
+			RecentStatementCache cache = new RecentStatementCache(1000);
+			KeyFieldUriMatcher matcher = new KeyFieldUriMatcher(KEY_FIELD_NAMES);
+			start = System.nanoTime();
+			int count = 0;
+			for (Statement stmt : statements) {
+				if (!matcher.isKeyFieldUri(stmt.getSubject()) & !cache.containsOrAdd(stmt)) {
+					count++;
+				}
+			}
+			long time = System.nanoTime() - start;
+			assertEquals(legacyCount, count);
+			System.out.println(String.format("legacy: %,d ms  current: %,d ms", legacyTime / 1000000,
+					time / 1000000));
+		}
+	}
+
+	/**
+	 * @return statements that resemble those generated for GOA records: each record links to its
+	 *         field values and each field value is the subject of type and denotes statements that
+	 *         share the same subject instance. Field values are drawn from skewed distributions so
+	 *         that many repeat within the rolling cache window.
+	 */
+	static List<Statement> createStatements(int recordCount, Random random) {
+		List<Statement> statements = new ArrayList<Statement>();
+		for (int record = 0; record < recordCount; record++) {
+			URIImpl recordUri = new URIImpl(NS + "R_GoaGaf2FileRecord_" + digest(random.nextLong()));
+			statements.add(new StatementImpl(recordUri, RDF_TYPE, new URIImpl(NS + "GoaGaf2FileRecord")));
+			for (String fieldName : FIELD_NAMES) {
+				String value = Integer.toString((int) Math.abs(random.nextGaussian() * 500));
+				URIImpl fieldUri = new URIImpl(NS + "F_GoaGaf2FileRecord_" + fieldName + "_" + digest(value.hashCode()));
+				statements.add(new StatementImpl(recordUri, HAS_PART, fieldUri));
+				statements.add(new StatementImpl(fieldUri, RDF_TYPE, new URIImpl(NS + "GoaGaf2FileRecord_" + fieldName)));
+				statements.add(new StatementImpl(fieldUri, DENOTES, new LiteralImpl(value)));
+			}
+		}
+		return statements;
+	}
+
+	/**
+	 * @return a 27 character string resembling a URL-safe base64 encoded SHA-1 digest
+	 */
+	private static String digest(long seed) {
+		Random random = new Random(seed);
+		char[] alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+		char[] digest = new char[KeyFieldUriMatcher.DIGEST_LENGTH];
+		for (int i = 0; i < digest.length; i++) {
+			digest[i] = alphabet[random.nextInt(alphabet.length)];
+		}
+		return new String(digest);
+	}
+
+	/**
+	 * the rolling cache previously used by {@link RdfRecordWriterImpl}
+	 */
+	private static class LegacyRollingCache {
+		private final int maxSize;
+		private final Set<String> rollingCacheSet = new HashSet<String>();
+		private final LinkedList<String> rollingCacheList = new LinkedList<String>();
+
+		public LegacyRollingCache(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public boolean contains(Statement stmt) {
+			String stmtStr = stmt.toString();
+			if (rollingCacheSet.contains(stmtStr)) {
+				return true;
+			}
+			int currentSize = rollingCacheList.size();
+			if (currentSize >= maxSize) {
+				String removed = rollingCacheList.removeLast();
+				rollingCacheSet.remove(removed);
+			}
+			rollingCacheSet.add(stmtStr);
+			rollingCacheList.addFirst(stmtStr);
+			return false;
+		}
+	}
+
+}